@@ -33,18 +33,26 @@
  */
 package net.imglib2.algorithm.binary;
 
-import java.util.Vector;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import net.imglib2.Cursor;
+import net.imglib2.Dimensions;
+import net.imglib2.Interval;
 import net.imglib2.RandomAccess;
+import net.imglib2.algorithm.util.Grids;
+import net.imglib2.algorithm.util.ParallelizeOverBlocks;
+import net.imglib2.algorithm.util.SequentialExecutorService;
 import net.imglib2.converter.Converter;
 import net.imglib2.exception.IncompatibleTypeException;
 import net.imglib2.img.Img;
 import net.imglib2.img.ImgFactory;
-import net.imglib2.multithreading.Chunk;
-import net.imglib2.multithreading.SimpleMultiThreading;
 import net.imglib2.type.Type;
 import net.imglib2.type.logic.BitType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
 
 /**
  * Collection of static utilities meant to generate {@link BitType} images from
@@ -55,6 +63,8 @@ import net.imglib2.type.logic.BitType;
 public class Thresholder
 {
 
+	private static final int BLOCK_SIZE = 1 << 16;
+
 	/**
 	 * Returns a new boolean {@link Img} generated by thresholding the values of
 	 * the source image.
@@ -72,6 +82,39 @@ public class Thresholder
 	 *         that the source image.
 	 */
 	public static final < T extends Type< T > & Comparable< T >> Img< BitType > threshold( final Img< T > source, final T threshold, final boolean above, final int numThreads )
+	{
+		final ExecutorService service = numThreads <= 1 ? new SequentialExecutorService() : Executors.newFixedThreadPool( numThreads );
+		try
+		{
+			return threshold( source, threshold, above, service );
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+
+	/**
+	 * Returns a new boolean {@link Img} generated by thresholding the values of
+	 * the source image.
+	 * <p>
+	 * The image is processed in blocks of whole lines, one task per block, so
+	 * that the blocks are balanced over the threads of the
+	 * {@link ExecutorService}.
+	 *
+	 * @param source
+	 *            the image to threshold.
+	 * @param threshold
+	 *            the threshold.
+	 * @param above
+	 *            if {@code true}, the target value will be true for source
+	 *            values above the threshold, {@code false} otherwise.
+	 * @param service
+	 *            the {@link ExecutorService} to use for thresholding.
+	 * @return a new {@link Img} of type {@link BitType} and of same dimension
+	 *         that the source image.
+	 */
+	public static final < T extends Type< T > & Comparable< T >> Img< BitType > threshold( final Img< T > source, final T threshold, final boolean above, final ExecutorService service )
 	{
 		final ImgFactory< T > factory = source.factory();
 		try
@@ -103,58 +146,29 @@ public class Thresholder
 				};
 			}
 
-			final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( target.size(), numThreads );
-			final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-
-			if ( target.iterationOrder().equals( source.iterationOrder() ) )
-			{
-				for ( int i = 0; i < threads.length; i++ )
+			final List< Interval > blocks = Grids.collectAllContainedIntervals( Intervals.dimensionsAsLongArray( target ), blockSize( target ) );
+			final boolean sameIterationOrder = target.iterationOrder().equals( source.iterationOrder() );
+			ParallelizeOverBlocks.parallelizeAndWait( block -> {
+				if ( sameIterationOrder )
 				{
-					final Chunk chunk = chunks.get( i );
-					threads[ i ] = new Thread( "Thresholder thread " + i )
-					{
-						@Override
-						public void run()
-						{
-							final Cursor< BitType > cursorTarget = target.cursor();
-							cursorTarget.jumpFwd( chunk.getStartPosition() );
-							final Cursor< T > cursorSource = source.cursor();
-							cursorSource.jumpFwd( chunk.getStartPosition() );
-							for ( long steps = 0; steps < chunk.getLoopSize(); steps++ )
-							{
-								cursorTarget.fwd();
-								cursorSource.fwd();
-								converter.convert( cursorSource.get(), cursorTarget.get() );
-							}
-						}
-					};
+					final Cursor< T > cursorSource = Views.flatIterable( Views.interval( source, block ) ).cursor();
+					final Cursor< BitType > cursorTarget = Views.flatIterable( Views.interval( target, block ) ).cursor();
+					while ( cursorTarget.hasNext() )
+						converter.convert( cursorSource.next(), cursorTarget.next() );
 				}
-			}
-			else
-			{
-				for ( int i = 0; i < threads.length; i++ )
+				else
 				{
-					final Chunk chunk = chunks.get( i );
-					threads[ i ] = new Thread( "Thresholder thread " + i )
+					final Cursor< BitType > cursorTarget = Views.flatIterable( Views.interval( target, block ) ).localizingCursor();
+					final RandomAccess< T > ra = source.randomAccess( block );
+					while ( cursorTarget.hasNext() )
 					{
-						@Override
-						public void run()
-						{
-							final Cursor< BitType > cursorTarget = target.cursor();
-							cursorTarget.jumpFwd( chunk.getStartPosition() );
-							final RandomAccess< T > ra = source.randomAccess( target );
-							for ( long steps = 0; steps < chunk.getLoopSize(); steps++ )
-							{
-								cursorTarget.fwd();
-								ra.setPosition( cursorTarget );
-								converter.convert( ra.get(), cursorTarget.get() );
-							}
-						}
-					};
+						cursorTarget.fwd();
+						ra.setPosition( cursorTarget );
+						converter.convert( ra.get(), cursorTarget.get() );
+					}
 				}
-			}
-
-			SimpleMultiThreading.startAndJoin( threads );
+				return null;
+			}, blocks, service, blocks.size() );
 			return target;
 		}
 		catch ( final IncompatibleTypeException e )
@@ -162,6 +176,29 @@ public class Thresholder
 			e.printStackTrace();
 			return null;
 		}
+		catch ( final InterruptedException | ExecutionException e )
+		{
+			final Throwable cause = e.getCause();
+			if ( cause instanceof RuntimeException )
+				throw ( RuntimeException ) cause;
+			throw new RuntimeException( e );
+		}
+	}
+
+	/**
+	 * Blocks of whole lines along the first dimensions, of about
+	 * {@link #BLOCK_SIZE} pixels.
+	 */
+	private static int[] blockSize( final Dimensions dimensions )
+	{
+		final int[] blockSize = new int[ dimensions.numDimensions() ];
+		long remaining = BLOCK_SIZE;
+		for ( int d = 0; d < blockSize.length; d++ )
+		{
+			blockSize[ d ] = ( int ) Math.max( 1, Math.min( dimensions.dimension( d ), remaining ) );
+			remaining = Math.max( 1, remaining / blockSize[ d ] );
+		}
+		return blockSize;
 	}
 
 }
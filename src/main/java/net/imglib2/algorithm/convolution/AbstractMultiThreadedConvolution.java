@@ -6,6 +6,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.util.SequentialExecutorService;
 
 /**
  * Abstract class to help implementing a Convolution, that is multi threaded
@@ -58,6 +59,8 @@ public abstract class AbstractMultiThreadedConvolution< T > implements Convoluti
 
 	static int getNumThreads( final ExecutorService executor )
 	{
+		if ( executor instanceof SequentialExecutorService )
+			return 1;
 		int maxPoolSize = ( executor instanceof ThreadPoolExecutor ) ?
 				( ( ThreadPoolExecutor ) executor ).getMaximumPoolSize() :
 				Integer.MAX_VALUE;
@@ -66,4 +66,24 @@ public interface Convolution< T >
 			return steps.get( 0 );
 		return new Concatenation<>( steps );
 	}
+
+	/**
+	 * Cache-blocked execution of a {@link Convolution}: The target image is
+	 * split into blocks of size {@code blockSize} that are processed
+	 * independently and in parallel. Applied to a {@link #concat}enation, all
+	 * steps run back to back on block sized intermediate images instead of
+	 * full size images. This reduces peak memory to roughly the number of
+	 * threads times the block size and improves cache reuse, if the blocks
+	 * fit into the cache, e.g. {@code 64 x 64 x 64} for 3d images. The
+	 * border of each block is recomputed for every step, i.e. small blocks
+	 * increase the total amount of computation.
+	 * <p>
+	 * Note that {@code convolution} will be executed single threaded within
+	 * each block and should not be used other than through the returned
+	 * {@link Convolution}.
+	 */
+	static < T > Convolution< T > tiled( final Convolution< T > convolution, final int... blockSize )
+	{
+		return new TiledConvolution<>( convolution, blockSize );
+	}
 }
@@ -0,0 +1,372 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.imglib2.Cursor;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.convolution.fast_gauss.FastGauss;
+import net.imglib2.algorithm.convolution.fft.FFTConvolution;
+import net.imglib2.algorithm.convolution.kernel.Kernel1D;
+import net.imglib2.algorithm.convolution.kernel.KernelCache;
+import net.imglib2.algorithm.convolution.kernel.KernelConvolverFactory;
+import net.imglib2.algorithm.convolution.kernel.LineBufferConvolverFactory;
+import net.imglib2.algorithm.gauss3.Gauss3;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+/**
+ * Chooses between the available implementations of the gaussian blur:
+ * <ul>
+ * <li>{@link Engine#DIRECT}: separable direct summation with the kernel of
+ * {@link Gauss3}, exactly what {@link Gauss3#gauss} computes. The cost grows
+ * linearly with sigma.</li>
+ * <li>{@link Engine#LINE_BUFFER}: same as {@link Engine#DIRECT}, using
+ * {@link LineBufferConvolverFactory}.</li>
+ * <li>{@link Engine#FAST_GAUSS}: {@link FastGauss}, an approximation whose
+ * cost is independent of sigma.</li>
+ * <li>{@link Engine#FFT}: {@link FFTConvolution} with the kernel of
+ * {@link Gauss3}. The cost grows logarithmically with the kernel size, but
+ * the kernel is not separated.</li>
+ * </ul>
+ * The static methods choose based on a simple cost model: the estimated number
+ * of floating point operations per target pixel.
+ * <p>
+ * An instance of {@link GaussPlanner} additionally
+ * <ul>
+ * <li>only considers engines whose result differs from {@link Gauss3} by at
+ * most a given tolerance, relative to the maximum of the kernel, see
+ * {@link #estimateError(Engine, double)},</li>
+ * <li>optionally measures the runtime of the candidates instead of using the
+ * cost model, and</li>
+ * <li>caches the winning engine per pixel type, sigma (in steps of a quarter
+ * octave), image size (in steps of powers of two) and whether the kernel fits
+ * into the memory budget of {@link FFTConvolution} in a lookup table, such
+ * that planning is cheap for repeated calls.</li>
+ * </ul>
+ * Instances are thread-safe.
+ */
+public class GaussPlanner
+{
+
+	public enum Engine
+	{
+		DIRECT, LINE_BUFFER, FAST_GAUSS, FFT
+	}
+
+	/**
+	 * Operations per pixel and dimension of {@link FastGauss}.
+	 */
+	private static final double FAST_GAUSS_COST = 24;
+
+	/**
+	 * Operations per complex element and radix-2 pass of the FFT: one
+	 * butterfly (10 operations) per two elements.
+	 */
+	private static final double FFT_PASS_COST = 5;
+
+	/**
+	 * Operations per complex element for loading, complex multiplication and
+	 * storing.
+	 */
+	private static final double FFT_ELEMENT_COST = 8;
+
+	/**
+	 * Line buffered direct summation avoids most of the per pixel overhead.
+	 */
+	private static final double LINE_BUFFER_SPEEDUP = 0.5;
+
+	private static final Map< List< Object >, Double > errors = new ConcurrentHashMap<>();
+
+	private final double tolerance;
+
+	private final boolean benchmark;
+
+	private final Map< List< Object >, Engine > lookupTable = new ConcurrentHashMap<>();
+
+	/**
+	 * {@link GaussPlanner} that uses the cost model and accepts a difference
+	 * of {@code 1e-3} relative to the maximum of the kernel.
+	 */
+	public GaussPlanner()
+	{
+		this( 1e-3, false );
+	}
+
+	/**
+	 * @param tolerance
+	 *            Maximal difference to {@link Gauss3}, relative to the
+	 *            maximum of the kernel. Use 0 to only allow exact engines.
+	 * @param benchmark
+	 *            If {@code true}, the runtime of the candidates is measured on
+	 *            a block of size at most {@code 64^n} once per entry of the
+	 *            lookup table. Otherwise the cost model is used.
+	 */
+	public GaussPlanner( final double tolerance, final boolean benchmark )
+	{
+		this.tolerance = tolerance;
+		this.benchmark = benchmark;
+	}
+
+	/**
+	 * @return The fastest {@link Engine} within the error tolerance, as
+	 *         stored in the lookup table.
+	 */
+	public Engine choose( final double[] sigma, final RealType< ? > type, final long[] targetDimensions )
+	{
+		final List< Object > key = new ArrayList<>();
+		key.add( type.getClass() );
+		for ( final double s : sigma )
+			key.add( ( int ) Math.round( 4 * Math.log( s ) / Math.log( 2 ) ) );
+		for ( final long dimension : targetDimensions )
+			key.add( 63 - Long.numberOfLeadingZeros( dimension ) );
+		// FFT may only be feasible for some sigmas of a quarter octave
+		key.add( estimateCost( Engine.FFT, sigma, targetDimensions ) < Double.POSITIVE_INFINITY );
+		return lookupTable.computeIfAbsent( key, k -> chooseUncached( sigma, type, targetDimensions ) );
+	}
+
+	private Engine chooseUncached( final double[] sigma, final RealType< ? > type, final long[] targetDimensions )
+	{
+		Engine best = Engine.DIRECT;
+		double bestCost = Double.POSITIVE_INFINITY;
+		for ( final Engine engine : Engine.values() )
+		{
+			double error = 0;
+			for ( final double s : sigma )
+				error += estimateError( engine, s );
+			if ( engine != Engine.DIRECT && error > tolerance )
+				continue;
+			if ( estimateCost( engine, sigma, targetDimensions ) == Double.POSITIVE_INFINITY )
+				continue;
+			final double cost = benchmark ?
+					measureTime( engine, sigma, type, targetDimensions ) :
+					estimateCost( engine, sigma, targetDimensions );
+			if ( cost < bestCost )
+			{
+				best = engine;
+				bestCost = cost;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return {@link Convolution} that computes the gaussian blur for
+	 *         {@code targetInterval} and pixel type {@code type} with the
+	 *         fastest engine within the error tolerance.
+	 */
+	public Convolution< RealType< ? > > plan( final double[] sigma, final RealType< ? > type, final Interval targetInterval )
+	{
+		return convolution( choose( sigma, type, Intervals.dimensionsAsLongArray( targetInterval ) ), sigma );
+	}
+
+	/**
+	 * Gaussian blur of {@code source} with the fastest engine within the
+	 * error tolerance.
+	 */
+	public void gauss( final double[] sigma, final RandomAccessible< ? extends RealType< ? > > source, final RandomAccessibleInterval< ? extends RealType< ? > > target )
+	{
+		plan( sigma, Util.getTypeFromInterval( target ), target ).process( source, target );
+	}
+
+	/**
+	 * @return Estimated number of operations per target pixel for a gaussian
+	 *         blur with {@code sigma} of an image of size
+	 *         {@code targetDimensions} using {@code engine}, or
+	 *         {@link Double#POSITIVE_INFINITY} if the engine cannot be used.
+	 */
+	public static double estimateCost( final Engine engine, final double[] sigma, final long[] targetDimensions )
+	{
+		final int[] halfKernelSizes = Gauss3.halfkernelsizes( sigma );
+		switch ( engine )
+		{
+		case DIRECT:
+		case LINE_BUFFER:
+		{
+			double cost = 0;
+			for ( final int halfKernelSize : halfKernelSizes )
+				cost += 2 * ( 2 * halfKernelSize - 1 );
+			return engine == Engine.LINE_BUFFER ? LINE_BUFFER_SPEEDUP * cost : cost;
+		}
+		case FAST_GAUSS:
+			return FAST_GAUSS_COST * sigma.length;
+		case FFT:
+		{
+			final long[] kernelDimensions = new long[ sigma.length ];
+			double kernelSize = 1;
+			for ( int d = 0; d < sigma.length; d++ )
+			{
+				kernelDimensions[ d ] = 2 * halfKernelSizes[ d ] - 1;
+				kernelSize *= kernelDimensions[ d ];
+			}
+			// FFTConvolution rejects kernels larger than its memory budget
+			if ( kernelSize > FFTConvolution.DEFAULT_MAX_NUM_ELEMENTS )
+				return Double.POSITIVE_INFINITY;
+			final int[] fftSize = FFTConvolution.fftSize( kernelDimensions, targetDimensions, FFTConvolution.DEFAULT_MAX_NUM_ELEMENTS );
+			double numPasses = 0;
+			double overhead = 1;
+			for ( int d = 0; d < sigma.length; d++ )
+			{
+				numPasses += Integer.numberOfTrailingZeros( fftSize[ d ] );
+				final long tileSize = Math.min( targetDimensions[ d ], fftSize[ d ] - kernelDimensions[ d ] + 1 );
+				overhead *= ( double ) fftSize[ d ] / tileSize;
+			}
+			return overhead * ( 2 * FFT_PASS_COST * numPasses + FFT_ELEMENT_COST );
+		}
+		default:
+			throw new IllegalArgumentException( "Unknown engine: " + engine );
+		}
+	}
+
+	/**
+	 * @return The {@link Engine} with the lowest estimated cost, regardless of
+	 *         its error.
+	 */
+	public static Engine choose( final double[] sigma, final long[] targetDimensions )
+	{
+		Engine best = Engine.DIRECT;
+		double bestCost = Double.POSITIVE_INFINITY;
+		for ( final Engine engine : Engine.values() )
+		{
+			final double cost = estimateCost( engine, sigma, targetDimensions );
+			if ( cost < bestCost )
+			{
+				best = engine;
+				bestCost = cost;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Maximal difference between the one-dimensional impulse responses of
+	 * {@code engine} and {@link Gauss3} (in double precision), relative to the
+	 * maximum of the kernel. The result is measured once and cached per
+	 * engine and sigma.
+	 */
+	public static double estimateError( final Engine engine, final double sigma )
+	{
+		if ( engine == Engine.DIRECT )
+			return 0;
+		return errors.computeIfAbsent( Arrays.asList( engine, sigma ), k -> {
+			final double[] halfKernel = Gauss3.halfkernels( new double[] { sigma } )[ 0 ];
+			final int size = 2 * halfKernel.length - 1;
+			final Img< DoubleType > impulse = ArrayImgs.doubles( 1 );
+			impulse.firstElement().set( 1 );
+			final Img< DoubleType > response = ArrayImgs.doubles( size );
+			convolution( engine, new double[] { sigma } ).process(
+					Views.extendZero( impulse ),
+					Views.translate( response, -( halfKernel.length - 1 ) ) );
+			final Cursor< DoubleType > cursor = response.localizingCursor();
+			double error = 0;
+			while ( cursor.hasNext() )
+			{
+				final double actual = cursor.next().get();
+				final double expected = halfKernel[ Math.abs( cursor.getIntPosition( 0 ) - ( halfKernel.length - 1 ) ) ];
+				error = Math.max( error, Math.abs( actual - expected ) );
+			}
+			return error / halfKernel[ 0 ];
+		} );
+	}
+
+	private static double measureTime( final Engine engine, final double[] sigma, final RealType< ? > type, final long[] targetDimensions )
+	{
+		final long[] dimensions = new long[ targetDimensions.length ];
+		Arrays.setAll( dimensions, d -> Math.min( targetDimensions[ d ], 64 ) );
+		final Img< ? extends RealType< ? > > image;
+		if ( type instanceof DoubleType )
+			image = ArrayImgs.doubles( dimensions );
+		else
+			image = ArrayImgs.floats( dimensions );
+		final Random random = new Random( 42 );
+		image.forEach( pixel -> pixel.setReal( random.nextDouble() ) );
+		final Convolution< RealType< ? > > convolution = convolution( engine, sigma );
+		final RandomAccessible< ? extends RealType< ? > > source = Views.extendBorder( image );
+		final Img< ? extends RealType< ? > > target = image.factory().create( dimensions );
+		long best = Long.MAX_VALUE;
+		for ( int i = 0; i < 4; i++ )
+		{
+			final long start = System.nanoTime();
+			convolution.process( source, target );
+			// NB: the first run is warm-up
+			if ( i > 0 )
+				best = Math.min( best, System.nanoTime() - start );
+		}
+		return ( double ) best / Intervals.numElements( dimensions );
+	}
+
+	/**
+	 * @return {@link Convolution} that computes the gaussian blur using
+	 *         {@code engine}.
+	 */
+	public static Convolution< RealType< ? > > convolution( final Engine engine, final double[] sigma )
+	{
+		switch ( engine )
+		{
+		case DIRECT:
+		case LINE_BUFFER:
+		{
+			final Kernel1D[] kernels = KernelCache.getDefault().gauss( sigma );
+			final List< Convolution< RealType< ? > > > steps = new ArrayList<>();
+			for ( int d = 0; d < sigma.length; d++ )
+			{
+				final Kernel1D kernel = kernels[ d ];
+				steps.add( engine == Engine.DIRECT ?
+						new LineConvolution< RealType< ? > >( new KernelConvolverFactory( kernel ), d ) :
+						new LineConvolution< RealType< ? > >( new LineBufferConvolverFactory( kernel ), d ) );
+			}
+			return Convolution.concat( steps );
+		}
+		case FAST_GAUSS:
+			return FastGauss.convolution( sigma );
+		case FFT:
+			return FFTConvolution.gauss( sigma );
+		default:
+			throw new IllegalArgumentException( "Unknown engine: " + engine );
+		}
+	}
+}
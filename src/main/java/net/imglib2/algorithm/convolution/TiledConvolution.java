@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.util.Grids;
+import net.imglib2.algorithm.util.SequentialExecutorService;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+/**
+ * Helper to implement {@link Convolution#tiled}.
+ * <p>
+ * The target image is split into blocks of the given size and the wrapped
+ * {@link Convolution} is applied to one block at a time, in parallel over
+ * blocks. For a {@link Convolution#concat concatenation}, the required source
+ * interval is propagated per block and all intermediate images are only block
+ * sized. The wrapped convolution runs single threaded within each block.
+ */
+class TiledConvolution< T > extends AbstractMultiThreadedConvolution< T >
+{
+
+	private final Convolution< T > convolution;
+
+	private final int[] blockSize;
+
+	TiledConvolution( final Convolution< T > convolution, final int[] blockSize )
+	{
+		this.convolution = convolution;
+		this.blockSize = blockSize.clone();
+		convolution.setExecutor( new SequentialExecutorService() );
+	}
+
+	@Override
+	public Interval requiredSourceInterval( final Interval targetInterval )
+	{
+		return convolution.requiredSourceInterval( targetInterval );
+	}
+
+	@Override
+	public T preferredSourceType( final T targetType )
+	{
+		return convolution.preferredSourceType( targetType );
+	}
+
+	@Override
+	protected void process( final RandomAccessible< ? extends T > source, final RandomAccessibleInterval< ? extends T > target, final ExecutorService executorService, final int numThreads )
+	{
+		if ( blockSize.length != target.numDimensions() )
+			throw new IllegalArgumentException( "Block size and target must have the same number of dimensions." );
+
+		final List< Interval > blocks = Grids.collectAllContainedIntervals(
+				Intervals.minAsLongArray( target ),
+				Intervals.maxAsLongArray( target ),
+				blockSize );
+
+		final int numTasks = ( int ) Math.max( 1, Math.min( blocks.size(), 4l * numThreads ) );
+		final int taskSize = ( blocks.size() - 1 ) / numTasks + 1;
+		final ArrayList< Callable< Void > > callables = new ArrayList<>();
+		for ( int start = 0; start < blocks.size(); start += taskSize )
+		{
+			final List< Interval > taskBlocks = blocks.subList( start, Math.min( start + taskSize, blocks.size() ) );
+			callables.add( () -> {
+				for ( final Interval block : taskBlocks )
+					convolution.process( source, Views.interval( target, block ) );
+				return null;
+			} );
+		}
+
+		try
+		{
+			final List< Future< Void > > futures = executorService.invokeAll( callables );
+			for ( final Future< Void > future : futures )
+				future.get();
+		}
+		catch ( final InterruptedException | ExecutionException e )
+		{
+			final Throwable cause = e.getCause();
+			if ( cause instanceof RuntimeException )
+				throw ( RuntimeException ) cause;
+			throw new RuntimeException( e );
+		}
+	}
+}
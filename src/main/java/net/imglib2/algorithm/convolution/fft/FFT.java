@@ -0,0 +1,193 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.fft;
+
+/**
+ * Pure Java, in-place, iterative radix-2 fast Fourier transform of complex
+ * data stored in separate arrays for the real and imaginary parts. The length
+ * of the transform must be a power of two.
+ * <p>
+ * An instance precomputes the bit reversal permutation and twiddle factors
+ * for one length. It is immutable and can be shared between threads.
+ */
+public class FFT
+{
+
+	private final int n;
+
+	private final int[] bitReversal;
+
+	private final double[] cos;
+
+	private final double[] sin;
+
+	public FFT( final int n )
+	{
+		if ( n < 1 || Integer.bitCount( n ) != 1 )
+			throw new IllegalArgumentException( "FFT length must be a power of two, but is " + n + "." );
+		this.n = n;
+		this.bitReversal = new int[ n ];
+		final int bits = Integer.numberOfTrailingZeros( n );
+		for ( int i = 0; i < n; i++ )
+			bitReversal[ i ] = bits == 0 ? 0 : Integer.reverse( i ) >>> ( 32 - bits );
+		this.cos = new double[ n / 2 ];
+		this.sin = new double[ n / 2 ];
+		for ( int i = 0; i < n / 2; i++ )
+		{
+			cos[ i ] = Math.cos( 2 * Math.PI * i / n );
+			sin[ i ] = Math.sin( 2 * Math.PI * i / n );
+		}
+	}
+
+	public int length()
+	{
+		return n;
+	}
+
+	/**
+	 * Transform {@code re} and {@code im} in place. The inverse transform is
+	 * scaled by {@code 1 / n}, i.e. it is the exact inverse of the forward
+	 * transform.
+	 */
+	public void transform( final double[] re, final double[] im, final boolean inverse )
+	{
+		for ( int i = 0; i < n; i++ )
+		{
+			final int j = bitReversal[ i ];
+			if ( j > i )
+			{
+				final double tr = re[ i ];
+				re[ i ] = re[ j ];
+				re[ j ] = tr;
+				final double ti = im[ i ];
+				im[ i ] = im[ j ];
+				im[ j ] = ti;
+			}
+		}
+
+		final double sign = inverse ? 1 : -1;
+		for ( int size = 2; size <= n; size <<= 1 )
+		{
+			final int half = size >> 1;
+			final int step = n / size;
+			for ( int start = 0; start < n; start += size )
+			{
+				for ( int k = 0; k < half; k++ )
+				{
+					final double wr = cos[ k * step ];
+					final double wi = sign * sin[ k * step ];
+					final int a = start + k;
+					final int b = a + half;
+					final double xr = re[ b ] * wr - im[ b ] * wi;
+					final double xi = re[ b ] * wi + im[ b ] * wr;
+					re[ b ] = re[ a ] - xr;
+					im[ b ] = im[ a ] - xi;
+					re[ a ] += xr;
+					im[ a ] += xi;
+				}
+			}
+		}
+
+		if ( inverse )
+		{
+			final double scale = 1.0 / n;
+			for ( int i = 0; i < n; i++ )
+			{
+				re[ i ] *= scale;
+				im[ i ] *= scale;
+			}
+		}
+	}
+
+	/**
+	 * Multi-dimensional transform of {@code re} and {@code im} in place. The
+	 * data is stored in flat arrays, with dimension 0 varying fastest.
+	 *
+	 * @param ffts
+	 *            One {@link FFT} per dimension, with the length of the
+	 *            dimension.
+	 */
+	public static void transform( final FFT[] ffts, final double[] re, final double[] im, final boolean inverse )
+	{
+		int maxLength = 1;
+		for ( final FFT fft : ffts )
+			maxLength = Math.max( maxLength, fft.length() );
+		final double[] lineRe = new double[ maxLength ];
+		final double[] lineIm = new double[ maxLength ];
+
+		int stride = 1;
+		for ( final FFT fft : ffts )
+		{
+			final int length = fft.length();
+			final int blockSize = stride * length;
+			for ( int outer = 0; outer < re.length; outer += blockSize )
+			{
+				for ( int inner = 0; inner < stride; inner++ )
+				{
+					final int start = outer + inner;
+					if ( stride == 1 )
+					{
+						System.arraycopy( re, start, lineRe, 0, length );
+						System.arraycopy( im, start, lineIm, 0, length );
+					}
+					else
+					{
+						for ( int i = 0, index = start; i < length; i++, index += stride )
+						{
+							lineRe[ i ] = re[ index ];
+							lineIm[ i ] = im[ index ];
+						}
+					}
+					fft.transform( lineRe, lineIm, inverse );
+					for ( int i = 0, index = start; i < length; i++, index += stride )
+					{
+						re[ index ] = lineRe[ i ];
+						im[ index ] = lineIm[ i ];
+					}
+				}
+			}
+			stride = blockSize;
+		}
+	}
+
+	/**
+	 * @return smallest power of two that is greater or equal to {@code n}.
+	 */
+	public static int nextPowerOfTwo( final long n )
+	{
+		if ( n > 1 << 30 )
+			throw new IllegalArgumentException( "FFT length too large: " + n );
+		return n <= 1 ? 1 : Integer.highestOneBit( ( int ) n - 1 ) << 1;
+	}
+}
@@ -0,0 +1,363 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.fft;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.convolution.AbstractMultiThreadedConvolution;
+import net.imglib2.algorithm.convolution.Convolution;
+import net.imglib2.algorithm.convolution.kernel.Kernel1D;
+import net.imglib2.algorithm.convolution.kernel.KernelCache;
+import net.imglib2.algorithm.gauss3.Gauss3;
+import net.imglib2.algorithm.util.Grids;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+/**
+ * {@link Convolution} with an arbitrary (not necessarily separable) kernel,
+ * computed with the fast Fourier transform. The runtime per pixel grows only
+ * logarithmically with the kernel size, which makes this faster than direct
+ * summation for large kernels, e.g. gaussian kernels with large sigma.
+ * <p>
+ * The target image is split into tiles that are convolved independently
+ * (overlap-save): each tile of the source, including the border required by
+ * the kernel, is transformed, multiplied with the spectrum of the kernel and
+ * transformed back. The size of the tiles is chosen automatically from the
+ * kernel size and a memory budget, see
+ * {@link #fftSize(long[], long[], long)}. The spectra of the kernel are
+ * cached and reused across calls to
+ * {@link #process(RandomAccessible, RandomAccessibleInterval)}.
+ * <p>
+ * All calculations are done in double precision with a pure Java
+ * {@link FFT}. The result differs from direct summation by rounding errors
+ * only.
+ */
+public class FFTConvolution extends AbstractMultiThreadedConvolution< RealType< ? > >
+{
+
+	/**
+	 * Default maximal number of complex elements of a single tile: 2^20, i.e.
+	 * 16 MB per thread.
+	 */
+	public static final long DEFAULT_MAX_NUM_ELEMENTS = 1 << 20;
+
+	private final double[] kernel;
+
+	private final long[] kernelMin;
+
+	private final long[] kernelMax;
+
+	private final int[] kernelSize;
+
+	private final long maxNumElements;
+
+	private final ConcurrentHashMap< List< Integer >, double[][] > spectra = new ConcurrentHashMap<>();
+
+	/**
+	 * @param kernel
+	 *            The kernel. Its interval defines the offsets of the kernel
+	 *            values relative to the origin, e.g. a kernel of size 5 with
+	 *            min = -2 is centered.
+	 */
+	public FFTConvolution( final RandomAccessibleInterval< ? extends RealType< ? > > kernel )
+	{
+		this( kernel, DEFAULT_MAX_NUM_ELEMENTS );
+	}
+
+	/**
+	 * @param kernel
+	 *            The kernel. Its interval defines the offsets of the kernel
+	 *            values relative to the origin, e.g. a kernel of size 5 with
+	 *            min = -2 is centered.
+	 * @param maxNumElements
+	 *            Memory budget: maximal number of complex elements of a
+	 *            single tile.
+	 */
+	public FFTConvolution( final RandomAccessibleInterval< ? extends RealType< ? > > kernel, final long maxNumElements )
+	{
+		if ( Intervals.numElements( kernel ) > maxNumElements )
+			throw new IllegalArgumentException( "The kernel is larger than the memory budget." );
+		this.kernelMin = Intervals.minAsLongArray( kernel );
+		this.kernelMax = Intervals.maxAsLongArray( kernel );
+		this.kernelSize = new int[ kernel.numDimensions() ];
+		Arrays.setAll( kernelSize, d -> ( int ) kernel.dimension( d ) );
+		this.kernel = new double[ ( int ) Intervals.numElements( kernel ) ];
+		final Cursor< ? extends RealType< ? > > cursor = Views.flatIterable( kernel ).cursor();
+		for ( int i = 0; i < this.kernel.length; i++ )
+			this.kernel[ i ] = cursor.next().getRealDouble();
+		this.maxNumElements = maxNumElements;
+	}
+
+	/**
+	 * {@link FFTConvolution} with the outer product of the given
+	 * one-dimensional kernels.
+	 */
+	public static FFTConvolution separable( final Kernel1D... kernels )
+	{
+		final long[] dimensions = Arrays.stream( kernels ).mapToLong( Kernel1D::size ).toArray();
+		final long[] min = Arrays.stream( kernels ).mapToLong( Kernel1D::min ).toArray();
+		final Img< DoubleType > kernel = ArrayImgs.doubles( dimensions );
+		final Cursor< DoubleType > cursor = kernel.localizingCursor();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			double value = 1;
+			for ( int d = 0; d < kernels.length; d++ )
+				value *= kernels[ d ].fullKernel()[ cursor.getIntPosition( d ) ];
+			cursor.get().set( value );
+		}
+		return new FFTConvolution( Views.translate( kernel, min ) );
+	}
+
+	/**
+	 * {@link FFTConvolution} with the gaussian kernel used by
+	 * {@link Gauss3}.
+	 */
+	public static FFTConvolution gauss( final double... sigma )
+	{
+		return separable( KernelCache.getDefault().gauss( sigma ) );
+	}
+
+	@Override
+	public Interval requiredSourceInterval( final Interval targetInterval )
+	{
+		final long[] min = Intervals.minAsLongArray( targetInterval );
+		final long[] max = Intervals.maxAsLongArray( targetInterval );
+		for ( int d = 0; d < min.length; d++ )
+		{
+			min[ d ] -= kernelMax[ d ];
+			max[ d ] -= kernelMin[ d ];
+		}
+		return new FinalInterval( min, max );
+	}
+
+	@Override
+	public RealType< ? > preferredSourceType( final RealType< ? > targetType )
+	{
+		return ( targetType instanceof DoubleType ) ? targetType : new FloatType();
+	}
+
+	/**
+	 * Choose the size of the FFT (per dimension) for tiles of a target of
+	 * size {@code targetDimensions}: The FFT size is the smallest power of two
+	 * that covers the whole target plus the kernel border, unless this
+	 * exceeds {@code maxNumElements}. Then, the dimension with the largest
+	 * ratio of FFT size and kernel size is halved until the budget is met or
+	 * the FFT size is no larger than twice the kernel size in every dimension.
+	 * Each tile yields {@code fftSize - kernelSize + 1} target pixels per
+	 * dimension.
+	 */
+	public static int[] fftSize( final long[] kernelDimensions, final long[] targetDimensions, final long maxNumElements )
+	{
+		final int n = kernelDimensions.length;
+		final int[] size = new int[ n ];
+		final int[] minSize = new int[ n ];
+		for ( int d = 0; d < n; d++ )
+		{
+			minSize[ d ] = FFT.nextPowerOfTwo( 2 * kernelDimensions[ d ] - 1 );
+			size[ d ] = FFT.nextPowerOfTwo( targetDimensions[ d ] + kernelDimensions[ d ] - 1 );
+		}
+		while ( product( size ) > maxNumElements )
+		{
+			int largest = -1;
+			for ( int d = 0; d < n; d++ )
+				if ( size[ d ] > minSize[ d ] && ( largest < 0 || ( double ) size[ d ] / kernelDimensions[ d ] > ( double ) size[ largest ] / kernelDimensions[ largest ] ) )
+					largest = d;
+			if ( largest < 0 )
+				break;
+			size[ largest ] /= 2;
+		}
+		return size;
+	}
+
+	private static long product( final int[] values )
+	{
+		long product = 1;
+		for ( final int value : values )
+			product *= value;
+		return product;
+	}
+
+	@Override
+	protected void process( final RandomAccessible< ? extends RealType< ? > > source, final RandomAccessibleInterval< ? extends RealType< ? > > target, final ExecutorService executorService, final int numThreads )
+	{
+		final int n = target.numDimensions();
+		final long[] kernelDimensions = Arrays.stream( kernelSize ).asLongStream().toArray();
+		final int[] size = fftSize( kernelDimensions, Intervals.dimensionsAsLongArray( target ), maxNumElements );
+		final int[] tileSize = new int[ n ];
+		Arrays.setAll( tileSize, d -> size[ d ] - kernelSize[ d ] + 1 );
+
+		final FFT[] ffts = new FFT[ n ];
+		Arrays.setAll( ffts, d -> new FFT( size[ d ] ) );
+		final double[][] spectrum = spectrum( size, ffts );
+
+		final List< Interval > tiles = Grids.collectAllContainedIntervals(
+				Intervals.minAsLongArray( target ),
+				Intervals.maxAsLongArray( target ),
+				tileSize );
+		final int numTasks = Math.max( 1, Math.min( tiles.size(), numThreads ) );
+		final int taskSize = ( tiles.size() - 1 ) / numTasks + 1;
+		final ArrayList< Callable< Void > > callables = new ArrayList<>();
+		for ( int start = 0; start < tiles.size(); start += taskSize )
+		{
+			final List< Interval > taskTiles = tiles.subList( start, Math.min( start + taskSize, tiles.size() ) );
+			callables.add( () -> {
+				final double[] re = new double[ ( int ) product( size ) ];
+				final double[] im = new double[ re.length ];
+				for ( final Interval tile : taskTiles )
+					convolveTile( source, Views.interval( target, tile ), size, ffts, spectrum, re, im );
+				return null;
+			} );
+		}
+		execute( executorService, callables );
+	}
+
+	private void convolveTile(
+			final RandomAccessible< ? extends RealType< ? > > source,
+			final RandomAccessibleInterval< ? extends RealType< ? > > target,
+			final int[] size,
+			final FFT[] ffts,
+			final double[][] spectrum,
+			final double[] re,
+			final double[] im )
+	{
+		final int n = size.length;
+		final int[] strides = strides( size );
+		Arrays.fill( re, 0 );
+		Arrays.fill( im, 0 );
+
+		final Interval sourceTile = requiredSourceInterval( target );
+		final long[] sourceMin = Intervals.minAsLongArray( sourceTile );
+		final Cursor< ? extends RealType< ? > > in = Views.flatIterable( Views.interval( source, sourceTile ) ).localizingCursor();
+		while ( in.hasNext() )
+		{
+			final double value = in.next().getRealDouble();
+			int index = 0;
+			for ( int d = 0; d < n; d++ )
+				index += ( int ) ( in.getLongPosition( d ) - sourceMin[ d ] ) * strides[ d ];
+			re[ index ] = value;
+		}
+
+		FFT.transform( ffts, re, im, false );
+		final double[] kre = spectrum[ 0 ];
+		final double[] kim = spectrum[ 1 ];
+		for ( int i = 0; i < re.length; i++ )
+		{
+			final double r = re[ i ] * kre[ i ] - im[ i ] * kim[ i ];
+			im[ i ] = re[ i ] * kim[ i ] + im[ i ] * kre[ i ];
+			re[ i ] = r;
+		}
+		FFT.transform( ffts, re, im, true );
+
+		// NB: overlap-save, the first kernelSize - 1 values per dimension are corrupted by wrap-around.
+		final long[] targetMin = Intervals.minAsLongArray( target );
+		final Cursor< ? extends RealType< ? > > out = Views.flatIterable( target ).localizingCursor();
+		while ( out.hasNext() )
+		{
+			out.fwd();
+			int index = 0;
+			for ( int d = 0; d < n; d++ )
+				index += ( int ) ( out.getLongPosition( d ) - targetMin[ d ] + kernelSize[ d ] - 1 ) * strides[ d ];
+			out.get().setReal( re[ index ] );
+		}
+	}
+
+	private double[][] spectrum( final int[] size, final FFT[] ffts )
+	{
+		final List< Integer > key = new ArrayList<>();
+		for ( final int s : size )
+			key.add( s );
+		return spectra.computeIfAbsent( key, k -> {
+			final int[] strides = strides( size );
+			final int[] kernelStrides = strides( kernelSize );
+			final double[] re = new double[ ( int ) product( size ) ];
+			final double[] im = new double[ re.length ];
+			for ( int i = 0; i < kernel.length; i++ )
+			{
+				int index = 0;
+				for ( int d = 0; d < size.length; d++ )
+					index += ( i / kernelStrides[ d ] % kernelSize[ d ] ) * strides[ d ];
+				re[ index ] = kernel[ i ];
+			}
+			FFT.transform( ffts, re, im, false );
+			return new double[][] { re, im };
+		} );
+	}
+
+	private static int[] strides( final int[] size )
+	{
+		final int[] strides = new int[ size.length ];
+		int stride = 1;
+		for ( int d = 0; d < size.length; d++ )
+		{
+			strides[ d ] = stride;
+			stride *= size[ d ];
+		}
+		return strides;
+	}
+
+	private static void execute( final ExecutorService service, final List< Callable< Void > > callables )
+	{
+		try
+		{
+			final List< Future< Void > > futures = service.invokeAll( callables );
+			for ( final Future< Void > future : futures )
+				future.get();
+		}
+		catch ( final InterruptedException | ExecutionException e )
+		{
+			final Throwable cause = e.getCause();
+			if ( cause instanceof RuntimeException )
+				throw ( RuntimeException ) cause;
+			throw new RuntimeException( e );
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.convolution.kernel;
+
+import net.imglib2.RandomAccess;
+import net.imglib2.algorithm.convolution.LineConvolverFactory;
+import net.imglib2.type.numeric.RealType;
+
+/**
+ * A 1-dimensional line convolver that operates on all {@link RealType}. Each
+ * line is copied into a float[] buffer and convolved on the primitive array,
+ * with loops that can be auto-vectorized by the JIT. Symmetric kernels use
+ * half the number of multiplications.
+ *
+ * @see LineBufferConvolverFactory
+ * @see LineConvolverFactory
+ */
+public final class FloatLineBufferConvolverRealType implements Runnable
+{
+
+	private final float[] kernel;
+
+	private final boolean isSymmetric;
+
+	private final RandomAccess< ? extends RealType< ? > > in;
+
+	private final RandomAccess< ? extends RealType< ? > > out;
+
+	private final int d;
+
+	private final int linelen;
+
+	private final float[] line;
+
+	private final float[] result;
+
+	public FloatLineBufferConvolverRealType( final Kernel1D kernel, final RandomAccess< ? extends RealType< ? > > in, final RandomAccess< ? extends RealType< ? > > out, final int d, final long lineLength )
+	{
+		// NB: This constructor is used in ClassCopyProvider. It needs to be public and have this exact signature.
+		this.in = in;
+		this.out = out;
+		this.d = d;
+		this.kernel = reversed( kernel.fullKernel() );
+		this.isSymmetric = isSymmetric( kernel.fullKernel() );
+		this.linelen = ( int ) lineLength;
+		this.line = new float[ linelen + this.kernel.length - 1 ];
+		this.result = new float[ linelen ];
+	}
+
+	static float[] reversed( final double[] in )
+	{
+		final float[] out = new float[ in.length ];
+		for ( int i = 0; i < in.length; i++ )
+			out[ i ] = ( float ) in[ in.length - 1 - i ];
+		return out;
+	}
+
+	static boolean isSymmetric( final double[] kernel )
+	{
+		if ( kernel.length % 2 == 0 )
+			return false;
+		for ( int i = 0; i < kernel.length / 2; i++ )
+			if ( kernel[ i ] != kernel[ kernel.length - 1 - i ] )
+				return false;
+		return true;
+	}
+
+	@Override
+	public void run()
+	{
+		for ( int i = 0; i < line.length; ++i )
+		{
+			line[ i ] = in.get().getRealFloat();
+			in.fwd( d );
+		}
+
+		if ( isSymmetric )
+			convolveSymmetric( kernel, line, result, linelen );
+		else
+			convolve( kernel, line, result, linelen );
+
+		for ( int i = 0; i < linelen; ++i )
+		{
+			out.get().setReal( result[ i ] );
+			out.fwd( d );
+		}
+	}
+
+	/**
+	 * {@code result[x] = sum_j kernel[j] * line[x + j]}
+	 */
+	static void convolve( final float[] kernel, final float[] line, final float[] result, final int length )
+	{
+		final float k0 = kernel[ 0 ];
+		for ( int x = 0; x < length; ++x )
+			result[ x ] = k0 * line[ x ];
+		for ( int j = 1; j < kernel.length; ++j )
+		{
+			final float k = kernel[ j ];
+			for ( int x = 0; x < length; ++x )
+				result[ x ] += k * line[ x + j ];
+		}
+	}
+
+	/**
+	 * Same as {@link #convolve(float[], float[], float[], int)} for
+	 * symmetric {@code kernel} of odd length.
+	 */
+	static void convolveSymmetric( final float[] kernel, final float[] line, final float[] result, final int length )
+	{
+		final int h = kernel.length / 2;
+		final float kh = kernel[ h ];
+		for ( int x = 0; x < length; ++x )
+			result[ x ] = kh * line[ x + h ];
+		for ( int j = 1; j <= h; ++j )
+		{
+			final float k = kernel[ h + j ];
+			final int before = h - j;
+			final int after = h + j;
+			for ( int x = 0; x < length; ++x )
+				result[ x ] += k * ( line[ x + before ] + line[ x + after ] );
+		}
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.kernel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import net.imglib2.algorithm.gauss3.Gauss3;
+
+/**
+ * Bounded, thread-safe cache of gaussian half-kernels and {@link Kernel1D}
+ * instances, keyed by sigma and kernel size. The least recently used entries
+ * are evicted once the capacity is exceeded.
+ * <p>
+ * The arrays and kernels returned by this cache are shared between callers and
+ * must not be modified.
+ */
+public class KernelCache
+{
+
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private static final KernelCache DEFAULT = new KernelCache( DEFAULT_CAPACITY );
+
+	/**
+	 * Returns the cache used by {@link Gauss3}.
+	 */
+	public static KernelCache getDefault()
+	{
+		return DEFAULT;
+	}
+
+	private final int capacity;
+
+	private final Map< Key, double[] > halfKernels;
+
+	private final Map< Key, Kernel1D > kernels;
+
+	private long hits = 0;
+
+	private long misses = 0;
+
+	private long evictions = 0;
+
+	/**
+	 * @param capacity
+	 *            maximal number of half-kernels, and maximal number of
+	 *            {@link Kernel1D} instances, kept in the cache.
+	 */
+	public KernelCache( final int capacity )
+	{
+		if ( capacity < 1 )
+			throw new IllegalArgumentException( "Capacity must be positive." );
+		this.capacity = capacity;
+		this.halfKernels = lruMap();
+		this.kernels = lruMap();
+	}
+
+	/**
+	 * Cached version of {@link Gauss3#halfkernel(double, int, boolean)}.
+	 */
+	public double[] halfkernel( final double sigma, final int size, final boolean normalize )
+	{
+		return get( halfKernels, new Key( sigma, size, normalize ),
+				key -> Gauss3.halfkernel( sigma, size, normalize ) );
+	}
+
+	/**
+	 * Returns the normalized, symmetric gaussian kernel used by {@link Gauss3}
+	 * for the given sigma.
+	 */
+	public Kernel1D gauss( final double sigma )
+	{
+		return gauss( sigma, Gauss3.halfkernelsizes( new double[] { sigma } )[ 0 ] );
+	}
+
+	/**
+	 * Returns the normalized, symmetric gaussian kernel with the given sigma
+	 * and half-kernel size.
+	 */
+	public Kernel1D gauss( final double sigma, final int size )
+	{
+		return get( kernels, new Key( sigma, size, true ),
+				key -> Kernel1D.symmetric( halfkernel( sigma, size, true ) ) );
+	}
+
+	/**
+	 * Similar to {@link #gauss(double)} but returns one kernel per dimension.
+	 */
+	public Kernel1D[] gauss( final double[] sigma )
+	{
+		final Kernel1D[] result = new Kernel1D[ sigma.length ];
+		for ( int d = 0; d < sigma.length; d++ )
+			result[ d ] = gauss( sigma[ d ] );
+		return result;
+	}
+
+	public synchronized long hits()
+	{
+		return hits;
+	}
+
+	public synchronized long misses()
+	{
+		return misses;
+	}
+
+	public synchronized long evictions()
+	{
+		return evictions;
+	}
+
+	public synchronized int size()
+	{
+		return halfKernels.size() + kernels.size();
+	}
+
+	/**
+	 * Removes all entries and resets the statistics.
+	 */
+	public synchronized void clear()
+	{
+		halfKernels.clear();
+		kernels.clear();
+		hits = misses = evictions = 0;
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return "KernelCache[size=" + size() + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+	// -- Helper methods --
+
+	private < V > V get( final Map< Key, V > map, final Key key, final Function< Key, V > compute )
+	{
+		synchronized ( this )
+		{
+			final V value = map.get( key );
+			if ( value != null )
+			{
+				hits++;
+				return value;
+			}
+			misses++;
+		}
+		// compute outside of the lock, concurrent misses for the same key
+		// yield equal values, the first one is kept
+		final V value = compute.apply( key );
+		synchronized ( this )
+		{
+			final V existing = map.putIfAbsent( key, value );
+			return existing != null ? existing : value;
+		}
+	}
+
+	private < V > Map< Key, V > lruMap()
+	{
+		return new LinkedHashMap< Key, V >( 16, 0.75f, true )
+		{
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry( final Map.Entry< Key, V > eldest )
+			{
+				if ( size() <= capacity )
+					return false;
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	private static final class Key
+	{
+
+		private final long sigmaBits;
+
+		private final int size;
+
+		private final boolean normalize;
+
+		private Key( final double sigma, final int size, final boolean normalize )
+		{
+			this.sigmaBits = Double.doubleToLongBits( sigma );
+			this.size = size;
+			this.normalize = normalize;
+		}
+
+		@Override
+		public boolean equals( final Object obj )
+		{
+			if ( !( obj instanceof Key ) )
+				return false;
+			final Key other = ( Key ) obj;
+			return sigmaBits == other.sigmaBits && size == other.size && normalize == other.normalize;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int result = Long.hashCode( sigmaBits );
+			result = 31 * result + size;
+			result = 31 * result + ( normalize ? 1 : 0 );
+			return result;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.kernel;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.imglib2.RandomAccess;
+import net.imglib2.algorithm.convolution.LineConvolverFactory;
+import net.imglib2.loops.ClassCopyProvider;
+import net.imglib2.type.numeric.NumericType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+
+/**
+ * {@link LineConvolverFactory} that copies each line into a primitive array,
+ * convolves it there and writes the result back. This allows the JIT to
+ * auto-vectorize the inner loops of the convolution, which is usually faster
+ * than {@link KernelConvolverFactory} for kernels with more than a few
+ * elements.
+ * <p>
+ * The actual convolvers that are used (depending on the pixel type) are:
+ * {@link DoubleLineBufferConvolverRealType} for {@link DoubleType} targets and
+ * {@link FloatLineBufferConvolverRealType} for all other {@link RealType}
+ * targets. All other types, and lines that do not fit into an array, are
+ * handled by {@link KernelConvolverFactory}.
+ * <p>
+ * Note that {@link LineConvolverFactory#getConvolver} only provides
+ * {@link RandomAccess}es, i.e. lines are copied pixel by pixel even for
+ * {@link net.imglib2.img.array.ArrayImg}s.
+ */
+public class LineBufferConvolverFactory implements LineConvolverFactory< NumericType< ? > >
+{
+
+	private static final ClassCopyProvider< Runnable > doubleProvider = new ClassCopyProvider<>( DoubleLineBufferConvolverRealType.class, Runnable.class );
+
+	private static final ClassCopyProvider< Runnable > floatProvider = new ClassCopyProvider<>( FloatLineBufferConvolverRealType.class, Runnable.class );
+
+	private final Kernel1D kernel;
+
+	private final KernelConvolverFactory fallback;
+
+	public LineBufferConvolverFactory( final Kernel1D kernel )
+	{
+		this.kernel = kernel;
+		this.fallback = new KernelConvolverFactory( kernel );
+	}
+
+	@Override
+	public long getBorderBefore()
+	{
+		return fallback.getBorderBefore();
+	}
+
+	@Override
+	public long getBorderAfter()
+	{
+		return fallback.getBorderAfter();
+	}
+
+	@Override
+	public Runnable getConvolver( final RandomAccess< ? extends NumericType< ? > > in, final RandomAccess< ? extends NumericType< ? > > out, final int d, final long lineLength )
+	{
+		final NumericType< ? > targetType = out.get();
+		final NumericType< ? > sourceType = in.get();
+		if ( !( sourceType instanceof RealType && targetType instanceof RealType ) ||
+				lineLength + kernel.size() > Integer.MAX_VALUE - 8 )
+			return fallback.getConvolver( in, out, d, lineLength );
+		final ClassCopyProvider< Runnable > provider = targetType instanceof DoubleType ? doubleProvider : floatProvider;
+		final List< Class< ? > > key = Arrays.asList( in.getClass(), out.getClass(), sourceType.getClass(), targetType.getClass() );
+		return provider.newInstanceForKey( key, kernel, in, out, d, lineLength );
+	}
+
+	@Override
+	public NumericType< ? > preferredSourceType( final NumericType< ? > targetType )
+	{
+		return fallback.preferredSourceType( targetType );
+	}
+}
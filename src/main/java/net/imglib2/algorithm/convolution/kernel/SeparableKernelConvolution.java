@@ -1,6 +1,7 @@
 package net.imglib2.algorithm.convolution.kernel;
 
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -8,6 +9,7 @@ import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.convolution.Convolution;
 import net.imglib2.algorithm.convolution.LineConvolution;
+import net.imglib2.algorithm.convolution.LineConvolverFactory;
 import net.imglib2.type.numeric.NumericType;
 import net.imglib2.type.numeric.RealType;
 import net.imglib2.type.numeric.real.DoubleType;
@@ -45,6 +47,33 @@ public class SeparableKernelConvolution
 		return Convolution.concat( steps );
 	}
 
+	/**
+	 * Same as {@link #convolution(Kernel1D...)}, but the lines of the image
+	 * are convolved by the {@link LineConvolverFactory} that is created by
+	 * {@code lineConvolverFactory} for each kernel. This allows to select the
+	 * implementation per call, e.g.:
+	 * <ul>
+	 * <li>{@code KernelConvolverFactory::new}: scalar convolution on the
+	 * pixels (default)</li>
+	 * <li>{@code LineBufferConvolverFactory::new}: convolution on primitive
+	 * line buffers that can be auto-vectorized</li>
+	 * <li>{@code VectorConvolverFactory::new}: explicit SIMD instructions of
+	 * the Java Vector API, if available, otherwise same as
+	 * {@link LineBufferConvolverFactory}</li>
+	 * </ul>
+	 *
+	 * @see Convolution
+	 */
+	public static Convolution< NumericType< ? > > convolution(
+			final Function< Kernel1D, ? extends LineConvolverFactory< ? super NumericType< ? > > > lineConvolverFactory,
+			final Kernel1D... kernels )
+	{
+		final List< Convolution< NumericType< ? > > > steps = IntStream.range( 0, kernels.length )
+				.mapToObj( i -> convolution1d( lineConvolverFactory, kernels[ i ], i ) )
+				.collect( Collectors.toList() );
+		return Convolution.concat( steps );
+	}
+
 	/**
 	 * Apply a convolution only in one dimension. For example calculate central
 	 * differences:
@@ -60,7 +89,22 @@ public class SeparableKernelConvolution
 	 */
 	public static Convolution< NumericType< ? > > convolution1d( final Kernel1D kernel, final int direction )
 	{
-		return new LineConvolution<>( new KernelConvolverFactory( kernel ), direction );
+		return convolution1d( KernelConvolverFactory::new, kernel, direction );
+	}
+
+	/**
+	 * Same as {@link #convolution1d(Kernel1D, int)}, with a custom
+	 * {@link LineConvolverFactory}, see
+	 * {@link #convolution(Function, Kernel1D...)}.
+	 *
+	 * @see Convolution
+	 */
+	public static Convolution< NumericType< ? > > convolution1d(
+			final Function< Kernel1D, ? extends LineConvolverFactory< ? super NumericType< ? > > > lineConvolverFactory,
+			final Kernel1D kernel,
+			final int direction )
+	{
+		return new LineConvolution<>( lineConvolverFactory.apply( kernel ), direction );
 	}
 
 	/**
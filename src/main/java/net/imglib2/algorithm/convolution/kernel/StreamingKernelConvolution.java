@@ -0,0 +1,226 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.kernel;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+import net.imglib2.Cursor;
+import net.imglib2.Dimensions;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.convolution.Convolution;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.NumericType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+/**
+ * Separable convolution of an image that arrives one plane (hyper-slice along
+ * the last dimension) at a time.
+ * <p>
+ * Each pushed plane is immediately convolved along the first n-1 dimensions
+ * and stored in a ring buffer that holds as many planes as the kernel for the
+ * last dimension is long. An output plane is passed to the consumer as soon
+ * as all input planes within its kernel support have been pushed, so the
+ * latency is {@code -kernel.min()} planes (half the kernel size for symmetric
+ * kernels) instead of a whole stack.
+ * <p>
+ * Out of bounds values are handled like {@link Views#extendBorder}: pixels
+ * outside a plane take the value of the nearest pixel in the plane, planes
+ * before the first and after the last pushed plane repeat the first and last
+ * plane respectively. The result is identical to
+ * {@link SeparableKernelConvolution} applied to {@code Views.extendBorder} of
+ * the whole stack.
+ * <p>
+ * Instances are not thread-safe, planes must be pushed from one thread in
+ * order. The in-plane convolution can be multi-threaded by
+ * {@link #setExecutor(ExecutorService)}.
+ */
+public class StreamingKernelConvolution< T extends RealType< T > & NativeType< T > >
+{
+
+	private final Convolution< NumericType< ? > > planeConvolution;
+
+	private final double[] kernel;
+
+	private final long kernelMin;
+
+	private final long[] planeDimensions;
+
+	private final int planeSize;
+
+	private final double[][] ring;
+
+	private final double[] accumulator;
+
+	private final ArrayImgFactory< T > factory;
+
+	private final Consumer< ? super RandomAccessibleInterval< T > > output;
+
+	private long numPushed = 0;
+
+	private long numEmitted = 0;
+
+	private boolean finished = false;
+
+	/**
+	 * Streaming gaussian convolution with the kernels used by
+	 * {@link net.imglib2.algorithm.gauss3.Gauss3}.
+	 *
+	 * @param sigma
+	 *            standard deviation in every dimension, including the last
+	 *            (streaming) dimension.
+	 */
+	public static < T extends RealType< T > & NativeType< T > > StreamingKernelConvolution< T > gauss( final double[] sigma, final Dimensions planeDimensions, final T type, final Consumer< ? super RandomAccessibleInterval< T > > output )
+	{
+		return new StreamingKernelConvolution<>( KernelCache.getDefault().gauss( sigma ), planeDimensions, type, output );
+	}
+
+	/**
+	 * @param kernels
+	 *            one kernel per dimension, the last kernel is applied along the
+	 *            streaming dimension.
+	 * @param planeDimensions
+	 *            dimensions of the pushed planes, one less than the number of
+	 *            kernels.
+	 * @param type
+	 *            pixel type of the emitted planes.
+	 * @param output
+	 *            receives the convolved planes in order. Each plane is a new
+	 *            image and may be kept by the consumer.
+	 */
+	public StreamingKernelConvolution( final Kernel1D[] kernels, final Dimensions planeDimensions, final T type, final Consumer< ? super RandomAccessibleInterval< T > > output )
+	{
+		final int n = kernels.length;
+		if ( n < 2 || planeDimensions.numDimensions() != n - 1 )
+			throw new IllegalArgumentException( "Expected " + ( n - 1 ) + "-dimensional planes for " + n + " kernels." );
+		final long numPixels = Intervals.numElements( planeDimensions );
+		if ( numPixels > Integer.MAX_VALUE )
+			throw new IllegalArgumentException( "Plane is too large." );
+		final Kernel1D last = kernels[ n - 1 ];
+		this.planeConvolution = SeparableKernelConvolution.convolution( Arrays.copyOf( kernels, n - 1 ) );
+		this.kernel = last.fullKernel().clone();
+		this.kernelMin = last.min();
+		this.planeDimensions = Intervals.dimensionsAsLongArray( planeDimensions );
+		this.planeSize = ( int ) numPixels;
+		this.ring = new double[ last.size() ][];
+		this.accumulator = new double[ planeSize ];
+		this.factory = new ArrayImgFactory<>( type );
+		this.output = output;
+	}
+
+	/**
+	 * Sets the {@link ExecutorService} used for the in-plane convolution.
+	 */
+	public void setExecutor( final ExecutorService executor )
+	{
+		planeConvolution.setExecutor( executor );
+	}
+
+	/**
+	 * Number of planes pushed so far.
+	 */
+	public long numPushed()
+	{
+		return numPushed;
+	}
+
+	/**
+	 * Number of planes passed to the consumer so far.
+	 */
+	public long numEmitted()
+	{
+		return numEmitted;
+	}
+
+	/**
+	 * Pushes the next input plane and emits all output planes that became
+	 * available.
+	 */
+	public < S extends RealType< S > > void push( final RandomAccessibleInterval< S > plane )
+	{
+		if ( finished )
+			throw new IllegalStateException( "The stream is already finished." );
+		if ( !Arrays.equals( planeDimensions, Intervals.dimensionsAsLongArray( plane ) ) )
+			throw new IllegalArgumentException( "Plane dimensions do not match." );
+		final int slot = ( int ) ( numPushed % ring.length );
+		if ( ring[ slot ] == null )
+			ring[ slot ] = new double[ planeSize ];
+		final Img< DoubleType > buffer = ArrayImgs.doubles( ring[ slot ], planeDimensions );
+		planeConvolution.process( Views.extendBorder( Views.zeroMin( plane ) ), buffer );
+		numPushed++;
+		// output plane z needs the input planes up to z - kernelMin
+		while ( numEmitted - kernelMin < numPushed )
+			emit( numEmitted );
+	}
+
+	/**
+	 * Signals that the last plane was pushed, and emits the remaining output
+	 * planes.
+	 */
+	public void finish()
+	{
+		if ( finished )
+			return;
+		finished = true;
+		while ( numEmitted < numPushed )
+			emit( numEmitted );
+	}
+
+	private void emit( final long z )
+	{
+		Arrays.fill( accumulator, 0 );
+		for ( int i = 0; i < kernel.length; i++ )
+		{
+			// out(z) = sum_o K(o) * in(z - o)
+			final long source = Math.min( Math.max( z - ( i + kernelMin ), 0 ), numPushed - 1 );
+			final double[] plane = ring[ ( int ) ( source % ring.length ) ];
+			final double weight = kernel[ i ];
+			for ( int j = 0; j < planeSize; j++ )
+				accumulator[ j ] += weight * plane[ j ];
+		}
+		final Img< T > result = factory.create( planeDimensions );
+		final Cursor< T > cursor = result.cursor();
+		for ( int j = 0; j < planeSize; j++ )
+			cursor.next().setReal( accumulator[ j ] );
+		numEmitted++;
+		output.accept( result );
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.kernel;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import net.imglib2.RandomAccess;
+import net.imglib2.algorithm.convolution.LineConvolverFactory;
+import net.imglib2.type.numeric.NumericType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+
+/**
+ * {@link LineConvolverFactory} that convolves buffered lines with explicit
+ * SIMD instructions of the Java Vector API ({@code jdk.incubator.vector}),
+ * e.g. AVX-512 on recent x86 processors. Select it per call with
+ * {@code SeparableKernelConvolution.convolution( VectorConvolverFactory::new, kernels )}.
+ * <p>
+ * The vector convolvers are compiled for Java 17 into the multi-release part
+ * of the jar ({@code src/main/java17}) and loaded reflectively. They are used
+ * if
+ * <ul>
+ * <li>the JVM runs Java 17 or newer,</li>
+ * <li>the {@code jdk.incubator.vector} module is resolved, e.g. with
+ * {@code --add-modules jdk.incubator.vector}, and</li>
+ * <li>the system property {@value #ENABLED_PROPERTY} is not {@code false}.</li>
+ * </ul>
+ * Otherwise, and for types other than {@link RealType} or lines that do not
+ * fit into an array, all lines are convolved by
+ * {@link LineBufferConvolverFactory}, which falls back to
+ * {@link KernelConvolverFactory} in turn. Use {@link #isAvailable()} to check
+ * which implementation is used.
+ */
+public class VectorConvolverFactory implements LineConvolverFactory< NumericType< ? > >
+{
+
+	/**
+	 * System property to switch the vector convolvers off
+	 * ({@code -Dimglib2.convolution.vector=false}).
+	 */
+	public static final String ENABLED_PROPERTY = "imglib2.convolution.vector";
+
+	private static final Constructor< ? extends Runnable > floatConvolver = loadConvolver( "FloatVectorConvolverRealType" );
+
+	private static final Constructor< ? extends Runnable > doubleConvolver = loadConvolver( "DoubleVectorConvolverRealType" );
+
+	private final Kernel1D kernel;
+
+	private final LineBufferConvolverFactory fallback;
+
+	public VectorConvolverFactory( final Kernel1D kernel )
+	{
+		this.kernel = kernel;
+		this.fallback = new LineBufferConvolverFactory( kernel );
+	}
+
+	/**
+	 * @return {@code true} if lines of {@link RealType} are convolved with the
+	 *         Vector API, {@code false} if the scalar fallback is used.
+	 */
+	public static boolean isAvailable()
+	{
+		return floatConvolver != null && doubleConvolver != null;
+	}
+
+	@Override
+	public long getBorderBefore()
+	{
+		return fallback.getBorderBefore();
+	}
+
+	@Override
+	public long getBorderAfter()
+	{
+		return fallback.getBorderAfter();
+	}
+
+	@Override
+	public Runnable getConvolver( final RandomAccess< ? extends NumericType< ? > > in, final RandomAccess< ? extends NumericType< ? > > out, final int d, final long lineLength )
+	{
+		final NumericType< ? > targetType = out.get();
+		final NumericType< ? > sourceType = in.get();
+		if ( !isAvailable() ||
+				!( sourceType instanceof RealType && targetType instanceof RealType ) ||
+				lineLength + kernel.size() > Integer.MAX_VALUE - 8 )
+			return fallback.getConvolver( in, out, d, lineLength );
+		final Constructor< ? extends Runnable > constructor = targetType instanceof DoubleType ? doubleConvolver : floatConvolver;
+		try
+		{
+			return constructor.newInstance( kernel, in, out, d, lineLength );
+		}
+		catch ( final InvocationTargetException e )
+		{
+			final Throwable cause = e.getCause();
+			if ( cause instanceof RuntimeException )
+				throw ( RuntimeException ) cause;
+			throw new RuntimeException( cause );
+		}
+		catch ( final ReflectiveOperationException e )
+		{
+			throw new RuntimeException( e );
+		}
+	}
+
+	@Override
+	public NumericType< ? > preferredSourceType( final NumericType< ? > targetType )
+	{
+		return fallback.preferredSourceType( targetType );
+	}
+
+	/**
+	 * @return Constructor of the vector convolver {@code simpleName}, or
+	 *         {@code null} if it is switched off, cannot be loaded by this JVM
+	 *         or the {@code jdk.incubator.vector} module is missing.
+	 */
+	private static Constructor< ? extends Runnable > loadConvolver( final String simpleName )
+	{
+		if ( "false".equalsIgnoreCase( System.getProperty( ENABLED_PROPERTY ) ) )
+			return null;
+		try
+		{
+			final String packageName = VectorConvolverFactory.class.getPackage().getName();
+			// NB: initializing the kernels fails if jdk.incubator.vector is
+			// not resolved
+			Class.forName( packageName + ".VectorLineKernels" );
+			return Class.forName( packageName + "." + simpleName )
+					.asSubclass( Runnable.class )
+					.getConstructor( Kernel1D.class, RandomAccess.class, RandomAccess.class, int.class, long.class );
+		}
+		catch ( final ReflectiveOperationException | LinkageError | RuntimeException e )
+		{
+			return null;
+		}
+	}
+}
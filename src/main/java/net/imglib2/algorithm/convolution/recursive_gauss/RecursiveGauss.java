@@ -0,0 +1,109 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.recursive_gauss;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.convolution.Convolution;
+import net.imglib2.algorithm.convolution.LineConvolution;
+import net.imglib2.algorithm.convolution.MultiDimensionConvolution;
+import net.imglib2.type.numeric.RealType;
+
+/**
+ * Recursive (IIR) approximation of the gaussian blur and of gaussian
+ * derivatives. The runtime is independent of sigma, like for
+ * {@link net.imglib2.algorithm.convolution.fast_gauss.FastGauss}, but
+ * smoothed derivatives are computed in the same pass as the blur.
+ * <p>
+ * See {@link RecursiveGaussConvolverRealType} for details.
+ */
+public class RecursiveGauss
+{
+	public static Convolution< RealType< ? > > convolution( final double[] sigma )
+	{
+		return derivative( sigma, new int[ sigma.length ] );
+	}
+
+	public static Convolution< RealType< ? > > convolution( final double sigma )
+	{
+		return new MultiDimensionConvolution<>( k -> convolution( nCopies( k, sigma ) ) );
+	}
+
+	/**
+	 * Gaussian derivative, the order of the derivative (0, 1 or 2) is given
+	 * per dimension. For example {@code order = {1, 1, 0}} gives the smoothed
+	 * mixed second derivative in x and y of a 3d image.
+	 */
+	public static Convolution< RealType< ? > > derivative( final double[] sigma, final int[] order )
+	{
+		if ( sigma.length != order.length )
+			throw new IllegalArgumentException( "Sigma and order must have the same length." );
+		final List< Convolution< RealType< ? > > > steps = IntStream.range( 0, sigma.length )
+				.mapToObj( i -> convolution1d( sigma[ i ], order[ i ], i ) )
+				.collect( Collectors.toList() );
+		return Convolution.concat( steps );
+	}
+
+	public static Convolution< RealType< ? > > convolution1d( final double sigma, final int direction )
+	{
+		return convolution1d( sigma, 0, direction );
+	}
+
+	public static Convolution< RealType< ? > > convolution1d( final double sigma, final int order, final int direction )
+	{
+		return new LineConvolution<>( new RecursiveGaussConvolverRealType( sigma, order ), direction );
+	}
+
+	public static void convolve( final double[] sigmas, final RandomAccessible< ? extends RealType< ? > > input, final RandomAccessibleInterval< ? extends RealType< ? > > output )
+	{
+		convolution( sigmas ).process( input, output );
+	}
+
+	public static void convolve( final double sigma, final RandomAccessible< ? extends RealType< ? > > input, final RandomAccessibleInterval< ? extends RealType< ? > > output )
+	{
+		convolution( sigma ).process( input, output );
+	}
+
+	private static double[] nCopies( final int n, final double sigma )
+	{
+		final double[] sigmas = new double[ n ];
+		Arrays.fill( sigmas, sigma );
+		return sigmas;
+	}
+}
@@ -0,0 +1,241 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.recursive_gauss;
+
+import java.util.Arrays;
+
+import net.imglib2.RandomAccess;
+import net.imglib2.algorithm.convolution.LineConvolverFactory;
+import net.imglib2.loops.ClassCopyProvider;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+
+/**
+ * Implementation of {@link LineConvolverFactory} that approximates a gaussian
+ * blur, or a gaussian derivative, by the third order recursive filter of Young
+ * and van Vliet: "Recursive implementation of the Gaussian filter", Signal
+ * Processing 44 (1995).
+ * <p>
+ * The filter is applied forward and backward along the line, the cost per
+ * pixel is independent of sigma. Derivatives of order one and two are
+ * computed in the same pass, by applying the central difference
+ * {@code (x[i+1] - x[i-1]) / 2}, respectively {@code x[i+1] - 2 x[i] + x[i-1]},
+ * to the line before the recursive filter.
+ * <p>
+ * The recursion is started with the steady state of the first (last) pixel
+ * read, at the same distance from the target interval as the cutoff of
+ * {@link net.imglib2.algorithm.gauss3.Gauss3}.
+ */
+public class RecursiveGaussConvolverRealType implements LineConvolverFactory< RealType< ? > >
+{
+
+	private static final ClassCopyProvider< Runnable > provider = new ClassCopyProvider<>( MyConvolver.class, Runnable.class );
+
+	private final double[] coefficients;
+
+	private final int order;
+
+	private final int border;
+
+	/**
+	 * @param sigma
+	 *            standard deviation of the gaussian, must be at least 0.5.
+	 * @param order
+	 *            order of the derivative, 0, 1 or 2.
+	 */
+	public RecursiveGaussConvolverRealType( final double sigma, final int order )
+	{
+		if ( order < 0 || order > 2 )
+			throw new IllegalArgumentException( "Only derivatives of order 0, 1 and 2 are supported." );
+		this.coefficients = coefficients( sigma );
+		this.order = order;
+		this.border = ( int ) ( 3 * sigma + 0.5 ) + 1;
+	}
+
+	/**
+	 * Returns the coefficients {@code B, b1/b0, b2/b0, b3/b0} of the recursive
+	 * filter for the given sigma, such that {@code w[i] = B in[i] + b1/b0 w[i-1]
+	 * + b2/b0 w[i-2] + b3/b0 w[i-3]}.
+	 */
+	public static double[] coefficients( final double sigma )
+	{
+		if ( !( sigma >= 0.5 ) )
+			throw new IllegalArgumentException( "Sigma must be at least 0.5, but was " + sigma + "." );
+		final double q = sigma >= 2.5 ?
+				0.98711 * sigma - 0.96330 :
+				3.97156 - 4.14554 * Math.sqrt( 1 - 0.26891 * sigma );
+		final double q2 = q * q;
+		final double q3 = q2 * q;
+		final double b0 = 1.57825 + 2.44413 * q + 1.4281 * q2 + 0.422205 * q3;
+		final double b1 = 2.44413 * q + 2.85619 * q2 + 1.26661 * q3;
+		final double b2 = -( 1.4281 * q2 + 1.26661 * q3 );
+		final double b3 = 0.422205 * q3;
+		final double a1 = b1 / b0;
+		final double a2 = b2 / b0;
+		final double a3 = b3 / b0;
+		return new double[] { 1 - ( a1 + a2 + a3 ), a1, a2, a3 };
+	}
+
+	@Override
+	public long getBorderBefore()
+	{
+		return border + stencilRadius();
+	}
+
+	@Override
+	public long getBorderAfter()
+	{
+		return border + stencilRadius();
+	}
+
+	private int stencilRadius()
+	{
+		return order == 0 ? 0 : 1;
+	}
+
+	@Override
+	public Runnable getConvolver( final RandomAccess< ? extends RealType< ? > > in, final RandomAccess< ? extends RealType< ? > > out, final int d, final long lineLength )
+	{
+		final Object key = Arrays.asList( in.getClass(), out.getClass(), in.get().getClass(), out.get().getClass() );
+		return provider.newInstanceForKey( key, d, coefficients, order, border, in, out, lineLength );
+	}
+
+	@Override
+	public RealType< ? > preferredSourceType( final RealType< ? > targetType )
+	{
+		return ( targetType instanceof DoubleType ) ? targetType : new FloatType();
+	}
+
+	public static class MyConvolver implements Runnable
+	{
+		private final int d;
+
+		private final RandomAccess< ? extends RealType< ? > > in;
+
+		private final RandomAccess< ? extends RealType< ? > > out;
+
+		private final int lineLength;
+
+		private final int border;
+
+		private final int order;
+
+		private final double b;
+
+		private final double a1;
+
+		private final double a2;
+
+		private final double a3;
+
+		private final double[] line;
+
+		private final double[] w;
+
+		public MyConvolver( final int d, final double[] coefficients, final int order, final int border, final RandomAccess< ? extends RealType< ? > > in, final RandomAccess< ? extends RealType< ? > > out, final long lineLength )
+		{
+			final int radius = order == 0 ? 0 : 1;
+			if ( lineLength + 2 * ( border + radius ) > Integer.MAX_VALUE )
+				throw new IllegalArgumentException( "Line length " + lineLength + " plus border " + 2 * ( border + radius ) + " must not exceed " + Integer.MAX_VALUE + "." );
+			this.d = d;
+			this.in = in;
+			this.out = out;
+			this.lineLength = ( int ) lineLength;
+			this.border = border;
+			this.order = order;
+			this.b = coefficients[ 0 ];
+			this.a1 = coefficients[ 1 ];
+			this.a2 = coefficients[ 2 ];
+			this.a3 = coefficients[ 3 ];
+			this.line = new double[ ( int ) lineLength + 2 * ( border + radius ) ];
+			this.w = new double[ ( int ) lineLength + 2 * border ];
+		}
+
+		@Override
+		public void run()
+		{
+			for ( int i = 0; i < line.length; i++ )
+			{
+				line[ i ] = in.get().getRealDouble();
+				in.fwd( d );
+			}
+
+			final int length = w.length;
+			switch ( order )
+			{
+			case 0:
+				System.arraycopy( line, 0, w, 0, length );
+				break;
+			case 1:
+				for ( int i = 0; i < length; i++ )
+					w[ i ] = 0.5 * ( line[ i + 2 ] - line[ i ] );
+				break;
+			default:
+				for ( int i = 0; i < length; i++ )
+					w[ i ] = line[ i + 2 ] - 2 * line[ i + 1 ] + line[ i ];
+			}
+
+			// causal pass, started in the steady state of the first value
+			double w1 = w[ 0 ], w2 = w1, w3 = w1;
+			for ( int i = 0; i < length; i++ )
+			{
+				final double v = b * w[ i ] + a1 * w1 + a2 * w2 + a3 * w3;
+				w3 = w2;
+				w2 = w1;
+				w1 = v;
+				w[ i ] = v;
+			}
+
+			// anti-causal pass, started in the steady state of the last value
+			w1 = w[ length - 1 ];
+			w2 = w1;
+			w3 = w1;
+			for ( int i = length - 1; i >= 0; i-- )
+			{
+				final double v = b * w[ i ] + a1 * w1 + a2 * w2 + a3 * w3;
+				w3 = w2;
+				w2 = w1;
+				w1 = v;
+				w[ i ] = v;
+			}
+
+			for ( int i = 0; i < lineLength; i++ )
+			{
+				out.get().setReal( w[ i + border ] );
+				out.fwd( d );
+			}
+		}
+	}
+}
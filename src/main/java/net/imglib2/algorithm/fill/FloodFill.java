@@ -43,7 +43,9 @@ import net.imglib2.Cursor;
 import net.imglib2.Localizable;
 import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessible;
+import net.imglib2.algorithm.neighborhood.DiamondShape;
 import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
 import net.imglib2.algorithm.neighborhood.Shape;
 import net.imglib2.type.Type;
 import net.imglib2.util.Pair;
@@ -158,6 +160,9 @@ public class FloodFill
 	 * pixel is in the same connected component and fillLabel has not been
 	 * written into that location yet.
 	 *
+	 * For {@link DiamondShape} and {@link RectangleShape} with radius 1, runs
+	 * of pixels along dimension 0 are filled at once (scanline flood fill).
+	 *
 	 * @param source
 	 *            input
 	 * @param target
@@ -191,6 +196,18 @@ public class FloodFill
 	{
 		final int n = source.numDimensions();
 
+		if ( shape instanceof DiamondShape && ( ( DiamondShape ) shape ).getRadius() == 1 )
+		{
+			fillSpans( source, target, seed, diamondLineOffsets( n ), 0, filter, writer );
+			return;
+		}
+
+		if ( shape instanceof RectangleShape && ( ( RectangleShape ) shape ).getSpan() == 1 )
+		{
+			fillSpans( source, target, seed, rectangleLineOffsets( n ), 1, filter, writer );
+			return;
+		}
+
 		final RandomAccessible< Pair< T, U > > paired = Views.pair( source, target );
 
 		TLongList coordinates = new TLongArrayList();
@@ -237,6 +254,161 @@ public class FloodFill
 
 	}
 
+	/**
+	 * Scanline flood fill: Fill the run along dimension 0 that contains the
+	 * seed, then scan the neighboring lines of each run for pixels that are
+	 * accepted by filter and fill their runs. Runs that still need to be
+	 * scanned are stored as {@code [min, max, position_1, ..., position_n-1]}
+	 * on a primitive stack.
+	 *
+	 * @param lineOffsets
+	 *            Offsets of neighboring lines in dimensions 1 to n-1 (entry
+	 *            for dimension 0 is ignored).
+	 * @param extension
+	 *            Scan neighboring lines from {@code min - extension} to
+	 *            {@code max + extension}: 0 for {@link DiamondShape} and 1 for
+	 *            {@link RectangleShape}.
+	 */
+	private static < T, U > void fillSpans(
+			final RandomAccessible< T > source,
+			final RandomAccessible< U > target,
+			final Localizable seed,
+			final long[][] lineOffsets,
+			final long extension,
+			final BiPredicate< T, U > filter,
+			final Consumer< U > writer )
+	{
+		final int n = source.numDimensions();
+		final int spanSize = n + 1;
+
+		final RandomAccess< T > sourceAccess = source.randomAccess();
+		final RandomAccess< U > targetAccess = target.randomAccess();
+
+		final long[] line = new long[ n ];
+		final long[] neighborLine = new long[ n ];
+		final long[] span = new long[ 2 ];
+		final TLongArrayList spans = new TLongArrayList();
+
+		sourceAccess.setPosition( seed );
+		targetAccess.setPosition( seed );
+		writer.accept( targetAccess.get() );
+		fillSpan( sourceAccess, targetAccess, seed.getLongPosition( 0 ), filter, writer, span );
+		seed.localize( line );
+		pushSpan( spans, span, line );
+
+		while ( !spans.isEmpty() )
+		{
+			final int top = spans.size() - spanSize;
+			final long min = spans.get( top ) - extension;
+			final long max = spans.get( top + 1 ) + extension;
+			for ( int d = 1; d < n; ++d )
+				line[ d ] = spans.get( top + 1 + d );
+			spans.remove( top, spanSize );
+
+			for ( final long[] offset : lineOffsets )
+			{
+				for ( int d = 1; d < n; ++d )
+				{
+					neighborLine[ d ] = line[ d ] + offset[ d ];
+					sourceAccess.setPosition( neighborLine[ d ], d );
+					targetAccess.setPosition( neighborLine[ d ], d );
+				}
+
+				for ( long x = min; x <= max; ++x )
+				{
+					sourceAccess.setPosition( x, 0 );
+					targetAccess.setPosition( x, 0 );
+					if ( filter.test( sourceAccess.get(), targetAccess.get() ) )
+					{
+						writer.accept( targetAccess.get() );
+						fillSpan( sourceAccess, targetAccess, x, filter, writer, span );
+						pushSpan( spans, span, neighborLine );
+						// span[ 1 ] + 1 was rejected by filter
+						x = span[ 1 ] + 1;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Extend the run that contains the (already written) pixel at {@code x}
+	 * in both directions along dimension 0 for as long as filter accepts
+	 * pixels. The accesses are positioned on the line of the run.
+	 *
+	 * @param span
+	 *            Output parameter for min and max of the run.
+	 */
+	private static < T, U > void fillSpan(
+			final RandomAccess< T > sourceAccess,
+			final RandomAccess< U > targetAccess,
+			final long x,
+			final BiPredicate< T, U > filter,
+			final Consumer< U > writer,
+			final long[] span )
+	{
+		long min = x;
+		sourceAccess.setPosition( x - 1, 0 );
+		targetAccess.setPosition( x - 1, 0 );
+		while ( filter.test( sourceAccess.get(), targetAccess.get() ) )
+		{
+			writer.accept( targetAccess.get() );
+			--min;
+			sourceAccess.bck( 0 );
+			targetAccess.bck( 0 );
+		}
+
+		long max = x;
+		sourceAccess.setPosition( x + 1, 0 );
+		targetAccess.setPosition( x + 1, 0 );
+		while ( filter.test( sourceAccess.get(), targetAccess.get() ) )
+		{
+			writer.accept( targetAccess.get() );
+			++max;
+			sourceAccess.fwd( 0 );
+			targetAccess.fwd( 0 );
+		}
+
+		span[ 0 ] = min;
+		span[ 1 ] = max;
+	}
+
+	private static void pushSpan( final TLongArrayList spans, final long[] span, final long[] line )
+	{
+		spans.add( span[ 0 ] );
+		spans.add( span[ 1 ] );
+		for ( int d = 1; d < line.length; ++d )
+			spans.add( line[ d ] );
+	}
+
+	private static long[][] diamondLineOffsets( final int n )
+	{
+		final long[][] offsets = new long[ 2 * ( n - 1 ) ][ n ];
+		for ( int d = 1; d < n; ++d )
+		{
+			offsets[ 2 * ( d - 1 ) ][ d ] = -1;
+			offsets[ 2 * ( d - 1 ) + 1 ][ d ] = 1;
+		}
+		return offsets;
+	}
+
+	private static long[][] rectangleLineOffsets( final int n )
+	{
+		// all combinations of -1, 0, 1 in dimensions 1 to n-1 except for 0
+		final int numLines = ( int ) Math.pow( 3, n - 1 ) - 1;
+		final long[][] offsets = new long[ numLines ][ n ];
+		for ( int i = 0, k = 0; i <= numLines; ++i )
+		{
+			final int center = numLines / 2;
+			if ( i == center )
+				continue;
+			for ( int d = 1, rest = i; d < n; ++d, rest /= 3 )
+				offsets[ k ][ d ] = rest % 3 - 1;
+			++k;
+		}
+		return offsets;
+	}
+
 	/**
 	 * Iterative n-dimensional flood fill for arbitrary neighborhoods: Starting
 	 * at seed location, write fillLabel into target at current location and
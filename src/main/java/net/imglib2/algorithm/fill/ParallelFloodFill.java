@@ -0,0 +1,469 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.fill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BiPredicate;
+
+import gnu.trove.set.hash.TIntHashSet;
+import gnu.trove.set.hash.TLongHashSet;
+import net.imglib2.Cursor;
+import net.imglib2.Localizable;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.DiamondShape;
+import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.algorithm.util.unionfind.IntArrayUnionFind;
+import net.imglib2.type.Type;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.util.ConstantUtils;
+import net.imglib2.util.IntervalIndexer;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+/**
+ * Flood fill many seeds at once. The frontiers of all seeds are expanded
+ * concurrently in a {@link ForkJoinPool}: Large frontiers are split into
+ * sub-tasks that can be stolen by idle workers. Each pixel is claimed by
+ * exactly one seed through a compare-and-set on a primitive array of seed
+ * ids, so no locks are required. Seeds that reach the same connected
+ * component collide: collisions are reported and the entire component is
+ * filled with the label of the colliding seed that comes first in the list
+ * of seeds, independent of thread scheduling.
+ *
+ * The target is written only after all frontiers are exhausted and may be
+ * the same as the source. Concurrent writes to different pixels of the
+ * target must be safe, i.e. sub-byte types such as
+ * {@link net.imglib2.type.logic.BitType} are not supported.
+ */
+public class ParallelFloodFill
+{
+
+	// frontiers larger than this are split into sub-tasks
+	private static final int SPLIT_THRESHOLD = 1 << 12;
+
+	// number of pixels per task when writing into target
+	private static final int WRITE_CHUNK_SIZE = 1 << 16;
+
+	/**
+	 *
+	 * Flood fill all {@code seeds} in the common {@link ForkJoinPool}. A
+	 * pixel belongs to the component of a seed if its value is equal to the
+	 * value of {@code source} at the seed.
+	 *
+	 * See
+	 * {@link #fill(RandomAccessibleInterval, RandomAccessibleInterval, List, long[], Shape, BiPredicate, ForkJoinPool)}.
+	 *
+	 * @param source
+	 *            input
+	 * @param target
+	 *            Written into after all seeds are flooded. May be the same as
+	 *            input.
+	 * @param seeds
+	 *            Start flood fill at these locations.
+	 * @param fillLabels
+	 *            Value to be written for each seed.
+	 * @param shape
+	 *            Defines neighborhood that is considered for connected
+	 *            components, e.g. {@link DiamondShape}
+	 * @return For each seed, the index of the seed whose label was written
+	 *         into its component. Entries that are different from their
+	 *         index indicate a collision.
+	 */
+	public static < T extends Type< T >, L extends IntegerType< L > > int[] fill(
+			final RandomAccessibleInterval< T > source,
+			final RandomAccessibleInterval< L > target,
+			final List< ? extends Localizable > seeds,
+			final long[] fillLabels,
+			final Shape shape )
+	{
+		return fill( source, target, seeds, fillLabels, shape, ForkJoinPool.commonPool() );
+	}
+
+	/**
+	 *
+	 * Flood fill all {@code seeds} in {@code pool}. A pixel belongs to the
+	 * component of a seed if its value is equal to the value of
+	 * {@code source} at the seed.
+	 *
+	 * See
+	 * {@link #fill(RandomAccessibleInterval, RandomAccessibleInterval, List, long[], Shape, BiPredicate, ForkJoinPool)}.
+	 *
+	 * @param source
+	 *            input
+	 * @param target
+	 *            Written into after all seeds are flooded. May be the same as
+	 *            input.
+	 * @param seeds
+	 *            Start flood fill at these locations.
+	 * @param fillLabels
+	 *            Value to be written for each seed.
+	 * @param shape
+	 *            Defines neighborhood that is considered for connected
+	 *            components, e.g. {@link DiamondShape}
+	 * @param pool
+	 *            Frontiers are processed in this {@link ForkJoinPool}.
+	 * @return For each seed, the index of the seed whose label was written
+	 *         into its component. Entries that are different from their
+	 *         index indicate a collision.
+	 */
+	public static < T extends Type< T >, L extends IntegerType< L > > int[] fill(
+			final RandomAccessibleInterval< T > source,
+			final RandomAccessibleInterval< L > target,
+			final List< ? extends Localizable > seeds,
+			final long[] fillLabels,
+			final Shape shape,
+			final ForkJoinPool pool )
+	{
+		return fill( source, target, seeds, fillLabels, shape, ( seedValue, value ) -> seedValue.valueEquals( value ), pool );
+	}
+
+	/**
+	 *
+	 * Flood fill all {@code seeds} in {@code pool}: Starting at each seed
+	 * location, claim each pixel in the neighborhood defined by
+	 * {@code shape} for the seed if {@code filter} accepts it and it has not
+	 * been claimed yet. If a seed reaches a pixel that has been claimed by
+	 * another seed, the two seeds collide. After all frontiers are exhausted,
+	 * the pixels claimed by a group of colliding seeds are written with the
+	 * fill label of the seed with the smallest index in the group.
+	 *
+	 * @param source
+	 *            input
+	 * @param target
+	 *            Written into after all seeds are flooded. May be the same as
+	 *            input.
+	 * @param seeds
+	 *            Start flood fill at these locations.
+	 * @param fillLabels
+	 *            Value to be written for each seed.
+	 * @param shape
+	 *            Defines neighborhood that is considered for connected
+	 *            components, e.g. {@link DiamondShape}
+	 * @param filter
+	 *            Returns true if pixel (second parameter) is part of the same
+	 *            component as the seed (first parameter). Must not modify its
+	 *            parameters.
+	 * @param pool
+	 *            Frontiers are processed in this {@link ForkJoinPool}.
+	 * @return For each seed, the index of the seed whose label was written
+	 *         into its component. Entries that are different from their
+	 *         index indicate a collision.
+	 */
+	public static < T extends Type< T >, L extends IntegerType< L > > int[] fill(
+			final RandomAccessibleInterval< T > source,
+			final RandomAccessibleInterval< L > target,
+			final List< ? extends Localizable > seeds,
+			final long[] fillLabels,
+			final Shape shape,
+			final BiPredicate< T, T > filter,
+			final ForkJoinPool pool )
+	{
+		if ( seeds.size() != fillLabels.length )
+			throw new IllegalArgumentException( "Number of seeds and fill labels do not match: " + seeds.size() + " != " + fillLabels.length );
+		if ( Intervals.numElements( target ) > Integer.MAX_VALUE )
+			throw new IllegalArgumentException( "Cannot fill more than " + Integer.MAX_VALUE + " pixels at once: " + Arrays.toString( Intervals.dimensionsAsLongArray( target ) ) );
+
+		final Context< T > context = new Context<>( Views.interval( source, target ), shape, filter, seeds.size() );
+
+		final List< FillTask< T > > tasks = new ArrayList<>();
+		final RandomAccess< T > access = context.source.randomAccess();
+		for ( int seed = 0; seed < seeds.size(); ++seed )
+		{
+			final Localizable position = seeds.get( seed );
+			if ( !Intervals.contains( target, position ) )
+				throw new IllegalArgumentException( "Seed " + seed + " is outside of target: " + position );
+			access.setPosition( position );
+			final int index = ( int ) IntervalIndexer.positionToIndexForInterval( position, target );
+			if ( context.owners.compareAndSet( index, 0, seed + 1 ) )
+				tasks.add( new FillTask<>( context, seed, access.get().copy(), new int[] { index }, 1 ) );
+			else
+				context.collide( seed, context.owners.get( index ) - 1 );
+		}
+		pool.invoke( new RecursiveAction()
+		{
+			@Override
+			protected void compute()
+			{
+				invokeAll( tasks );
+			}
+		} );
+
+		final IntArrayUnionFind uf = new IntArrayUnionFind( seeds.size() );
+		for ( final long collision : context.collisions.toArray() )
+			uf.join( uf.findRoot( ( int ) ( collision >>> 32 ) ), uf.findRoot( ( int ) collision ) );
+		final int[] filledSeeds = new int[ seeds.size() ];
+		final long[] labels = new long[ seeds.size() ];
+		for ( int seed = 0; seed < filledSeeds.length; ++seed )
+		{
+			filledSeeds[ seed ] = uf.findRoot( seed );
+			labels[ seed ] = fillLabels[ filledSeeds[ seed ] ];
+		}
+
+		pool.invoke( new WriteTask<>( target, context.owners, labels, 0, context.owners.length() ) );
+
+		return filledSeeds;
+	}
+
+	private static final class Context< T >
+	{
+		private final RandomAccessibleInterval< T > source;
+
+		private final long[] min;
+
+		private final long[] dims;
+
+		private final long[][] offsets;
+
+		private final int[] flatOffsets;
+
+		private final BiPredicate< T, T > filter;
+
+		/**
+		 * Seed index + 1 for each claimed pixel, 0 for unclaimed pixels.
+		 */
+		private final AtomicIntegerArray owners;
+
+		/**
+		 * Pairs of colliding seeds encoded as {@code (seed1 << 32) | seed2}.
+		 */
+		private final TLongHashSet collisions = new TLongHashSet();
+
+		private Context( final RandomAccessibleInterval< T > source, final Shape shape, final BiPredicate< T, T > filter, final int numSeeds )
+		{
+			this.source = source;
+			this.min = Intervals.minAsLongArray( source );
+			this.dims = Intervals.dimensionsAsLongArray( source );
+			this.offsets = neighborhoodOffsets( shape, source.numDimensions() );
+			this.flatOffsets = new int[ offsets.length ];
+			for ( int k = 0; k < offsets.length; ++k )
+			{
+				long flatOffset = 0;
+				for ( int d = dims.length - 1; d >= 0; --d )
+					flatOffset = flatOffset * dims[ d ] + offsets[ k ][ d ];
+				flatOffsets[ k ] = ( int ) flatOffset;
+			}
+			this.filter = filter;
+			this.owners = new AtomicIntegerArray( ( int ) Intervals.numElements( source ) );
+		}
+
+		private void collide( final int seed1, final int seed2 )
+		{
+			final long collision = ( long ) Math.min( seed1, seed2 ) << 32 | Math.max( seed1, seed2 );
+			synchronized ( collisions )
+			{
+				collisions.add( collision );
+			}
+		}
+	}
+
+	private static final class FillTask< T > extends RecursiveAction
+	{
+
+		private static final long serialVersionUID = 1L;
+
+		private final Context< T > context;
+
+		private final int seed;
+
+		private final T seedValue;
+
+		private int[] frontier;
+
+		private int size;
+
+		private FillTask( final Context< T > context, final int seed, final T seedValue, final int[] frontier, final int size )
+		{
+			this.context = context;
+			this.seed = seed;
+			this.seedValue = seedValue;
+			this.frontier = frontier;
+			this.size = size;
+		}
+
+		@Override
+		protected void compute()
+		{
+			final int id = seed + 1;
+			final AtomicIntegerArray owners = context.owners;
+			final long[] min = context.min;
+			final long[] dims = context.dims;
+			final long[][] offsets = context.offsets;
+			final int[] flatOffsets = context.flatOffsets;
+			final RandomAccess< T > access = context.source.randomAccess();
+			final long[] position = new long[ dims.length ];
+			final long[] neighbor = new long[ dims.length ];
+			final TIntHashSet collidingSeeds = new TIntHashSet();
+			final List< FillTask< T > > forks = new ArrayList<>();
+
+			while ( size > 0 )
+			{
+				if ( size > SPLIT_THRESHOLD )
+				{
+					final int half = size / 2;
+					final FillTask< T > fork = new FillTask<>( context, seed, seedValue, Arrays.copyOfRange( frontier, size - half, size ), half );
+					size -= half;
+					fork.fork();
+					forks.add( fork );
+				}
+
+				final int index = frontier[ --size ];
+				IntervalIndexer.indexToPosition( index, dims, position );
+				for ( int k = 0; k < offsets.length; ++k )
+				{
+					boolean isInside = true;
+					for ( int d = 0; d < dims.length && isInside; ++d )
+					{
+						neighbor[ d ] = position[ d ] + offsets[ k ][ d ];
+						isInside = neighbor[ d ] >= 0 && neighbor[ d ] < dims[ d ];
+					}
+					if ( !isInside )
+						continue;
+
+					final int neighborIndex = index + flatOffsets[ k ];
+					final int owner = owners.get( neighborIndex );
+					if ( owner == id )
+						continue;
+					if ( owner != 0 && collidingSeeds.contains( owner ) )
+						continue;
+
+					for ( int d = 0; d < dims.length; ++d )
+						access.setPosition( neighbor[ d ] + min[ d ], d );
+					if ( !context.filter.test( seedValue, access.get() ) )
+						continue;
+
+					if ( claim( neighborIndex, id, owners, collidingSeeds ) )
+					{
+						if ( size == frontier.length )
+							frontier = Arrays.copyOf( frontier, 2 * frontier.length );
+						frontier[ size++ ] = neighborIndex;
+					}
+				}
+			}
+
+			for ( final FillTask< T > fork : forks )
+				fork.join();
+		}
+
+		private boolean claim( final int index, final int id, final AtomicIntegerArray owners, final TIntHashSet collidingSeeds )
+		{
+			if ( owners.compareAndSet( index, 0, id ) )
+				return true;
+			final int owner = owners.get( index );
+			if ( owner != id && collidingSeeds.add( owner ) )
+				context.collide( id - 1, owner - 1 );
+			return false;
+		}
+	}
+
+	private static final class WriteTask< L extends IntegerType< L > > extends RecursiveAction
+	{
+
+		private static final long serialVersionUID = 1L;
+
+		private final RandomAccessibleInterval< L > target;
+
+		private final AtomicIntegerArray owners;
+
+		private final long[] labels;
+
+		private final int from;
+
+		private final int to;
+
+		private WriteTask( final RandomAccessibleInterval< L > target, final AtomicIntegerArray owners, final long[] labels, final int from, final int to )
+		{
+			this.target = target;
+			this.owners = owners;
+			this.labels = labels;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if ( to - from > WRITE_CHUNK_SIZE )
+			{
+				final int mid = from + ( to - from ) / 2;
+				invokeAll( new WriteTask<>( target, owners, labels, from, mid ), new WriteTask<>( target, owners, labels, mid, to ) );
+				return;
+			}
+
+			final Cursor< L > cursor = Views.flatIterable( target ).cursor();
+			cursor.jumpFwd( from );
+			for ( int index = from; index < to; ++index )
+			{
+				final L l = cursor.next();
+				final int owner = owners.get( index );
+				if ( owner != 0 )
+					l.setInteger( labels[ owner - 1 ] );
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param shape
+	 * @param nDim
+	 * @return Offsets of all non-center pixels of the {@link Neighborhood}
+	 *         that is created by {@code shape} at the origin.
+	 */
+	private static long[][] neighborhoodOffsets( final Shape shape, final int nDim )
+	{
+		final RandomAccessible< Object > accessible = ConstantUtils.constantRandomAccessible( null, nDim );
+		final RandomAccess< Neighborhood< Object > > access = shape.neighborhoodsRandomAccessible( accessible ).randomAccess();
+		access.setPosition( new long[ nDim ] );
+		final Cursor< Object > cursor = access.get().localizingCursor();
+		final List< long[] > offsets = new ArrayList<>();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			final long[] offset = new long[ nDim ];
+			cursor.localize( offset );
+			if ( Arrays.stream( offset ).anyMatch( o -> o != 0 ) )
+				offsets.add( offset );
+		}
+		return offsets.toArray( new long[ offsets.size() ][] );
+	}
+
+}
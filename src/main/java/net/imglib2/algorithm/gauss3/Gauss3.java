@@ -41,6 +41,7 @@ import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.convolution.Convolution;
 import net.imglib2.algorithm.convolution.kernel.Kernel1D;
+import net.imglib2.algorithm.convolution.kernel.KernelCache;
 import net.imglib2.algorithm.convolution.kernel.SeparableKernelConvolution;
 import net.imglib2.exception.IncompatibleTypeException;
 import net.imglib2.type.numeric.NumericType;
@@ -201,19 +202,26 @@ public final class Gauss3
 	 */
 	public static < S extends NumericType< S >, T extends NumericType< T > > void gauss( final double[] sigma, final RandomAccessible< S > source, final RandomAccessibleInterval< T > target, final ExecutorService service ) throws IncompatibleTypeException
 	{
-		final double[][] halfkernels = halfkernels( sigma );
-		final Convolution< NumericType< ? > > convolution = SeparableKernelConvolution.convolution( Kernel1D.symmetric( halfkernels ) );
+		final Kernel1D[] kernels = KernelCache.getDefault().gauss( sigma );
+		final Convolution< NumericType< ? > > convolution = SeparableKernelConvolution.convolution( kernels );
 		convolution.setExecutor( service );
 		convolution.process( source, target );
 	}
 
+	/**
+	 * Returns the normalized half-kernels used by
+	 * {@link #gauss(double[], RandomAccessible, RandomAccessibleInterval)}.
+	 * The coefficients are taken from {@link KernelCache#getDefault()}, the
+	 * returned arrays are copies and may be modified.
+	 */
 	public static double[][] halfkernels( final double[] sigma )
 	{
 		final int n = sigma.length;
 		final double[][] halfkernels = new double[ n ][];
 		final int[] size = halfkernelsizes( sigma );
+		final KernelCache cache = KernelCache.getDefault();
 		for ( int i = 0; i < n; ++i )
-			halfkernels[ i ] = halfkernel( sigma[ i ], size[ i ], true );
+			halfkernels[ i ] = cache.halfkernel( sigma[ i ], size[ i ], true ).clone();
 		return halfkernels;
 	}
 
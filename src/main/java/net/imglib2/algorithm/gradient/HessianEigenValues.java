@@ -0,0 +1,439 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.gradient;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.convolution.Convolution;
+import net.imglib2.algorithm.convolution.kernel.KernelCache;
+import net.imglib2.algorithm.convolution.kernel.SeparableKernelConvolution;
+import net.imglib2.algorithm.gauss3.Gauss3;
+import net.imglib2.algorithm.linalg.eigen.TensorEigenValues;
+import net.imglib2.algorithm.util.ParallelizeOverBlocks;
+import net.imglib2.algorithm.util.SequentialExecutorService;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.type.numeric.NumericType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+import net.imglib2.view.composite.RealComposite;
+
+/**
+ *
+ * Compute eigenvalues of the n-dimensional Hessian matrix, or a per-pixel
+ * function of them, without materializing the Hessian matrix for the whole
+ * image.
+ *
+ * The image is processed block by block. For each block the Gaussian, the
+ * gradient and the Hessian matrix are computed in small temporary images that
+ * cover only the block (plus a border of two, respectively one, pixels), then
+ * the eigenvalues are computed and written to the output. The result is
+ * identical to
+ * {@link HessianMatrix#calculateMatrix(RandomAccessible, RandomAccessibleInterval, RandomAccessibleInterval, RandomAccessibleInterval, OutOfBoundsFactory, double...)}
+ * followed by
+ * {@link TensorEigenValues#calculateEigenValuesSymmetric(RandomAccessibleInterval, RandomAccessibleInterval)}
+ * with {@link DoubleType} intermediate results, for out of bounds strategies
+ * that only access pixels close to the border (e.g. border, mirror, value).
+ */
+public class HessianEigenValues
+{
+
+	/**
+	 * Per-pixel function of the eigenvalues of the Hessian matrix.
+	 */
+	public interface Reduction< U >
+	{
+		/**
+		 * @param eigenvalues
+		 *            eigenvalues of the Hessian matrix at the current pixel.
+		 *            The array is reused for all pixels and may be modified.
+		 * @param target
+		 *            output pixel
+		 */
+		void reduce( double[] eigenvalues, U target );
+	}
+
+	/**
+	 * Process blocks of {@link #defaultBlockSize(double[])}, which grow with
+	 * {@code sigma} such that the padding for Gaussian smoothing and gradients
+	 * that is recomputed for each block stays small compared to the block.
+	 *
+	 * @param source
+	 *            n-dimensional input {@link RandomAccessible}, must be
+	 *            sufficiently padded for Gaussian smoothing.
+	 * @param eigenvalues
+	 *            n+1-dimensional {@link RandomAccessibleInterval} for storing
+	 *            the eigenvalues (size of last dimension is n)
+	 * @param outOfBounds
+	 *            {@link OutOfBoundsFactory} that specifies how out of bound
+	 *            pixels of intermediate results should be handled (necessary
+	 *            for gradient computation).
+	 * @param nTasks
+	 *            Number of tasks used for parallel computation.
+	 * @param es
+	 *            {@link ExecutorService} providing workers for parallel
+	 *            computation. Service is managed (created, shutdown) by caller.
+	 * @param sigma
+	 *            Scale for Gaussian smoothing.
+	 * @return eigenvalues that were passed as output parameter.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static < T extends RealType< T >, U extends RealType< U > > RandomAccessibleInterval< U > calculateEigenValues(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > eigenvalues,
+			final OutOfBoundsFactory< DoubleType, ? super RandomAccessibleInterval< DoubleType > > outOfBounds,
+			final int nTasks,
+			final ExecutorService es,
+			final double... sigma ) throws InterruptedException, ExecutionException
+	{
+		return calculateEigenValues( source, eigenvalues, outOfBounds, defaultBlockSize( expand( sigma, eigenvalues.numDimensions() - 1 ) ), nTasks, es, sigma );
+	}
+
+	/**
+	 * @param source
+	 *            n-dimensional input {@link RandomAccessible}, must be
+	 *            sufficiently padded for Gaussian smoothing.
+	 * @param eigenvalues
+	 *            n+1-dimensional {@link RandomAccessibleInterval} for storing
+	 *            the eigenvalues (size of last dimension is n)
+	 * @param outOfBounds
+	 *            {@link OutOfBoundsFactory} that specifies how out of bound
+	 *            pixels of intermediate results should be handled (necessary
+	 *            for gradient computation).
+	 * @param blockSize
+	 *            Size of the blocks that are processed at once.
+	 * @param nTasks
+	 *            Number of tasks used for parallel computation.
+	 * @param es
+	 *            {@link ExecutorService} providing workers for parallel
+	 *            computation. Service is managed (created, shutdown) by caller.
+	 * @param sigma
+	 *            Scale for Gaussian smoothing.
+	 * @return eigenvalues that were passed as output parameter.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static < T extends RealType< T >, U extends RealType< U > > RandomAccessibleInterval< U > calculateEigenValues(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > eigenvalues,
+			final OutOfBoundsFactory< DoubleType, ? super RandomAccessibleInterval< DoubleType > > outOfBounds,
+			final int[] blockSize,
+			final int nTasks,
+			final ExecutorService es,
+			final double... sigma ) throws InterruptedException, ExecutionException
+	{
+		final int nDim = eigenvalues.numDimensions() - 1;
+		assert eigenvalues.dimension( nDim ) == nDim;
+		final Interval interval = new FinalInterval(
+				Arrays.copyOf( Intervals.minAsLongArray( eigenvalues ), nDim ),
+				Arrays.copyOf( Intervals.maxAsLongArray( eigenvalues ), nDim ) );
+		final double[] sigmas = expand( sigma, nDim );
+
+		ParallelizeOverBlocks.parallelizeAndWait( block -> {
+			final RandomAccessibleInterval< DoubleType > hessian = hessianMatrix( source, interval, block, outOfBounds, sigmas );
+			TensorEigenValues.calculateEigenValuesSymmetric( hessian, Views.interval( eigenvalues, withChannels( block, nDim ) ) );
+			return null;
+		}, interval, blockSize, es, nTasks );
+
+		return eigenvalues;
+	}
+
+	/**
+	 * Process blocks of {@link #defaultBlockSize(double[])}, which grow with
+	 * {@code sigma} such that the padding for Gaussian smoothing and gradients
+	 * that is recomputed for each block stays small compared to the block.
+	 *
+	 * @param source
+	 *            n-dimensional input {@link RandomAccessible}, must be
+	 *            sufficiently padded for Gaussian smoothing.
+	 * @param target
+	 *            2D or 3D {@link RandomAccessibleInterval} for storing the
+	 *            result of <code>reduction</code>.
+	 * @param reduction
+	 *            per-pixel function of the eigenvalues, e.g.
+	 *            {@link #frangiVesselness(double, double, double)}
+	 * @param outOfBounds
+	 *            {@link OutOfBoundsFactory} that specifies how out of bound
+	 *            pixels of intermediate results should be handled (necessary
+	 *            for gradient computation).
+	 * @param nTasks
+	 *            Number of tasks used for parallel computation.
+	 * @param es
+	 *            {@link ExecutorService} providing workers for parallel
+	 *            computation. Service is managed (created, shutdown) by caller.
+	 * @param sigma
+	 *            Scale for Gaussian smoothing.
+	 * @return target that was passed as output parameter.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static < T extends RealType< T >, U > RandomAccessibleInterval< U > calculate(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final Reduction< ? super U > reduction,
+			final OutOfBoundsFactory< DoubleType, ? super RandomAccessibleInterval< DoubleType > > outOfBounds,
+			final int nTasks,
+			final ExecutorService es,
+			final double... sigma ) throws InterruptedException, ExecutionException
+	{
+		return calculate( source, target, reduction, outOfBounds, defaultBlockSize( expand( sigma, target.numDimensions() ) ), nTasks, es, sigma );
+	}
+
+	/**
+	 * @param source
+	 *            n-dimensional input {@link RandomAccessible}, must be
+	 *            sufficiently padded for Gaussian smoothing.
+	 * @param target
+	 *            2D or 3D {@link RandomAccessibleInterval} for storing the
+	 *            result of <code>reduction</code>.
+	 * @param reduction
+	 *            per-pixel function of the eigenvalues, e.g.
+	 *            {@link #frangiVesselness(double, double, double)}
+	 * @param outOfBounds
+	 *            {@link OutOfBoundsFactory} that specifies how out of bound
+	 *            pixels of intermediate results should be handled (necessary
+	 *            for gradient computation).
+	 * @param blockSize
+	 *            Size of the blocks that are processed at once.
+	 * @param nTasks
+	 *            Number of tasks used for parallel computation.
+	 * @param es
+	 *            {@link ExecutorService} providing workers for parallel
+	 *            computation. Service is managed (created, shutdown) by caller.
+	 * @param sigma
+	 *            Scale for Gaussian smoothing.
+	 * @return target that was passed as output parameter.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static < T extends RealType< T >, U > RandomAccessibleInterval< U > calculate(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final Reduction< ? super U > reduction,
+			final OutOfBoundsFactory< DoubleType, ? super RandomAccessibleInterval< DoubleType > > outOfBounds,
+			final int[] blockSize,
+			final int nTasks,
+			final ExecutorService es,
+			final double... sigma ) throws InterruptedException, ExecutionException
+	{
+		final int nDim = target.numDimensions();
+		if ( nDim != 2 && nDim != 3 )
+			throw new IllegalArgumentException( "Reductions of Hessian eigenvalues are only supported for 2D and 3D images, but target has " + nDim + " dimensions." );
+		final double[] sigmas = expand( sigma, nDim );
+
+		ParallelizeOverBlocks.parallelizeAndWait( block -> {
+			final RandomAccessibleInterval< DoubleType > hessian = hessianMatrix( source, target, block, outOfBounds, sigmas );
+			final RandomAccessibleInterval< DoubleType > eigenvalues = Views.translate(
+					ArrayImgs.doubles( Intervals.dimensionsAsLongArray( withChannels( block, nDim ) ) ),
+					Intervals.minAsLongArray( withChannels( block, nDim ) ) );
+			TensorEigenValues.calculateEigenValuesSymmetric( hessian, eigenvalues );
+
+			final double[] values = new double[ nDim ];
+			final Cursor< RealComposite< DoubleType > > e = Views.flatIterable( Views.collapseReal( eigenvalues ) ).cursor();
+			final Cursor< U > t = Views.flatIterable( Views.interval( target, block ) ).cursor();
+			while ( t.hasNext() )
+			{
+				final RealComposite< DoubleType > composite = e.next();
+				for ( int d = 0; d < nDim; ++d )
+					values[ d ] = composite.get( d ).getRealDouble();
+				reduction.reduce( values, t.next() );
+			}
+			return null;
+		}, target, blockSize, es, nTasks );
+
+		return target;
+	}
+
+	/**
+	 * Vesselness measure for bright tubular (3D) or line-like (2D) structures
+	 * on dark background, as defined in Frangi et al.: "Multiscale vessel
+	 * enhancement filtering", MICCAI 1998.
+	 *
+	 * @param alpha
+	 *            sensitivity to the plate-like vs line-like ratio (3D only)
+	 * @param beta
+	 *            sensitivity to the blob-like ratio
+	 * @param c
+	 *            sensitivity to the structure strength (Frobenius norm of the
+	 *            Hessian matrix)
+	 */
+	public static Reduction< RealType< ? > > frangiVesselness( final double alpha, final double beta, final double c )
+	{
+		final double twoAlphaSq = 2 * alpha * alpha;
+		final double twoBetaSq = 2 * beta * beta;
+		final double twoCSq = 2 * c * c;
+		return ( eigenvalues, target ) -> {
+			sortByMagnitude( eigenvalues );
+			final int n = eigenvalues.length;
+			double sSq = 0;
+			for ( final double ev : eigenvalues )
+				sSq += ev * ev;
+			final double structure = 1 - Math.exp( -sSq / twoCSq );
+			if ( n == 2 )
+			{
+				final double l1 = eigenvalues[ 0 ], l2 = eigenvalues[ 1 ];
+				if ( l2 >= 0 )
+					target.setReal( 0 );
+				else
+				{
+					final double rb = l1 / l2;
+					target.setReal( Math.exp( -rb * rb / twoBetaSq ) * structure );
+				}
+			}
+			else if ( n == 3 )
+			{
+				final double l1 = eigenvalues[ 0 ], l2 = eigenvalues[ 1 ], l3 = eigenvalues[ 2 ];
+				if ( l2 >= 0 || l3 >= 0 )
+					target.setReal( 0 );
+				else
+				{
+					final double ra = l2 / l3;
+					final double rbSq = l1 * l1 / ( l2 * l3 );
+					target.setReal( ( 1 - Math.exp( -ra * ra / twoAlphaSq ) ) * Math.exp( -rbSq / twoBetaSq ) * structure );
+				}
+			}
+			else
+				throw new UnsupportedOperationException( "Vesselness is only defined for 2D and 3D images." );
+		};
+	}
+
+	/**
+	 * Default block size: roughly 2^15 pixels per block, such that the
+	 * temporary images of a block stay in the cache.
+	 */
+	public static int[] defaultBlockSize( final int nDim )
+	{
+		final int[] blockSize = new int[ nDim ];
+		Arrays.fill( blockSize, Math.max( 8, ( int ) Math.pow( 1 << 15, 1.0 / nDim ) ) );
+		return blockSize;
+	}
+
+	/**
+	 * Default block size for Gaussian smoothing with {@code sigma}: each
+	 * block is padded with the half size of the Gaussian kernel plus two
+	 * pixels for the gradients, which is recomputed by every adjacent block.
+	 * Blocks are at least {@link #defaultBlockSize(int)} and at least four
+	 * times that padding per dimension, such that the padding stays a
+	 * fraction of the work for large {@code sigma}.
+	 */
+	public static int[] defaultBlockSize( final double[] sigma )
+	{
+		final int[] blockSize = defaultBlockSize( sigma.length );
+		final int[] halfKernelSizes = Gauss3.halfkernelsizes( sigma );
+		for ( int d = 0; d < sigma.length; ++d )
+			blockSize[ d ] = Math.max( blockSize[ d ], 4 * ( halfKernelSizes[ d ] - 1 + 2 ) );
+		return blockSize;
+	}
+
+	private static < T extends RealType< T > > RandomAccessibleInterval< DoubleType > hessianMatrix(
+			final RandomAccessible< T > source,
+			final Interval interval,
+			final Interval block,
+			final OutOfBoundsFactory< DoubleType, ? super RandomAccessibleInterval< DoubleType > > outOfBounds,
+			final double[] sigma )
+	{
+		final int nDim = block.numDimensions();
+
+		final Interval gaussianInterval = Intervals.intersect( Intervals.expand( block, 2 ), interval );
+		final RandomAccessibleInterval< DoubleType > gaussian = createImage( gaussianInterval );
+		final Convolution< NumericType< ? > > convolution = SeparableKernelConvolution.convolution( KernelCache.getDefault().gauss( sigma ) );
+		convolution.setExecutor( new SequentialExecutorService() );
+		convolution.process( source, gaussian );
+
+		final Interval gradientInterval = Intervals.intersect( Intervals.expand( block, 1 ), interval );
+		final RandomAccessibleInterval< DoubleType > gradient = createImage( withChannels( gradientInterval, nDim ) );
+		final RandomAccessible< DoubleType > extendedGaussian = Views.extend( gaussian, outOfBounds );
+		for ( int d = 0; d < nDim; ++d )
+			PartialDerivative.gradientCentralDifference( extendedGaussian, Views.hyperSlice( gradient, nDim, d ), d );
+
+		final RandomAccessibleInterval< DoubleType > hessian = createImage( withChannels( block, nDim * ( nDim + 1 ) / 2 ) );
+		final RandomAccessible< DoubleType > extendedGradient = Views.extend( gradient, outOfBounds );
+		long count = 0;
+		for ( int d1 = 0; d1 < nDim; ++d1 )
+			for ( int d2 = d1; d2 < nDim; ++d2 )
+			{
+				PartialDerivative.gradientCentralDifference( Views.hyperSlice( extendedGradient, nDim, d1 ), Views.hyperSlice( hessian, nDim, count ), d2 );
+				++count;
+			}
+		return hessian;
+	}
+
+	private static RandomAccessibleInterval< DoubleType > createImage( final Interval interval )
+	{
+		return Views.translate( ArrayImgs.doubles( Intervals.dimensionsAsLongArray( interval ) ), Intervals.minAsLongArray( interval ) );
+	}
+
+	private static Interval withChannels( final Interval interval, final long numChannels )
+	{
+		final int nDim = interval.numDimensions();
+		final long[] min = Arrays.copyOf( Intervals.minAsLongArray( interval ), nDim + 1 );
+		final long[] max = Arrays.copyOf( Intervals.maxAsLongArray( interval ), nDim + 1 );
+		max[ nDim ] = numChannels - 1;
+		return new FinalInterval( min, max );
+	}
+
+	private static double[] expand( final double[] sigma, final int nDim )
+	{
+		if ( sigma.length != 1 )
+			return sigma;
+		final double[] sigmas = new double[ nDim ];
+		Arrays.fill( sigmas, sigma[ 0 ] );
+		return sigmas;
+	}
+
+	private static void sortByMagnitude( final double[] values )
+	{
+		// insertion sort, n is small
+		for ( int i = 1; i < values.length; ++i )
+		{
+			final double v = values[ i ];
+			int j = i - 1;
+			for ( ; j >= 0 && Math.abs( values[ j ] ) > Math.abs( v ); --j )
+				values[ j + 1 ] = values[ j ];
+			values[ j + 1 ] = v;
+		}
+	}
+
+}
@@ -41,6 +41,8 @@ import java.util.stream.IntStream;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.View;
+import net.imglib2.algorithm.convolution.Convolution;
+import net.imglib2.algorithm.convolution.recursive_gauss.RecursiveGauss;
 import net.imglib2.algorithm.gauss3.Gauss3;
 import net.imglib2.exception.IncompatibleTypeException;
 import net.imglib2.outofbounds.OutOfBoundsFactory;
@@ -335,6 +337,80 @@ public class HessianMatrix
 	}
 
 
+	// recursive gaussian derivatives
+
+	/**
+	 * Computes the gradient and the Hessian matrix of the Gaussian smoothed
+	 * source with {@link RecursiveGauss#derivative}. Every entry is computed
+	 * by a single separable pass per dimension that fuses smoothing and
+	 * differentiation, the smoothed image is not materialized. The cost per
+	 * pixel does not depend on sigma.
+	 *
+	 * Note that the result is not identical to the other
+	 * {@link HessianMatrix#calculateMatrix} methods: Gaussian smoothing is
+	 * approximated by a recursive filter, and the diagonal entries use the
+	 * second difference <code>x[i+1] - 2 x[i] + x[i-1]</code> instead of two
+	 * central differences.
+	 *
+	 * @param source
+	 *            n-dimensional input {@link RandomAccessible}, must be
+	 *            sufficiently padded (e.g. {@link Views#extendBorder}).
+	 * @param gradient
+	 *            n+1-dimensional {@link RandomAccessibleInterval} for storing
+	 *            the gradients along all axes of the smoothed source (size of
+	 *            last dimension is n), may be <code>null</code> if the
+	 *            gradient is not needed.
+	 * @param hessianMatrix
+	 *            n+1-dimensional {@link RandomAccessibleInterval} for storing
+	 *            all second partial derivatives as a linear representation
+	 *            (size of last dimension is n * ( n + 1 ) / 2) of upper
+	 *            triangular Hessian matrix: For n-dimensional input,
+	 *            <code>hessianMatrix</code> (m) will be populated along the nth
+	 *            dimension like this: [m11, m12, ... , m1n, m22, m23, ... ,
+	 *            mnn]
+	 * @param es
+	 *            {@link ExecutorService} providing workers for parallel
+	 *            computation. Service is managed (created, shutdown) by caller.
+	 * @param sigma
+	 *            Scale for Gaussian smoothing, at least 0.5.
+	 *
+	 * @return Hessian matrix that was passed as output parameter.
+	 */
+	public static < T extends RealType< T >, U extends RealType< U > > RandomAccessibleInterval< U > calculateMatrix(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > gradient,
+			final RandomAccessibleInterval< U > hessianMatrix,
+			final ExecutorService es,
+			final double... sigma )
+	{
+
+		final int nDim = hessianMatrix.numDimensions() - 1;
+		final double[] sigmas = sigma.length == 1 ? IntStream.range( 0, nDim ).mapToDouble( i -> sigma[ 0 ] ).toArray() : sigma;
+
+		if ( gradient != null )
+			for ( int d = 0; d < nDim; ++d )
+			{
+				final int[] order = new int[ nDim ];
+				order[ d ] = 1;
+				final Convolution< RealType< ? > > derivative = RecursiveGauss.derivative( sigmas, order );
+				derivative.setExecutor( es );
+				derivative.process( source, Views.hyperSlice( gradient, nDim, d ) );
+			}
+
+		long count = 0;
+		for ( int d1 = 0; d1 < nDim; ++d1 )
+			for ( int d2 = d1; d2 < nDim; ++d2 )
+			{
+				final int[] order = new int[ nDim ];
+				++order[ d1 ];
+				++order[ d2 ];
+				final Convolution< RealType< ? > > derivative = RecursiveGauss.derivative( sigmas, order );
+				derivative.setExecutor( es );
+				derivative.process( source, Views.hyperSlice( hessianMatrix, nDim, count ) );
+				++count;
+			}
+		return hessianMatrix;
+	}
 
 	/**
 	 *
@@ -34,27 +34,39 @@
 
 package net.imglib2.algorithm.labeling;
 
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.LongFunction;
 import java.util.function.LongUnaryOperator;
 import java.util.function.ToLongBiFunction;
 
+import gnu.trove.list.array.TLongArrayList;
 import gnu.trove.map.hash.TLongLongHashMap;
 import net.imglib2.Cursor;
 import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
 import net.imglib2.Localizable;
+import net.imglib2.Point;
+import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.neighborhood.DiamondShape;
 import net.imglib2.algorithm.neighborhood.Neighborhood;
 import net.imglib2.algorithm.neighborhood.RectangleNeighborhood;
 import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.algorithm.util.Grids;
+import net.imglib2.algorithm.util.ParallelizeOverBlocks;
 import net.imglib2.algorithm.util.unionfind.IntArrayRankedUnionFind;
+import net.imglib2.algorithm.util.unionfind.LongHashMapUnionFind;
 import net.imglib2.algorithm.util.unionfind.UnionFind;
+import net.imglib2.converter.Converters;
+import net.imglib2.img.cell.AbstractCellImg;
 import net.imglib2.type.BooleanType;
 import net.imglib2.type.numeric.IntegerType;
 import net.imglib2.util.IntervalIndexer;
 import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
 import net.imglib2.view.Views;
 
 /**
@@ -211,6 +223,265 @@ public class ConnectedComponentAnalysis
 		UnionFind.relabel( mask, labeling, uf, idForPixel, idForSet );
 	}
 
+	/**
+	 *
+	 * Block-wise connected component analysis with respect to a 4-neighborhood
+	 * ({@link DiamondShape}) or the generalization for higher dimensions for
+	 * {@link AbstractCellImg} labelings. Blocks are aligned with the cells of
+	 * {@code labeling}. See
+	 * {@link #connectedComponents(RandomAccessibleInterval, RandomAccessibleInterval, Shape, int[], ExecutorService, int)}.
+	 *
+	 * @param mask
+	 *            Boolean mask to distinguish foreground ({@code true}) from
+	 *            background ({@code false}).
+	 * @param labeling
+	 *            Output parameter to store block-wise labeling. Note that
+	 *            initially all pixels are expected to be zero as background
+	 *            values will not be written.
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution over blocks.
+	 * @param numTasks
+	 *            Number of tasks submitted to {@code es}.
+	 * @return Assignments of block-wise labels that are connected across
+	 *         block boundaries to the label of the connected component.
+	 *         Labels that are not contained in the mapping are labels of
+	 *         connected components.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static < B extends BooleanType< B >, L extends IntegerType< L > > TLongLongHashMap connectedComponents(
+			final RandomAccessibleInterval< B > mask,
+			final AbstractCellImg< L, ?, ?, ? > labeling,
+			final ExecutorService es,
+			final int numTasks ) throws InterruptedException, ExecutionException
+	{
+		final int[] blockSize = new int[ labeling.numDimensions() ];
+		labeling.getCellGrid().cellDimensions( blockSize );
+		return connectedComponents( mask, labeling, new DiamondShape( 1 ), blockSize, es, numTasks );
+	}
+
+	/**
+	 *
+	 * Block-wise connected component analysis with respect to a neighborhood
+	 * ({@code shape}) over a binary mask for images that are too large to be
+	 * processed with a single {@link UnionFind}, e.g. {@link AbstractCellImg}
+	 * or lazily evaluated images. {@code mask} and {@code labeling} are
+	 * expected to have equal min and max.
+	 *
+	 * Each block is labeled independently and in parallel. Block-wise labels
+	 * are unique across all blocks: the label of a set is one plus the index
+	 * (with respect to {@code labeling}) of the pixel that is the root of the
+	 * set in the block-wise union find. That pixel is a member of the set but
+	 * not necessarily its first pixel. Subsequently,
+	 * pairs of labels that are adjacent across block boundaries are merged
+	 * with a {@link LongHashMapUnionFind}. The block-wise labeling is not
+	 * updated. Instead, the returned mapping can be applied lazily with
+	 * {@link #relabel(RandomAccessibleInterval, TLongLongHashMap)}. Labels of
+	 * connected components are not consecutive and depend on
+	 * {@code blockSize}.
+	 *
+	 * @param mask
+	 *            Boolean mask to distinguish foreground ({@code true}) from
+	 *            background ({@code false}).
+	 * @param labeling
+	 *            Output parameter to store block-wise labeling. Note that
+	 *            initially all pixels are expected to be zero as background
+	 *            values will not be written. The type of {@code labeling}
+	 *            must be able to represent the number of pixels in
+	 *            {@code labeling}.
+	 * @param shape
+	 *            Connectivity of connected components, e.g. 4-neighborhood
+	 *            ({@link DiamondShape}), 8-neighborhood
+	 *            ({@link RectangleNeighborhood}) and their generalisations for
+	 *            higher dimensions.
+	 * @param blockSize
+	 *            Size of blocks that are processed independently. Use the
+	 *            cell size for {@link AbstractCellImg}.
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution over blocks.
+	 * @param numTasks
+	 *            Number of tasks submitted to {@code es}.
+	 * @return Assignments of block-wise labels that are connected across
+	 *         block boundaries to the label of the connected component, i.e.
+	 *         the smallest block-wise label in the connected component.
+	 *         Labels that are not contained in the mapping are labels of
+	 *         connected components.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static < B extends BooleanType< B >, L extends IntegerType< L > > TLongLongHashMap connectedComponents(
+			final RandomAccessibleInterval< B > mask,
+			final RandomAccessibleInterval< L > labeling,
+			final Shape shape,
+			final int[] blockSize,
+			final ExecutorService es,
+			final int numTasks ) throws InterruptedException, ExecutionException
+	{
+		assert Intervals.contains( mask, labeling ) && Intervals.contains( labeling, mask ): "Mask and labeling are not the same size.";
+
+		final int nDim = labeling.numDimensions();
+		final List< Interval > blocks = Grids.collectAllContainedIntervals(
+				Intervals.minAsLongArray( labeling ),
+				Intervals.maxAsLongArray( labeling ),
+				blockSize );
+
+		ParallelizeOverBlocks.parallelizeAndWait(
+				block -> {
+					connectedComponentsInBlock( mask, labeling, shape, block );
+					return null;
+				},
+				blocks,
+				es,
+				numTasks );
+
+		final long[][] offsets = SeededWatershed.neighborhoodOffsets( shape, nDim );
+		final List< TLongArrayList > pairs = ParallelizeOverBlocks.parallelizeAndWait(
+				block -> adjacentAcrossBlockBoundary( mask, labeling, block, offsets ),
+				blocks,
+				es,
+				numTasks );
+
+		final UnionFind uf = new LongHashMapUnionFind();
+		for ( final TLongArrayList blockPairs : pairs )
+			for ( int i = 0; i < blockPairs.size(); i += 2 )
+			{
+				final long r1 = uf.findRoot( blockPairs.get( i ) );
+				final long r2 = uf.findRoot( blockPairs.get( i + 1 ) );
+				if ( r1 != r2 )
+					uf.join( r1, r2 );
+			}
+
+		final TLongLongHashMap mapping = new TLongLongHashMap();
+		for ( final TLongArrayList blockPairs : pairs )
+			for ( int i = 0; i < blockPairs.size(); ++i )
+			{
+				final long id = blockPairs.get( i );
+				final long root = uf.findRoot( id );
+				if ( root != id )
+					mapping.put( id, root );
+			}
+		return mapping;
+	}
+
+	/**
+	 *
+	 * Lazily apply {@code mapping} to {@code labeling}. The returned view is
+	 * evaluated on access and can be wrapped in a cache or written into an
+	 * image if labels are accessed repeatedly.
+	 *
+	 * @param labeling
+	 *            block-wise labeling
+	 * @param mapping
+	 *            as returned by
+	 *            {@link #connectedComponents(RandomAccessibleInterval, RandomAccessibleInterval, Shape, int[], ExecutorService, int)}
+	 * @return {@code labeling} with {@code mapping} applied to all labels that
+	 *         are contained in {@code mapping}.
+	 */
+	public static < L extends IntegerType< L > > RandomAccessibleInterval< L > relabel(
+			final RandomAccessibleInterval< L > labeling,
+			final TLongLongHashMap mapping )
+	{
+		return Converters.convert(
+				labeling,
+				( s, t ) -> {
+					final long id = s.getIntegerLong();
+					t.setInteger( mapping.containsKey( id ) ? mapping.get( id ) : id );
+				},
+				Util.getTypeFromInterval( labeling ).createVariable() );
+	}
+
+	private static < B extends BooleanType< B >, L extends IntegerType< L > > void connectedComponentsInBlock(
+			final RandomAccessibleInterval< B > mask,
+			final RandomAccessibleInterval< L > labeling,
+			final Shape shape,
+			final Interval block )
+	{
+		final long[] blockMin = Intervals.minAsLongArray( block );
+		final long[] blockDimensions = Intervals.dimensionsAsLongArray( block );
+		final long[] position = new long[ block.numDimensions() ];
+		connectedComponents(
+				Views.interval( mask, block ),
+				Views.interval( labeling, block ),
+				shape,
+				n -> new IntArrayRankedUnionFind( ( int ) n ),
+				idFromIntervalIndexer( block ),
+				root -> {
+					IntervalIndexer.indexToPositionWithOffset( root, blockDimensions, blockMin, position );
+					return IntervalIndexer.positionToIndexForInterval( Point.wrap( position ), labeling ) + 1;
+				} );
+	}
+
+	/**
+	 * Collect pairs of labels of foreground pixels inside {@code block} and
+	 * foreground pixels outside {@code block} that are adjacent with respect
+	 * to {@code offsets}. Only the pixels within the reach of
+	 * {@code offsets} from the faces of {@code block} are visited.
+	 */
+	private static < B extends BooleanType< B >, L extends IntegerType< L > > TLongArrayList adjacentAcrossBlockBoundary(
+			final RandomAccessibleInterval< B > mask,
+			final RandomAccessibleInterval< L > labeling,
+			final Interval block,
+			final long[][] offsets )
+	{
+		final int nDim = block.numDimensions();
+		final long[] reach = new long[ nDim ];
+		for ( final long[] offset : offsets )
+			for ( int d = 0; d < nDim; ++d )
+				reach[ d ] = Math.max( reach[ d ], Math.abs( offset[ d ] ) );
+
+		final TLongArrayList pairs = new TLongArrayList();
+		final RandomAccess< B > maskAccess = mask.randomAccess();
+		final RandomAccess< L > labelingAccess = labeling.randomAccess();
+		final long[] position = new long[ nDim ];
+		final long[] neighbor = new long[ nDim ];
+
+		for ( int d = 0; d < nDim; ++d )
+		{
+			if ( reach[ d ] == 0 )
+				continue;
+			for ( final boolean isLower : new boolean[] { true, false } )
+			{
+				// slabs at the boundary of labeling have no neighboring blocks
+				if ( isLower ? block.min( d ) == labeling.min( d ) : block.max( d ) == labeling.max( d ) )
+					continue;
+				final long[] slabMin = Intervals.minAsLongArray( block );
+				final long[] slabMax = Intervals.maxAsLongArray( block );
+				if ( isLower )
+					slabMax[ d ] = Math.min( slabMax[ d ], slabMin[ d ] + reach[ d ] - 1 );
+				else
+					slabMin[ d ] = Math.max( slabMin[ d ], slabMax[ d ] - reach[ d ] + 1 );
+
+				final Cursor< B > maskCursor = Views.flatIterable( Views.interval( mask, slabMin, slabMax ) ).localizingCursor();
+				while ( maskCursor.hasNext() )
+				{
+					if ( !maskCursor.next().get() )
+						continue;
+					maskCursor.localize( position );
+					labelingAccess.setPosition( position );
+					final long label = labelingAccess.get().getIntegerLong();
+					for ( final long[] offset : offsets )
+					{
+						for ( int k = 0; k < nDim; ++k )
+							neighbor[ k ] = position[ k ] + offset[ k ];
+						if ( Intervals.contains( block, Point.wrap( neighbor ) ) || !Intervals.contains( labeling, Point.wrap( neighbor ) ) )
+							continue;
+						maskAccess.setPosition( neighbor );
+						if ( !maskAccess.get().get() )
+							continue;
+						labelingAccess.setPosition( neighbor );
+						final long neighborLabel = labelingAccess.get().getIntegerLong();
+						if ( neighborLabel != label )
+						{
+							pairs.add( label );
+							pairs.add( neighborLabel );
+						}
+					}
+				}
+			}
+		}
+		return pairs;
+	}
+
 	private static < B extends BooleanType< B >, L extends IntegerType< L > > UnionFind makeUnion(
 			final RandomAccessibleInterval< B > mask,
 			final RandomAccessibleInterval< L > labeling,
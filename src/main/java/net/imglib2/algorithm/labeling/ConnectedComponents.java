@@ -193,6 +193,13 @@ public final class ConnectedComponents
 	 * <p>
 	 * <em>Note, that the {@code output} image must be cleared to 0!</em>
 	 *
+	 * <p>
+	 * If {@code input} is an {@link net.imglib2.img.array.ArrayImg} or
+	 * {@link net.imglib2.img.cell.AbstractCellImg} of a primitive integer type
+	 * that covers {@code output}, components are labeled in a single-threaded
+	 * two-pass scan on primitive arrays that does not allocate per pixel.
+	 * </p>
+	 *
 	 * @param input
 	 *            input image with pixels &gt; 0 belonging to foreground.
 	 * @param output
@@ -211,6 +218,9 @@ public final class ConnectedComponents
 			final StructuringElement se,
 			final ExecutorService service )
 	{
+		if ( PrimitiveConnectedComponents.isSupported( input, output ) )
+			return PrimitiveConnectedComponents.labelAllConnectedComponents( input, output, se );
+
 		final int n = output.numDimensions();
 		final int splitDim = n - 1;
 		final long[] min = new long[ n ];
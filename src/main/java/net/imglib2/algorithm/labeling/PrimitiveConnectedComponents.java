@@ -0,0 +1,519 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.labeling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.imglib2.Cursor;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.labeling.ConnectedComponents.StructuringElement;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.basictypeaccess.array.ArrayDataAccess;
+import net.imglib2.img.basictypeaccess.array.IntArray;
+import net.imglib2.img.cell.AbstractCellImg;
+import net.imglib2.img.cell.Cell;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.type.numeric.integer.ShortType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedIntType;
+import net.imglib2.type.numeric.integer.UnsignedLongType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+/**
+ * Two-pass connected component labeling on primitive arrays for
+ * {@link ArrayImg} and {@link AbstractCellImg} inputs that are backed by
+ * primitive arrays. The foreground is copied into a {@code byte[]} mask,
+ * provisional labels are assigned in a single raster scan using decision
+ * trees over the already visited neighbors (scan plus array-based union-find,
+ * SAUF) and equivalences are resolved in an {@code int[]} table.
+ *
+ * Components are numbered consecutively in the order of their first pixel in
+ * flat iteration order.
+ */
+final class PrimitiveConnectedComponents
+{
+
+	private PrimitiveConnectedComponents()
+	{}
+
+	/**
+	 *
+	 * @return {@code true} if {@code input} is an {@link ArrayImg} or
+	 *         {@link AbstractCellImg} of a supported integer type with the
+	 *         same interval as {@code output}.
+	 */
+	static boolean isSupported( final RandomAccessible< ? > input, final Interval output )
+	{
+		if ( !( input instanceof ArrayImg || input instanceof AbstractCellImg ) )
+			return false;
+		final RandomAccessibleInterval< ? > img = ( RandomAccessibleInterval< ? > ) input;
+		if ( !Arrays.equals( Intervals.minAsLongArray( img ), Intervals.minAsLongArray( output ) ) ||
+				!Arrays.equals( Intervals.maxAsLongArray( img ), Intervals.maxAsLongArray( output ) ) )
+			return false;
+		if ( Intervals.numElements( output ) > Integer.MAX_VALUE )
+			return false;
+		if ( Foreground.forType( Views.iterable( img ).firstElement() ) == null )
+			return false;
+		if ( input instanceof ArrayImg )
+			return ( ( ArrayImg< ?, ? > ) input ).update( null ) instanceof ArrayDataAccess;
+		for ( final Object cell : Views.iterable( ( ( AbstractCellImg< ?, ?, ?, ? > ) input ).getCells() ) )
+			if ( !( ( ( Cell< ? > ) cell ).getData() instanceof ArrayDataAccess ) )
+				return false;
+		return true;
+	}
+
+	/**
+	 * "Label" all connected components in {@code input}. Only valid if
+	 * {@link #isSupported(RandomAccessible, Interval)} returns {@code true}.
+	 *
+	 * @return the number of connected components
+	 */
+	static < L extends IntegerType< L > > int labelAllConnectedComponents(
+			final RandomAccessible< ? > input,
+			final RandomAccessibleInterval< L > output,
+			final StructuringElement se )
+	{
+		final long[] dims = Intervals.dimensionsAsLongArray( output );
+		final byte[] mask = foreground( input, dims );
+
+		final Object outputType = Views.iterable( output ).firstElement();
+		final boolean isIntArrayOutput = output instanceof ArrayImg
+				&& ( outputType.getClass() == IntType.class || outputType.getClass() == UnsignedIntType.class )
+				&& ( ( ArrayImg< ?, ? > ) output ).update( null ) instanceof IntArray;
+		final int[] labels = isIntArrayOutput
+				? ( ( IntArray ) ( ( ArrayImg< ?, ? > ) output ).update( null ) ).getCurrentStorageArray()
+				: new int[ mask.length ];
+
+		final EquivalenceTable table = new EquivalenceTable( Math.max( 16, mask.length / 8 ) );
+		final boolean eightConnected = se == StructuringElement.EIGHT_CONNECTED;
+		if ( dims.length == 2 && eightConnected )
+			label8Connected2D( mask, labels, ( int ) dims[ 0 ], ( int ) dims[ 1 ], table );
+		else if ( dims.length == 2 )
+			label4Connected2D( mask, labels, ( int ) dims[ 0 ], ( int ) dims[ 1 ], table );
+		else
+			label( mask, labels, dims, causalOffsets( dims.length, eightConnected ), table );
+
+		final int[] finalLabels = table.flatten();
+		for ( int i = 0; i < labels.length; ++i )
+			labels[ i ] = finalLabels[ labels[ i ] ];
+
+		if ( !isIntArrayOutput )
+		{
+			final Cursor< L > cursor = Views.flatIterable( output ).cursor();
+			for ( int i = 0; i < labels.length; ++i )
+				cursor.next().setInteger( labels[ i ] );
+		}
+
+		return table.numSets;
+	}
+
+	/**
+	 * Decision tree for 8-connectivity in 2D, neighbors are visited in the
+	 * order {@code b}, {@code c}, {@code a}, {@code d}:
+	 *
+	 * <pre>
+	 * a b c
+	 * d x
+	 * </pre>
+	 *
+	 * {@code b} is connected to all other neighbors, {@code a} and {@code d}
+	 * are connected to each other.
+	 */
+	private static void label8Connected2D( final byte[] mask, final int[] labels, final int width, final int height, final EquivalenceTable table )
+	{
+		for ( int y = 0, i = 0; y < height; ++y )
+		{
+			for ( int x = 0; x < width; ++x, ++i )
+			{
+				if ( mask[ i ] == 0 )
+				{
+					labels[ i ] = 0;
+					continue;
+				}
+				final int b = y > 0 ? labels[ i - width ] : 0;
+				final int label;
+				if ( b != 0 )
+					label = b;
+				else
+				{
+					final int a = y > 0 && x > 0 ? labels[ i - width - 1 ] : 0;
+					final int c = y > 0 && x + 1 < width ? labels[ i - width + 1 ] : 0;
+					final int d = x > 0 ? labels[ i - 1 ] : 0;
+					if ( c != 0 )
+					{
+						if ( a != 0 )
+							label = table.union( c, a );
+						else if ( d != 0 )
+							label = table.union( c, d );
+						else
+							label = c;
+					}
+					else if ( a != 0 )
+						label = a;
+					else if ( d != 0 )
+						label = d;
+					else
+						label = table.newLabel();
+				}
+				labels[ i ] = label;
+			}
+		}
+	}
+
+	/**
+	 * Decision tree for 4-connectivity in 2D over the upper ({@code b}) and
+	 * left ({@code d}) neighbors.
+	 */
+	private static void label4Connected2D( final byte[] mask, final int[] labels, final int width, final int height, final EquivalenceTable table )
+	{
+		for ( int y = 0, i = 0; y < height; ++y )
+		{
+			for ( int x = 0; x < width; ++x, ++i )
+			{
+				if ( mask[ i ] == 0 )
+				{
+					labels[ i ] = 0;
+					continue;
+				}
+				final int b = y > 0 ? labels[ i - width ] : 0;
+				final int d = x > 0 ? labels[ i - 1 ] : 0;
+				if ( b != 0 )
+					labels[ i ] = d != 0 && d != b ? table.union( b, d ) : b;
+				else if ( d != 0 )
+					labels[ i ] = d;
+				else
+					labels[ i ] = table.newLabel();
+			}
+		}
+	}
+
+	/**
+	 * Raster scan over the already visited neighbors ({@code causalOffsets})
+	 * for arbitrary dimensions.
+	 */
+	private static void label( final byte[] mask, final int[] labels, final long[] dims, final long[][] causalOffsets, final EquivalenceTable table )
+	{
+		final int n = dims.length;
+		final int[] flatOffsets = new int[ causalOffsets.length ];
+		for ( int k = 0; k < causalOffsets.length; ++k )
+		{
+			long flatOffset = 0;
+			for ( int d = n - 1; d >= 0; --d )
+				flatOffset = flatOffset * dims[ d ] + causalOffsets[ k ][ d ];
+			flatOffsets[ k ] = ( int ) flatOffset;
+		}
+
+		final long[] position = new long[ n ];
+		for ( int i = 0; i < mask.length; ++i )
+		{
+			if ( mask[ i ] == 0 )
+				labels[ i ] = 0;
+			else
+			{
+				boolean isInterior = true;
+				for ( int d = 0; d < n && isInterior; ++d )
+					isInterior = position[ d ] > 0 && position[ d ] + 1 < dims[ d ];
+
+				int label = 0;
+				for ( int k = 0; k < flatOffsets.length; ++k )
+				{
+					if ( !isInterior && !isInside( position, causalOffsets[ k ], dims ) )
+						continue;
+					final int l = labels[ i + flatOffsets[ k ] ];
+					if ( l != 0 && l != label )
+						label = label == 0 ? l : table.union( label, l );
+				}
+				labels[ i ] = label == 0 ? table.newLabel() : label;
+			}
+
+			for ( int d = 0; d < n; ++d )
+			{
+				if ( ++position[ d ] < dims[ d ] )
+					break;
+				position[ d ] = 0;
+			}
+		}
+	}
+
+	private static boolean isInside( final long[] position, final long[] offset, final long[] dims )
+	{
+		for ( int d = 0; d < dims.length; ++d )
+		{
+			final long p = position[ d ] + offset[ d ];
+			if ( p < 0 || p >= dims[ d ] )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * @return All offsets of a 4- or 8-neighborhood (or their n-dimensional
+	 *         analogs) that precede the center pixel in flat iteration order.
+	 */
+	private static long[][] causalOffsets( final int n, final boolean eightConnected )
+	{
+		final List< long[] > offsets = new ArrayList<>();
+		if ( eightConnected )
+		{
+			final int numOffsets = ( int ) Math.pow( 3, n );
+			for ( int i = 0; i < numOffsets / 2; ++i )
+			{
+				final long[] offset = new long[ n ];
+				for ( int d = 0, rest = i; d < n; ++d, rest /= 3 )
+					offset[ d ] = rest % 3 - 1;
+				offsets.add( offset );
+			}
+		}
+		else
+		{
+			for ( int d = 0; d < n; ++d )
+			{
+				final long[] offset = new long[ n ];
+				offset[ d ] = -1;
+				offsets.add( offset );
+			}
+		}
+		return offsets.toArray( new long[ offsets.size() ][] );
+	}
+
+	private static byte[] foreground( final RandomAccessible< ? > input, final long[] dims )
+	{
+		final byte[] mask = new byte[ ( int ) Intervals.numElements( dims ) ];
+		final Foreground foreground = Foreground.forType( Views.iterable( ( RandomAccessibleInterval< ? > ) input ).firstElement() );
+		if ( input instanceof ArrayImg )
+		{
+			final Object data = ( ( ArrayDataAccess< ? > ) ( ( ArrayImg< ?, ? > ) input ).update( null ) ).getCurrentStorageArray();
+			foreground.copy( data, 0, mask, 0, mask.length );
+			return mask;
+		}
+
+		final int n = dims.length;
+		final long[] cellMin = new long[ n ];
+		final long[] cellDims = new long[ n ];
+		final long[] position = new long[ n ];
+		for ( final Object c : Views.iterable( ( ( AbstractCellImg< ?, ?, ?, ? > ) input ).getCells() ) )
+		{
+			final Cell< ? > cell = ( Cell< ? > ) c;
+			final Object data = ( ( ArrayDataAccess< ? > ) cell.getData() ).getCurrentStorageArray();
+			cell.min( cellMin );
+			cell.dimensions( cellDims );
+			final int lineLength = ( int ) cellDims[ 0 ];
+			final int numLines = ( int ) ( Intervals.numElements( cellDims ) / lineLength );
+			Arrays.fill( position, 0 );
+			for ( int line = 0; line < numLines; ++line )
+			{
+				long target = 0;
+				for ( int d = n - 1; d >= 0; --d )
+					target = target * dims[ d ] + cellMin[ d ] + position[ d ];
+				foreground.copy( data, line * lineLength, mask, ( int ) target, lineLength );
+				for ( int d = 1; d < n; ++d )
+				{
+					if ( ++position[ d ] < cellDims[ d ] )
+						break;
+					position[ d ] = 0;
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Foreground test on primitive storage, consistent with
+	 * {@code getInteger() > 0} of the respective type.
+	 */
+	private static enum Foreground
+	{
+		UNSIGNED_BYTE
+		{
+			@Override
+			void copy( final Object source, final int sourceOffset, final byte[] mask, final int maskOffset, final int length )
+			{
+				final byte[] s = ( byte[] ) source;
+				for ( int i = 0; i < length; ++i )
+					mask[ maskOffset + i ] = s[ sourceOffset + i ] != 0 ? ( byte ) 1 : 0;
+			}
+		},
+		BYTE
+		{
+			@Override
+			void copy( final Object source, final int sourceOffset, final byte[] mask, final int maskOffset, final int length )
+			{
+				final byte[] s = ( byte[] ) source;
+				for ( int i = 0; i < length; ++i )
+					mask[ maskOffset + i ] = s[ sourceOffset + i ] > 0 ? ( byte ) 1 : 0;
+			}
+		},
+		UNSIGNED_SHORT
+		{
+			@Override
+			void copy( final Object source, final int sourceOffset, final byte[] mask, final int maskOffset, final int length )
+			{
+				final short[] s = ( short[] ) source;
+				for ( int i = 0; i < length; ++i )
+					mask[ maskOffset + i ] = s[ sourceOffset + i ] != 0 ? ( byte ) 1 : 0;
+			}
+		},
+		SHORT
+		{
+			@Override
+			void copy( final Object source, final int sourceOffset, final byte[] mask, final int maskOffset, final int length )
+			{
+				final short[] s = ( short[] ) source;
+				for ( int i = 0; i < length; ++i )
+					mask[ maskOffset + i ] = s[ sourceOffset + i ] > 0 ? ( byte ) 1 : 0;
+			}
+		},
+		INT
+		{
+			@Override
+			void copy( final Object source, final int sourceOffset, final byte[] mask, final int maskOffset, final int length )
+			{
+				final int[] s = ( int[] ) source;
+				for ( int i = 0; i < length; ++i )
+					mask[ maskOffset + i ] = s[ sourceOffset + i ] > 0 ? ( byte ) 1 : 0;
+			}
+		},
+		LONG
+		{
+			@Override
+			void copy( final Object source, final int sourceOffset, final byte[] mask, final int maskOffset, final int length )
+			{
+				final long[] s = ( long[] ) source;
+				for ( int i = 0; i < length; ++i )
+					mask[ maskOffset + i ] = ( int ) s[ sourceOffset + i ] > 0 ? ( byte ) 1 : 0;
+			}
+		};
+
+		abstract void copy( Object source, int sourceOffset, byte[] mask, int maskOffset, int length );
+
+		static Foreground forType( final Object type )
+		{
+			final Class< ? > cls = type.getClass();
+			if ( cls == UnsignedByteType.class )
+				return UNSIGNED_BYTE;
+			if ( cls == ByteType.class )
+				return BYTE;
+			if ( cls == UnsignedShortType.class )
+				return UNSIGNED_SHORT;
+			if ( cls == ShortType.class )
+				return SHORT;
+			if ( cls == IntType.class || cls == UnsignedIntType.class )
+				return INT;
+			if ( cls == LongType.class || cls == UnsignedLongType.class )
+				return LONG;
+			return null;
+		}
+	}
+
+	/**
+	 * Union-find over provisional labels in an {@code int[]}. The root of
+	 * each set is its smallest label, label 0 is reserved for background.
+	 */
+	private static final class EquivalenceTable
+	{
+		private int[] parents;
+
+		private int size = 1;
+
+		private int numSets = 0;
+
+		private EquivalenceTable( final int capacity )
+		{
+			this.parents = new int[ capacity ];
+		}
+
+		private int newLabel()
+		{
+			if ( size == parents.length )
+				parents = Arrays.copyOf( parents, ( int ) Math.min( 2l * size, Integer.MAX_VALUE - 8 ) );
+			parents[ size ] = size;
+			return size++;
+		}
+
+		private int findRoot( final int label )
+		{
+			int root = label;
+			while ( parents[ root ] != root )
+				root = parents[ root ];
+			for ( int l = label; l != root; )
+			{
+				final int next = parents[ l ];
+				parents[ l ] = root;
+				l = next;
+			}
+			return root;
+		}
+
+		private int union( final int label1, final int label2 )
+		{
+			final int root1 = findRoot( label1 );
+			final int root2 = findRoot( label2 );
+			if ( root1 < root2 )
+			{
+				parents[ root2 ] = root1;
+				return root1;
+			}
+			parents[ root1 ] = root2;
+			return root2;
+		}
+
+		/**
+		 *
+		 * @return Mapping from provisional label to final label: roots are
+		 *         numbered consecutively starting at 1 in increasing order.
+		 */
+		private int[] flatten()
+		{
+			final int[] finalLabels = new int[ size ];
+			numSets = 0;
+			for ( int label = 1; label < size; ++label )
+			{
+				final int parent = parents[ label ];
+				finalLabels[ label ] = parent == label ? ++numSets : finalLabels[ parent ];
+			}
+			return finalLabels;
+		}
+	}
+}
@@ -0,0 +1,1084 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.labeling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.DiamondShape;
+import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.algorithm.util.Grids;
+import net.imglib2.algorithm.util.ParallelizeOverBlocks;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.util.IntervalIndexer;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+/**
+ *
+ * Seeded watershed on integer label images. In contrast to {@link Watershed},
+ * seeds are stored as non-zero values of a {@link RandomAccessibleInterval} of
+ * {@link IntegerType} (zero is background) and the flooding does not create
+ * any objects per pixel: Pixels are addressed by their flat index and queued
+ * in primitive data structures.
+ *
+ * <ul>
+ * <li>Intensities of {@link IntegerType} with less than
+ * {@link #MAX_NUM_LEVELS} distinct levels are flooded with a hierarchical
+ * queue that holds a FIFO of flat indices for each level.</li>
+ * <li>All other intensities are flooded with a binary heap of flat indices
+ * that breaks ties by insertion order.</li>
+ * </ul>
+ *
+ * Both queues produce identical results for identical input. Pixels are
+ * assigned the label of the neighbor they are reached from first, i.e. the
+ * flooding follows Meyer's algorithm. Pixels that cannot be reached from any
+ * seed are not written.
+ */
+public class SeededWatershed
+{
+
+	/**
+	 * Intensities of {@link IntegerType} are flooded with a hierarchical
+	 * queue if their range is smaller than this value.
+	 */
+	public static final long MAX_NUM_LEVELS = 1 << 16;
+
+	/**
+	 * Marks halo pixels that are not flooded from within a block.
+	 */
+	private static final long OUTSIDE = -1;
+
+	/**
+	 *
+	 * Flood {@code labels} from the seeds contained in {@code labels} over
+	 * {@code intensity} with respect to a 4-neighborhood
+	 * ({@link DiamondShape}) or the generalization for higher dimensions.
+	 *
+	 * @param intensity
+	 *            Relief that is flooded. Needs to contain {@code labels}.
+	 * @param labels
+	 *            Input/output parameter: non-zero entries are seeds and will
+	 *            be flooded into zero entries.
+	 */
+	public static < T extends RealType< T >, L extends IntegerType< L > > void flood(
+			final RandomAccessibleInterval< T > intensity,
+			final RandomAccessibleInterval< L > labels )
+	{
+		flood( intensity, labels, new DiamondShape( 1 ) );
+	}
+
+	/**
+	 *
+	 * Flood {@code labels} from the seeds contained in {@code labels} over
+	 * {@code intensity} with respect to a neighborhood ({@code shape}).
+	 *
+	 * @param intensity
+	 *            Relief that is flooded. Needs to contain {@code labels}.
+	 * @param labels
+	 *            Input/output parameter: non-zero entries are seeds and will
+	 *            be flooded into zero entries.
+	 * @param shape
+	 *            Connectivity of the flooding, e.g. 4-neighborhood
+	 *            ({@link DiamondShape}), 8-neighborhood
+	 *            ({@link RectangleShape}) and their generalisations for higher
+	 *            dimensions.
+	 */
+	public static < T extends RealType< T >, L extends IntegerType< L > > void flood(
+			final RandomAccessibleInterval< T > intensity,
+			final RandomAccessibleInterval< L > labels,
+			final Shape shape )
+	{
+		assert Intervals.contains( intensity, labels ): "Intensity does not contain labels.";
+		checkNumElements( labels );
+
+		final long[] labelData = readLabels( labels );
+		final FloodQueue queue = createQueue( Views.interval( intensity, labels ), labelData.length );
+		final Neighbors neighbors = new Neighbors( Intervals.dimensionsAsLongArray( labels ), neighborhoodOffsets( shape, labels.numDimensions() ) );
+
+		for ( int index = 0; index < labelData.length; ++index )
+			if ( labelData[ index ] != 0 )
+				queue.push( index );
+		flood( queue, labelData, neighbors );
+
+		writeLabels( labelData, labels );
+	}
+
+	/**
+	 *
+	 * Flood {@code labels} from the seeds contained in {@code labels} over
+	 * {@code intensity} with respect to a neighborhood ({@code shape}) in
+	 * parallel. Each block of size {@code blockSize} is first flooded from the
+	 * seeds that it contains. Subsequently, blocks are flooded again from
+	 * their seeds and from the pixels of their halo that neighboring blocks
+	 * have flooded, at the level at which those pixels were flooded. This is
+	 * repeated until no halo changes, i.e. flooding fronts pass across block
+	 * faces. Blocks are written into {@code labels} after each pass and only
+	 * the flooding state close to their faces is kept in memory. Blocks that
+	 * share a halo are never flooded concurrently.
+	 *
+	 * The result is deterministic for a given {@code blockSize} and is
+	 * identical with
+	 * {@link #flood(RandomAccessibleInterval, RandomAccessibleInterval, Shape)}
+	 * unless pixels can be reached at the same level from different seeds.
+	 * Use {@link SeededWatershedCut} for results that do not depend on the
+	 * block size. Seeds are expected to be positive.
+	 *
+	 * @param intensity
+	 *            Relief that is flooded. Needs to contain {@code labels}.
+	 * @param labels
+	 *            Input/output parameter: non-zero entries are seeds and will
+	 *            be flooded into zero entries.
+	 * @param shape
+	 *            Connectivity of the flooding, e.g. 4-neighborhood
+	 *            ({@link DiamondShape}), 8-neighborhood
+	 *            ({@link RectangleShape}) and their generalisations for higher
+	 *            dimensions.
+	 * @param blockSize
+	 *            Size of the blocks that are flooded independently.
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param numTasks
+	 *            Number of tasks for parallel execution.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static < T extends RealType< T >, L extends IntegerType< L > > void flood(
+			final RandomAccessibleInterval< T > intensity,
+			final RandomAccessibleInterval< L > labels,
+			final Shape shape,
+			final int[] blockSize,
+			final ExecutorService es,
+			final int numTasks ) throws InterruptedException, ExecutionException
+	{
+		assert Intervals.contains( intensity, labels ): "Intensity does not contain labels.";
+		assert blockSize.length == labels.numDimensions(): "Dimensionality mismatch!";
+
+		final int nDim = labels.numDimensions();
+		final long[] min = Intervals.minAsLongArray( labels );
+		final long[] max = Intervals.maxAsLongArray( labels );
+		final long[][] offsets = neighborhoodOffsets( shape, nDim );
+		final long[] radius = new long[ nDim ];
+		for ( final long[] offset : offsets )
+			for ( int d = 0; d < nDim; ++d )
+				radius[ d ] = Math.max( radius[ d ], Math.abs( offset[ d ] ) );
+
+		final List< FloodedBlock > flooded = ParallelizeOverBlocks.parallelizeAndWait(
+				block -> {
+					final FloodedBlock floodedBlock = collectSeeds( labels, block, radius );
+					floodedBlock.changed = floodBlock( intensity, labels, floodedBlock, offsets, null ) ? 1 : 0;
+					return floodedBlock;
+				},
+				Grids.collectAllContainedIntervals( min, max, blockSize ),
+				es,
+				numTasks );
+
+		final BlockGrid grid = new BlockGrid( flooded, min, max, blockSize, radius );
+		int step = 1;
+		for ( boolean isStable = false; !isStable; )
+		{
+			isStable = true;
+			for ( int color = 0; color < grid.numColors; ++color )
+			{
+				final int currentStep = ++step;
+				final List< Interval > blocks = new ArrayList<>();
+				for ( final FloodedBlock block : flooded )
+					if ( grid.color( block ) == color && grid.hasChangedNeighbor( block ) )
+						blocks.add( block );
+				if ( blocks.isEmpty() )
+					continue;
+				isStable = false;
+				ParallelizeOverBlocks.parallelizeAndWait(
+						ParallelizeOverBlocks.ofConsumer( block -> {
+							final FloodedBlock floodedBlock = ( FloodedBlock ) block;
+							floodedBlock.visited = currentStep;
+							if ( floodBlock( intensity, labels, floodedBlock, offsets, grid ) )
+								floodedBlock.changed = currentStep;
+						} ),
+						blocks,
+						es,
+						numTasks );
+			}
+		}
+	}
+
+	private static < L extends IntegerType< L > > FloodedBlock collectSeeds(
+			final RandomAccessibleInterval< L > labels,
+			final Interval block,
+			final long[] radius )
+	{
+		final RandomAccessibleInterval< L > blockLabels = Views.interval( labels, block );
+		checkNumElements( blockLabels );
+		final long[] labelData = readLabels( blockLabels );
+		final TIntArrayList seeds = new TIntArrayList();
+		final TLongArrayList seedLabels = new TLongArrayList();
+		for ( int index = 0; index < labelData.length; ++index )
+		{
+			if ( labelData[ index ] != 0 )
+			{
+				seeds.add( index );
+				seedLabels.add( labelData[ index ] );
+			}
+		}
+		return new FloodedBlock( block, seeds.toArray(), seedLabels.toArray(), radius );
+	}
+
+	/**
+	 * Flood {@code block} from its seeds and, if {@code grid} is not
+	 * {@code null}, from the flooded pixels of its halo and write the result
+	 * into {@code labels}. Halo pixels are queued at the level at which they
+	 * were flooded, unflooded halo pixels are not flooded from {@code block}.
+	 *
+	 * @return {@code true} if any level close to the faces of {@code block}
+	 *         has changed.
+	 */
+	private static < T extends RealType< T >, L extends IntegerType< L > > boolean floodBlock(
+			final RandomAccessibleInterval< T > intensity,
+			final RandomAccessibleInterval< L > labels,
+			final FloodedBlock block,
+			final long[][] offsets,
+			final BlockGrid grid )
+	{
+		final Interval halo = grid == null ? block : grid.halo( block );
+		checkNumElements( halo );
+		final int nDim = block.numDimensions();
+		final long[] haloDims = Intervals.dimensionsAsLongArray( halo );
+		final long[] blockDims = Intervals.dimensionsAsLongArray( block );
+		final double[] values = readValues( Views.interval( intensity, halo ), ( int ) Intervals.numElements( halo ) );
+		final long[] labelData = new long[ values.length ];
+		final double[] levels = new double[ values.length ];
+		final int[] hops = new int[ values.length ];
+		Arrays.fill( levels, Double.NaN );
+
+		final long[] position = new long[ nDim ];
+		if ( grid != null )
+		{
+			for ( int index = 0; index < values.length; ++index )
+			{
+				IntervalIndexer.indexToPosition( index, haloDims, position );
+				boolean isInside = true;
+				for ( int d = 0; d < nDim; ++d )
+				{
+					position[ d ] += halo.min( d );
+					isInside &= position[ d ] >= block.min( d ) && position[ d ] <= block.max( d );
+				}
+				if ( isInside )
+					continue;
+				grid.read( position, index, labelData, levels, hops );
+				if ( labelData[ index ] == 0 )
+					labelData[ index ] = OUTSIDE;
+				else
+					values[ index ] = levels[ index ];
+			}
+		}
+
+		for ( int s = 0; s < block.seeds.length; ++s )
+		{
+			final int index = haloIndex( block.seeds[ s ], blockDims, block, halo, position );
+			labelData[ index ] = block.seedLabels[ s ];
+			levels[ index ] = values[ index ];
+		}
+
+		// within a level, pixels are flooded in the order of their distance
+		// from where the level was reached, as in the serial flooding. This
+		// holds across blocks only if halo pixels are ranked accordingly.
+		final FloodQueue queue = new FlatIndexHeap( values, hops );
+		for ( int index = 0; index < labelData.length; ++index )
+			if ( labelData[ index ] > 0 )
+				queue.push( index );
+		final Neighbors neighbors = new Neighbors( haloDims, offsets );
+		final int[] neighborIndices = new int[ neighbors.size() ];
+		while ( !queue.isEmpty() )
+		{
+			final int index = queue.pop();
+			final int numNeighbors = neighbors.collect( index, neighborIndices );
+			for ( int k = 0; k < numNeighbors; ++k )
+			{
+				final int neighbor = neighborIndices[ k ];
+				if ( labelData[ neighbor ] == 0 )
+				{
+					labelData[ neighbor ] = labelData[ index ];
+					levels[ neighbor ] = Math.max( values[ neighbor ], levels[ index ] );
+					hops[ neighbor ] = values[ neighbor ] > levels[ index ] ? 0 : hops[ index ] + 1;
+					queue.push( neighbor );
+				}
+			}
+		}
+
+		final long[] blockLabels = new long[ ( int ) Intervals.numElements( block ) ];
+		final double[] blockLevels = new double[ blockLabels.length ];
+		final int[] blockHops = new int[ blockLabels.length ];
+		for ( int blockIndex = 0; blockIndex < blockLabels.length; ++blockIndex )
+		{
+			final int index = haloIndex( blockIndex, blockDims, block, halo, position );
+			blockLabels[ blockIndex ] = labelData[ index ];
+			blockLevels[ blockIndex ] = levels[ index ];
+			blockHops[ blockIndex ] = hops[ index ];
+		}
+		writeLabels( blockLabels, Views.interval( labels, block ) );
+		return block.updateFaces( blockLabels, blockLevels, blockHops );
+	}
+
+	private static int haloIndex( final int blockIndex, final long[] blockDims, final Interval block, final Interval halo, final long[] position )
+	{
+		IntervalIndexer.indexToPosition( blockIndex, blockDims, position );
+		long index = 0;
+		for ( int d = position.length - 1; d >= 0; --d )
+			index = index * halo.dimension( d ) + position[ d ] + block.min( d ) - halo.min( d );
+		return ( int ) index;
+	}
+
+	private static void flood(
+			final FloodQueue queue,
+			final long[] labels,
+			final Neighbors neighbors )
+	{
+		final int[] neighborIndices = new int[ neighbors.size() ];
+		while ( !queue.isEmpty() )
+		{
+			final int index = queue.pop();
+			final long label = labels[ index ];
+			final int numNeighbors = neighbors.collect( index, neighborIndices );
+			for ( int k = 0; k < numNeighbors; ++k )
+			{
+				final int neighbor = neighborIndices[ k ];
+				if ( labels[ neighbor ] == 0 )
+				{
+					labels[ neighbor ] = label;
+					queue.push( neighbor );
+				}
+			}
+		}
+	}
+
+	private static < T extends RealType< T > > FloodQueue createQueue(
+			final RandomAccessibleInterval< T > intensity,
+			final int numElements )
+	{
+		final double[] values = readValues( intensity, numElements );
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for ( final double value : values )
+		{
+			min = Math.min( min, value );
+			max = Math.max( max, value );
+		}
+
+		if ( Util.getTypeFromInterval( intensity ) instanceof IntegerType< ? > && max - min < MAX_NUM_LEVELS )
+		{
+			final int[] levels = new int[ numElements ];
+			for ( int index = 0; index < numElements; ++index )
+				levels[ index ] = ( int ) ( values[ index ] - min );
+			return new HierarchicalQueue( levels, ( int ) ( max - min ) + 1 );
+		}
+		return new FlatIndexHeap( values );
+	}
+
+	private static < T extends RealType< T > > double[] readValues(
+			final RandomAccessibleInterval< T > intensity,
+			final int numElements )
+	{
+		final double[] values = new double[ numElements ];
+		final Cursor< T > cursor = Views.flatIterable( intensity ).cursor();
+		for ( int index = 0; index < numElements; ++index )
+		{
+			final double value = cursor.next().getRealDouble();
+			// NaN is flooded last
+			values[ index ] = Double.isNaN( value ) ? Double.POSITIVE_INFINITY : value;
+		}
+		return values;
+	}
+
+	private static < L extends IntegerType< L > > long[] readLabels( final RandomAccessibleInterval< L > labels )
+	{
+		final long[] data = new long[ ( int ) Intervals.numElements( labels ) ];
+		final Cursor< L > cursor = Views.flatIterable( labels ).cursor();
+		for ( int index = 0; index < data.length; ++index )
+			data[ index ] = cursor.next().getIntegerLong();
+		return data;
+	}
+
+	private static < L extends IntegerType< L > > void writeLabels( final long[] data, final RandomAccessibleInterval< L > labels )
+	{
+		final Cursor< L > cursor = Views.flatIterable( labels ).cursor();
+		for ( int index = 0; index < data.length; ++index )
+			cursor.next().setInteger( data[ index ] );
+	}
+
+	private static void checkNumElements( final Interval interval )
+	{
+		if ( Intervals.numElements( interval ) > Integer.MAX_VALUE )
+			throw new IllegalArgumentException( "Cannot flood more than " + Integer.MAX_VALUE + " pixels at once, use blocks instead: " + Arrays.toString( Intervals.dimensionsAsLongArray( interval ) ) );
+	}
+
+	/**
+	 *
+	 * @param shape
+	 * @param nDim
+	 * @return Offsets of all non-center pixels of the {@link Neighborhood}
+	 *         that is created by {@code shape} at the origin.
+	 */
+	static long[][] neighborhoodOffsets( final Shape shape, final int nDim )
+	{
+		final long[] unit = new long[ nDim ];
+		Arrays.fill( unit, 1 );
+		final RandomAccess< Neighborhood< ByteType > > access = shape.neighborhoodsRandomAccessible( Views.extendZero( ArrayImgs.bytes( unit ) ) ).randomAccess();
+		access.setPosition( new long[ nDim ] );
+		final Cursor< ByteType > cursor = access.get().localizingCursor();
+		final List< long[] > offsets = new ArrayList<>();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			final long[] offset = new long[ nDim ];
+			cursor.localize( offset );
+			if ( Arrays.stream( offset ).anyMatch( o -> o != 0 ) )
+				offsets.add( offset );
+		}
+		return offsets.toArray( new long[ offsets.size() ][] );
+	}
+
+	private static final class FloodedBlock extends FinalInterval
+	{
+
+		/**
+		 * Flat indices of seeds within the block.
+		 */
+		private final int[] seeds;
+
+		private final long[] seedLabels;
+
+		/**
+		 * Number of pixels along each dimension that neighboring blocks can
+		 * reach.
+		 */
+		private final long[] depths;
+
+		/**
+		 * Flooding state of the pixels within {@link #depths} of the lower
+		 * and upper face along each dimension.
+		 */
+		private final Face[] lowerFaces;
+
+		private final Face[] upperFaces;
+
+		/**
+		 * Pass in which the block was last flooded.
+		 */
+		private int visited = 0;
+
+		/**
+		 * Pass in which the faces of the block last changed.
+		 */
+		private int changed = 0;
+
+		private FloodedBlock(
+				final Interval interval,
+				final int[] seeds,
+				final long[] seedLabels,
+				final long[] radius )
+		{
+			super( interval );
+			this.seeds = seeds;
+			this.seedLabels = seedLabels;
+			this.depths = new long[ radius.length ];
+			this.lowerFaces = new Face[ radius.length ];
+			this.upperFaces = new Face[ radius.length ];
+			for ( int d = 0; d < radius.length; ++d )
+			{
+				depths[ d ] = Math.min( radius[ d ], dimension( d ) );
+				final long[] faceDims = Intervals.dimensionsAsLongArray( this );
+				faceDims[ d ] = depths[ d ];
+				lowerFaces[ d ] = new Face( ( int ) Intervals.numElements( faceDims ) );
+				upperFaces[ d ] = new Face( ( int ) Intervals.numElements( faceDims ) );
+			}
+		}
+
+		/**
+		 * @return {@code true} if the flooding state of any face changed.
+		 */
+		private boolean updateFaces( final long[] labels, final double[] levels, final int[] hops )
+		{
+			final long[] dims = Intervals.dimensionsAsLongArray( this );
+			final long[] position = new long[ dims.length ];
+			boolean hasChanged = false;
+			for ( int d = 0; d < dims.length; ++d )
+			{
+				final long[] faceDims = dims.clone();
+				faceDims[ d ] = depths[ d ];
+				for ( int faceIndex = 0; faceIndex < lowerFaces[ d ].labels.length; ++faceIndex )
+				{
+					IntervalIndexer.indexToPosition( faceIndex, faceDims, position );
+					int index = ( int ) IntervalIndexer.positionToIndex( position, dims );
+					hasChanged |= lowerFaces[ d ].update( faceIndex, labels[ index ], levels[ index ], hops[ index ] );
+					position[ d ] += dims[ d ] - depths[ d ];
+					index = ( int ) IntervalIndexer.positionToIndex( position, dims );
+					hasChanged |= upperFaces[ d ].update( faceIndex, labels[ index ], levels[ index ], hops[ index ] );
+				}
+			}
+			return hasChanged;
+		}
+
+		/**
+		 * Read the flooding state of a pixel within {@link #depths} of any
+		 * face of this block into {@code labels}, {@code levels}, and
+		 * {@code hops} at {@code index}.
+		 */
+		private void read( final long[] position, final int index, final long[] labels, final double[] levels, final int[] hops )
+		{
+			for ( int d = 0; d < depths.length; ++d )
+			{
+				final long localPosition = position[ d ] - min( d );
+				if ( localPosition < depths[ d ] )
+				{
+					lowerFaces[ d ].read( faceIndex( position, d, localPosition ), index, labels, levels, hops );
+					return;
+				}
+				if ( localPosition >= dimension( d ) - depths[ d ] )
+				{
+					upperFaces[ d ].read( faceIndex( position, d, localPosition - dimension( d ) + depths[ d ] ), index, labels, levels, hops );
+					return;
+				}
+			}
+			throw new IllegalArgumentException( "Position " + Arrays.toString( position ) + " is not close to a face of " + this + "." );
+		}
+
+		private int faceIndex( final long[] position, final int dim, final long facePosition )
+		{
+			long index = 0;
+			for ( int d = position.length - 1; d >= 0; --d )
+				index = d == dim
+						? index * depths[ d ] + facePosition
+						: index * dimension( d ) + position[ d ] - min( d );
+			return ( int ) index;
+		}
+	}
+
+	/**
+	 * Label, flooding level, and distance from where the level was reached
+	 * for each pixel of a face.
+	 */
+	private static final class Face
+	{
+
+		private final long[] labels;
+
+		private final double[] levels;
+
+		private final int[] hops;
+
+		private Face( final int size )
+		{
+			this.labels = new long[ size ];
+			this.levels = new double[ size ];
+			this.hops = new int[ size ];
+		}
+
+		/**
+		 * @return {@code true} if the pixel at {@code faceIndex} changed.
+		 */
+		private boolean update( final int faceIndex, final long label, final double level, final int hop )
+		{
+			final boolean hasChanged = labels[ faceIndex ] != label || Double.compare( levels[ faceIndex ], level ) != 0 || hops[ faceIndex ] != hop;
+			labels[ faceIndex ] = label;
+			levels[ faceIndex ] = level;
+			hops[ faceIndex ] = hop;
+			return hasChanged;
+		}
+
+		private void read( final int faceIndex, final int index, final long[] labels, final double[] levels, final int[] hops )
+		{
+			labels[ index ] = this.labels[ faceIndex ];
+			levels[ index ] = this.levels[ faceIndex ];
+			hops[ index ] = this.hops[ faceIndex ];
+		}
+	}
+
+	/**
+	 * Flooded blocks on a grid. Blocks are colored such that no two blocks of
+	 * the same color share a halo.
+	 */
+	private static final class BlockGrid
+	{
+
+		private final long[] min;
+
+		private final long[] max;
+
+		private final int[] blockSize;
+
+		private final long[] radius;
+
+		private final long[] gridDims;
+
+		private final FloodedBlock[] blocks;
+
+		private final long[] colorDims;
+
+		private final int numColors;
+
+		private BlockGrid(
+				final List< FloodedBlock > flooded,
+				final long[] min,
+				final long[] max,
+				final int[] blockSize,
+				final long[] radius )
+		{
+			final int nDim = min.length;
+			this.min = min;
+			this.max = max;
+			this.blockSize = blockSize;
+			this.radius = radius;
+			this.gridDims = new long[ nDim ];
+			this.colorDims = new long[ nDim ];
+			for ( int d = 0; d < nDim; ++d )
+			{
+				gridDims[ d ] = ( max[ d ] - min[ d ] ) / blockSize[ d ] + 1;
+				// blocks further apart than this along d do not share a halo
+				colorDims[ d ] = Math.min( ( radius[ d ] + blockSize[ d ] - 1 ) / blockSize[ d ] + 1, gridDims[ d ] );
+			}
+			this.numColors = ( int ) Intervals.numElements( colorDims );
+			this.blocks = new FloodedBlock[ flooded.size() ];
+			final long[] position = new long[ nDim ];
+			for ( final FloodedBlock block : flooded )
+			{
+				block.min( position );
+				blocks[ gridIndex( position ) ] = block;
+			}
+		}
+
+		private int gridIndex( final long[] position )
+		{
+			long index = 0;
+			for ( int d = position.length - 1; d >= 0; --d )
+				index = index * gridDims[ d ] + ( position[ d ] - min[ d ] ) / blockSize[ d ];
+			return ( int ) index;
+		}
+
+		private int color( final Interval block )
+		{
+			long color = 0;
+			for ( int d = colorDims.length - 1; d >= 0; --d )
+				color = color * colorDims[ d ] + ( block.min( d ) - min[ d ] ) / blockSize[ d ] % colorDims[ d ];
+			return ( int ) color;
+		}
+
+		private Interval halo( final Interval block )
+		{
+			final long[] haloMin = new long[ min.length ];
+			final long[] haloMax = new long[ min.length ];
+			for ( int d = 0; d < min.length; ++d )
+			{
+				haloMin[ d ] = Math.max( block.min( d ) - radius[ d ], min[ d ] );
+				haloMax[ d ] = Math.min( block.max( d ) + radius[ d ], max[ d ] );
+			}
+			return new FinalInterval( haloMin, haloMax );
+		}
+
+		private void read( final long[] position, final int index, final long[] labels, final double[] levels, final int[] hops )
+		{
+			blocks[ gridIndex( position ) ].read( position, index, labels, levels, hops );
+		}
+
+		/**
+		 * @return {@code true} if the faces of any block within the halo of
+		 *         {@code block} changed after {@code block} was last flooded.
+		 */
+		private boolean hasChangedNeighbor( final FloodedBlock block )
+		{
+			final Interval halo = halo( block );
+			final int nDim = min.length;
+			final long[] gridMin = new long[ nDim ];
+			final long[] gridMax = new long[ nDim ];
+			for ( int d = 0; d < nDim; ++d )
+			{
+				gridMin[ d ] = ( halo.min( d ) - min[ d ] ) / blockSize[ d ];
+				gridMax[ d ] = ( halo.max( d ) - min[ d ] ) / blockSize[ d ];
+			}
+			final long[] gridPosition = gridMin.clone();
+			while ( true )
+			{
+				final FloodedBlock neighbor = blocks[ ( int ) IntervalIndexer.positionToIndex( gridPosition, gridDims ) ];
+				if ( neighbor != block && neighbor.changed > block.visited )
+					return true;
+				int d = 0;
+				for ( ; d < nDim && gridPosition[ d ] == gridMax[ d ]; ++d )
+					gridPosition[ d ] = gridMin[ d ];
+				if ( d == nDim )
+					return false;
+				++gridPosition[ d ];
+			}
+		}
+	}
+
+	/**
+	 * Flat index neighbors within an interval of dimensions {@code dims}.
+	 * Neighbors outside the interval are skipped.
+	 */
+	static final class Neighbors
+	{
+
+		private final long[] dims;
+
+		private final long[][] offsets;
+
+		private final int[] flatOffsets;
+
+		private final long[] radius;
+
+		private final long[] position;
+
+		Neighbors( final long[] dims, final long[][] offsets )
+		{
+			this.dims = dims;
+			this.offsets = offsets;
+			this.flatOffsets = new int[ offsets.length ];
+			this.radius = new long[ dims.length ];
+			this.position = new long[ dims.length ];
+			for ( int k = 0; k < offsets.length; ++k )
+			{
+				long flatOffset = 0;
+				for ( int d = dims.length - 1; d >= 0; --d )
+				{
+					flatOffset = flatOffset * dims[ d ] + offsets[ k ][ d ];
+					radius[ d ] = Math.max( radius[ d ], Math.abs( offsets[ k ][ d ] ) );
+				}
+				this.flatOffsets[ k ] = ( int ) flatOffset;
+			}
+		}
+
+		int size()
+		{
+			return offsets.length;
+		}
+
+		/**
+		 *
+		 * @param index
+		 * @param neighbors
+		 *            Output parameter for flat indices of all neighbors of
+		 *            {@code index} that are inside the interval.
+		 * @return Number of neighbors written into {@code neighbors}.
+		 */
+		int collect( final int index, final int[] neighbors )
+		{
+			IntervalIndexer.indexToPosition( index, dims, position );
+			boolean isInterior = true;
+			for ( int d = 0; d < dims.length && isInterior; ++d )
+				isInterior = position[ d ] >= radius[ d ] && position[ d ] < dims[ d ] - radius[ d ];
+
+			if ( isInterior )
+			{
+				for ( int k = 0; k < flatOffsets.length; ++k )
+					neighbors[ k ] = index + flatOffsets[ k ];
+				return flatOffsets.length;
+			}
+
+			int numNeighbors = 0;
+			for ( int k = 0; k < offsets.length; ++k )
+			{
+				final long[] offset = offsets[ k ];
+				boolean isInside = true;
+				for ( int d = 0; d < dims.length && isInside; ++d )
+				{
+					final long p = position[ d ] + offset[ d ];
+					isInside = p >= 0 && p < dims[ d ];
+				}
+				if ( isInside )
+					neighbors[ numNeighbors++ ] = index + flatOffsets[ k ];
+			}
+			return numNeighbors;
+		}
+	}
+
+	/**
+	 * Priority queue of flat indices. Pixels are never queued with a lower
+	 * priority than the pixel that was popped last, ties are broken by
+	 * insertion order.
+	 */
+	static abstract class FloodQueue
+	{
+		/**
+		 * Add {@code index} with priority {@code max(intensity(index), level)}
+		 * where {@code level} is the priority of the pixel that was popped
+		 * last.
+		 */
+		abstract void push( int index );
+
+		abstract int pop();
+
+		abstract boolean isEmpty();
+
+		/**
+		 * Reset the current level to allow for pushing pixels of any
+		 * priority. Only valid if the queue is empty.
+		 */
+		abstract void reset();
+	}
+
+	/**
+	 * Hierarchical queue for quantized intensities: a FIFO of flat indices per
+	 * level.
+	 */
+	static final class HierarchicalQueue extends FloodQueue
+	{
+
+		private final int[] levels;
+
+		private final IntFifo[] buckets;
+
+		private int currentLevel = 0;
+
+		private long size = 0;
+
+		HierarchicalQueue( final int[] levels, final int numLevels )
+		{
+			this.levels = levels;
+			this.buckets = new IntFifo[ numLevels ];
+		}
+
+		@Override
+		void push( final int index )
+		{
+			final int level = Math.max( levels[ index ], currentLevel );
+			if ( buckets[ level ] == null )
+				buckets[ level ] = new IntFifo();
+			buckets[ level ].add( index );
+			++size;
+		}
+
+		@Override
+		int pop()
+		{
+			while ( buckets[ currentLevel ] == null || buckets[ currentLevel ].isEmpty() )
+			{
+				// levels below the current level cannot be pushed before the
+				// next reset
+				buckets[ currentLevel ] = null;
+				++currentLevel;
+			}
+			--size;
+			return buckets[ currentLevel ].remove();
+		}
+
+		@Override
+		boolean isEmpty()
+		{
+			return size == 0;
+		}
+
+		@Override
+		void reset()
+		{
+			assert isEmpty(): "Cannot reset non-empty queue.";
+			currentLevel = 0;
+		}
+	}
+
+	/**
+	 * Binary heap of flat indices for real valued intensities. Ties are
+	 * broken by rank, if any, and then by insertion order.
+	 */
+	static final class FlatIndexHeap extends FloodQueue
+	{
+
+		private final double[] intensities;
+
+		private final int[] ranks;
+
+		private double currentLevel = Double.NEGATIVE_INFINITY;
+
+		private int[] indices = new int[ 16 ];
+
+		private double[] keys = new double[ 16 ];
+
+		private long[] ages = new long[ 16 ];
+
+		private int size = 0;
+
+		private long age = 0;
+
+		FlatIndexHeap( final double[] intensities )
+		{
+			this( intensities, null );
+		}
+
+		/**
+		 * @param ranks
+		 *            Read when pixels are pushed, may be {@code null}.
+		 */
+		FlatIndexHeap( final double[] intensities, final int[] ranks )
+		{
+			this.intensities = intensities;
+			this.ranks = ranks;
+		}
+
+		@Override
+		void push( final int index )
+		{
+			if ( size == indices.length )
+			{
+				final int capacity = size < Integer.MAX_VALUE / 2 ? 2 * size : Integer.MAX_VALUE - 8;
+				indices = Arrays.copyOf( indices, capacity );
+				keys = Arrays.copyOf( keys, capacity );
+				ages = Arrays.copyOf( ages, capacity );
+			}
+			final double key = Math.max( intensities[ index ], currentLevel );
+			final long a = ranks == null ? age++ : ( long ) ranks[ index ] << 32 | age++;
+			int pos = size++;
+			while ( pos > 0 )
+			{
+				final int parent = ( pos - 1 ) >>> 1;
+				if ( !isLess( key, a, keys[ parent ], ages[ parent ] ) )
+					break;
+				set( pos, indices[ parent ], keys[ parent ], ages[ parent ] );
+				pos = parent;
+			}
+			set( pos, index, key, a );
+		}
+
+		@Override
+		int pop()
+		{
+			final int top = indices[ 0 ];
+			currentLevel = keys[ 0 ];
+			--size;
+			final int index = indices[ size ];
+			final double key = keys[ size ];
+			final long a = ages[ size ];
+			int pos = 0;
+			while ( true )
+			{
+				int child = 2 * pos + 1;
+				if ( child >= size )
+					break;
+				if ( child + 1 < size && isLess( keys[ child + 1 ], ages[ child + 1 ], keys[ child ], ages[ child ] ) )
+					++child;
+				if ( !isLess( keys[ child ], ages[ child ], key, a ) )
+					break;
+				set( pos, indices[ child ], keys[ child ], ages[ child ] );
+				pos = child;
+			}
+			set( pos, index, key, a );
+			return top;
+		}
+
+		@Override
+		boolean isEmpty()
+		{
+			return size == 0;
+		}
+
+		@Override
+		void reset()
+		{
+			assert isEmpty(): "Cannot reset non-empty queue.";
+			currentLevel = Double.NEGATIVE_INFINITY;
+		}
+
+		private void set( final int pos, final int index, final double key, final long a )
+		{
+			indices[ pos ] = index;
+			keys[ pos ] = key;
+			ages[ pos ] = a;
+		}
+
+		private static boolean isLess( final double key1, final long age1, final double key2, final long age2 )
+		{
+			return key1 < key2 || key1 == key2 && age1 < age2;
+		}
+	}
+
+	/**
+	 * Growable FIFO of {@code int}.
+	 */
+	static final class IntFifo
+	{
+
+		private int[] data = new int[ 16 ];
+
+		private int head = 0;
+
+		private int tail = 0;
+
+		void add( final int value )
+		{
+			if ( tail == data.length )
+			{
+				if ( head > data.length / 2 )
+				{
+					System.arraycopy( data, head, data, 0, tail - head );
+					tail -= head;
+					head = 0;
+				}
+				else
+					data = Arrays.copyOf( data, 2 * data.length );
+			}
+			data[ tail++ ] = value;
+		}
+
+		int remove()
+		{
+			final int value = data[ head++ ];
+			if ( head == tail )
+			{
+				head = 0;
+				tail = 0;
+			}
+			return value;
+		}
+
+		boolean isEmpty()
+		{
+			return head == tail;
+		}
+	}
+
+}
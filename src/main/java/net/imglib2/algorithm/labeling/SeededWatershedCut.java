@@ -0,0 +1,757 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.labeling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.util.Grids;
+import net.imglib2.algorithm.util.ParallelizeOverBlocks;
+import net.imglib2.algorithm.util.unionfind.IntArrayUnionFind;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.IntervalIndexer;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+/**
+ *
+ * Seeded watershed as minimum spanning forest rooted in seeds (watershed cut)
+ * for parallel execution over blocks.
+ *
+ * Pixels are nodes of a graph in which each pixel is connected to its
+ * 2*n direct neighbors. The weight of an edge is the maximum intensity of its
+ * two pixels and ties are broken by position such that all edges are totally
+ * ordered. With respect to this order, the minimum spanning forest in which
+ * each tree contains exactly one seed label is unique, and so is the
+ * labeling that is derived from it. Pixels that are not connected to any seed
+ * are set to zero.
+ *
+ * For parallel execution, each block computes the minimum spanning forest of
+ * its edges with {@link IntArrayUnionFind}. Edges that are not part of a
+ * block's forest cannot be part of the global forest and are discarded. Only
+ * the pixels on faces shared with neighboring blocks can connect a block's
+ * trees to the rest of the image. Branches of the forest that do not lead to
+ * such a pixel are always part of the global forest, and within a path
+ * between two such pixels only the largest edge can ever be cut. Each block
+ * therefore contracts its forest to one edge per path, which is merged with
+ * the edges between blocks into the global forest. The number of edges that
+ * are merged in this step is proportional to the surface of the blocks rather
+ * than to the number of pixels. Finally, each block relabels its pixels in
+ * parallel.
+ * Consequently, the result is identical for all block sizes and does not
+ * depend on the number of tasks.
+ *
+ * Note that this may not be identical with the result of
+ * {@link SeededWatershed}, which assigns pixels in the order of flooding.
+ */
+public class SeededWatershedCut
+{
+
+	/**
+	 *
+	 * Label each pixel of {@code labels} according to the seed of its tree in
+	 * the minimum spanning forest over {@code intensity}.
+	 *
+	 * @param intensity
+	 *            Edge weights are the maximum intensity of the two pixels of
+	 *            each edge. Needs to contain {@code labels}.
+	 * @param labels
+	 *            Input/output parameter: non-zero entries are seeds.
+	 */
+	public static < T extends RealType< T >, L extends IntegerType< L > > void flood(
+			final RandomAccessibleInterval< T > intensity,
+			final RandomAccessibleInterval< L > labels )
+	{
+		final long[] min = Intervals.minAsLongArray( labels );
+		final long[] dims = Intervals.dimensionsAsLongArray( labels );
+		final BlockForest forest = blockForest( intensity, labels, labels, min, dims );
+		resolveForests( Arrays.asList( forest ), dims );
+		relabel( forest, labels );
+	}
+
+	/**
+	 *
+	 * Label each pixel of {@code labels} according to the seed of its tree in
+	 * the minimum spanning forest over {@code intensity} in parallel. The
+	 * result does not depend on {@code blockSize} or {@code numTasks}.
+	 *
+	 * @param intensity
+	 *            Edge weights are the maximum intensity of the two pixels of
+	 *            each edge. Needs to contain {@code labels}.
+	 * @param labels
+	 *            Input/output parameter: non-zero entries are seeds.
+	 * @param blockSize
+	 *            Size of the blocks that are processed in parallel.
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param numTasks
+	 *            Number of tasks for parallel execution.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static < T extends RealType< T >, L extends IntegerType< L > > void flood(
+			final RandomAccessibleInterval< T > intensity,
+			final RandomAccessibleInterval< L > labels,
+			final int[] blockSize,
+			final ExecutorService es,
+			final int numTasks ) throws InterruptedException, ExecutionException
+	{
+		assert blockSize.length == labels.numDimensions(): "Dimensionality mismatch!";
+		final long[] min = Intervals.minAsLongArray( labels );
+		final long[] max = Intervals.maxAsLongArray( labels );
+		final long[] dims = Intervals.dimensionsAsLongArray( labels );
+		final List< BlockForest > forests = ParallelizeOverBlocks.parallelizeAndWait(
+				block -> blockForest( intensity, labels, block, min, dims ),
+				Grids.collectAllContainedIntervals( min, max, blockSize ),
+				es,
+				numTasks );
+		resolveForests( forests, dims );
+		ParallelizeOverBlocks.parallelizeAndWait(
+				ParallelizeOverBlocks.ofConsumer( block -> relabel( ( BlockForest ) block, labels ) ),
+				new ArrayList<>( forests ),
+				es,
+				numTasks );
+	}
+
+	/**
+	 * Minimum spanning forest of a block, contracted to the pixels that
+	 * connect it to other blocks.
+	 */
+	private static final class BlockForest extends FinalInterval
+	{
+		/**
+		 * Forest edges as local edge ids {@code index * nDim + d}.
+		 */
+		private final int[] edges;
+
+		/**
+		 * Local indices of seed pixels.
+		 */
+		private final int[] seeds;
+
+		private final long[] seedLabels;
+
+		/**
+		 * Local indices of the pixels that remain after contraction: pixels on
+		 * faces shared with neighboring blocks, seeds that are connected to
+		 * such a pixel, and branching points between them.
+		 */
+		private final int[] nodes;
+
+		/**
+		 * Flat indices of {@link #nodes} within the global interval.
+		 */
+		private final long[] nodeIds;
+
+		/**
+		 * Seed labels of {@link #nodes} before and resolved labels after
+		 * {@link SeededWatershedCut#resolveForests}.
+		 */
+		private final long[] nodeLabels;
+
+		/**
+		 * Contracted paths between {@link #nodes} with global id and weight of
+		 * their largest edge.
+		 */
+		private final long[] chainIds;
+
+		private final double[] chainWeights;
+
+		private final long[] chainSources;
+
+		private final long[] chainTargets;
+
+		/**
+		 * Index of the largest edge of each chain in {@link #edges}.
+		 */
+		private final int[] chainEdges;
+
+		/**
+		 * Chains that are not part of the global forest.
+		 */
+		private final boolean[] cutChains;
+
+		/**
+		 * Edges into the upper halo as global edge ids.
+		 */
+		private final long[] crossing;
+
+		private final double[] crossingWeights;
+
+		private BlockForest(
+				final Interval block,
+				final int[] edges,
+				final int[] seeds,
+				final long[] seedLabels,
+				final int[] nodes,
+				final long[] nodeIds,
+				final long[] nodeLabels,
+				final long[] chainIds,
+				final double[] chainWeights,
+				final long[] chainSources,
+				final long[] chainTargets,
+				final int[] chainEdges,
+				final long[] crossing,
+				final double[] crossingWeights )
+		{
+			super( block );
+			this.edges = edges;
+			this.seeds = seeds;
+			this.seedLabels = seedLabels;
+			this.nodes = nodes;
+			this.nodeIds = nodeIds;
+			this.nodeLabels = nodeLabels;
+			this.chainIds = chainIds;
+			this.chainWeights = chainWeights;
+			this.chainSources = chainSources;
+			this.chainTargets = chainTargets;
+			this.chainEdges = chainEdges;
+			this.cutChains = new boolean[ chainIds.length ];
+			this.crossing = crossing;
+			this.crossingWeights = crossingWeights;
+		}
+	}
+
+	private static < T extends RealType< T >, L extends IntegerType< L > > BlockForest blockForest(
+			final RandomAccessibleInterval< T > intensity,
+			final RandomAccessibleInterval< L > labels,
+			final Interval block,
+			final long[] min,
+			final long[] dims )
+	{
+		final int nDim = block.numDimensions();
+		final long numElements = Intervals.numElements( block );
+		if ( numElements * nDim > Integer.MAX_VALUE )
+			throw new IllegalArgumentException( "Block too large: " + Arrays.toString( Intervals.dimensionsAsLongArray( block ) ) );
+		final int size = ( int ) numElements;
+
+		final long[] blockDims = Intervals.dimensionsAsLongArray( block );
+		final long[] haloMax = Intervals.maxAsLongArray( block );
+		for ( int d = 0; d < nDim; ++d )
+			if ( haloMax[ d ] < min[ d ] + dims[ d ] - 1 )
+				haloMax[ d ] += 1;
+		final Interval halo = new FinalInterval( Intervals.minAsLongArray( block ), haloMax );
+		final long[] haloDims = Intervals.dimensionsAsLongArray( halo );
+		final double[] values = new double[ ( int ) Intervals.numElements( halo ) ];
+		final Cursor< T > intensityCursor = Views.flatIterable( Views.interval( intensity, halo ) ).cursor();
+		for ( int index = 0; index < values.length; ++index )
+		{
+			final double value = intensityCursor.next().getRealDouble();
+			values[ index ] = Double.isNaN( value ) ? Double.POSITIVE_INFINITY : value;
+		}
+
+		final long[] blockStrides = strides( blockDims );
+		final long[] haloStrides = strides( haloDims );
+
+		// collect internal edges as local ids and edges into halo as global
+		// ids. Both are generated in increasing order of ids.
+		final long[] internal = new long[ size * nDim ];
+		final double[] internalWeights = new double[ size * nDim ];
+		int numInternal = 0;
+		final TLongArrayList crossing = new TLongArrayList();
+		final TDoubleArrayList crossingWeights = new TDoubleArrayList();
+		final TIntArrayList seeds = new TIntArrayList();
+		final TLongArrayList seedLabels = new TLongArrayList();
+		final long[] localLabels = new long[ size ];
+		final boolean[] isNode = new boolean[ size ];
+		final long[] position = new long[ nDim ];
+		final Cursor< L > labelCursor = Views.flatIterable( Views.interval( labels, block ) ).cursor();
+		for ( int index = 0; index < size; ++index )
+		{
+			IntervalIndexer.indexToPosition( index, blockDims, position );
+			final int haloIndex = ( int ) IntervalIndexer.positionToIndex( position, haloDims );
+			final long label = labelCursor.next().getIntegerLong();
+			localLabels[ index ] = label;
+			if ( label != 0 )
+			{
+				seeds.add( index );
+				seedLabels.add( label );
+			}
+			for ( int d = 0; d < nDim; ++d )
+			{
+				// pixels on faces shared with neighboring blocks
+				if ( position[ d ] == 0 && block.min( d ) > min[ d ] || position[ d ] + 1 == blockDims[ d ] && position[ d ] + 1 < haloDims[ d ] )
+					isNode[ index ] = true;
+				if ( position[ d ] + 1 < haloDims[ d ] )
+				{
+					final double weight = Math.max( values[ haloIndex ], values[ haloIndex + ( int ) haloStrides[ d ] ] );
+					if ( position[ d ] + 1 < blockDims[ d ] )
+					{
+						internal[ numInternal ] = ( long ) index * nDim + d;
+						internalWeights[ numInternal ] = weight;
+						++numInternal;
+					}
+					else
+					{
+						crossing.add( globalIndex( position, block, min, dims ) * nDim + d );
+						crossingWeights.add( weight );
+					}
+				}
+			}
+		}
+
+		sortEdges( internalWeights, internal, numInternal );
+
+		// Kruskal within block: never join two trees that contain seeds
+		final IntArrayUnionFind uf = new IntArrayUnionFind( size );
+		final TIntArrayList edges = new TIntArrayList();
+		final TDoubleArrayList weights = new TDoubleArrayList();
+		final TLongArrayList ids = new TLongArrayList();
+		for ( int e = 0; e < numInternal; ++e )
+		{
+			final int p = ( int ) ( internal[ e ] / nDim );
+			final int d = ( int ) ( internal[ e ] % nDim );
+			final int q = p + ( int ) blockStrides[ d ];
+			final int rp = uf.findRoot( p );
+			final int rq = uf.findRoot( q );
+			if ( rp == rq || localLabels[ rp ] != 0 && localLabels[ rq ] != 0 )
+				continue;
+			final long label = localLabels[ rp ] == 0 ? localLabels[ rq ] : localLabels[ rp ];
+			localLabels[ uf.join( rp, rq ) ] = label;
+			IntervalIndexer.indexToPosition( p, blockDims, position );
+			edges.add( ( int ) internal[ e ] );
+			weights.add( internalWeights[ e ] );
+			ids.add( globalIndex( position, block, min, dims ) * nDim + d );
+		}
+
+		// seeds are only relevant across blocks if their tree reaches a face
+		final boolean[] reachesFace = new boolean[ size ];
+		for ( int index = 0; index < size; ++index )
+			if ( isNode[ index ] )
+				reachesFace[ uf.findRoot( index ) ] = true;
+		for ( int s = 0; s < seeds.size(); ++s )
+			if ( reachesFace[ uf.findRoot( seeds.get( s ) ) ] )
+				isNode[ seeds.get( s ) ] = true;
+
+		return contract(
+				block,
+				min,
+				dims,
+				edges.toArray(),
+				weights.toArray(),
+				ids.toArray(),
+				isNode,
+				seeds.toArray(),
+				seedLabels.toArray(),
+				crossing.toArray(),
+				crossingWeights.toArray() );
+	}
+
+	/**
+	 * Contract the forest {@code edges} of {@code block} to paths between
+	 * {@code isNode} pixels: branches that do not lead to any such pixel are
+	 * pruned and chains of pixels with exactly two remaining edges are
+	 * replaced by their largest edge. Pixels with more than two remaining
+	 * edges are added to {@code isNode}.
+	 */
+	private static BlockForest contract(
+			final Interval block,
+			final long[] min,
+			final long[] dims,
+			final int[] edges,
+			final double[] weights,
+			final long[] ids,
+			final boolean[] isNode,
+			final int[] seeds,
+			final long[] seedLabels,
+			final long[] crossing,
+			final double[] crossingWeights )
+	{
+		final int nDim = block.numDimensions();
+		final int size = isNode.length;
+		final long[] blockDims = Intervals.dimensionsAsLongArray( block );
+		final long[] blockStrides = strides( blockDims );
+		final int numEdges = edges.length;
+		final int[] sources = new int[ numEdges ];
+		final int[] targets = new int[ numEdges ];
+		final int[] degrees = new int[ size ];
+		for ( int k = 0; k < numEdges; ++k )
+		{
+			sources[ k ] = edges[ k ] / nDim;
+			targets[ k ] = sources[ k ] + ( int ) blockStrides[ edges[ k ] % nDim ];
+			++degrees[ sources[ k ] ];
+			++degrees[ targets[ k ] ];
+		}
+
+		final int[] offsets = new int[ size + 1 ];
+		for ( int index = 0; index < size; ++index )
+			offsets[ index + 1 ] = offsets[ index ] + degrees[ index ];
+		final int[] incident = new int[ 2 * numEdges ];
+		final int[] next = Arrays.copyOf( offsets, size );
+		for ( int k = 0; k < numEdges; ++k )
+		{
+			incident[ next[ sources[ k ] ]++ ] = k;
+			incident[ next[ targets[ k ] ]++ ] = k;
+		}
+
+		// prune leaves that are not nodes until none are left
+		final boolean[] removed = new boolean[ numEdges ];
+		final TIntArrayList leaves = new TIntArrayList();
+		for ( int index = 0; index < size; ++index )
+			if ( degrees[ index ] == 1 && !isNode[ index ] )
+				leaves.add( index );
+		while ( !leaves.isEmpty() )
+		{
+			final int leaf = leaves.removeAt( leaves.size() - 1 );
+			if ( degrees[ leaf ] != 1 )
+				continue;
+			final int k = remainingEdge( leaf, offsets, incident, removed );
+			removed[ k ] = true;
+			degrees[ leaf ] = 0;
+			final int other = sources[ k ] == leaf ? targets[ k ] : sources[ k ];
+			if ( --degrees[ other ] == 1 && !isNode[ other ] )
+				leaves.add( other );
+		}
+
+		final long[] position = new long[ nDim ];
+		final TIntArrayList nodes = new TIntArrayList();
+		final TLongArrayList nodeIds = new TLongArrayList();
+		for ( int index = 0; index < size; ++index )
+		{
+			if ( isNode[ index ] || degrees[ index ] > 2 )
+			{
+				isNode[ index ] = true;
+				nodes.add( index );
+				IntervalIndexer.indexToPosition( index, blockDims, position );
+				nodeIds.add( globalIndex( position, block, min, dims ) );
+			}
+		}
+
+		final long[] nodeLabels = new long[ nodes.size() ];
+		for ( int s = 0; s < seeds.length; ++s )
+		{
+			final int node = nodes.binarySearch( seeds[ s ] );
+			if ( node >= 0 )
+				nodeLabels[ node ] = seedLabels[ s ];
+		}
+
+		// walk from each node along all remaining edges to the next node
+		final TLongArrayList chainIds = new TLongArrayList();
+		final TDoubleArrayList chainWeights = new TDoubleArrayList();
+		final TLongArrayList chainSources = new TLongArrayList();
+		final TLongArrayList chainTargets = new TLongArrayList();
+		final TIntArrayList chainEdges = new TIntArrayList();
+		for ( int n = 0; n < nodes.size(); ++n )
+		{
+			final int source = nodes.get( n );
+			for ( int i = offsets[ source ]; i < offsets[ source + 1 ]; ++i )
+			{
+				int k = incident[ i ];
+				if ( removed[ k ] )
+					continue;
+				int largest = k;
+				int target = source;
+				while ( true )
+				{
+					removed[ k ] = true;
+					if ( isLess( weights[ largest ], ids[ largest ], weights[ k ], ids[ k ] ) )
+						largest = k;
+					target = sources[ k ] == target ? targets[ k ] : sources[ k ];
+					if ( isNode[ target ] )
+						break;
+					k = remainingEdge( target, offsets, incident, removed );
+				}
+				chainIds.add( ids[ largest ] );
+				chainWeights.add( weights[ largest ] );
+				chainSources.add( nodeIds.get( n ) );
+				chainTargets.add( nodeIds.get( nodes.binarySearch( target ) ) );
+				chainEdges.add( largest );
+			}
+		}
+
+		return new BlockForest(
+				block,
+				edges,
+				seeds,
+				seedLabels,
+				nodes.toArray(),
+				nodeIds.toArray(),
+				nodeLabels,
+				chainIds.toArray(),
+				chainWeights.toArray(),
+				chainSources.toArray(),
+				chainTargets.toArray(),
+				chainEdges.toArray(),
+				crossing,
+				crossingWeights );
+	}
+
+	private static int remainingEdge( final int index, final int[] offsets, final int[] incident, final boolean[] removed )
+	{
+		for ( int i = offsets[ index ]; i < offsets[ index + 1 ]; ++i )
+			if ( !removed[ incident[ i ] ] )
+				return incident[ i ];
+		throw new IllegalStateException( "No remaining edge at " + index );
+	}
+
+	/**
+	 * Kruskal over the chains of all blocks and the edges between blocks.
+	 * Marks chains that are not part of the global forest and sets the
+	 * resolved labels of all nodes.
+	 */
+	private static void resolveForests( final List< BlockForest > forests, final long[] dims )
+	{
+		final int nDim = dims.length;
+		final long[] strides = strides( dims );
+
+		int numEdges = 0;
+		int numChains = 0;
+		int numNodes = 0;
+		for ( final BlockForest forest : forests )
+		{
+			final long numForestEdges = ( long ) forest.chainIds.length + forest.crossing.length;
+			if ( numEdges + numForestEdges > Integer.MAX_VALUE || ( long ) numNodes + forest.nodes.length > Integer.MAX_VALUE )
+				throw new IllegalArgumentException( "Too many edges between blocks: " + Arrays.toString( dims ) );
+			numEdges += numForestEdges;
+			numChains += forest.chainIds.length;
+			numNodes += forest.nodes.length;
+		}
+
+		final long[] edges = new long[ numEdges ];
+		final double[] weights = new double[ numEdges ];
+		// chains are identified by the global id of their largest edge
+		final TLongIntHashMap chains = new TLongIntHashMap( Math.max( numChains, Constants.DEFAULT_CAPACITY ), Constants.DEFAULT_LOAD_FACTOR, -1, -1 );
+		final int[] chainForests = new int[ numChains ];
+		final int[] chainIndices = new int[ numChains ];
+		final TLongIntHashMap nodeIndices = new TLongIntHashMap( Math.max( numNodes, Constants.DEFAULT_CAPACITY ), Constants.DEFAULT_LOAD_FACTOR, -1, -1 );
+		final long[] rootLabels = new long[ numNodes ];
+		int offset = 0;
+		int chain = 0;
+		int node = 0;
+		for ( int f = 0; f < forests.size(); ++f )
+		{
+			final BlockForest forest = forests.get( f );
+			for ( int c = 0; c < forest.chainIds.length; ++c, ++chain )
+			{
+				edges[ offset ] = forest.chainIds[ c ];
+				weights[ offset ] = forest.chainWeights[ c ];
+				++offset;
+				chains.put( forest.chainIds[ c ], chain );
+				chainForests[ chain ] = f;
+				chainIndices[ chain ] = c;
+			}
+			System.arraycopy( forest.crossing, 0, edges, offset, forest.crossing.length );
+			System.arraycopy( forest.crossingWeights, 0, weights, offset, forest.crossingWeights.length );
+			offset += forest.crossing.length;
+			for ( int n = 0; n < forest.nodes.length; ++n, ++node )
+			{
+				nodeIndices.put( forest.nodeIds[ n ], node );
+				rootLabels[ node ] = forest.nodeLabels[ n ];
+			}
+		}
+		sortEdges( weights, edges, numEdges );
+
+		final IntArrayUnionFind uf = new IntArrayUnionFind( numNodes );
+		for ( int e = 0; e < numEdges; ++e )
+		{
+			final int c = chains.get( edges[ e ] );
+			final long p;
+			final long q;
+			if ( c < 0 )
+			{
+				p = edges[ e ] / nDim;
+				q = p + strides[ ( int ) ( edges[ e ] % nDim ) ];
+			}
+			else
+			{
+				final BlockForest forest = forests.get( chainForests[ c ] );
+				p = forest.chainSources[ chainIndices[ c ] ];
+				q = forest.chainTargets[ chainIndices[ c ] ];
+			}
+			final int rp = uf.findRoot( nodeIndices.get( p ) );
+			final int rq = uf.findRoot( nodeIndices.get( q ) );
+			if ( rp == rq || rootLabels[ rp ] != 0 && rootLabels[ rq ] != 0 )
+			{
+				if ( c >= 0 )
+					forests.get( chainForests[ c ] ).cutChains[ chainIndices[ c ] ] = true;
+				continue;
+			}
+			final long label = rootLabels[ rp ] == 0 ? rootLabels[ rq ] : rootLabels[ rp ];
+			rootLabels[ uf.join( rp, rq ) ] = label;
+		}
+
+		node = 0;
+		for ( final BlockForest forest : forests )
+			for ( int n = 0; n < forest.nodes.length; ++n, ++node )
+				forest.nodeLabels[ n ] = rootLabels[ uf.findRoot( node ) ];
+	}
+
+	/**
+	 * Write the label of each tree of {@code forest} without its cut chains.
+	 * Each tree either contains a seed or a node with resolved label, or it is
+	 * not connected to any seed.
+	 */
+	private static < L extends IntegerType< L > > void relabel( final BlockForest forest, final RandomAccessibleInterval< L > labels )
+	{
+		final int nDim = forest.numDimensions();
+		final int size = ( int ) Intervals.numElements( forest );
+		final long[] blockStrides = strides( Intervals.dimensionsAsLongArray( forest ) );
+		final boolean[] cut = new boolean[ forest.edges.length ];
+		for ( int c = 0; c < forest.chainEdges.length; ++c )
+			cut[ forest.chainEdges[ c ] ] = forest.cutChains[ c ];
+
+		final IntArrayUnionFind uf = new IntArrayUnionFind( size );
+		for ( int k = 0; k < forest.edges.length; ++k )
+		{
+			if ( cut[ k ] )
+				continue;
+			final int p = forest.edges[ k ] / nDim;
+			final int q = p + ( int ) blockStrides[ forest.edges[ k ] % nDim ];
+			uf.join( uf.findRoot( p ), uf.findRoot( q ) );
+		}
+
+		final long[] rootLabels = new long[ size ];
+		for ( int s = 0; s < forest.seeds.length; ++s )
+			rootLabels[ uf.findRoot( forest.seeds[ s ] ) ] = forest.seedLabels[ s ];
+		for ( int n = 0; n < forest.nodes.length; ++n )
+			if ( forest.nodeLabels[ n ] != 0 )
+				rootLabels[ uf.findRoot( forest.nodes[ n ] ) ] = forest.nodeLabels[ n ];
+
+		final Cursor< L > cursor = Views.flatIterable( Views.interval( labels, forest ) ).cursor();
+		for ( int index = 0; index < size; ++index )
+			cursor.next().setInteger( rootLabels[ uf.findRoot( index ) ] );
+	}
+
+	private static long globalIndex( final long[] localPosition, final Interval block, final long[] min, final long[] dims )
+	{
+		long index = 0;
+		for ( int d = dims.length - 1; d >= 0; --d )
+			index = index * dims[ d ] + localPosition[ d ] + block.min( d ) - min[ d ];
+		return index;
+	}
+
+	private static long[] strides( final long[] dims )
+	{
+		final long[] strides = new long[ dims.length ];
+		long stride = 1;
+		for ( int d = 0; d < dims.length; ++d )
+		{
+			strides[ d ] = stride;
+			stride *= dims[ d ];
+		}
+		return strides;
+	}
+
+	/**
+	 * Stable merge sort of the first {@code size} edges in increasing order
+	 * of {@code (weight, id)}. Pre-sorted runs are detected and merged, i.e.
+	 * the concatenation of {@code k} sorted lists is sorted in
+	 * {@code O(n log k)}.
+	 */
+	static void sortEdges( final double[] weights, final long[] ids, final int size )
+	{
+		TIntArrayList runs = new TIntArrayList();
+		runs.add( 0 );
+		for ( int i = 1; i < size; ++i )
+			if ( isLess( weights[ i ], ids[ i ], weights[ i - 1 ], ids[ i - 1 ] ) )
+				runs.add( i );
+		runs.add( size );
+
+		if ( runs.size() <= 2 )
+			return;
+
+		double[] sourceWeights = weights;
+		long[] sourceIds = ids;
+		double[] targetWeights = new double[ size ];
+		long[] targetIds = new long[ size ];
+		while ( runs.size() > 2 )
+		{
+			final TIntArrayList mergedRuns = new TIntArrayList();
+			for ( int r = 0; r < runs.size() - 1; r += 2 )
+			{
+				final int start = runs.get( r );
+				final int mid = runs.get( r + 1 );
+				final int end = r + 2 < runs.size() ? runs.get( r + 2 ) : mid;
+				merge( sourceWeights, sourceIds, targetWeights, targetIds, start, mid, end );
+				mergedRuns.add( start );
+			}
+			mergedRuns.add( size );
+			runs = mergedRuns;
+
+			final double[] tmpWeights = sourceWeights;
+			final long[] tmpIds = sourceIds;
+			sourceWeights = targetWeights;
+			sourceIds = targetIds;
+			targetWeights = tmpWeights;
+			targetIds = tmpIds;
+		}
+
+		if ( sourceWeights != weights )
+		{
+			System.arraycopy( sourceWeights, 0, weights, 0, size );
+			System.arraycopy( sourceIds, 0, ids, 0, size );
+		}
+	}
+
+	private static void merge(
+			final double[] sourceWeights,
+			final long[] sourceIds,
+			final double[] targetWeights,
+			final long[] targetIds,
+			final int start,
+			final int mid,
+			final int end )
+	{
+		int left = start;
+		int right = mid;
+		for ( int i = start; i < end; ++i )
+		{
+			final int from = right >= end || left < mid && !isLess( sourceWeights[ right ], sourceIds[ right ], sourceWeights[ left ], sourceIds[ left ] )
+					? left++
+					: right++;
+			targetWeights[ i ] = sourceWeights[ from ];
+			targetIds[ i ] = sourceIds[ from ];
+		}
+	}
+
+	private static boolean isLess( final double weight1, final long id1, final double weight2, final long id2 )
+	{
+		return weight1 < weight2 || weight1 == weight2 && id1 < id2;
+	}
+
+}
@@ -68,6 +68,9 @@ import net.imglib2.view.Views;
  * image has a depressed object interior and a ridge which constrains the
  * watershed boundary.
  * 
+ * See {@link SeededWatershed} for an implementation that operates on integer
+ * label images and does not allocate objects per pixel.
+ * 
  * @author Lee Kamentsky
  */
 public class Watershed< T extends RealType< T >, L extends Comparable< L >> implements OutputAlgorithm< Labeling< L >>
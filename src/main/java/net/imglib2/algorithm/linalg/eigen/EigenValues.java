@@ -68,6 +68,11 @@ public interface EigenValues< T extends RealType< T >, U extends ComplexType< U
 		return new EigenValues2DSymmetric<>();
 	}
 
+	public static < T extends RealType< T >, U extends ComplexType< U > > EigenValues3DSymmetric< T, U > symmetric3D()
+	{
+		return new EigenValues3DSymmetric<>();
+	}
+
 	public static < T extends RealType< T >, U extends ComplexType< U > > EigenValuesSquare< T, U > square( final int nDim )
 	{
 		return new EigenValuesSquare<>( nDim );
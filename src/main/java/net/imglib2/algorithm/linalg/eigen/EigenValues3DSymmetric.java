@@ -0,0 +1,375 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.linalg.eigen;
+
+import net.imglib2.type.numeric.ComplexType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.view.composite.Composite;
+
+/**
+ *
+ * Closed-form eigenvalues (and optionally eigenvectors) of symmetric 3x3
+ * matrices, stored as upper triangle [m11, m12, m13, m22, m23, m33]. All
+ * computations are on primitive local variables, nothing is allocated per
+ * matrix.
+ *
+ * Eigenvalues are computed with the trigonometric solution of the
+ * characteristic polynomial (Smith, "Eigenvalues of a symmetric 3 x 3 matrix",
+ * Communications of the ACM 4(4), 1961) and sorted in descending order.
+ * Eigenvectors follow D. Eberly, "A Robust Eigensolver for 3 x 3 Symmetric
+ * Matrices" (2014): the eigenvector of the best separated eigenvalue is
+ * computed from cross products of rows of (A - lambda I), the second one in
+ * the orthogonal complement of the first one, and the third one as cross
+ * product. The matrix is scaled by its largest entry beforehand.
+ *
+ * For (nearly) repeated eigenvalues the closed form is only accurate to about
+ * the square root of the machine precision, relative to the largest entry.
+ * {@link #computeEigenVectors} refines the eigenvalues with Rayleigh quotients
+ * and is accurate to machine precision.
+ *
+ */
+public class EigenValues3DSymmetric< T extends RealType< T >, U extends ComplexType< U > > implements EigenValues< T, U >
+{
+
+	private final double[] values = new double[ 3 ];
+
+	@Override
+	public void compute( final Composite< T > tensor, final Composite< U > evs )
+	{
+		computeEigenValues(
+				tensor.get( 0 ).getRealDouble(),
+				tensor.get( 1 ).getRealDouble(),
+				tensor.get( 2 ).getRealDouble(),
+				tensor.get( 3 ).getRealDouble(),
+				tensor.get( 4 ).getRealDouble(),
+				tensor.get( 5 ).getRealDouble(),
+				values );
+		evs.get( 0 ).setReal( values[ 0 ] );
+		evs.get( 1 ).setReal( values[ 1 ] );
+		evs.get( 2 ).setReal( values[ 2 ] );
+	}
+
+	@Override
+	public EigenValues3DSymmetric< T, U > copy()
+	{
+		return new EigenValues3DSymmetric<>();
+	}
+
+	/**
+	 * Compute the eigenvalues of a symmetric 3x3 matrix in descending order.
+	 *
+	 * @param values
+	 *            output, length 3
+	 */
+	public static void computeEigenValues(
+			final double a11, final double a12, final double a13,
+			final double a22, final double a23,
+			final double a33,
+			final double[] values )
+	{
+		final double scale = Math.max(
+				Math.max( Math.max( Math.abs( a11 ), Math.abs( a12 ) ), Math.max( Math.abs( a13 ), Math.abs( a22 ) ) ),
+				Math.max( Math.abs( a23 ), Math.abs( a33 ) ) );
+		if ( scale == 0 )
+		{
+			values[ 0 ] = values[ 1 ] = values[ 2 ] = 0;
+			return;
+		}
+		final double inv = 1 / scale;
+		final double b11 = a11 * inv, b12 = a12 * inv, b13 = a13 * inv;
+		final double b22 = a22 * inv, b23 = a23 * inv, b33 = a33 * inv;
+
+		final double offDiagonal = b12 * b12 + b13 * b13 + b23 * b23;
+		final double q = ( b11 + b22 + b33 ) / 3;
+		final double c11 = b11 - q, c22 = b22 - q, c33 = b33 - q;
+		final double p = Math.sqrt( ( c11 * c11 + c22 * c22 + c33 * c33 + 2 * offDiagonal ) / 6 );
+		if ( p == 0 )
+		{
+			values[ 0 ] = values[ 1 ] = values[ 2 ] = q * scale;
+			return;
+		}
+		// r = det( ( B - q I ) / p ) / 2
+		final double det = c11 * ( c22 * c33 - b23 * b23 )
+				- b12 * ( b12 * c33 - b23 * b13 )
+				+ b13 * ( b12 * b23 - c22 * b13 );
+		final double r = Math.max( -1, Math.min( 1, det / ( 2 * p * p * p ) ) );
+		final double phi = Math.acos( r ) / 3;
+		final double largest = q + 2 * p * Math.cos( phi );
+		final double smallest = q + 2 * p * Math.cos( phi + 2 * Math.PI / 3 );
+		values[ 0 ] = largest * scale;
+		values[ 1 ] = ( 3 * q - largest - smallest ) * scale;
+		values[ 2 ] = smallest * scale;
+	}
+
+	/**
+	 * Compute eigenvalues (descending) and corresponding orthonormal
+	 * eigenvectors of a symmetric 3x3 matrix.
+	 *
+	 * @param values
+	 *            output, length 3
+	 * @param vectors
+	 *            output, length 9, eigenvector i is stored at
+	 *            <code>vectors[ 3 * i ]</code> to
+	 *            <code>vectors[ 3 * i + 2 ]</code>
+	 */
+	public static void computeEigenVectors(
+			final double a11, final double a12, final double a13,
+			final double a22, final double a23,
+			final double a33,
+			final double[] values,
+			final double[] vectors )
+	{
+		computeEigenValues( a11, a12, a13, a22, a23, a33, values );
+		final double scale = Math.max(
+				Math.max( Math.max( Math.abs( a11 ), Math.abs( a12 ) ), Math.max( Math.abs( a13 ), Math.abs( a22 ) ) ),
+				Math.max( Math.abs( a23 ), Math.abs( a33 ) ) );
+		if ( scale == 0 || values[ 0 ] == values[ 2 ] )
+		{
+			// multiple of identity, any orthonormal basis
+			for ( int i = 0; i < 9; ++i )
+				vectors[ i ] = i % 4 == 0 ? 1 : 0;
+			return;
+		}
+		final double inv = 1 / scale;
+		final double b11 = a11 * inv, b12 = a12 * inv, b13 = a13 * inv;
+		final double b22 = a22 * inv, b23 = a23 * inv, b33 = a33 * inv;
+
+		// start with the eigenvalue that is best separated from the others
+		final int first, second, third;
+		if ( values[ 0 ] - values[ 1 ] >= values[ 1 ] - values[ 2 ] )
+		{
+			first = 0;
+			second = 1;
+			third = 2;
+		}
+		else
+		{
+			first = 2;
+			second = 1;
+			third = 0;
+		}
+		eigenVectorFromRows( b11, b12, b13, b22, b23, b33, values[ first ] * inv, vectors, 3 * first );
+		eigenVectorInComplement( b11, b12, b13, b22, b23, b33, values[ second ] * inv, vectors, 3 * first, 3 * second );
+		final int f = 3 * first, s = 3 * second, t = 3 * third;
+		vectors[ t ] = vectors[ f + 1 ] * vectors[ s + 2 ] - vectors[ f + 2 ] * vectors[ s + 1 ];
+		vectors[ t + 1 ] = vectors[ f + 2 ] * vectors[ s ] - vectors[ f ] * vectors[ s + 2 ];
+		vectors[ t + 2 ] = vectors[ f ] * vectors[ s + 1 ] - vectors[ f + 1 ] * vectors[ s ];
+
+		// Rayleigh quotients are more accurate than the closed form for
+		// (nearly) repeated eigenvalues
+		for ( int i = 0; i < 3; ++i )
+		{
+			final double x = vectors[ 3 * i ], y = vectors[ 3 * i + 1 ], z = vectors[ 3 * i + 2 ];
+			values[ i ] = scale * ( x * ( b11 * x + b12 * y + b13 * z )
+					+ y * ( b12 * x + b22 * y + b23 * z )
+					+ z * ( b13 * x + b23 * y + b33 * z ) );
+		}
+		if ( values[ 0 ] < values[ 1 ] )
+			swap( values, vectors, 0, 1 );
+		if ( values[ 1 ] < values[ 2 ] )
+			swap( values, vectors, 1, 2 );
+		if ( values[ 0 ] < values[ 1 ] )
+			swap( values, vectors, 0, 1 );
+	}
+
+	private static void swap( final double[] values, final double[] vectors, final int i, final int j )
+	{
+		final double value = values[ i ];
+		values[ i ] = values[ j ];
+		values[ j ] = value;
+		for ( int k = 0; k < 3; ++k )
+		{
+			final double component = vectors[ 3 * i + k ];
+			vectors[ 3 * i + k ] = vectors[ 3 * j + k ];
+			vectors[ 3 * j + k ] = component;
+		}
+	}
+
+	private static void eigenVectorFromRows(
+			final double b11, final double b12, final double b13,
+			final double b22, final double b23,
+			final double b33,
+			final double lambda,
+			final double[] vectors,
+			final int offset )
+	{
+		// rows of B - lambda I
+		final double r00 = b11 - lambda, r01 = b12, r02 = b13;
+		final double r10 = b12, r11 = b22 - lambda, r12 = b23;
+		final double r20 = b13, r21 = b23, r22 = b33 - lambda;
+
+		// r0 x r1, r0 x r2, r1 x r2
+		final double x0 = r01 * r12 - r02 * r11, y0 = r02 * r10 - r00 * r12, z0 = r00 * r11 - r01 * r10;
+		final double x1 = r01 * r22 - r02 * r21, y1 = r02 * r20 - r00 * r22, z1 = r00 * r21 - r01 * r20;
+		final double x2 = r11 * r22 - r12 * r21, y2 = r12 * r20 - r10 * r22, z2 = r10 * r21 - r11 * r20;
+		final double d0 = x0 * x0 + y0 * y0 + z0 * z0;
+		final double d1 = x1 * x1 + y1 * y1 + z1 * z1;
+		final double d2 = x2 * x2 + y2 * y2 + z2 * z2;
+
+		final double x, y, z, d;
+		if ( d0 >= d1 && d0 >= d2 )
+		{
+			x = x0;
+			y = y0;
+			z = z0;
+			d = d0;
+		}
+		else if ( d1 >= d2 )
+		{
+			x = x1;
+			y = y1;
+			z = z1;
+			d = d1;
+		}
+		else
+		{
+			x = x2;
+			y = y2;
+			z = z2;
+			d = d2;
+		}
+
+		if ( d == 0 )
+		{
+			vectors[ offset ] = 1;
+			vectors[ offset + 1 ] = 0;
+			vectors[ offset + 2 ] = 0;
+			return;
+		}
+		final double invLength = 1 / Math.sqrt( d );
+		vectors[ offset ] = x * invLength;
+		vectors[ offset + 1 ] = y * invLength;
+		vectors[ offset + 2 ] = z * invLength;
+	}
+
+	private static void eigenVectorInComplement(
+			final double b11, final double b12, final double b13,
+			final double b22, final double b23,
+			final double b33,
+			final double lambda,
+			final double[] vectors,
+			final int known,
+			final int offset )
+	{
+		final double w0 = vectors[ known ], w1 = vectors[ known + 1 ], w2 = vectors[ known + 2 ];
+
+		// orthonormal basis u, v of the complement of w
+		final double u0, u1, u2;
+		if ( Math.abs( w0 ) > Math.abs( w1 ) )
+		{
+			final double invLength = 1 / Math.sqrt( w0 * w0 + w2 * w2 );
+			u0 = -w2 * invLength;
+			u1 = 0;
+			u2 = w0 * invLength;
+		}
+		else
+		{
+			final double invLength = 1 / Math.sqrt( w1 * w1 + w2 * w2 );
+			u0 = 0;
+			u1 = w2 * invLength;
+			u2 = -w1 * invLength;
+		}
+		final double v0 = w1 * u2 - w2 * u1, v1 = w2 * u0 - w0 * u2, v2 = w0 * u1 - w1 * u0;
+
+		// B u and B v
+		final double bu0 = b11 * u0 + b12 * u1 + b13 * u2;
+		final double bu1 = b12 * u0 + b22 * u1 + b23 * u2;
+		final double bu2 = b13 * u0 + b23 * u1 + b33 * u2;
+		final double bv0 = b11 * v0 + b12 * v1 + b13 * v2;
+		final double bv1 = b12 * v0 + b22 * v1 + b23 * v2;
+		final double bv2 = b13 * v0 + b23 * v1 + b33 * v2;
+
+		// 2x2 matrix ( u, v )^T ( B - lambda I ) ( u, v )
+		double m00 = u0 * bu0 + u1 * bu1 + u2 * bu2 - lambda;
+		double m01 = u0 * bv0 + u1 * bv1 + u2 * bv2;
+		double m11 = v0 * bv0 + v1 * bv1 + v2 * bv2 - lambda;
+		final double absM00 = Math.abs( m00 ), absM01 = Math.abs( m01 ), absM11 = Math.abs( m11 );
+
+		final double cu, cv;
+		if ( absM00 >= absM11 )
+		{
+			if ( Math.max( absM00, absM01 ) > 0 )
+			{
+				if ( absM00 >= absM01 )
+				{
+					m01 /= m00;
+					m00 = 1 / Math.sqrt( 1 + m01 * m01 );
+					m01 *= m00;
+				}
+				else
+				{
+					m00 /= m01;
+					m01 = 1 / Math.sqrt( 1 + m00 * m00 );
+					m00 *= m01;
+				}
+				cu = m01;
+				cv = -m00;
+			}
+			else
+			{
+				cu = 1;
+				cv = 0;
+			}
+		}
+		else
+		{
+			if ( Math.max( absM11, absM01 ) > 0 )
+			{
+				if ( absM11 >= absM01 )
+				{
+					m01 /= m11;
+					m11 = 1 / Math.sqrt( 1 + m01 * m01 );
+					m01 *= m11;
+				}
+				else
+				{
+					m11 /= m01;
+					m01 = 1 / Math.sqrt( 1 + m11 * m11 );
+					m11 *= m01;
+				}
+				cu = m11;
+				cv = -m01;
+			}
+			else
+			{
+				cu = 1;
+				cv = 0;
+			}
+		}
+		vectors[ offset ] = cu * u0 + cv * v0;
+		vectors[ offset + 1 ] = cu * u1 + cv * v1;
+		vectors[ offset + 2 ] = cu * u2 + cv * v2;
+	}
+}
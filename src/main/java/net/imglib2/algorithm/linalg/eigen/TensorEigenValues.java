@@ -96,7 +96,9 @@ public class TensorEigenValues
 			ev = EigenValues.oneDimensional();
 		else if ( nDim == 2 )
 			ev = EigenValues.symmetric2D();
-		else if ( nDim > 2 )
+		else if ( nDim == 3 )
+			ev = EigenValues.symmetric3D();
+		else if ( nDim > 3 )
 			ev = EigenValues.symmetric( nDim );
 		else
 			ev = EigenValues.invalid();
@@ -140,7 +142,9 @@ public class TensorEigenValues
 			ev = EigenValues.oneDimensional();
 		else if ( nDim == 2 )
 			ev = EigenValues.symmetric2D();
-		else if ( nDim > 2 )
+		else if ( nDim == 3 )
+			ev = EigenValues.symmetric3D();
+		else if ( nDim > 3 )
 			ev = EigenValues.symmetric( nDim );
 		else
 			ev = EigenValues.invalid();
@@ -33,7 +33,9 @@
  */
 package net.imglib2.algorithm.morphology;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import net.imglib2.Interval;
 import net.imglib2.IterableInterval;
@@ -91,9 +93,45 @@ public class BlackTopHat
 	 */
 	public static < T extends RealType< T >> Img< T > blackTopHat( final Img< T > source, final List< Shape > strels, final int numThreads )
 	{
-		final Img< T > closed = Closing.close( source, strels, numThreads );
-		MorphologyUtils.subAAB( closed, source, numThreads );
-		return closed;
+		return MorphologyUtils.compute( numThreads, service -> blackTopHat( source, strels, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation, on a
+	 * {@link RealType} {@link Img} using a list of {@link Shape}s as a flat
+	 * structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off} pixels,
+	 * contrary to grayscale structuring elements. This allows to simply use a
+	 * {@link Shape} as a type for these structuring elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the top-hat result. Must be a
+	 *            sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T >> Img< T > blackTopHat( final Img< T > source, final List< Shape > strels, final ExecutorService service )
+	{
+		final T maxVal = source.firstElement().createVariable();
+		maxVal.setReal( maxVal.getMaxValue() );
+		final T minVal = source.firstElement().createVariable();
+		minVal.setReal( minVal.getMinValue() );
+		return blackTopHat( source, strels, minVal, maxVal, service );
 	}
 
 	/**
@@ -142,9 +180,59 @@ public class BlackTopHat
 	 */
 	public static < T extends Type< T > & Comparable< T > & Sub< T > > Img< T > blackTopHat( final Img< T > source, final List< Shape > strels, final T minVal, final T maxVal, final int numThreads )
 	{
-		final Img< T > closed = Closing.close( source, strels, minVal, maxVal, numThreads );
-		MorphologyUtils.subAAB( closed, source, numThreads );
-		return closed;
+		return MorphologyUtils.compute( numThreads, service -> blackTopHat( source, strels, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation, using
+	 * a list of {@link Shape}s as a flat structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off} pixels,
+	 * contrary to grayscale structuring elements. This allows to simply use a
+	 * {@link Shape} as a type for these structuring elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * This method relies on a specified minimal and maximal value to start
+	 * comparing to other pixels in the neighborhood. For this code to perform
+	 * properly, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image, and the converse for the max value. These normally unseen
+	 * parameters are required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source {@link Img} (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source {@link Img} (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the top-hat result. Must be a
+	 *            sub-type of {@code T extends Comparable & Sub}, because we
+	 *            want to be able to compare pixels between themselves and to
+	 *            subtract them.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends Type< T > & Comparable< T > & Sub< T > > Img< T > blackTopHat( final Img< T > source, final List< Shape > strels, final T minVal, final T maxVal, final ExecutorService service )
+	{
+		final Img< T > target = source.factory().create( source );
+		if ( strels.isEmpty() ) { return target; }
+		FusedMorphology.close( Views.extendValue( source, minVal ), target, strels, minVal, maxVal, ( s, tile, es ) -> MorphologyUtils.subAAB2( tile, s, es ), service );
+		return target;
 	}
 
 	/**
@@ -173,9 +261,40 @@ public class BlackTopHat
 	 */
 	public static < T extends RealType< T >> Img< T > blackTopHat( final Img< T > source, final Shape strel, final int numThreads )
 	{
-		final Img< T > closed = Closing.close( source, strel, numThreads );
-		MorphologyUtils.subAAB( closed, source, numThreads );
-		return closed;
+		return MorphologyUtils.compute( numThreads, service -> blackTopHat( source, strel, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation, on a
+	 * {@link RealType} {@link Img} using a {@link Shape} as a flat structuring
+	 * element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off} pixels,
+	 * contrary to grayscale structuring elements. This allows to simply use a
+	 * {@link Shape} as a type for these structuring elements.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the top-hat result. Must be a
+	 *            sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T >> Img< T > blackTopHat( final Img< T > source, final Shape strel, final ExecutorService service )
+	{
+		final T maxVal = source.firstElement().createVariable();
+		maxVal.setReal( maxVal.getMaxValue() );
+		final T minVal = source.firstElement().createVariable();
+		minVal.setReal( minVal.getMinValue() );
+		return blackTopHat( source, strel, minVal, maxVal, service );
 	}
 
 	/**
@@ -218,9 +337,52 @@ public class BlackTopHat
 	 */
 	public static < T extends Type< T > & Comparable< T > & Sub< T > > Img< T > blackTopHat( final Img< T > source, final Shape strel, final T minVal, final T maxVal, final int numThreads )
 	{
-		final Img< T > closed = Closing.close( source, strel, minVal, maxVal, numThreads );
-		MorphologyUtils.subAAB( closed, source, numThreads );
-		return closed;
+		return MorphologyUtils.compute( numThreads, service -> blackTopHat( source, strel, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation, using
+	 * a {@link Shape} as a flat structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off} pixels,
+	 * contrary to grayscale structuring elements. This allows to simply use a
+	 * {@link Shape} as a type for these structuring elements.
+	 * <p>
+	 * This method relies on a specified minimal and maximal value to start
+	 * comparing to other pixels in the neighborhood. For this code to perform
+	 * properly, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image, and the converse for the max value. These normally unseen
+	 * parameters are required to operate on {@code T extends Comparable & Sub}.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source {@link Img} (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source {@link Img} (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the top-hat result. Must be a
+	 *            sub-type of {@code T extends Comparable & Sub}, because we
+	 *            want to be able to compare pixels between themselves and to
+	 *            subtract them.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends Type< T > & Comparable< T > & Sub< T > > Img< T > blackTopHat( final Img< T > source, final Shape strel, final T minVal, final T maxVal, final ExecutorService service )
+	{
+		final Img< T > target = source.factory().create( source );
+		FusedMorphology.close( Views.extendValue( source, minVal ), target, Collections.singletonList( strel ), minVal, maxVal, ( s, tile, es ) -> MorphologyUtils.subAAB2( tile, s, es ), service );
+		return target;
 	}
 
 	/**
@@ -264,8 +426,55 @@ public class BlackTopHat
 	 */
 	public static < T extends RealType< T > > void blackTopHat( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final int numThreads )
 	{
-		Closing.close( source, target, strels, numThreads );
-		MorphologyUtils.subAAB2( target, source, numThreads );
+		MorphologyUtils.run( numThreads, service -> blackTopHat( source, target, strels, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation on a
+	 * {@link RealType} source {@link RandomAccessible}, using a list of
+	 * {@link Shape}s as a structuring element, and writes the result on a
+	 * specified target which must be an {@link IterableInterval}.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the target receives a copy of the source.
+	 * 
+	 * @param source
+	 *            the {@link RandomAccessible} to operate on.
+	 * @param target
+	 *            the {@link IterableInterval} to write the results on.
+	 * @param strels
+	 *            the list of {@link Shape}s that serves as a structuring
+	 *            element.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source and the result. Must extends
+	 *            {@link RealType}.
+	 */
+	public static < T extends RealType< T > > void blackTopHat( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final ExecutorService service )
+	{
+		final T maxVal = MorphologyUtils.createVariable( source, target );
+		maxVal.setReal( maxVal.getMaxValue() );
+		final T minVal = MorphologyUtils.createVariable( source, target );
+		minVal.setReal( minVal.getMinValue() );
+		blackTopHat( source, target, strels, minVal, maxVal, service );
 	}
 
 	/**
@@ -323,8 +532,72 @@ public class BlackTopHat
 	 */
 	public static < T extends Type< T > & Comparable< T > & Sub< T >> void blackTopHat( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T minVal, final T maxVal, final int numThreads )
 	{
-		Closing.close( source, target, strels, minVal, maxVal, numThreads );
-		MorphologyUtils.subAAB2( target, source, numThreads );
+		MorphologyUtils.run( numThreads, service -> blackTopHat( source, target, strels, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation on a
+	 * source {@link RandomAccessible}, using a list of {@link Shape}s as a
+	 * structuring element, and writes the result on a specified target which
+	 * must be an {@link IterableInterval}.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the target receives a copy of the source.
+	 * <p>
+	 * This method relies on specified minimal and maximal values to start
+	 * comparing to other pixels in the neighborhood. For this code to properly
+	 * perform, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image, and
+	 * conversely for the min value. These normally unseen parameters are
+	 * required to operate on {@code T extends Comparable & Sub}.
+	 * 
+	 * @param source
+	 *            the {@link RandomAccessible} to operate on.
+	 * @param target
+	 *            the {@link IterableInterval} to write the results on.
+	 * @param strels
+	 *            the list of {@link Shape}s that serves as a structuring
+	 *            element.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the top-hat result. Must be a
+	 *            sub-type of {@code T extends Comparable & Sub}, because we
+	 *            want to be able to compare pixels between themselves and to
+	 *            subtract them.
+	 */
+	public static < T extends Type< T > & Comparable< T > & Sub< T >> void blackTopHat( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T minVal, final T maxVal, final ExecutorService service )
+	{
+		if ( FusedMorphology.isSupported( target, strels ) )
+		{
+			FusedMorphology.close( source, target, strels, minVal, maxVal, ( s, tile, es ) -> MorphologyUtils.subAAB2( tile, s, es ), service );
+			return;
+		}
+
+		Closing.close( source, target, strels, minVal, maxVal, service );
+		MorphologyUtils.subAAB2( target, source, service );
 	}
 
 	/**
@@ -361,8 +634,48 @@ public class BlackTopHat
 	 */
 	public static < T extends RealType< T > > void blackTopHat( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final int numThreads )
 	{
-		Closing.close( source, target, strel, numThreads );
-		MorphologyUtils.subAAB2( target, source, numThreads );
+		MorphologyUtils.run( numThreads, service -> blackTopHat( source, target, strel, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation on a
+	 * {@link RealType} source {@link RandomAccessible}, using a {@link Shape}
+	 * as a structuring element, and writes the result on a specified target
+	 * which must be an {@link IterableInterval}.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 * 
+	 * @param source
+	 *            the {@link RandomAccessible} to operate on.
+	 * @param target
+	 *            the {@link IterableInterval} to write the results on.
+	 * @param strel
+	 *            the {@link Shape} that serves as a structuring element.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source and the result. Must extends
+	 *            {@link RealType}.
+	 */
+	public static < T extends RealType< T > > void blackTopHat( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final ExecutorService service )
+	{
+		final T maxVal = MorphologyUtils.createVariable( source, target );
+		maxVal.setReal( maxVal.getMaxValue() );
+		final T minVal = MorphologyUtils.createVariable( source, target );
+		minVal.setReal( minVal.getMinValue() );
+		blackTopHat( source, target, strel, minVal, maxVal, service );
 	}
 
 	/**
@@ -414,8 +727,67 @@ public class BlackTopHat
 	 */
 	public static < T extends Type< T > & Comparable< T > & Sub< T >> void blackTopHat( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final T minVal, final T maxVal, final int numThreads )
 	{
-		Closing.close( source, target, strel, minVal, maxVal, numThreads );
-		MorphologyUtils.subAAB2( target, source, numThreads );
+		MorphologyUtils.run( numThreads, service -> blackTopHat( source, target, strel, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation on a
+	 * source {@link RandomAccessible}, using a {@link Shape} as a structuring
+	 * element, and writes the result on a specified target which must be an
+	 * {@link IterableInterval}.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 * <p>
+	 * This method relies on specified minimal and maximal values to start
+	 * comparing to other pixels in the neighborhood. For this code to properly
+	 * perform, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image, and
+	 * conversely for the min value. These normally unseen parameters are
+	 * required to operate on {@code T extends Comparable & Sub}.
+	 * 
+	 * @param source
+	 *            the {@link RandomAccessible} to operate on.
+	 * @param target
+	 *            the {@link IterableInterval} to write the results on.
+	 * @param strel
+	 *            the {@link Shape} that serves as a structuring element.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the top-hat result. Must be a
+	 *            sub-type of {@code T extends Comparable & Sub}, because we
+	 *            want to be able to compare pixels between themselves and to
+	 *            subtract them.
+	 */
+	public static < T extends Type< T > & Comparable< T > & Sub< T >> void blackTopHat( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final T minVal, final T maxVal, final ExecutorService service )
+	{
+		final List< Shape > strels = Collections.singletonList( strel );
+		if ( FusedMorphology.isSupported( target, strels ) )
+		{
+			FusedMorphology.close( source, target, strels, minVal, maxVal, ( s, tile, es ) -> MorphologyUtils.subAAB2( tile, s, es ), service );
+			return;
+		}
+
+		Closing.close( source, target, strel, minVal, maxVal, service );
+		MorphologyUtils.subAAB2( target, source, service );
 	}
 
 	/**
@@ -453,6 +825,45 @@ public class BlackTopHat
 	 *            {@code T extends RealType}.
 	 */
 	public static < T extends RealType< T >> void blackTopHatInPlace( final RandomAccessible< T > source, final Interval interval, final List< Shape > strels, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> blackTopHatInPlace( source, interval, strels, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation, on a
+	 * {@link RealType} {@link Img} using a list of {@link Shape}s as a flat
+	 * structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is left untouched.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T >> void blackTopHatInPlace( final RandomAccessible< T > source, final Interval interval, final List< Shape > strels, final ExecutorService service )
 	{
 		// Prepare tmp holder
 		final T minVal = MorphologyUtils.createVariable( source, interval );
@@ -462,8 +873,8 @@ public class BlackTopHat
 		interval.min( min );
 		final IntervalView< T > translated = Views.translate( img, min );
 
-		Closing.close( source, translated, strels, numThreads );
-		MorphologyUtils.subABA( source, translated, numThreads );
+		Closing.close( source, translated, strels, service );
+		MorphologyUtils.subABA( source, translated, service );
 	}
 
 	/**
@@ -515,6 +926,59 @@ public class BlackTopHat
 	 *            subtract them.
 	 */
 	public static < T extends Type< T > & Comparable< T > & Sub< T >> void blackTopHatInPlace( final RandomAccessible< T > source, final Interval interval, final List< Shape > strels, final T minVal, final T maxVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> blackTopHatInPlace( source, interval, strels, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation, using
+	 * a list of {@link Shape}s as a flat structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is left untouched.
+	 * <p>
+	 * This method relies on specified minimal and maximal values to start
+	 * comparing to other pixels in the neighborhood. For this code to properly
+	 * perform, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image, and
+	 * conversely for the min value. These normally unseen parameters are
+	 * required to operate on {@code T extends Comparable & Sub}.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the top-hat result. Must be a
+	 *            sub-type of {@code T extends Comparable & Sub}, because we
+	 *            want to be able to compare pixels between themselves and to
+	 *            subtract them.
+	 */
+	public static < T extends Type< T > & Comparable< T > & Sub< T >> void blackTopHatInPlace( final RandomAccessible< T > source, final Interval interval, final List< Shape > strels, final T minVal, final T maxVal, final ExecutorService service )
 	{
 		// Prepare tmp holder
 		final ImgFactory< T > factory = Util.getSuitableImgFactory( interval, minVal );
@@ -523,8 +987,8 @@ public class BlackTopHat
 		interval.min( min );
 		final IntervalView< T > translated = Views.translate( img, min );
 
-		Closing.close( source, translated, strels, minVal, maxVal, numThreads );
-		MorphologyUtils.subABA( source, translated, numThreads );
+		Closing.close( source, translated, strels, minVal, maxVal, service );
+		MorphologyUtils.subABA( source, translated, service );
 	}
 
 	/**
@@ -557,6 +1021,40 @@ public class BlackTopHat
 	 *            {@code T extends RealType}.
 	 */
 	public static < T extends RealType< T >> void blackTopHatInPlace( final RandomAccessible< T > source, final Interval interval, final Shape strel, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> blackTopHatInPlace( source, interval, strel, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation, on a
+	 * {@link RealType} {@link Img} using a {@link Shape} as a flat structuring
+	 * element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T >> void blackTopHatInPlace( final RandomAccessible< T > source, final Interval interval, final Shape strel, final ExecutorService service )
 	{
 		// Prepare tmp holder
 		final T minVal = MorphologyUtils.createVariable( source, interval );
@@ -566,8 +1064,8 @@ public class BlackTopHat
 		interval.min( min );
 		final IntervalView< T > translated = Views.translate( img, min );
 
-		Closing.close( source, translated, strel, numThreads );
-		MorphologyUtils.subABA( source, translated, numThreads );
+		Closing.close( source, translated, strel, service );
+		MorphologyUtils.subABA( source, translated, service );
 	}
 
 	/**
@@ -614,6 +1112,54 @@ public class BlackTopHat
 	 *            subtract them.
 	 */
 	public static < T extends Type< T > & Comparable< T > & Sub< T >> void blackTopHatInPlace( final RandomAccessible< T > source, final Interval interval, final Shape strel, final T minVal, final T maxVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> blackTopHatInPlace( source, interval, strel, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the black top-hat (or bottom-hat) morphological operation, using
+	 * a {@link Shape} as a flat structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Top-hat_transform"> Top-hat
+	 * transform</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * This method relies on specified minimal and maximal values to start
+	 * comparing to other pixels in the neighborhood. For this code to properly
+	 * perform, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image, and
+	 * conversely for the min value. These normally unseen parameters are
+	 * required to operate on {@code T extends Comparable & Sub}.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the top-hat result. Must be a
+	 *            sub-type of {@code T extends Comparable & Sub}, because we
+	 *            want to be able to compare pixels between themselves and to
+	 *            subtract them.
+	 */
+	public static < T extends Type< T > & Comparable< T > & Sub< T >> void blackTopHatInPlace( final RandomAccessible< T > source, final Interval interval, final Shape strel, final T minVal, final T maxVal, final ExecutorService service )
 	{
 		// Prepare tmp holder
 		final ImgFactory< T > factory = Util.getSuitableImgFactory( interval, minVal );
@@ -622,8 +1168,8 @@ public class BlackTopHat
 		interval.min( min );
 		final IntervalView< T > translated = Views.translate( img, min );
 
-		Closing.close( source, translated, strel, minVal, maxVal, numThreads );
-		MorphologyUtils.subABA( source, translated, numThreads );
+		Closing.close( source, translated, strel, minVal, maxVal, service );
+		MorphologyUtils.subABA( source, translated, service );
 	}
 
 	/**
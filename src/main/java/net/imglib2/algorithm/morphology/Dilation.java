@@ -34,7 +34,7 @@
 package net.imglib2.algorithm.morphology;
 
 import java.util.List;
-import java.util.Vector;
+import java.util.concurrent.ExecutorService;
 
 import net.imglib2.Cursor;
 import net.imglib2.FinalDimensions;
@@ -43,15 +43,17 @@ import net.imglib2.IterableInterval;
 import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.HorizontalLineShape;
 import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.PeriodicLineShape;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
 import net.imglib2.algorithm.neighborhood.Shape;
 import net.imglib2.img.Img;
 import net.imglib2.img.ImgFactory;
-import net.imglib2.multithreading.Chunk;
-import net.imglib2.multithreading.SimpleMultiThreading;
 import net.imglib2.type.Type;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
 import net.imglib2.util.Util;
 import net.imglib2.view.ExtendedRandomAccessibleInterval;
 import net.imglib2.view.IntervalView;
@@ -88,13 +90,46 @@ public class Dilation
 	 * @return a new {@link Img}, of same dimensions than the source.
 	 */
 	public static < T extends RealType< T > > Img< T > dilate( final Img< T > source, final List< Shape > strels, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> dilate( source, strels, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link Img} using a list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > dilate( final Img< T > source, final List< Shape > strels, final ExecutorService service )
 	{
 		Img< T > target = source;
 		for ( final Shape strel : strels )
 		{
-			target = dilateFull( target, strel, numThreads );
+			target = dilateFull( target, strel, service );
 		}
-		return MorphologyUtils.copyCropped( target, source, numThreads );
+		return MorphologyUtils.copyCropped( target, source, service );
 	}
 
 	/**
@@ -139,13 +174,59 @@ public class Dilation
 	 * @return a new {@link Img}, of same dimensions than the source.
 	 */
 	public static < T extends Type< T > & Comparable< T > > Img< T > dilate( final Img< T > source, final List< Shape > strels, final T minVal, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> dilate( source, strels, minVal, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on an {@link Img} using a
+	 * list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * This method relies on a specified minimal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * dilation, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image. This normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element, as a list of {@link Shape}s.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source {@link Img} (against {@link Comparable}. This is
+	 *            required to perform a proper mathematical dilation. Because we
+	 *            operate on a generic {@link Type}, it has to be provided
+	 *            manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends Comparable & Type}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends Type< T > & Comparable< T > > Img< T > dilate( final Img< T > source, final List< Shape > strels, final T minVal, final ExecutorService service )
 	{
 		Img< T > target = source;
 		for ( final Shape strel : strels )
 		{
-			target = dilateFull( target, strel, minVal, numThreads );
+			target = dilateFull( target, strel, minVal, service );
 		}
-		return MorphologyUtils.copyCropped( target, source, numThreads );
+		return MorphologyUtils.copyCropped( target, source, service );
 	}
 
 	/**
@@ -172,12 +253,40 @@ public class Dilation
 	 * @return a new {@link Img}, of same dimensions than the source.
 	 */
 	public static < T extends RealType< T >> Img< T > dilate( final Img< T > source, final Shape strel, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> dilate( source, strel, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link Img} using a {@link Shape} as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T >> Img< T > dilate( final Img< T > source, final Shape strel, final ExecutorService service )
 	{
 		final Img< T > target = source.factory().create( source );
 		final T minVal = source.firstElement().createVariable();
 		minVal.setReal( minVal.getMinValue() );
 		final ExtendedRandomAccessibleInterval< T, Img< T >> extended = Views.extendValue( source, minVal );
-		dilate( extended, target, strel, numThreads );
+		dilate( extended, target, strel, service );
 		return target;
 	}
 
@@ -218,10 +327,51 @@ public class Dilation
 	 * @return a new {@link Img}, of same dimensions than the source.
 	 */
 	public static < T extends Type< T > & Comparable< T > > Img< T > dilate( final Img< T > source, final Shape strel, final T minVal, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> dilate( source, strel, minVal, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on an {@link Img} using a
+	 * {@link Shape} as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 * <p>
+	 * This method relies on a specified minimal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * dilation, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image. This normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source {@link Img} (against {@link Comparable}. This is
+	 *            required to perform a proper mathematical dilation. Because we
+	 *            operate on a generic {@link Type}, it has to be provided
+	 *            manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends Comparable & Type}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends Type< T > & Comparable< T > > Img< T > dilate( final Img< T > source, final Shape strel, final T minVal, final ExecutorService service )
 	{
 		final Img< T > target = source.factory().create( source );
 		final ExtendedRandomAccessibleInterval< T, Img< T >> extended = Views.extendValue( source, minVal );
-		dilate( extended, target, strel, minVal, numThreads );
+		dilate( extended, target, strel, minVal, service );
 		return target;
 	}
 
@@ -261,10 +411,50 @@ public class Dilation
 	 *            the number of threads to use for the calculation.
 	 */
 	public static < T extends RealType< T >> void dilate( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> dilate( source, target, strels, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link RandomAccessible} as a source and writing results in an
+	 * {@link IterableInterval}.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the target is left untouched.
+	 *
+	 * @param source
+	 *            the source {@link RandomAccessible}, must be sufficiently
+	 *            padded.
+	 * @param target
+	 *            the target image.
+	 * @param strels
+	 *            the structuring element, as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 */
+	public static < T extends RealType< T >> void dilate( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final ExecutorService service )
 	{
 		final T minVal = MorphologyUtils.createVariable( source, target );
 		minVal.setReal( minVal.getMinValue() );
-		dilate( source, target, strels, minVal, numThreads );
+		dilate( source, target, strels, minVal, service );
 	}
 
 	/**
@@ -318,11 +508,66 @@ public class Dilation
 	 *            a sub-type of {@code T extends Comparable & Type}.
 	 */
 	public static < T extends Type< T > & Comparable< T > > void dilate( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T minVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> dilate( source, target, strels, minVal, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, using a
+	 * {@link RandomAccessible} as a source and writing results in an
+	 * {@link IterableInterval}.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the target is left untouched.
+	 * <p>
+	 * This method relies on a specified minimal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * dilation, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image. This normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source {@link RandomAccessible}, must be sufficiently
+	 *            padded.
+	 * @param target
+	 *            the target image.
+	 * @param strels
+	 *            the structuring element, as a list of {@link Shape}s.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}. This is required to
+	 *            perform a proper mathematical dilation. Because we operate on
+	 *            a generic {@link Type}, it has to be provided manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends Comparable & Type}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void dilate( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T minVal, final ExecutorService service )
 	{
 		if ( strels.isEmpty() ) { return; }
 		if ( strels.size() == 1 )
 		{
-			dilate( source, target, strels.get( 0 ), minVal, numThreads );
+			dilate( source, target, strels.get( 0 ), minVal, service );
 			return;
 		}
 
@@ -348,12 +593,12 @@ public class Dilation
 		final ImgFactory< T > factory = Util.getSuitableImgFactory( new FinalDimensions( targetDims ), minVal );
 		Img< T > temp = factory.create( targetDims );
 		final IntervalView< T > translated = Views.translate( temp, translation );
-		dilate( source, translated, strels.get( 0 ), minVal, numThreads );
+		dilate( source, translated, strels.get( 0 ), minVal, service );
 
 		// Middle and last shapes -> do erosion.
 		for ( int i = 1; i < strels.size(); i++ )
 		{
-			temp = dilate( temp, strels.get( i ), minVal, numThreads );
+			temp = dilate( temp, strels.get( i ), minVal, service );
 		}
 
 		// Copy-crop back on target, focusing on the center part.
@@ -362,7 +607,7 @@ public class Dilation
 		{
 			offset[ d ] = target.min( d ) - ( ( temp.dimension( d ) - target.dimension( d ) ) / 2 );
 		}
-		MorphologyUtils.copy2( Views.translate( temp, offset ), target, numThreads );
+		MorphologyUtils.copy2( Views.translate( temp, offset ), target, service );
 	}
 
 	/**
@@ -396,10 +641,45 @@ public class Dilation
 	 *            the number of threads to use for the calculation.
 	 */
 	public static < T extends RealType< T >> void dilate( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> dilate( source, target, strel, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link RandomAccessible} as a source and writing results in an
+	 * {@link IterableInterval}.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 *
+	 * @param source
+	 *            the source {@link RandomAccessible}, must be sufficiently
+	 *            padded.
+	 * @param target
+	 *            the target image.
+	 * @param strel
+	 *            the structuring element, as a {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 */
+	public static < T extends RealType< T >> void dilate( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final ExecutorService service )
 	{
 		final T minVal = MorphologyUtils.createVariable( source, target );
 		minVal.setReal( minVal.getMinValue() );
-		dilate( source, target, strel, minVal, numThreads );
+		dilate( source, target, strel, minVal, service );
 	}
 
 	/**
@@ -422,6 +702,12 @@ public class Dilation
 	 * This allows to simply use a {@link Shape} as a type for these structuring
 	 * elements.
 	 * <p>
+	 * For line structuring elements ({@link HorizontalLineShape},
+	 * {@link PeriodicLineShape} or a one-dimensional {@link RectangleShape},
+	 * not skipping the center) on {@link RealType}s of at most 32 bits or
+	 * {@link DoubleType}, the running maximum along each line is computed by
+	 * the van Herk / Gil-Werman algorithm, at a cost independent of the span.
+	 * <p>
 	 * This method relies on a specified minimal value to start comparing to
 	 * other pixels in the neighborhood. For this code to properly perform
 	 * dilation, it is sufficient that the specified min value is smaller
@@ -449,7 +735,73 @@ public class Dilation
 	 */
 	public static < T extends Type< T > & Comparable< T > > void dilate( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final T minVal, int numThreads )
 	{
-		numThreads = Math.max( 1, numThreads );
+		MorphologyUtils.run( numThreads, service -> dilate( source, target, strel, minVal, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, using a
+	 * {@link RandomAccessible} as a source and writing results in an
+	 * {@link IterableInterval}.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * For line structuring elements ({@link HorizontalLineShape},
+	 * {@link PeriodicLineShape} or a one-dimensional {@link RectangleShape},
+	 * not skipping the center) on {@link RealType}s of at most 32 bits or
+	 * {@link DoubleType}, the running maximum along each line is computed by
+	 * the van Herk / Gil-Werman algorithm, at a cost independent of the span.
+	 * <p>
+	 * This method relies on a specified minimal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * dilation, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image. This normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source {@link RandomAccessible}, must be sufficiently
+	 *            padded.
+	 * @param target
+	 *            the target image.
+	 * @param strel
+	 *            the structuring element, as a {@link Shape}.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}. This is required to
+	 *            perform a proper mathematical dilation. Because we operate on
+	 *            a generic {@link Type}, it has to be provided manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends Comparable & Type}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void dilate( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final T minVal, final ExecutorService service )
+	{
+		/*
+		 * Line structuring elements on real values: running extremum.
+		 */
+
+		if ( LineMorphology.isSupported( strel, target, minVal ) )
+		{
+			@SuppressWarnings( "unchecked" )
+			final RandomAccessible< ? extends RealType< ? > > realSource = ( RandomAccessible< ? extends RealType< ? > > ) source;
+			LineMorphology.process( realSource, target, strel, ( ( RealType< ? > ) minVal ).getRealDouble(), true, service );
+			return;
+		}
 
 		/*
 		 * Prepare iteration.
@@ -458,13 +810,9 @@ public class Dilation
 		final RandomAccessible< Neighborhood< T >> accessible = strel.neighborhoodsRandomAccessible( source );
 
 		/*
-		 * Multithread
+		 * Multithread, one task per block of the target.
 		 */
 
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( target.size(), numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-
-
 		final Object tmp = minVal;
 		if ( tmp instanceof BitType )
 		{
@@ -472,44 +820,33 @@ public class Dilation
 			 * Optimization for BitType
 			 */
 
-			for ( int i = 0; i < threads.length; i++ )
-			{
-				final Chunk chunk = chunks.get( i );
-				threads[ i ] = new Thread( "Morphology dilate thread " + i )
+			MorphologyUtils.forEachChunk( target, service, ( cursor, size ) -> {
+				final RandomAccess< Neighborhood< T >> randomAccess = accessible.randomAccess( target );
+				final Object tmp2 = cursor;
+				@SuppressWarnings( "unchecked" )
+				final Cursor< BitType > cursorDilated = ( Cursor< BitType > ) tmp2;
+
+				for ( long steps = 0; steps < size; steps++ )
 				{
-					@Override
-					public void run()
-					{
-						final RandomAccess< Neighborhood< T >> randomAccess = accessible.randomAccess( target );
-						final Object tmp2 = target.cursor();
-						@SuppressWarnings( "unchecked" )
-						final Cursor< BitType > cursorDilated = ( Cursor< BitType > ) tmp2;
-						cursorDilated.jumpFwd( chunk.getStartPosition() );
+					cursorDilated.fwd();
+					randomAccess.setPosition( cursorDilated );
+					final Neighborhood< T > neighborhood = randomAccess.get();
+					final Object tmp3 = neighborhood.cursor();
+					@SuppressWarnings( "unchecked" )
+					final Cursor< BitType > nc = ( Cursor< BitType > ) tmp3;
 
-						for ( long steps = 0; steps < chunk.getLoopSize(); steps++ )
+					while ( nc.hasNext() )
+					{
+						nc.fwd();
+						final BitType val = nc.get();
+						if ( val.get() )
 						{
-							cursorDilated.fwd();
-							randomAccess.setPosition( cursorDilated );
-							final Neighborhood< T > neighborhood = randomAccess.get();
-							final Object tmp3 = neighborhood.cursor();
-							@SuppressWarnings( "unchecked" )
-							final Cursor< BitType > nc = ( Cursor< BitType > ) tmp3;
-
-							while ( nc.hasNext() )
-							{
-								nc.fwd();
-								final BitType val = nc.get();
-								if ( val.get() )
-								{
-									cursorDilated.get().set( true );
-									break;
-								}
-							}
+							cursorDilated.get().set( true );
+							break;
 						}
-
 					}
-				};
-			}
+				}
+			} );
 		}
 		else
 		{
@@ -517,54 +854,83 @@ public class Dilation
 			 * All other comparable type.
 			 */
 
-			for ( int i = 0; i < threads.length; i++ )
-			{
-				final Chunk chunk = chunks.get( i );
-				threads[ i ] = new Thread( "Morphology dilate thread " + i )
+			MorphologyUtils.forEachChunk( target, service, ( cursor, size ) -> {
+				final RandomAccess< Neighborhood< T >> randomAccess = accessible.randomAccess( target );
+				final Cursor< T > cursorDilated = cursor;
+
+				final T max = MorphologyUtils.createVariable( source, target );
+				for ( long steps = 0; steps < size; steps++ )
 				{
-					@Override
-					public void run()
-					{
-						final RandomAccess< Neighborhood< T >> randomAccess = accessible.randomAccess( target );
-						final Cursor< T > cursorDilated = target.cursor();
-						cursorDilated.jumpFwd( chunk.getStartPosition() );
+					cursorDilated.fwd();
+					randomAccess.setPosition( cursorDilated );
+					final Neighborhood< T > neighborhood = randomAccess.get();
+					final Cursor< T > nc = neighborhood.cursor();
 
-						final T max = MorphologyUtils.createVariable( source, target );
-						for ( long steps = 0; steps < chunk.getLoopSize(); steps++ )
+					/*
+					 * Look for max in the neighborhood.
+					 */
+
+					max.set( minVal );
+					while ( nc.hasNext() )
+					{
+						nc.fwd();
+						final T val = nc.get();
+						// We need only Comparable to do this:
+						if ( val.compareTo( max ) > 0 )
 						{
-							cursorDilated.fwd();
-							randomAccess.setPosition( cursorDilated );
-							final Neighborhood< T > neighborhood = randomAccess.get();
-							final Cursor< T > nc = neighborhood.cursor();
-
-							/*
-							 * Look for max in the neighborhood.
-							 */
-
-							max.set( minVal );
-							while ( nc.hasNext() )
-							{
-								nc.fwd();
-								final T val = nc.get();
-								// We need only Comparable to do this:
-								if ( val.compareTo( max ) > 0 )
-								{
-									max.set( val );
-								}
-							}
-							cursorDilated.get().set( max );
+							max.set( val );
 						}
-
 					}
-				};
-			}
+					cursorDilated.get().set( max );
+				}
+			} );
 		}
+	}
 
-		/*
-		 * Launch calculation
-		 */
-
-		SimpleMultiThreading.startAndJoin( threads );
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link Img} using a list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * This method performs what is called the 'full' dilation. That is: the
+	 * result image has its dimension enlarged by the structuring element, with
+	 * respect to the source image. It is limited to flat structuring elements,
+	 * only having {@code on/off} pixels, contrary to grayscale structuring
+	 * elements. This allows to simply use a {@link Shape} as a type for these
+	 * structuring elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * <b>Warning:</b> Current implementation does not do <i>stricto sensu</i>
+	 * the full dilation. Indeed, if the structuring element has more dimensions
+	 * than the source {@link Img}, they are ignored, and the returned
+	 * {@link Img} has the same number of dimensions that of the source (but
+	 * dilated). This is due to the fact that we use a {@link Shape} for
+	 * structuring elements, and that it does not return a number of dimensions.
+	 * The neighborhood created have therefore at most as many dimensions as the
+	 * source image. The real, full dilation results should have a number of
+	 * dimensions equals to the maximum of the number of dimension of both
+	 * source and structuring element.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param numThreads
+	 *            the number of threads to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, possibly of larger dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > dilateFull( final Img< T > source, final List< Shape > strels, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> dilateFull( source, strels, service ) );
 	}
 
 	/**
@@ -601,21 +967,80 @@ public class Dilation
 	 *            the source image.
 	 * @param strels
 	 *            the structuring element as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, possibly of larger dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > dilateFull( final Img< T > source, final List< Shape > strels, final ExecutorService service )
+	{
+		Img< T > target = source;
+		for ( final Shape strel : strels )
+		{
+			target = dilateFull( target, strel, service );
+		}
+		return target;
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on an {@link Img} using a
+	 * list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * This method performs what is called the 'full' dilation. That is: the
+	 * result image has its dimension enlarged by the structuring element, with
+	 * respect to the source image. It is limited to flat structuring elements,
+	 * only having {@code on/off} pixels, contrary to grayscale structuring
+	 * elements. This allows to simply use a {@link Shape} as a type for these
+	 * structuring elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * This method relies on a specified minimal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * dilation, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image. This normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * <p>
+	 * <b>Warning:</b> Current implementation does not do <i>stricto sensu</i>
+	 * the full dilation. Indeed, if the structuring element has more dimensions
+	 * than the source {@link Img}, they are ignored, and the returned
+	 * {@link Img} has the same number of dimensions that of the source (but
+	 * dilated). This is due to the fact that we use a {@link Shape} for
+	 * structuring elements, and that it does not return a number of dimensions.
+	 * The neighborhood created have therefore at most as many dimensions as the
+	 * source image. The real, full dilation results should have a number of
+	 * dimensions equals to the maximum of the number of dimension of both
+	 * source and structuring element.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source {@link Img} (against {@link Comparable}. This is
+	 *            required to perform a proper mathematical dilation. Because we
+	 *            operate on a generic {@link Type}, it has to be provided
+	 *            manually.
 	 * @param numThreads
 	 *            the number of threads to use for the calculation.
 	 * @param <T>
 	 *            the type of the source image and the dilation result. Must be
-	 *            a sub-type of {@code T extends RealType}.
+	 *            a sub-type of {@code T extends Comparable & Type}.
 	 * @return a new {@link Img}, possibly of larger dimensions than the source.
 	 */
-	public static < T extends RealType< T > > Img< T > dilateFull( final Img< T > source, final List< Shape > strels, final int numThreads )
+	public static < T extends Type< T > & Comparable< T > > Img< T > dilateFull( final Img< T > source, final List< Shape > strels, final T minVal, final int numThreads )
 	{
-		Img< T > target = source;
-		for ( final Shape strel : strels )
-		{
-			target = dilateFull( target, strel, numThreads );
-		}
-		return target;
+		return MorphologyUtils.compute( numThreads, service -> dilateFull( source, strels, minVal, service ) );
 	}
 
 	/**
@@ -665,19 +1090,19 @@ public class Dilation
 	 *            required to perform a proper mathematical dilation. Because we
 	 *            operate on a generic {@link Type}, it has to be provided
 	 *            manually.
-	 * @param numThreads
-	 *            the number of threads to use for the calculation.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
 	 * @param <T>
 	 *            the type of the source image and the dilation result. Must be
 	 *            a sub-type of {@code T extends Comparable & Type}.
 	 * @return a new {@link Img}, possibly of larger dimensions than the source.
 	 */
-	public static < T extends Type< T > & Comparable< T > > Img< T > dilateFull( final Img< T > source, final List< Shape > strels, final T minVal, final int numThreads )
+	public static < T extends Type< T > & Comparable< T > > Img< T > dilateFull( final Img< T > source, final List< Shape > strels, final T minVal, final ExecutorService service )
 	{
 		Img< T > target = source;
 		for ( final Shape strel : strels )
 		{
-			target = dilateFull( target, strel, minVal, numThreads );
+			target = dilateFull( target, strel, minVal, service );
 		}
 		return target;
 	}
@@ -719,6 +1144,47 @@ public class Dilation
 	 * @return a new {@link Img}, possibly of larger dimensions than the source.
 	 */
 	public static < T extends RealType< T >> Img< T > dilateFull( final Img< T > source, final Shape strel, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> dilateFull( source, strel, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link Img} using a list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * This method performs what is called the 'full' dilation. That is: the
+	 * result image has its dimension enlarged by the structuring element, with
+	 * respect to the source image. It is limited to flat structuring elements,
+	 * only having {@code on/off} pixels, contrary to grayscale structuring
+	 * elements. This allows to simply use a {@link Shape} as a type for these
+	 * structuring elements.
+	 * <p>
+	 * <b>Warning:</b> Current implementation does not do <i>stricto sensu</i>
+	 * the full dilation. Indeed, if the structuring element has more dimensions
+	 * than the source {@link Img}, they are ignored, and the returned
+	 * {@link Img} has the same number of dimensions that of the source (but
+	 * dilated). This is due to the fact that we use a {@link Shape} for
+	 * structuring elements, and that it does not return a number of dimensions.
+	 * The neighborhood created have therefore at most as many dimensions as the
+	 * source image. The real, full dilation results should have a number of
+	 * dimensions equals to the maximum of the number of dimension of both
+	 * source and structuring element.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, possibly of larger dimensions than the source.
+	 */
+	public static < T extends RealType< T >> Img< T > dilateFull( final Img< T > source, final Shape strel, final ExecutorService service )
 	{
 		final long[][] dimensionsAndOffset = MorphologyUtils.computeTargetImageDimensionsAndOffset( source, strel );
 
@@ -731,7 +1197,7 @@ public class Dilation
 		minVal.setReal( minVal.getMinValue() );
 		final ExtendedRandomAccessibleInterval< T, Img< T >> extended = Views.extendValue( source, minVal );
 
-		dilate( extended, offsetTarget, strel, numThreads );
+		dilate( extended, offsetTarget, strel, service );
 		return target;
 	}
 
@@ -785,6 +1251,60 @@ public class Dilation
 	 * @return a new {@link Img}, possibly of larger dimensions than the source.
 	 */
 	public static < T extends Type< T > & Comparable< T > > Img< T > dilateFull( final Img< T > source, final Shape strel, final T minVal, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> dilateFull( source, strel, minVal, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on an {@link Img} using a
+	 * list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * This method performs what is called the 'full' dilation. That is: the
+	 * result image has its dimension enlarged by the structuring element, with
+	 * respect to the source image. It is limited to flat structuring elements,
+	 * only having {@code on/off} pixels, contrary to grayscale structuring
+	 * elements. This allows to simply use a {@link Shape} as a type for these
+	 * structuring elements.
+	 * <p>
+	 * This method relies on a specified minimal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * dilation, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image. This normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * <p>
+	 * <b>Warning:</b> Current implementation does not do <i>stricto sensu</i>
+	 * the full dilation. Indeed, if the structuring element has more dimensions
+	 * than the source {@link Img}, they are ignored, and the returned
+	 * {@link Img} has the same number of dimensions that of the source (but
+	 * dilated). This is due to the fact that we use a {@link Shape} for
+	 * structuring elements, and that it does not return a number of dimensions.
+	 * The neighborhood created have therefore at most as many dimensions as the
+	 * source image. The real, full dilation results should have a number of
+	 * dimensions equals to the maximum of the number of dimension of both
+	 * source and structuring element.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source {@link Img} (against {@link Comparable}. This is
+	 *            required to perform a proper mathematical dilation. Because we
+	 *            operate on a generic {@link Type}, it has to be provided
+	 *            manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the dilation result. Must be
+	 *            a sub-type of {@code T extends Comparable & Type}.
+	 * @return a new {@link Img}, possibly of larger dimensions than the source.
+	 */
+	public static < T extends Type< T > & Comparable< T > > Img< T > dilateFull( final Img< T > source, final Shape strel, final T minVal, final ExecutorService service )
 	{
 
 		final long[][] dimensionsAndOffset = MorphologyUtils.computeTargetImageDimensionsAndOffset( source, strel );
@@ -795,7 +1315,7 @@ public class Dilation
 		final IntervalView< T > offsetTarget = Views.offset( target, offset );
 		final ExtendedRandomAccessibleInterval< T, Img< T >> extended = Views.extendValue( source, minVal );
 
-		dilate( extended, offsetTarget, strel, minVal, numThreads );
+		dilate( extended, offsetTarget, strel, minVal, service );
 		return target;
 	}
 
@@ -834,10 +1354,49 @@ public class Dilation
 	 *            {@code T extends RealType}.
 	 */
 	public static < T extends RealType< T > > void dilateInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> dilateInPlace( source, interval, strels, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)} *
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T > > void dilateInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final ExecutorService service )
 	{
 		for ( final Shape strel : strels )
 		{
-			dilateInPlace( source, interval, strel, numThreads );
+			dilateInPlace( source, interval, strel, service );
 		}
 	}
 
@@ -888,10 +1447,61 @@ public class Dilation
 	 *            {@code T extends Comparable & Type}.
 	 */
 	public static < T extends Type< T > & Comparable< T > > void dilateInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final T minVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> dilateInPlace( source, interval, strels, minVal, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)} *
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned. *
+	 * <p>
+	 * This method relies on a specified minimal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * dilation, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image. This normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}. This is required to
+	 *            perform a proper mathematical dilation. Because we operate on
+	 *            a generic {@link Type}, it has to be provided manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends Comparable & Type}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void dilateInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final T minVal, final ExecutorService service )
 	{
 		for ( final Shape strel : strels )
 		{
-			dilateInPlace( source, interval, strel, minVal, numThreads );
+			dilateInPlace( source, interval, strel, minVal, service );
 		}
 	}
 
@@ -926,6 +1536,41 @@ public class Dilation
 	 *            {@code T extends RealType}.
 	 */
 	public static < T extends RealType< T > > void dilateInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> dilateInPlace( source, interval, strel, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T > > void dilateInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final ExecutorService service )
 	{
 		final T minVal = MorphologyUtils.createVariable( source, interval );
 		minVal.setReal( minVal.getMinValue() );
@@ -937,8 +1582,8 @@ public class Dilation
 		interval.min( min );
 		final IntervalView< T > translated = Views.translate( img, min );
 
-		dilate( extended, translated, strel, numThreads );
-		MorphologyUtils.copy( translated, extended, numThreads );
+		dilate( extended, translated, strel, service );
+		MorphologyUtils.copy( translated, extended, service );
 	}
 
 	/**
@@ -983,6 +1628,52 @@ public class Dilation
 	 *            {@code T extends Comparable & Type}.
 	 */
 	public static < T extends Type< T > & Comparable< T > > void dilateInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final T minVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> dilateInPlace( source, interval, strel, minVal, service ) );
+	}
+
+	/**
+	 * Performs the dilation morphological operation, on a {@link RealType}
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Dilation_(morphology)">
+	 * Dilation_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)} *
+	 * <p>
+	 * This method relies on a specified minimal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * dilation, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image. This normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}. This is required to
+	 *            perform a proper mathematical dilation. Because we operate on
+	 *            a generic {@link Type}, it has to be provided manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends Comparable & Type}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void dilateInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final T minVal, final ExecutorService service )
 	{
 		// Any chance we could do something similar with a RandomAccessible?
 		// Doing the following with a RandomAccessible as source generated an
@@ -1002,8 +1693,8 @@ public class Dilation
 		interval.min( min );
 		final IntervalView< T > translated = Views.translate( img, min );
 
-		dilate( extended, translated, strel, minVal, numThreads );
-		MorphologyUtils.copy( translated, extended, numThreads );
+		dilate( extended, translated, strel, minVal, service );
+		MorphologyUtils.copy( translated, extended, service );
 	}
 
 	/**
@@ -34,7 +34,7 @@
 package net.imglib2.algorithm.morphology;
 
 import java.util.List;
-import java.util.Vector;
+import java.util.concurrent.ExecutorService;
 
 import net.imglib2.Cursor;
 import net.imglib2.FinalDimensions;
@@ -43,15 +43,17 @@ import net.imglib2.IterableInterval;
 import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.HorizontalLineShape;
 import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.PeriodicLineShape;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
 import net.imglib2.algorithm.neighborhood.Shape;
 import net.imglib2.img.Img;
 import net.imglib2.img.ImgFactory;
-import net.imglib2.multithreading.Chunk;
-import net.imglib2.multithreading.SimpleMultiThreading;
 import net.imglib2.type.Type;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
 import net.imglib2.util.Util;
 import net.imglib2.view.ExtendedRandomAccessibleInterval;
 import net.imglib2.view.IntervalView;
@@ -88,13 +90,46 @@ public class Erosion
 	 * @return a new {@link Img}, of same dimensions than the source.
 	 */
 	public static < T extends RealType< T > > Img< T > erode( final Img< T > source, final List< Shape > strels, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> erode( source, strels, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link Img} using a list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > erode( final Img< T > source, final List< Shape > strels, final ExecutorService service )
 	{
 		Img< T > target = source;
 		for ( final Shape strel : strels )
 		{
-			target = erodeFull( target, strel, numThreads );
+			target = erodeFull( target, strel, service );
 		}
-		return MorphologyUtils.copyCropped( target, source, numThreads );
+		return MorphologyUtils.copyCropped( target, source, service );
 	}
 
 	/**
@@ -139,13 +174,59 @@ public class Erosion
 	 * @return a new {@link Img}, of same dimensions than the source.
 	 */
 	public static < T extends Type< T > & Comparable< T > > Img< T > erode( final Img< T > source, final List< Shape > strels, final T maxVal, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> erode( source, strels, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on an {@link Img} using a
+	 * list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * This method relies on a specified maximal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * erosion, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image. This
+	 * normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element, as a list of {@link Shape}s.
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source {@link Img} (against {@link Comparable}. This is
+	 *            required to perform a proper mathematical erosion. Because we
+	 *            operate on a generic {@link Type}, it has to be provided
+	 *            manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends Comparable & Type}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends Type< T > & Comparable< T > > Img< T > erode( final Img< T > source, final List< Shape > strels, final T maxVal, final ExecutorService service )
 	{
 		Img< T > target = source;
 		for ( final Shape strel : strels )
 		{
-			target = erodeFull( target, strel, maxVal, numThreads );
+			target = erodeFull( target, strel, maxVal, service );
 		}
-		return MorphologyUtils.copyCropped( target, source, numThreads );
+		return MorphologyUtils.copyCropped( target, source, service );
 	}
 
 	/**
@@ -172,12 +253,40 @@ public class Erosion
 	 * @return a new {@link Img}, of same dimensions than the source.
 	 */
 	public static < T extends RealType< T >> Img< T > erode( final Img< T > source, final Shape strel, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> erode( source, strel, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link Img} using a {@link Shape} as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T >> Img< T > erode( final Img< T > source, final Shape strel, final ExecutorService service )
 	{
 		final Img< T > target = source.factory().create( source );
 		final T maxVal = source.firstElement().createVariable();
 		maxVal.setReal( maxVal.getMaxValue() );
 		final ExtendedRandomAccessibleInterval< T, Img< T >> extended = Views.extendValue( source, maxVal );
-		erode( extended, target, strel, numThreads );
+		erode( extended, target, strel, service );
 		return target;
 	}
 
@@ -218,10 +327,51 @@ public class Erosion
 	 * @return a new {@link Img}, of same dimensions than the source.
 	 */
 	public static < T extends Type< T > & Comparable< T > > Img< T > erode( final Img< T > source, final Shape strel, final T maxVal, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> erode( source, strel, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on an {@link Img} using a
+	 * {@link Shape} as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * The result image has the same dimensions that of the source image. It is
+	 * limited to flat structuring elements, only having {@code on/off}
+	 * pixels, contrary to grayscale structuring elements. This allows to simply
+	 * use a {@link Shape} as a type for these structuring elements.
+	 * <p>
+	 * This method relies on a specified maximal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * erosion, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image. This
+	 * normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source {@link Img} (against {@link Comparable}. This is
+	 *            required to perform a proper mathematical erosion. Because we
+	 *            operate on a generic {@link Type}, it has to be provided
+	 *            manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends Comparable & Type}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends Type< T > & Comparable< T > > Img< T > erode( final Img< T > source, final Shape strel, final T maxVal, final ExecutorService service )
 	{
 		final Img< T > target = source.factory().create( source );
 		final ExtendedRandomAccessibleInterval< T, Img< T >> extended = Views.extendValue( source, maxVal );
-		erode( extended, target, strel, maxVal, numThreads );
+		erode( extended, target, strel, maxVal, service );
 		return target;
 	}
 
@@ -261,10 +411,50 @@ public class Erosion
 	 *            the number of threads to use for the calculation.
 	 */
 	public static < T extends RealType< T >> void erode( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> erode( source, target, strels, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link RandomAccessible} as a source and writing results in an
+	 * {@link IterableInterval}.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the target is left untouched.
+	 *
+	 * @param source
+	 *            the source {@link RandomAccessible}, must be sufficiently
+	 *            padded.
+	 * @param target
+	 *            the target image.
+	 * @param strels
+	 *            the structuring element, as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 */
+	public static < T extends RealType< T >> void erode( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final ExecutorService service )
 	{
 		final T maxVal = MorphologyUtils.createVariable( source, target );
 		maxVal.setReal( maxVal.getMaxValue() );
-		erode( source, target, strels, maxVal, numThreads );
+		erode( source, target, strels, maxVal, service );
 	}
 
 	/**
@@ -318,11 +508,66 @@ public class Erosion
 	 *            sub-type of {@code T extends Comparable & Type}.
 	 */
 	public static < T extends Type< T > & Comparable< T > > void erode( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T maxVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> erode( source, target, strels, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, using a
+	 * {@link RandomAccessible} as a source and writing results in an
+	 * {@link IterableInterval}.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the target is left untouched.
+	 * <p>
+	 * This method relies on a specified maximal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * erosion, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image. This
+	 * normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source {@link RandomAccessible}, must be sufficiently
+	 *            padded.
+	 * @param target
+	 *            the target image.
+	 * @param strels
+	 *            the structuring element, as a list of {@link Shape}s.
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}. This is required to
+	 *            perform a proper mathematical erosion. Because we operate on a
+	 *            generic {@link Type}, it has to be provided manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends Comparable & Type}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void erode( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T maxVal, final ExecutorService service )
 	{
 		if ( strels.isEmpty() ) { return; }
 		if ( strels.size() == 1 )
 		{
-			erode( source, target, strels.get( 0 ), maxVal, numThreads );
+			erode( source, target, strels.get( 0 ), maxVal, service );
 			return;
 		}
 
@@ -348,12 +593,12 @@ public class Erosion
 		final ImgFactory< T > factory = Util.getSuitableImgFactory( new FinalDimensions(targetDims), maxVal );
 		Img< T > temp = factory.create( targetDims );
 		final IntervalView< T > translated = Views.translate( temp, translation );
-		erode( source, translated, strels.get( 0 ), maxVal, numThreads );
+		erode( source, translated, strels.get( 0 ), maxVal, service );
 
 		// Middle and last shapes -> do erosion.
 		for ( int i = 1; i < strels.size(); i++ )
 		{
-			temp = erode( temp, strels.get( i ), maxVal, numThreads );
+			temp = erode( temp, strels.get( i ), maxVal, service );
 		}
 
 		// Copy-crop back on target, focusing on the center part.
@@ -362,7 +607,7 @@ public class Erosion
 		{
 			offset[ d ] = target.min( d ) - ( ( temp.dimension( d ) - target.dimension( d ) ) / 2 );
 		}
-		MorphologyUtils.copy2( Views.translate( temp, offset ), target, numThreads );
+		MorphologyUtils.copy2( Views.translate( temp, offset ), target, service );
 	}
 
 	/**
@@ -396,10 +641,45 @@ public class Erosion
 	 *            the number of threads to use for the calculation.
 	 */
 	public static < T extends RealType< T >> void erode( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> erode( source, target, strel, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link RandomAccessible} as a source and writing results in an
+	 * {@link IterableInterval}.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 *
+	 * @param source
+	 *            the source {@link RandomAccessible}, must be sufficiently
+	 *            padded.
+	 * @param target
+	 *            the target image.
+	 * @param strel
+	 *            the structuring element, as a {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 */
+	public static < T extends RealType< T >> void erode( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final ExecutorService service )
 	{
 		final T maxVal = MorphologyUtils.createVariable( source, target );
 		maxVal.setReal( maxVal.getMaxValue() );
-		erode( source, target, strel, maxVal, numThreads );
+		erode( source, target, strel, maxVal, service );
 	}
 
 	/**
@@ -422,6 +702,12 @@ public class Erosion
 	 * This allows to simply use a {@link Shape} as a type for these structuring
 	 * elements.
 	 * <p>
+	 * For line structuring elements ({@link HorizontalLineShape},
+	 * {@link PeriodicLineShape} or a one-dimensional {@link RectangleShape},
+	 * not skipping the center) on {@link RealType}s of at most 32 bits or
+	 * {@link DoubleType}, the running minimum along each line is computed by
+	 * the van Herk / Gil-Werman algorithm, at a cost independent of the span.
+	 * <p>
 	 * This method relies on a specified maximal value to start comparing to
 	 * other pixels in the neighborhood. For this code to properly perform
 	 * erosion, it is sufficient that the specified max value is larger (against
@@ -449,7 +735,73 @@ public class Erosion
 	 */
 	public static < T extends Type< T > & Comparable< T > > void erode( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final T maxVal, int numThreads )
 	{
-		numThreads = Math.max( 1, numThreads );
+		MorphologyUtils.run( numThreads, service -> erode( source, target, strel, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, using a
+	 * {@link RandomAccessible} as a source and writing results in an
+	 * {@link IterableInterval}.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * For line structuring elements ({@link HorizontalLineShape},
+	 * {@link PeriodicLineShape} or a one-dimensional {@link RectangleShape},
+	 * not skipping the center) on {@link RealType}s of at most 32 bits or
+	 * {@link DoubleType}, the running minimum along each line is computed by
+	 * the van Herk / Gil-Werman algorithm, at a cost independent of the span.
+	 * <p>
+	 * This method relies on a specified maximal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * erosion, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image. This
+	 * normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source {@link RandomAccessible}, must be sufficiently
+	 *            padded.
+	 * @param target
+	 *            the target image.
+	 * @param strel
+	 *            the structuring element, as a {@link Shape}.
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}. This is required to
+	 *            perform a proper mathematical erosion. Because we operate on a
+	 *            generic {@link Type}, it has to be provided manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends Comparable & Type}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void erode( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final T maxVal, final ExecutorService service )
+	{
+		/*
+		 * Line structuring elements on real values: running extremum.
+		 */
+
+		if ( LineMorphology.isSupported( strel, target, maxVal ) )
+		{
+			@SuppressWarnings( "unchecked" )
+			final RandomAccessible< ? extends RealType< ? > > realSource = ( RandomAccessible< ? extends RealType< ? > > ) source;
+			LineMorphology.process( realSource, target, strel, ( ( RealType< ? > ) maxVal ).getRealDouble(), false, service );
+			return;
+		}
 
 		/*
 		 * Prepare iteration.
@@ -461,8 +813,6 @@ public class Erosion
 		 * Multithread
 		 */
 
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( target.size(), numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
 
 		final Object tmp = maxVal;
 		if ( tmp instanceof BitType )
@@ -471,45 +821,34 @@ public class Erosion
 			 * Optimization for BitType
 			 */
 
-			for ( int i = 0; i < threads.length; i++ )
-			{
-				final Chunk chunk = chunks.get( i );
-				threads[ i ] = new Thread( "Morphology erode thread " + i )
+			MorphologyUtils.forEachChunk( target, service, ( cursor, size ) -> {
+				final RandomAccess< Neighborhood< T >> randomAccess = accessible.randomAccess( target );
+				final Object tmp2 = cursor;
+				@SuppressWarnings( "unchecked" )
+				final Cursor< BitType > cursorTarget = ( Cursor< BitType > ) tmp2;
+
+				for ( long steps = 0; steps < size; steps++ )
 				{
-					@Override
-					public void run()
-					{
-						final RandomAccess< Neighborhood< T >> randomAccess = accessible.randomAccess( target );
-						final Object tmp2 = target.cursor();
-						@SuppressWarnings( "unchecked" )
-						final Cursor< BitType > cursorTarget = ( Cursor< BitType > ) tmp2;
-						cursorTarget.jumpFwd( chunk.getStartPosition() );
+					cursorTarget.fwd();
+					randomAccess.setPosition( cursorTarget );
+					final Object tmp3 = randomAccess.get();
+					@SuppressWarnings( "unchecked" )
+					final Neighborhood< BitType > neighborhood = (net.imglib2.algorithm.neighborhood.Neighborhood< BitType > ) tmp3;
+					final Cursor< BitType > nc = neighborhood.cursor();
 
-						for ( long steps = 0; steps < chunk.getLoopSize(); steps++ )
+					cursorTarget.get().set( true );
+					while ( nc.hasNext() )
+					{
+						nc.fwd();
+						final BitType val = nc.get();
+						if ( !val.get() )
 						{
-							cursorTarget.fwd();
-							randomAccess.setPosition( cursorTarget );
-							final Object tmp3 = randomAccess.get();
-							@SuppressWarnings( "unchecked" )
-							final Neighborhood< BitType > neighborhood = (net.imglib2.algorithm.neighborhood.Neighborhood< BitType > ) tmp3;
-							final Cursor< BitType > nc = neighborhood.cursor();
-
-							cursorTarget.get().set( true );
-							while ( nc.hasNext() )
-							{
-								nc.fwd();
-								final BitType val = nc.get();
-								if ( !val.get() )
-								{
-									cursorTarget.get().set( false );
-									break;
-								}
-							}
+							cursorTarget.get().set( false );
+							break;
 						}
-
 					}
-				};
-			}
+				}
+			} );
 		}
 		else
 		{
@@ -517,54 +856,83 @@ public class Erosion
 			 * All other comparable type.
 			 */
 
-			for ( int i = 0; i < threads.length; i++ )
-			{
-				final Chunk chunk = chunks.get( i );
-				threads[ i ] = new Thread( "Morphology erode thread " + i )
+			MorphologyUtils.forEachChunk( target, service, ( cursor, size ) -> {
+				final RandomAccess< Neighborhood< T >> randomAccess = accessible.randomAccess( target );
+				final Cursor< T > cursorTarget = cursor;
+
+				final T max = MorphologyUtils.createVariable( source, target );
+				for ( long steps = 0; steps < size; steps++ )
 				{
-					@Override
-					public void run()
-					{
-						final RandomAccess< Neighborhood< T >> randomAccess = accessible.randomAccess( target );
-						final Cursor< T > cursorTarget = target.cursor();
-						cursorTarget.jumpFwd( chunk.getStartPosition() );
+					cursorTarget.fwd();
+					randomAccess.setPosition( cursorTarget );
+					final Neighborhood< T > neighborhood = randomAccess.get();
+					final Cursor< T > nc = neighborhood.cursor();
+
+					/*
+					 * Look for max in the neighborhood.
+					 */
 
-						final T max = MorphologyUtils.createVariable( source, target );
-						for ( long steps = 0; steps < chunk.getLoopSize(); steps++ )
+					max.set( maxVal );
+					while ( nc.hasNext() )
+					{
+						nc.fwd();
+						final T val = nc.get();
+						// We need only Comparable to do this:
+						if ( val.compareTo( max ) < 0 )
 						{
-							cursorTarget.fwd();
-							randomAccess.setPosition( cursorTarget );
-							final Neighborhood< T > neighborhood = randomAccess.get();
-							final Cursor< T > nc = neighborhood.cursor();
-
-							/*
-							 * Look for max in the neighborhood.
-							 */
-
-							max.set( maxVal );
-							while ( nc.hasNext() )
-							{
-								nc.fwd();
-								final T val = nc.get();
-								// We need only Comparable to do this:
-								if ( val.compareTo( max ) < 0 )
-								{
-									max.set( val );
-								}
-							}
-							cursorTarget.get().set( max );
+							max.set( val );
 						}
-
 					}
-				};
-			}
+					cursorTarget.get().set( max );
+				}
+			} );
 		}
+	}
 
-		/*
-		 * Launch calculation
-		 */
-
-		SimpleMultiThreading.startAndJoin( threads );
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link Img} using a list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * This method performs what is called the 'full' erosion. That is: the
+	 * result image has its dimension enlarged by the structuring element, with
+	 * respect to the source image. It is limited to flat structuring elements,
+	 * only having {@code on/off} pixels, contrary to grayscale structuring
+	 * elements. This allows to simply use a {@link Shape} as a type for these
+	 * structuring elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * <b>Warning:</b> Current implementation does not do <i>stricto sensu</i>
+	 * the full erosion. Indeed, if the structuring element has more dimensions
+	 * than the source {@link Img}, they are ignored, and the returned
+	 * {@link Img} has the same number of dimensions that of the source (but
+	 * eroded). This is due to the fact that we use a {@link Shape} for
+	 * structuring elements, and that it does not return a number of dimensions.
+	 * The neighborhood created have therefore at most as many dimensions as the
+	 * source image. The real, full erosion results should have a number of
+	 * dimensions equals to the maximum of the number of dimension of both
+	 * source and structuring element.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param numThreads
+	 *            the number of threads to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, possibly of larger dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > erodeFull( final Img< T > source, final List< Shape > strels, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> erodeFull( source, strels, service ) );
 	}
 
 	/**
@@ -601,21 +969,80 @@ public class Erosion
 	 *            the source image.
 	 * @param strels
 	 *            the structuring element as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, possibly of larger dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > erodeFull( final Img< T > source, final List< Shape > strels, final ExecutorService service )
+	{
+		Img< T > target = source;
+		for ( final Shape strel : strels )
+		{
+			target = erodeFull( target, strel, service );
+		}
+		return target;
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on an {@link Img} using a
+	 * list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * This method performs what is called the 'full' erosion. That is: the
+	 * result image has its dimension enlarged by the structuring element, with
+	 * respect to the source image. It is limited to flat structuring elements,
+	 * only having {@code on/off} pixels, contrary to grayscale structuring
+	 * elements. This allows to simply use a {@link Shape} as a type for these
+	 * structuring elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * This method relies on a specified maximal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * erosion, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image. This
+	 * normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * <p>
+	 * <b>Warning:</b> Current implementation does not do <i>stricto sensu</i>
+	 * the full erosion. Indeed, if the structuring element has more dimensions
+	 * than the source {@link Img}, they are ignored, and the returned
+	 * {@link Img} has the same number of dimensions that of the source (but
+	 * eroded). This is due to the fact that we use a {@link Shape} for
+	 * structuring elements, and that it does not return a number of dimensions.
+	 * The neighborhood created have therefore at most as many dimensions as the
+	 * source image. The real, full erosion results should have a number of
+	 * dimensions equals to the maximum of the number of dimension of both
+	 * source and structuring element.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source {@link Img} (against {@link Comparable}. This is
+	 *            required to perform a proper mathematical erosion. Because we
+	 *            operate on a generic {@link Type}, it has to be provided
+	 *            manually.
 	 * @param numThreads
 	 *            the number of threads to use for the calculation.
 	 * @param <T>
 	 *            the type of the source image and the erosion result. Must be a
-	 *            sub-type of {@code T extends RealType}.
+	 *            sub-type of {@code T extends Comparable & Type}.
 	 * @return a new {@link Img}, possibly of larger dimensions than the source.
 	 */
-	public static < T extends RealType< T > > Img< T > erodeFull( final Img< T > source, final List< Shape > strels, final int numThreads )
+	public static < T extends Type< T > & Comparable< T > > Img< T > erodeFull( final Img< T > source, final List< Shape > strels, final T maxVal, final int numThreads )
 	{
-		Img< T > target = source;
-		for ( final Shape strel : strels )
-		{
-			target = erodeFull( target, strel, numThreads );
-		}
-		return target;
+		return MorphologyUtils.compute( numThreads, service -> erodeFull( source, strels, maxVal, service ) );
 	}
 
 	/**
@@ -665,19 +1092,19 @@ public class Erosion
 	 *            required to perform a proper mathematical erosion. Because we
 	 *            operate on a generic {@link Type}, it has to be provided
 	 *            manually.
-	 * @param numThreads
-	 *            the number of threads to use for the calculation.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
 	 * @param <T>
 	 *            the type of the source image and the erosion result. Must be a
 	 *            sub-type of {@code T extends Comparable & Type}.
 	 * @return a new {@link Img}, possibly of larger dimensions than the source.
 	 */
-	public static < T extends Type< T > & Comparable< T > > Img< T > erodeFull( final Img< T > source, final List< Shape > strels, final T maxVal, final int numThreads )
+	public static < T extends Type< T > & Comparable< T > > Img< T > erodeFull( final Img< T > source, final List< Shape > strels, final T maxVal, final ExecutorService service )
 	{
 		Img< T > target = source;
 		for ( final Shape strel : strels )
 		{
-			target = erodeFull( target, strel, maxVal, numThreads );
+			target = erodeFull( target, strel, maxVal, service );
 		}
 		return target;
 	}
@@ -719,6 +1146,47 @@ public class Erosion
 	 * @return a new {@link Img}, possibly of larger dimensions than the source.
 	 */
 	public static < T extends RealType< T >> Img< T > erodeFull( final Img< T > source, final Shape strel, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> erodeFull( source, strel, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link Img} using a list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * This method performs what is called the 'full' erosion. That is: the
+	 * result image has its dimension enlarged by the structuring element, with
+	 * respect to the source image. It is limited to flat structuring elements,
+	 * only having {@code on/off} pixels, contrary to grayscale structuring
+	 * elements. This allows to simply use a {@link Shape} as a type for these
+	 * structuring elements.
+	 * <p>
+	 * <b>Warning:</b> Current implementation does not do <i>stricto sensu</i>
+	 * the full erosion. Indeed, if the structuring element has more dimensions
+	 * than the source {@link Img}, they are ignored, and the returned
+	 * {@link Img} has the same number of dimensions that of the source (but
+	 * eroded). This is due to the fact that we use a {@link Shape} for
+	 * structuring elements, and that it does not return a number of dimensions.
+	 * The neighborhood created have therefore at most as many dimensions as the
+	 * source image. The real, full erosion results should have a number of
+	 * dimensions equals to the maximum of the number of dimension of both
+	 * source and structuring element.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends RealType}.
+	 * @return a new {@link Img}, possibly of larger dimensions than the source.
+	 */
+	public static < T extends RealType< T >> Img< T > erodeFull( final Img< T > source, final Shape strel, final ExecutorService service )
 	{
 		final long[][] dimensionsAndOffset = MorphologyUtils.computeTargetImageDimensionsAndOffset( source, strel );
 
@@ -731,7 +1199,7 @@ public class Erosion
 		maxVal.setReal( maxVal.getMaxValue() );
 		final ExtendedRandomAccessibleInterval< T, Img< T >> extended = Views.extendValue( source, maxVal );
 
-		erode( extended, offsetTarget, strel, numThreads );
+		erode( extended, offsetTarget, strel, service );
 		return target;
 	}
 
@@ -785,6 +1253,60 @@ public class Erosion
 	 * @return a new {@link Img}, possibly of larger dimensions than the source.
 	 */
 	public static < T extends Type< T > & Comparable< T > > Img< T > erodeFull( final Img< T > source, final Shape strel, final T maxVal, final int numThreads )
+	{
+		return MorphologyUtils.compute( numThreads, service -> erodeFull( source, strel, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on an {@link Img} using a
+	 * list of {@link Shape}s as a flat structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * This method performs what is called the 'full' erosion. That is: the
+	 * result image has its dimension enlarged by the structuring element, with
+	 * respect to the source image. It is limited to flat structuring elements,
+	 * only having {@code on/off} pixels, contrary to grayscale structuring
+	 * elements. This allows to simply use a {@link Shape} as a type for these
+	 * structuring elements.
+	 * <p>
+	 * This method relies on a specified maximal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * erosion, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image. This
+	 * normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * <p>
+	 * <b>Warning:</b> Current implementation does not do <i>stricto sensu</i>
+	 * the full erosion. Indeed, if the structuring element has more dimensions
+	 * than the source {@link Img}, they are ignored, and the returned
+	 * {@link Img} has the same number of dimensions that of the source (but
+	 * eroded). This is due to the fact that we use a {@link Shape} for
+	 * structuring elements, and that it does not return a number of dimensions.
+	 * The neighborhood created have therefore at most as many dimensions as the
+	 * source image. The real, full erosion results should have a number of
+	 * dimensions equals to the maximum of the number of dimension of both
+	 * source and structuring element.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source {@link Img} (against {@link Comparable}. This is
+	 *            required to perform a proper mathematical erosion. Because we
+	 *            operate on a generic {@link Type}, it has to be provided
+	 *            manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the erosion result. Must be a
+	 *            sub-type of {@code T extends Comparable & Type}.
+	 * @return a new {@link Img}, possibly of larger dimensions than the source.
+	 */
+	public static < T extends Type< T > & Comparable< T > > Img< T > erodeFull( final Img< T > source, final Shape strel, final T maxVal, final ExecutorService service )
 	{
 
 		final long[][] dimensionsAndOffset = MorphologyUtils.computeTargetImageDimensionsAndOffset( source, strel );
@@ -795,7 +1317,7 @@ public class Erosion
 		final IntervalView< T > offsetTarget = Views.offset( target, offset );
 		final ExtendedRandomAccessibleInterval< T, Img< T >> extended = Views.extendValue( source, maxVal );
 
-		erode( extended, offsetTarget, strel, maxVal, numThreads );
+		erode( extended, offsetTarget, strel, maxVal, service );
 		return target;
 	}
 
@@ -834,10 +1356,49 @@ public class Erosion
 	 *            {@code T extends RealType}.
 	 */
 	public static < T extends RealType< T > > void erodeInPlace( final RandomAccessible< T > source, final Interval interval, final List< Shape > strels, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> erodeInPlace( source, interval, strels, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T > > void erodeInPlace( final RandomAccessible< T > source, final Interval interval, final List< Shape > strels, final ExecutorService service )
 	{
 		for ( final Shape strel : strels )
 		{
-			erodeInPlace( source, interval, strel, numThreads );
+			erodeInPlace( source, interval, strel, service );
 		}
 	}
 
@@ -888,10 +1449,61 @@ public class Erosion
 	 *            {@code T extends Comparable & Type}.
 	 */
 	public static < T extends Type< T > & Comparable< T > > void erodeInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final T maxVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> erodeInPlace( source, interval, strels, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)} *
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned. *
+	 * <p>
+	 * This method relies on a specified maximal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * erosion, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image. This
+	 * normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}. This is required to
+	 *            perform a proper mathematical erosion. Because we operate on a
+	 *            generic {@link Type}, it has to be provided manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends Comparable & Type}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void erodeInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final T maxVal, final ExecutorService service )
 	{
 		for ( final Shape strel : strels )
 		{
-			erodeInPlace( source, interval, strel, maxVal, numThreads );
+			erodeInPlace( source, interval, strel, maxVal, service );
 		}
 	}
 
@@ -926,6 +1538,41 @@ public class Erosion
 	 *            {@code T extends RealType}.
 	 */
 	public static < T extends RealType< T > > void erodeInPlace( final RandomAccessible< T > source, final Interval interval, final Shape strel, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> erodeInPlace( source, interval, strel, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T > > void erodeInPlace( final RandomAccessible< T > source, final Interval interval, final Shape strel, final ExecutorService service )
 	{
 		final T maxVal = MorphologyUtils.createVariable( source, interval );
 		final ImgFactory< T > factory = Util.getSuitableImgFactory( interval, maxVal );
@@ -934,8 +1581,8 @@ public class Erosion
 		interval.min( min );
 		final IntervalView< T > translated = Views.translate( img, min );
 
-		erode( source, translated, strel, numThreads );
-		MorphologyUtils.copy( translated, source, numThreads );
+		erode( source, translated, strel, service );
+		MorphologyUtils.copy( translated, source, service );
 	}
 
 	/**
@@ -980,6 +1627,52 @@ public class Erosion
 	 *            {@code T extends Comparable & Type}.
 	 */
 	public static < T extends Type< T > & Comparable< T > > void erodeInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final T maxVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> erodeInPlace( source, interval, strel, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the erosion morphological operation, on a {@link RealType}
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 *
+	 * See <a href="http://en.wikipedia.org/wiki/Erosion_(morphology)">
+	 * Erosion_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)} *
+	 * <p>
+	 * This method relies on a specified maximal value to start comparing to
+	 * other pixels in the neighborhood. For this code to properly perform
+	 * erosion, it is sufficient that the specified max value is larger (against
+	 * {@link Comparable}) than any of the value found in the source image. This
+	 * normally unseen parameter is required to operate on
+	 * {@code T extends Comparable & Type}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}. This is required to
+	 *            perform a proper mathematical erosion. Because we operate on a
+	 *            generic {@link Type}, it has to be provided manually.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends Comparable & Type}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void erodeInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final T maxVal, final ExecutorService service )
 	{
 
 		final ExtendedRandomAccessibleInterval< T, RandomAccessibleInterval< T >> extended = Views.extendValue( source, maxVal );
@@ -990,8 +1683,8 @@ public class Erosion
 		interval.min( min );
 		final IntervalView< T > translated = Views.translate( img, min );
 
-		erode( extended, translated, strel, maxVal, numThreads );
-		MorphologyUtils.copy( translated, extended, numThreads );
+		erode( extended, translated, strel, maxVal, service );
+		MorphologyUtils.copy( translated, extended, service );
 	}
 
 	/**
@@ -0,0 +1,213 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.morphology;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.algorithm.util.Grids;
+import net.imglib2.algorithm.util.SequentialExecutorService;
+import net.imglib2.img.Img;
+import net.imglib2.img.ImgFactory;
+import net.imglib2.type.Type;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.IntervalView;
+import net.imglib2.view.Views;
+
+/**
+ * Tile-wise opening and closing, optionally followed by an operation on the
+ * result such as the top-hat subtraction.
+ * <p>
+ * The target is split into tiles. For each tile, the first operation
+ * (erosion for an opening, dilation for a closing) is computed over the tile
+ * plus the extent of the structuring element into a scratch image, then the
+ * second operation reads the scratch image and writes the tile, and the
+ * optional operation is applied to the tile. The tiles are processed in
+ * parallel, each by one task of the {@link ExecutorService}, so that the
+ * memory needed on top of the target is a few tiles per thread instead of
+ * full-size intermediate images.
+ * <p>
+ * The result is identical to the sequence of full-size operations: the
+ * intermediate image is only defined on the target interval, and is padded by
+ * the min (max) value for an opening (closing).
+ */
+final class FusedMorphology
+{
+	private FusedMorphology()
+	{}
+
+	/**
+	 * An operation applied to each tile after the opening or the closing.
+	 */
+	interface TileOperation< T >
+	{
+		/**
+		 * @param source
+		 *            the source of the opening or closing.
+		 * @param tile
+		 *            the tile of the target, holding the result of the opening
+		 *            or closing.
+		 * @param service
+		 *            the {@link ExecutorService} to use within the tile.
+		 */
+		void apply( RandomAccessible< T > source, IterableInterval< T > tile, ExecutorService service );
+	}
+
+	/**
+	 * Returns {@code true} if the tile-wise operations can be used for the
+	 * specified target and structuring element.
+	 */
+	static boolean isSupported( final IterableInterval< ? > target, final List< Shape > strels )
+	{
+		return target instanceof RandomAccessibleInterval && !strels.isEmpty();
+	}
+
+	/**
+	 * Opening of the source, written to the target, followed by the optional
+	 * operation.
+	 *
+	 * @param target
+	 *            the target, must be accepted by
+	 *            {@link #isSupported(IterableInterval, List)}.
+	 * @param post
+	 *            the operation applied to each tile after the opening, may be
+	 *            {@code null}.
+	 */
+	static < T extends Type< T > & Comparable< T > > void open( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T minVal, final T maxVal, final TileOperation< T > post, final ExecutorService service )
+	{
+		process( source, target, strels, minVal, maxVal, true, post, service );
+	}
+
+	/**
+	 * Closing of the source, written to the target, followed by the optional
+	 * operation.
+	 *
+	 * @param target
+	 *            the target, must be accepted by
+	 *            {@link #isSupported(IterableInterval, List)}.
+	 * @param post
+	 *            the operation applied to each tile after the closing, may be
+	 *            {@code null}.
+	 */
+	static < T extends Type< T > & Comparable< T > > void close( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T minVal, final T maxVal, final TileOperation< T > post, final ExecutorService service )
+	{
+		process( source, target, strels, minVal, maxVal, false, post, service );
+	}
+
+	private static < T extends Type< T > & Comparable< T > > void process( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T minVal, final T maxVal, final boolean opening, final TileOperation< T > post, final ExecutorService service )
+	{
+		@SuppressWarnings( "unchecked" )
+		final RandomAccessibleInterval< T > output = ( RandomAccessibleInterval< T > ) target;
+		final int n = target.numDimensions();
+
+		/*
+		 * The second operation reads the intermediate image over the target
+		 * plus the sum of the neighborhood extents.
+		 */
+
+		final long[] haloMin = new long[ n ];
+		final long[] haloMax = new long[ n ];
+		for ( final Shape strel : strels )
+		{
+			final Neighborhood< BitType > neighborhood = MorphologyUtils.getNeighborhood( strel, target );
+			for ( int d = 0; d < n; d++ )
+			{
+				haloMin[ d ] += neighborhood.min( d );
+				haloMax[ d ] += neighborhood.max( d );
+			}
+		}
+
+		final long[] min = Intervals.minAsLongArray( target );
+		final long[] max = Intervals.maxAsLongArray( target );
+		final List< Interval > tiles = Grids.collectAllContainedIntervals( min, max, tileSize( target, haloMin, haloMax ) );
+		final ImgFactory< T > factory = Util.getSuitableImgFactory( target, minVal );
+		final ExecutorService sequential = new SequentialExecutorService();
+
+		MorphologyUtils.forEachBlock( tiles, service, tile -> {
+			final long[] scratchMin = new long[ n ];
+			final long[] scratchMax = new long[ n ];
+			for ( int d = 0; d < n; d++ )
+			{
+				scratchMin[ d ] = Math.max( tile.min( d ) + haloMin[ d ], min[ d ] );
+				scratchMax[ d ] = Math.min( tile.max( d ) + haloMax[ d ], max[ d ] );
+			}
+			final Img< T > img = factory.create( new FinalInterval( scratchMin, scratchMax ) );
+			final IntervalView< T > scratch = Views.translate( img, scratchMin );
+			final IntervalView< T > result = Views.interval( output, tile );
+
+			if ( opening )
+			{
+				Erosion.erode( source, scratch, strels, maxVal, sequential );
+				Dilation.dilate( Views.extendValue( scratch, minVal ), result, strels, minVal, sequential );
+			}
+			else
+			{
+				Dilation.dilate( source, scratch, strels, minVal, sequential );
+				Erosion.erode( Views.extendValue( scratch, maxVal ), result, strels, maxVal, sequential );
+			}
+
+			if ( post != null )
+			{
+				post.apply( source, result, sequential );
+			}
+		} );
+	}
+
+	/**
+	 * Tiles of about {@link MorphologyUtils#CHUNK_SIZE} pixels, but at least
+	 * four times as large as the halo along each dimension, so that the
+	 * overlap of the scratch images stays small.
+	 */
+	private static int[] tileSize( final Interval target, final long[] haloMin, final long[] haloMax )
+	{
+		final int n = target.numDimensions();
+		final long side = ( long ) Math.ceil( Math.pow( MorphologyUtils.CHUNK_SIZE, 1.0 / n ) );
+		final int[] tileSize = new int[ n ];
+		for ( int d = 0; d < n; d++ )
+		{
+			final long size = Math.max( side, 4 * ( haloMax[ d ] - haloMin[ d ] ) );
+			tileSize[ d ] = ( int ) Math.max( 1, Math.min( Math.min( size, target.dimension( d ) ), Integer.MAX_VALUE ) );
+		}
+		return tileSize;
+	}
+}
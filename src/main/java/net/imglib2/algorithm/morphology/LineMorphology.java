@@ -0,0 +1,421 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.morphology;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.algorithm.neighborhood.HorizontalLineShape;
+import net.imglib2.algorithm.neighborhood.PeriodicLineShape;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.iterator.LocalizingIntervalIterator;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.util.Intervals;
+
+/**
+ * Flat dilation and erosion by line structuring elements, using the van Herk /
+ * Gil-Werman algorithm.
+ * <p>
+ * The target is split into lines parallel to the structuring element. Each
+ * line, padded by the span of the structuring element on both sides, is copied
+ * into a {@code double[]} buffer, where the running maximum (minimum) over a
+ * window of {@code 2 × span + 1} pixels is computed from block-wise prefix
+ * and suffix maxima. This takes about three comparisons per pixel, whatever
+ * the span.
+ * <p>
+ * See M. van Herk, "A fast algorithm for local minimum and maximum filters on
+ * rectangular and octagonal kernels", Pattern Recognition Letters 13 (1992)
+ * and J. Gil and M. Werman, "Computing 2-D min, median, and max filters", IEEE
+ * PAMI 15 (1993).
+ * <p>
+ * Used by {@link Dilation} and {@link Erosion} for {@link HorizontalLineShape}
+ * , {@link PeriodicLineShape} and one-dimensional {@link RectangleShape}s that
+ * do not skip their center, and for {@link RealType}s whose values are
+ * represented exactly by a {@code double}.
+ */
+final class LineMorphology
+{
+	private LineMorphology()
+	{}
+
+	/**
+	 * Returns the increments of the line described by the specified
+	 * {@link Shape}, or {@code null} if the shape is not a line that can be
+	 * processed by this class.
+	 */
+	static int[] lineIncrements( final Shape strel, final int numDimensions )
+	{
+		if ( strel instanceof HorizontalLineShape )
+		{
+			final HorizontalLineShape line = ( HorizontalLineShape ) strel;
+			if ( line.isSkippingCenter() || line.getLineDimension() >= numDimensions ) { return null; }
+			final int[] increments = new int[ numDimensions ];
+			increments[ line.getLineDimension() ] = 1;
+			return increments;
+		}
+		if ( strel instanceof RectangleShape )
+		{
+			final RectangleShape rectangle = ( RectangleShape ) strel;
+			if ( rectangle.isSkippingCenter() || numDimensions != 1 ) { return null; }
+			return new int[] { 1 };
+		}
+		if ( strel instanceof PeriodicLineShape )
+		{
+			final int[] increments = ( ( PeriodicLineShape ) strel ).getIncrements();
+			if ( increments.length != numDimensions ) { return null; }
+			for ( final int increment : increments )
+			{
+				if ( increment != 0 ) { return increments.clone(); }
+			}
+			return null;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the span of a shape accepted by
+	 * {@link #lineIncrements(Shape, int)}.
+	 */
+	static long lineSpan( final Shape strel )
+	{
+		if ( strel instanceof HorizontalLineShape ) { return ( ( HorizontalLineShape ) strel ).getSpan(); }
+		if ( strel instanceof RectangleShape ) { return ( ( RectangleShape ) strel ).getSpan(); }
+		return ( ( PeriodicLineShape ) strel ).getSpan();
+	}
+
+	/**
+	 * Returns {@code true} if values of the specified type can be processed in
+	 * a {@code double} buffer without loss.
+	 */
+	static boolean isSupportedType( final Object type )
+	{
+		if ( type instanceof DoubleType ) { return true; }
+		return type instanceof RealType && ( ( RealType< ? > ) type ).getBitsPerPixel() <= 32;
+	}
+
+	/**
+	 * Returns {@code true} if {@link #process} can be used for the specified
+	 * structuring element, target and type.
+	 */
+	static boolean isSupported( final Shape strel, final Object target, final Object type )
+	{
+		return target instanceof RandomAccessible && isSupportedType( type ) && lineIncrements( strel, ( ( Interval ) target ).numDimensions() ) != null;
+	}
+
+	/**
+	 * Computes the flat dilation ({@code max == true}) or erosion of the
+	 * source by the line structuring element, and writes it to the target.
+	 *
+	 * @param source
+	 *            the source, must be defined on the target interval padded by
+	 *            the extent of the structuring element.
+	 * @param target
+	 *            the target, must be {@link RandomAccessible}.
+	 * @param strel
+	 *            a line shape, accepted by {@link #lineIncrements(Shape, int)}.
+	 * @param bound
+	 *            the minimal (maximal) value for a dilation (erosion).
+	 * @param max
+	 *            whether to compute the dilation or the erosion.
+	 * @param service
+	 *            the {@link ExecutorService} to use.
+	 */
+	static void process( final RandomAccessible< ? extends RealType< ? > > source, final Interval target, final Shape strel, final double bound, final boolean max, final ExecutorService service )
+	{
+		@SuppressWarnings( "unchecked" )
+		final RandomAccessible< ? extends RealType< ? > > targetAccessible = ( RandomAccessible< ? extends RealType< ? > > ) target;
+		final int n = target.numDimensions();
+		final int[] increments = lineIncrements( strel, n );
+		final long span = lineSpan( strel );
+		final long[] min = new long[ n ];
+		final long[] maxPos = new long[ n ];
+		target.min( min );
+		target.max( maxPos );
+
+		/*
+		 * Split the work over the line starts, so that all tasks get the same
+		 * number of lines whatever their direction.
+		 */
+
+		final List< FinalInterval > starts = lineStarts( min, maxPos, increments );
+		long numLines = 0;
+		for ( final FinalInterval interval : starts )
+		{
+			numLines += Intervals.numElements( interval );
+		}
+		if ( numLines == 0 ) { return; }
+		final long numChunks = Math.min( numLines, Math.max( 1, Intervals.numElements( target ) / MorphologyUtils.CHUNK_SIZE ) );
+		final List< Callable< Void > > tasks = new ArrayList< Callable< Void > >();
+		for ( long i = 0; i < numChunks; i++ )
+		{
+			final long firstLine = i * numLines / numChunks;
+			final long chunkLines = ( i + 1 ) * numLines / numChunks - firstLine;
+			tasks.add( new Callable< Void >()
+			{
+				@Override
+				public Void call()
+				{
+					final RandomAccess< ? extends RealType< ? > > in = source.randomAccess();
+					final RandomAccess< ? extends RealType< ? > > out = targetAccessible.randomAccess( target );
+					final long[] position = new long[ n ];
+					final long[] back = new long[ n ];
+					for ( int d = 0; d < n; d++ )
+					{
+						back[ d ] = -span * increments[ d ];
+					}
+					final LineBuffers buffers = new LineBuffers( span );
+					final double b = max ? bound : -bound;
+
+					long skip = firstLine;
+					long todo = chunkLines;
+					for ( final FinalInterval interval : starts )
+					{
+						final long size = Intervals.numElements( interval );
+						if ( skip >= size )
+						{
+							skip -= size;
+							continue;
+						}
+						final LocalizingIntervalIterator iterator = new LocalizingIntervalIterator( interval );
+						iterator.jumpFwd( skip );
+						final long steps = Math.min( size - skip, todo );
+						skip = 0;
+						todo -= steps;
+						for ( long step = 0; step < steps; step++ )
+						{
+							iterator.fwd();
+							iterator.localize( position );
+
+							final int length = lineLength( position, increments, min, maxPos );
+							final double[] values = buffers.values( length );
+							in.setPosition( position );
+							in.move( back );
+							for ( int j = 0; j < length + 2 * span; j++ )
+							{
+								final double value = in.get().getRealDouble();
+								values[ j ] = max ? value : -value;
+								in.move( increments );
+							}
+
+							buffers.runningMax( length );
+
+							final double[] result = buffers.result;
+							out.setPosition( position );
+							for ( int j = 0; j < length; j++ )
+							{
+								final double value = Math.max( result[ j ], b );
+								out.get().setReal( max ? value : -value );
+								out.move( increments );
+							}
+						}
+						if ( todo == 0 )
+						{
+							break;
+						}
+					}
+					return null;
+				}
+			} );
+		}
+		MorphologyUtils.invokeAll( service, tasks );
+	}
+
+	/**
+	 * Returns disjoint intervals that cover the positions of the target where
+	 * a line starts, that is where stepping back by the increments leaves the
+	 * target. The {@code d}-th interval holds the positions that leave it
+	 * through dimension {@code d}, but not through a lower dimension.
+	 */
+	private static List< FinalInterval > lineStarts( final long[] min, final long[] max, final int[] increments )
+	{
+		final int n = min.length;
+		final List< FinalInterval > starts = new ArrayList< FinalInterval >();
+		final long[] bandMin = min.clone();
+		final long[] bandMax = max.clone();
+		for ( int d = 0; d < n; d++ )
+		{
+			final int increment = increments[ d ];
+			if ( increment == 0 )
+			{
+				continue;
+			}
+
+			// positions leaving the target through dimension d
+			final long[] startMin = bandMin.clone();
+			final long[] startMax = bandMax.clone();
+			if ( increment > 0 )
+			{
+				startMax[ d ] = Math.min( min[ d ] + increment - 1, max[ d ] );
+			}
+			else
+			{
+				startMin[ d ] = Math.max( max[ d ] + increment + 1, min[ d ] );
+			}
+			if ( !isEmpty( startMin, startMax ) )
+			{
+				starts.add( new FinalInterval( startMin, startMax ) );
+			}
+
+			// the following dimensions only take the remaining positions
+			if ( increment > 0 )
+			{
+				bandMin[ d ] = min[ d ] + increment;
+			}
+			else
+			{
+				bandMax[ d ] = max[ d ] + increment;
+			}
+			if ( bandMin[ d ] > bandMax[ d ] )
+			{
+				break;
+			}
+		}
+		return starts;
+	}
+
+	private static boolean isEmpty( final long[] min, final long[] max )
+	{
+		for ( int d = 0; d < min.length; d++ )
+		{
+			if ( min[ d ] > max[ d ] ) { return true; }
+		}
+		return false;
+	}
+
+	/**
+	 * Number of steps along the increments from the specified position before
+	 * leaving the target interval.
+	 */
+	private static int lineLength( final long[] position, final int[] increments, final long[] min, final long[] max )
+	{
+		long length = Long.MAX_VALUE;
+		for ( int d = 0; d < position.length; d++ )
+		{
+			final int increment = increments[ d ];
+			if ( increment > 0 )
+			{
+				length = Math.min( length, ( max[ d ] - position[ d ] ) / increment + 1 );
+			}
+			else if ( increment < 0 )
+			{
+				length = Math.min( length, ( position[ d ] - min[ d ] ) / -increment + 1 );
+			}
+		}
+		if ( length > Integer.MAX_VALUE ) { throw new IllegalArgumentException( "Line length " + length + " must not exceed " + Integer.MAX_VALUE + "." ); }
+		return ( int ) length;
+	}
+
+	/**
+	 * Per-thread buffers, grown as needed.
+	 */
+	private static final class LineBuffers
+	{
+		private final int window;
+
+		private final int span;
+
+		private double[] values = new double[ 0 ];
+
+		private double[] prefix = new double[ 0 ];
+
+		private double[] suffix = new double[ 0 ];
+
+		private double[] result = new double[ 0 ];
+
+		LineBuffers( final long span )
+		{
+			if ( 2 * span + 1 > Integer.MAX_VALUE / 2 ) { throw new IllegalArgumentException( "Span " + span + " is too large: 2 * span + 1 must not exceed " + Integer.MAX_VALUE / 2 + "." ); }
+			this.span = ( int ) span;
+			this.window = 2 * this.span + 1;
+		}
+
+		/**
+		 * Returns a buffer large enough for a line of the specified length,
+		 * padded by the span on both sides.
+		 */
+		double[] values( final int length )
+		{
+			final int padded = length + 2 * span;
+			if ( values.length < padded )
+			{
+				values = new double[ padded ];
+				prefix = new double[ padded ];
+				suffix = new double[ padded ];
+				result = new double[ length ];
+			}
+			else if ( result.length < length )
+			{
+				result = new double[ length ];
+			}
+			return values;
+		}
+
+		/**
+		 * Writes {@code result[i] = max(values[i .. i + window - 1])} for
+		 * {@code i < length}.
+		 */
+		void runningMax( final int length )
+		{
+			final int padded = length + 2 * span;
+
+			// prefix maxima within blocks of the window size
+			for ( int j = 0; j < padded; j++ )
+			{
+				prefix[ j ] = j % window == 0 ? values[ j ] : Math.max( prefix[ j - 1 ], values[ j ] );
+			}
+
+			// suffix maxima within the same blocks
+			suffix[ padded - 1 ] = values[ padded - 1 ];
+			for ( int j = padded - 2; j >= 0; j-- )
+			{
+				suffix[ j ] = ( j + 1 ) % window == 0 ? values[ j ] : Math.max( suffix[ j + 1 ], values[ j ] );
+			}
+
+			// a window [i, i + window - 1] covers the end of one block and
+			// the beginning of the next
+			for ( int i = 0; i < length; i++ )
+			{
+				result[ i ] = Math.max( suffix[ i ], prefix[ i + window - 1 ] );
+			}
+		}
+	}
+}
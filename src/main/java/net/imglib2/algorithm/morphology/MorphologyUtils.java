@@ -33,7 +33,15 @@
  */
 package net.imglib2.algorithm.morphology;
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import net.imglib2.Cursor;
 import net.imglib2.EuclideanSpace;
@@ -44,24 +52,30 @@ import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.neighborhood.Neighborhood;
 import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.algorithm.util.Grids;
+import net.imglib2.algorithm.util.ParallelizeOverBlocks;
+import net.imglib2.algorithm.util.SequentialExecutorService;
 import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImg;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.img.array.ArrayRandomAccess;
 import net.imglib2.img.basictypeaccess.array.LongArray;
-import net.imglib2.multithreading.Chunk;
-import net.imglib2.multithreading.SimpleMultiThreading;
 import net.imglib2.type.Type;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.type.operators.Sub;
 import net.imglib2.util.Intervals;
 import net.imglib2.util.Util;
-import net.imglib2.view.IntervalView;
 import net.imglib2.view.Views;
 
 public class MorphologyUtils
 {
 
+	/**
+	 * Approximate number of elements processed by one task, when splitting
+	 * the work over an {@link ExecutorService}.
+	 */
+	static final int CHUNK_SIZE = 1 << 16;
+
 	/**
 	 * Static util to compute the final image dimensions and required offset
 	 * when performing a full dilation with the specified strel.
@@ -289,66 +303,33 @@ public class MorphologyUtils
 		str.append( "┘\n" );
 	}
 
-	static < T extends Type< T > > void copy( final IterableInterval< T > source, final RandomAccessible< T > target, final int numThreads )
+	static < T extends Type< T > > void copy( final IterableInterval< T > source, final RandomAccessible< T > target, final ExecutorService service )
 	{
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( source.size(), numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-		for ( int i = 0; i < threads.length; i++ )
-		{
-			final Chunk chunk = chunks.get( i );
-			threads[ i ] = new Thread( "Morphology copy thread " + i )
+		forEachChunk( source, service, ( sourceCursor, size ) -> {
+			final RandomAccess< T > targetRandomAccess = target.randomAccess();
+			for ( long step = 0; step < size; step++ )
 			{
-				@Override
-				public void run()
-				{
-					final Cursor< T > sourceCursor = source.localizingCursor();
-					sourceCursor.jumpFwd( chunk.getStartPosition() );
-					final RandomAccess< T > targetRandomAccess = target.randomAccess();
-
-					for ( long step = 0; step < chunk.getLoopSize(); step++ )
-					{
-						sourceCursor.fwd();
-						targetRandomAccess.setPosition( sourceCursor );
-						targetRandomAccess.get().set( sourceCursor.get() );
-					}
-				}
-			};
-		}
-
-		SimpleMultiThreading.startAndJoin( threads );
+				sourceCursor.fwd();
+				targetRandomAccess.setPosition( sourceCursor );
+				targetRandomAccess.get().set( sourceCursor.get() );
+			}
+		} );
 	}
 
-	static < T extends Type< T > > void copy2( final RandomAccessible< T > source, final IterableInterval< T > target, final int numThreads )
+	static < T extends Type< T > > void copy2( final RandomAccessible< T > source, final IterableInterval< T > target, final ExecutorService service )
 	{
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( target.size(), numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-		for ( int i = 0; i < threads.length; i++ )
-		{
-			final Chunk chunk = chunks.get( i );
-			threads[ i ] = new Thread( "Morphology copy2 thread " + i )
+		forEachChunk( target, service, ( targetCursor, size ) -> {
+			final RandomAccess< T > sourceRandomAccess = source.randomAccess();
+			for ( long step = 0; step < size; step++ )
 			{
-				@Override
-				public void run()
-				{
-					final Cursor< T > targetCursor = target.localizingCursor();
-					targetCursor.jumpFwd( chunk.getStartPosition() );
-					final RandomAccess< T > sourceRandomAccess = source.randomAccess();
-
-					// iterate over the input cursor
-					for ( long step = 0; step < chunk.getLoopSize(); step++ )
-					{
-						targetCursor.fwd();
-						sourceRandomAccess.setPosition( targetCursor );
-						targetCursor.get().set( sourceRandomAccess.get() );
-					}
-				}
-			};
-		}
-
-		SimpleMultiThreading.startAndJoin( threads );
+				targetCursor.fwd();
+				sourceRandomAccess.setPosition( targetCursor );
+				targetCursor.get().set( sourceRandomAccess.get() );
+			}
+		} );
 	}
 
-	static < T extends Type< T > > Img< T > copyCropped( final Img< T > largeSource, final Interval interval, final int numThreads )
+	static < T extends Type< T > > Img< T > copyCropped( final Img< T > largeSource, final Interval interval, final ExecutorService service )
 	{
 		final long[] offset = new long[ largeSource.numDimensions() ];
 		for ( int d = 0; d < offset.length; d++ )
@@ -356,32 +337,7 @@ public class MorphologyUtils
 			offset[ d ] = ( largeSource.dimension( d ) - interval.dimension( d ) ) / 2;
 		}
 		final Img< T > create = largeSource.factory().create( interval );
-
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( create.size(), numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-		for ( int i = 0; i < threads.length; i++ )
-		{
-			final Chunk chunk = chunks.get( i );
-			threads[ i ] = new Thread( "Morphology copyCropped thread " + i )
-			{
-				@Override
-				public void run()
-				{
-					final IntervalView< T > intervalView = Views.offset( largeSource, offset );
-					final Cursor< T > cursor = create.cursor();
-					cursor.jumpFwd( chunk.getStartPosition() );
-					final RandomAccess< T > randomAccess = intervalView.randomAccess();
-					for ( long step = 0; step < chunk.getLoopSize(); step++ )
-					{
-						cursor.fwd();
-						randomAccess.setPosition( cursor );
-						cursor.get().set( randomAccess.get() );
-					}
-				}
-			};
-		}
-
-		SimpleMultiThreading.startAndJoin( threads );
+		copy2( Views.offset( largeSource, offset ), create, service );
 		return create;
 	}
 
@@ -400,6 +356,163 @@ public class MorphologyUtils
 		return a.get().createVariable();
 	}
 
+	/**
+	 * Creates an {@link ExecutorService} for the methods that take a number of
+	 * threads. It must be shut down by the caller.
+	 */
+	static ExecutorService createExecutorService( final int numThreads )
+	{
+		return numThreads <= 1 ? new SequentialExecutorService() : Executors.newFixedThreadPool( numThreads );
+	}
+
+	/**
+	 * Applies the function on an {@link ExecutorService} with the specified
+	 * number of threads, which is shut down afterwards.
+	 */
+	static < R > R compute( final int numThreads, final Function< ExecutorService, R > function )
+	{
+		final ExecutorService service = createExecutorService( numThreads );
+		try
+		{
+			return function.apply( service );
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+
+	/**
+	 * Runs the action on an {@link ExecutorService} with the specified number
+	 * of threads, which is shut down afterwards.
+	 */
+	static void run( final int numThreads, final Consumer< ExecutorService > action )
+	{
+		final ExecutorService service = createExecutorService( numThreads );
+		try
+		{
+			action.accept( service );
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+
+	/**
+	 * A task on a part of an {@link IterableInterval}.
+	 */
+	interface ChunkTask< T >
+	{
+		/**
+		 * @param cursor
+		 *            a cursor placed before the first element of the chunk.
+		 * @param size
+		 *            the number of elements of the chunk.
+		 */
+		void run( Cursor< T > cursor, long size );
+	}
+
+	/**
+	 * Splits the {@link IterableInterval} in chunks of about
+	 * {@link #CHUNK_SIZE} elements, and runs the task on each of them using
+	 * the {@link ExecutorService}, one task per chunk. If the iterable is a
+	 * {@link RandomAccessibleInterval}, the chunks are blocks of whole lines,
+	 * iterated in flat order; otherwise they are consecutive ranges of the
+	 * iteration order.
+	 */
+	static < T > void forEachChunk( final IterableInterval< T > iterable, final ExecutorService service, final ChunkTask< T > task )
+	{
+		if ( iterable.size() == 0 ) { return; }
+		if ( iterable instanceof RandomAccessibleInterval )
+		{
+			@SuppressWarnings( "unchecked" )
+			final RandomAccessibleInterval< T > rai = ( RandomAccessibleInterval< T > ) iterable;
+			final List< Interval > blocks = Grids.collectAllContainedIntervals( Intervals.minAsLongArray( iterable ), Intervals.maxAsLongArray( iterable ), blockSize( iterable ) );
+			forEachBlock( blocks, service, block -> {
+				final IterableInterval< T > flat = Views.flatIterable( Views.interval( rai, block ) );
+				task.run( flat.localizingCursor(), flat.size() );
+			} );
+		}
+		else
+		{
+			final long size = iterable.size();
+			final long numChunks = ( size + CHUNK_SIZE - 1 ) / CHUNK_SIZE;
+			final List< Callable< Void > > tasks = new ArrayList<>();
+			for ( long i = 0; i < numChunks; i++ )
+			{
+				final long start = i * size / numChunks;
+				final long end = ( i + 1 ) * size / numChunks;
+				tasks.add( () -> {
+					final Cursor< T > cursor = iterable.localizingCursor();
+					cursor.jumpFwd( start );
+					task.run( cursor, end - start );
+					return null;
+				} );
+			}
+			invokeAll( service, tasks );
+		}
+	}
+
+	/**
+	 * Runs the action on each block using the {@link ExecutorService}, one
+	 * task per block, and waits for their completion.
+	 */
+	static void forEachBlock( final List< Interval > blocks, final ExecutorService service, final Consumer< Interval > action )
+	{
+		try
+		{
+			ParallelizeOverBlocks.parallelizeAndWait( ParallelizeOverBlocks.ofConsumer( action ), blocks, service, blocks.size() );
+		}
+		catch ( final InterruptedException | ExecutionException e )
+		{
+			throw unwrap( e );
+		}
+	}
+
+	/**
+	 * Runs the tasks on the {@link ExecutorService} and waits for their
+	 * completion.
+	 */
+	static void invokeAll( final ExecutorService service, final List< Callable< Void > > tasks )
+	{
+		try
+		{
+			for ( final Future< Void > future : service.invokeAll( tasks ) )
+			{
+				future.get();
+			}
+		}
+		catch ( final InterruptedException | ExecutionException e )
+		{
+			throw unwrap( e );
+		}
+	}
+
+	private static RuntimeException unwrap( final Exception e )
+	{
+		final Throwable cause = e.getCause();
+		if ( cause instanceof RuntimeException ) { return ( RuntimeException ) cause; }
+		return new RuntimeException( e );
+	}
+
+	/**
+	 * Block size for {@link #forEachChunk}: whole lines along the first
+	 * dimensions, and as many as needed along the next dimensions to hold
+	 * about {@link #CHUNK_SIZE} elements.
+	 */
+	private static int[] blockSize( final Interval interval )
+	{
+		final int[] blockSize = new int[ interval.numDimensions() ];
+		long remaining = CHUNK_SIZE;
+		for ( int d = 0; d < blockSize.length; d++ )
+		{
+			blockSize[ d ] = ( int ) Math.max( 1, Math.min( interval.dimension( d ), remaining ) );
+			remaining = Math.max( 1, remaining / blockSize[ d ] );
+		}
+		return blockSize;
+	}
+
 	public static final Neighborhood< BitType > getNeighborhood( final Shape shape, final EuclideanSpace space )
 	{
 		final int numDims = space.numDimensions();
@@ -477,36 +590,19 @@ public class MorphologyUtils
 	 *            A
 	 * @param B
 	 *            B
-	 * @param numThreads
+	 * @param service
 	 */
-	static < T extends Sub< T > > void subAAB( final RandomAccessible< T > A, final IterableInterval< T > B, final int numThreads )
+	static < T extends Sub< T > > void subAAB( final RandomAccessible< T > A, final IterableInterval< T > B, final ExecutorService service )
 	{
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( B.size(), numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-
-		for ( int i = 0; i < threads.length; i++ )
-		{
-			final Chunk chunk = chunks.get( i );
-			threads[ i ] = new Thread( "Morphology subAAB thread " + i )
+		forEachChunk( B, service, ( Bcursor, size ) -> {
+			final RandomAccess< T > Ara = A.randomAccess();
+			for ( long step = 0; step < size; step++ )
 			{
-				@Override
-				public void run()
-				{
-					final Cursor< T > Bcursor = B.localizingCursor();
-					Bcursor.jumpFwd( chunk.getStartPosition() );
-					final RandomAccess< T > Ara = A.randomAccess();
-
-					for ( long step = 0; step < chunk.getLoopSize(); step++ )
-					{
-						Bcursor.fwd();
-						Ara.setPosition( Bcursor );
-						Ara.get().sub( Bcursor.get() );
-					}
-				}
-			};
-		}
-
-		SimpleMultiThreading.startAndJoin( threads );
+				Bcursor.fwd();
+				Ara.setPosition( Bcursor );
+				Ara.get().sub( Bcursor.get() );
+			}
+		} );
 	}
 
 
@@ -517,36 +613,19 @@ public class MorphologyUtils
 	 *            A
 	 * @param B
 	 *            B
-	 * @param numThreads
+	 * @param service
 	 */
-	static < T extends Sub< T > > void subAAB2( final IterableInterval< T > A, final RandomAccessible< T > B, final int numThreads )
+	static < T extends Sub< T > > void subAAB2( final IterableInterval< T > A, final RandomAccessible< T > B, final ExecutorService service )
 	{
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( A.size(), numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-
-		for ( int i = 0; i < threads.length; i++ )
-		{
-			final Chunk chunk = chunks.get( i );
-			threads[ i ] = new Thread( "Morphology subAAB2 thread " + i )
+		forEachChunk( A, service, ( Acursor, size ) -> {
+			final RandomAccess< T > Bra = B.randomAccess();
+			for ( long step = 0; step < size; step++ )
 			{
-				@Override
-				public void run()
-				{
-					final Cursor< T > Acursor = A.localizingCursor();
-					Acursor.jumpFwd( chunk.getStartPosition() );
-					final RandomAccess< T > Bra = B.randomAccess(); // LOL
-
-					for ( long step = 0; step < chunk.getLoopSize(); step++ )
-					{
-						Acursor.fwd();
-						Bra.setPosition( Acursor );
-						Acursor.get().sub( Bra.get() );
-					}
-				}
-			};
-		}
-
-		SimpleMultiThreading.startAndJoin( threads );
+				Acursor.fwd();
+				Bra.setPosition( Acursor );
+				Acursor.get().sub( Bra.get() );
+			}
+		} );
 	}
 
 
@@ -557,41 +636,24 @@ public class MorphologyUtils
 	 *            A
 	 * @param target
 	 *            B
-	 * @param numThreads
+	 * @param service
 	 */
-	static < T extends Sub< T > & Type< T >> void subABA( final RandomAccessible< T > source, final IterableInterval< T > target, final int numThreads )
+	static < T extends Sub< T > & Type< T >> void subABA( final RandomAccessible< T > source, final IterableInterval< T > target, final ExecutorService service )
 	{
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( target.size(), numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-
-		for ( int i = 0; i < threads.length; i++ )
-		{
-			final Chunk chunk = chunks.get( i );
-			threads[ i ] = new Thread( "Morphology subABA thread " + i )
+		forEachChunk( target, service, ( targetCursor, size ) -> {
+			final T tmp = createVariable( source, target );
+			final RandomAccess< T > sourceRandomAccess = source.randomAccess();
+			for ( long step = 0; step < size; step++ )
 			{
-				@Override
-				public void run()
-				{
-					final T tmp = createVariable( source, target );
-					final Cursor< T > targetCursor = target.localizingCursor();
-					targetCursor.jumpFwd( chunk.getStartPosition() );
-					final RandomAccess< T > sourceRandomAccess = source.randomAccess();
-
-					for ( long step = 0; step < chunk.getLoopSize(); step++ )
-					{
-						targetCursor.fwd();
-						sourceRandomAccess.setPosition( targetCursor );
+				targetCursor.fwd();
+				sourceRandomAccess.setPosition( targetCursor );
 
-						tmp.set( targetCursor.get() );
-						tmp.sub( sourceRandomAccess.get() );
+				tmp.set( targetCursor.get() );
+				tmp.sub( sourceRandomAccess.get() );
 
-						sourceRandomAccess.get().set( tmp );
-					}
-				}
-			};
-		}
-
-		SimpleMultiThreading.startAndJoin( threads );
+				sourceRandomAccess.get().set( tmp );
+			}
+		} );
 	}
 
 	/**
@@ -601,46 +663,24 @@ public class MorphologyUtils
 	 *            A
 	 * @param target
 	 *            B
-	 * @param numThreads
+	 * @param service
 	 */
-	static < T extends Sub< T > & Type< T >> void subABA2( final RandomAccessibleInterval< T > source, final RandomAccessible< T > target, final int numThreads )
+	static < T extends Sub< T > & Type< T >> void subABA2( final RandomAccessibleInterval< T > source, final RandomAccessible< T > target, final ExecutorService service )
 	{
-		final long size = Intervals.numElements( source );
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( size, numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-
-		for ( int i = 0; i < threads.length; i++ )
-		{
-			final Chunk chunk = chunks.get( i );
-			threads[ i ] = new Thread( "Morphology subABA2 thread " + i )
+		forEachChunk( Views.iterable( source ), service, ( sourceCursor, size ) -> {
+			final T tmp = createVariable( target, source );
+			final RandomAccess< T > targetRandomAccess = target.randomAccess( source );
+			for ( long step = 0; step < size; step++ )
 			{
-				@Override
-				public void run()
-				{
-					final T tmp = createVariable( target, source );
-					final Cursor< T > sourceCursor = Views.iterable( source ).localizingCursor();
-					sourceCursor.jumpFwd( chunk.getStartPosition() );
-					final RandomAccess< T > targetRandomAccess = target.randomAccess( source );
-
-					for ( long step = 0; step < chunk.getLoopSize(); step++ )
-					{
-
-					}
-					while ( sourceCursor.hasNext() )
-					{
-						sourceCursor.fwd();
-						targetRandomAccess.setPosition( sourceCursor );
-
-						tmp.set( targetRandomAccess.get() );
-						tmp.sub( sourceCursor.get() );
+				sourceCursor.fwd();
+				targetRandomAccess.setPosition( sourceCursor );
 
-						targetRandomAccess.get().set( tmp );
-					}
-				}
-			};
-		}
+				tmp.set( targetRandomAccess.get() );
+				tmp.sub( sourceCursor.get() );
 
-		SimpleMultiThreading.startAndJoin( threads );
+				targetRandomAccess.get().set( tmp );
+			}
+		} );
 	}
 
 	/**
@@ -650,42 +690,24 @@ public class MorphologyUtils
 	 *            A
 	 * @param B
 	 *            B
-	 * @param numThreads
+	 * @param service
 	 */
-	static < T extends Type< T > & Sub< T > > void subBAB( final RandomAccessible< T > A, final IterableInterval< T > B, final int numThreads )
+	static < T extends Type< T > & Sub< T > > void subBAB( final RandomAccessible< T > A, final IterableInterval< T > B, final ExecutorService service )
 	{
-		final long size = Intervals.numElements( B );
-		final Vector< Chunk > chunks = SimpleMultiThreading.divideIntoChunks( size, numThreads );
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-
-		for ( int i = 0; i < threads.length; i++ )
-		{
-			final Chunk chunk = chunks.get( i );
-			threads[ i ] = new Thread( "Morphology subBAB thread " + i )
+		forEachChunk( B, service, ( BCursor, size ) -> {
+			final T tmp = createVariable( A, B );
+			final RandomAccess< T > Ara = A.randomAccess();
+			for ( long step = 0; step < size; step++ )
 			{
-				@Override
-				public void run()
-				{
-					final T tmp = createVariable( A, B );
-					final Cursor< T > BCursor = B.localizingCursor();
-					BCursor.jumpFwd( chunk.getStartPosition() );
-					final RandomAccess< T > Ara = A.randomAccess();
+				BCursor.fwd();
+				Ara.setPosition( BCursor );
 
-					for ( long step = 0; step < chunk.getLoopSize(); step++ )
-					{
-						BCursor.fwd();
-						Ara.setPosition( BCursor );
+				tmp.set( Ara.get() );
+				tmp.sub( BCursor.get() );
 
-						tmp.set( Ara.get() );
-						tmp.sub( BCursor.get() );
-
-						BCursor.get().set( tmp );
-					}
-				}
-			};
-		}
-
-		SimpleMultiThreading.startAndJoin( threads );
+				BCursor.get().set( tmp );
+			}
+		} );
 	}
 
 }
@@ -33,7 +33,9 @@
  */
 package net.imglib2.algorithm.morphology;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import net.imglib2.Interval;
 import net.imglib2.IterableInterval;
@@ -86,9 +88,42 @@ public class Opening
 	 */
 	public static final < T extends RealType< T >> Img< T > open( final Img< T > source, final List< Shape > strels, final int numThreads )
 	{
-		final Img< T > eroded = Erosion.erode( source, strels, numThreads );
-		final Img< T > dilated = Dilation.dilate( eroded, strels, numThreads );
-		return dilated;
+		return MorphologyUtils.compute( numThreads, service -> open( source, strels, service ) );
+	}
+
+	/**
+	 * Performs the morphological opening operation on a {@link RealType}
+	 * {@link Img}, using a list of {@link Shape}s as a structuring element. See
+	 * <a href="http://en.wikipedia.org/wiki/Opening_(morphology)">Opening_(
+	 * morphology)</a>.
+	 * <p>
+	 * The opening operation is simply an erosion followed by a dilation.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * 
+	 * @param source
+	 *            the {@link Img} to operate on.
+	 * @param strels
+	 *            the list of {@link Shape}s that serves as a structuring
+	 *            element.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the result image. Must
+	 *            extends {@link RealType}.
+	 * @return an {@link Img} of the same type and same dimensions that of the
+	 *         source.
+	 */
+	public static final < T extends RealType< T >> Img< T > open( final Img< T > source, final List< Shape > strels, final ExecutorService service )
+	{
+		final T maxVal = source.firstElement().createVariable();
+		maxVal.setReal( maxVal.getMaxValue() );
+		final T minVal = source.firstElement().createVariable();
+		minVal.setReal( minVal.getMinValue() );
+		return open( source, strels, minVal, maxVal, service );
 	}
 
 	/**
@@ -133,9 +168,55 @@ public class Opening
 	 */
 	public static final < T extends Type< T > & Comparable< T > > Img< T > open( final Img< T > source, final List< Shape > strels, final T minVal, final T maxVal, final int numThreads )
 	{
-		final Img< T > eroded = Erosion.erode( source, strels, maxVal, numThreads );
-		final Img< T > dilated = Dilation.dilate( eroded, strels, minVal, numThreads );
-		return dilated;
+		return MorphologyUtils.compute( numThreads, service -> open( source, strels, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the morphological opening operation on an {@link Img} of
+	 * {@link Comparable} , using a list of {@link Shape}s as a structuring
+	 * element. See <a href="http://en.wikipedia.org/wiki/Opening_(morphology)"
+	 * >Opening_(morphology)</a>.
+	 * <p>
+	 * The opening operation is simply an erosion followed by a dilation.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is returned.
+	 * <p>
+	 * This method relies on a specified minimal and maximal value to start
+	 * comparing to other pixels in the neighborhood. For this code to perform
+	 * properly, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image, and the converse for the max value. These normally unseen
+	 * parameters are required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * 
+	 * @param source
+	 *            the {@link Img} to operate on.
+	 * @param strels
+	 *            the list of {@link Shape}s that serves as a structuring
+	 *            element.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source {@link Img} (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source {@link Img} (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the result. Must be a
+	 *            sub-type of {@code T extends Comparable & Type}.
+	 * @return an {@link Img} of the same type and same dimensions that of the
+	 *         source.
+	 */
+	public static final < T extends Type< T > & Comparable< T > > Img< T > open( final Img< T > source, final List< Shape > strels, final T minVal, final T maxVal, final ExecutorService service )
+	{
+		if ( strels.isEmpty() ) { return source.copy(); }
+		final Img< T > target = source.factory().create( source );
+		FusedMorphology.open( Views.extendValue( source, maxVal ), target, strels, minVal, maxVal, null, service );
+		return target;
 	}
 
 	/**
@@ -160,11 +241,37 @@ public class Opening
 	 */
 	public static final < T extends RealType< T >> Img< T > open( final Img< T > source, final Shape strel, final int numThreads )
 	{
-		final Img< T > eroded = Erosion.erode( source, strel, numThreads );
-		final Img< T > dilated = Dilation.dilate( eroded, strel, numThreads );
-		return dilated;
+		return MorphologyUtils.compute( numThreads, service -> open( source, strel, service ) );
 	}
 
+	/**
+	 * Performs the morphological opening operation on a {@link RealType}
+	 * {@link Img}, using a {@link Shape} as a structuring element. See <a
+	 * href="http://en.wikipedia.org/wiki/Opening_(morphology)"
+	 * >Opening_(morphology)</a>.
+	 * <p>
+	 * The opening operation is simply an erosion followed by a dilation.
+	 * 
+	 * @param source
+	 *            the {@link Img} to operate on.
+	 * @param strel
+	 *            the {@link Shape} that serves as a structuring element.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the result image. Must
+	 *            extends {@link RealType}.
+	 * @return an {@link Img} of the same type and same dimensions that of the
+	 *         source.
+	 */
+	public static final < T extends RealType< T >> Img< T > open( final Img< T > source, final Shape strel, final ExecutorService service )
+	{
+		final T maxVal = source.firstElement().createVariable();
+		maxVal.setReal( maxVal.getMaxValue() );
+		final T minVal = source.firstElement().createVariable();
+		minVal.setReal( minVal.getMinValue() );
+		return open( source, strel, minVal, maxVal, service );
+	}
 
 	/**
 	 * Performs the morphological opening operation on an {@link Img} of
@@ -202,9 +309,48 @@ public class Opening
 	 */
 	public static final < T extends Type< T > & Comparable< T > > Img< T > open( final Img< T > source, final Shape strel, final T minVal, final T maxVal, final int numThreads )
 	{
-		final Img< T > eroded = Erosion.erode( source, strel, maxVal, numThreads );
-		final Img< T > dilated = Dilation.dilate( eroded, strel, minVal, numThreads );
-		return dilated;
+		return MorphologyUtils.compute( numThreads, service -> open( source, strel, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the morphological opening operation on an {@link Img} of
+	 * {@link Comparable} , using a {@link Shape} as a structuring element. See
+	 * <a href="http://en.wikipedia.org/wiki/Opening_(morphology)"
+	 * >Opening_(morphology)</a>.
+	 * <p>
+	 * The opening operation is simply an erosion followed by a dilation.
+	 * <p>
+	 * This method relies on a specified minimal and maximal value to start
+	 * comparing to other pixels in the neighborhood. For this code to perform
+	 * properly, it is sufficient that the specified min value is smaller
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image, and the converse for the max value. These normally unseen
+	 * parameters are required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * 
+	 * @param source
+	 *            the {@link Img} to operate on.
+	 * @param strel
+	 *            the {@link Shape} that serves as a structuring element.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source {@link Img} (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source {@link Img} (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image and the result. Must be a
+	 *            sub-type of {@code T extends Comparable & Type}.
+	 * @return an {@link Img} of the same type and same dimensions that of the
+	 *         source.
+	 */
+	public static final < T extends Type< T > & Comparable< T > > Img< T > open( final Img< T > source, final Shape strel, final T minVal, final T maxVal, final ExecutorService service )
+	{
+		final Img< T > target = source.factory().create( source );
+		FusedMorphology.open( Views.extendValue( source, maxVal ), target, Collections.singletonList( strel ), minVal, maxVal, null, service );
+		return target;
 	}
 
 	/**
@@ -247,12 +393,56 @@ public class Opening
 	 *            {@link RealType}.
 	 */
 	public static < T extends RealType< T > > void open( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> open( source, target, strels, service ) );
+	}
+
+	/**
+	 * Performs the morphological opening operation on a {@link RealType} source
+	 * {@link RandomAccessible}, using a list of {@link Shape}s as a structuring
+	 * element, and writes the result on a specified target which must be an
+	 * {@link IterableInterval}. See <a
+	 * href="http://en.wikipedia.org/wiki/Opening_(morphology)"
+	 * >Opening_(morphology)</a>.
+	 * <p>
+	 * The opening operation is simply an erosion followed by a dilation.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the target is left untouched.
+	 * 
+	 * @param source
+	 *            the {@link RandomAccessible} to operate on.
+	 * @param target
+	 *            the {@link IterableInterval} to write the results on.
+	 * @param strels
+	 *            the structuring element, as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source and the result. Must extends
+	 *            {@link RealType}.
+	 */
+	public static < T extends RealType< T > > void open( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final ExecutorService service )
 	{
 		final T maxVal = MorphologyUtils.createVariable( source, target );
 		maxVal.setReal( maxVal.getMaxValue() );
 		final T minVal = MorphologyUtils.createVariable( source, target );
 		minVal.setReal( minVal.getMinValue() );
-		open( source, target, strels, minVal, maxVal, numThreads );
+		open( source, target, strels, minVal, maxVal, service );
 	}
 
 	/**
@@ -310,6 +500,70 @@ public class Opening
 	 */
 	public static < T extends Type< T > & Comparable< T > > void open( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T minVal, final T maxVal, final int numThreads )
 	{
+		MorphologyUtils.run( numThreads, service -> open( source, target, strels, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the morphological opening operation on a source
+	 * {@link RandomAccessible}, using a list of {@link Shape}s as a structuring
+	 * element, and writes the result on a specified target which must be an
+	 * {@link IterableInterval}. See <a
+	 * href="http://en.wikipedia.org/wiki/Opening_(morphology)"
+	 * >Opening_(morphology)</a>.
+	 * <p>
+	 * The opening operation is simply an erosion followed by a dilation.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the target is left untouched.
+	 * <p>
+	 * This method relies on specified minimal and maximal values to start
+	 * comparing to other pixels in the neighborhood. For this code to properly
+	 * perform opening, it is sufficient that the specified max value is larger
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image, and conversely for the min value. These normally unseen parameters
+	 * are required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * 
+	 * @param source
+	 *            the {@link RandomAccessible} to operate on.
+	 * @param target
+	 *            the {@link IterableInterval} to write the results on.
+	 * @param strels
+	 *            the structuring element, as a list of {@link Shape}s.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source and the result. Must extends
+	 *            {@code Compparable}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void open( final RandomAccessible< T > source, final IterableInterval< T > target, final List< Shape > strels, final T minVal, final T maxVal, final ExecutorService service )
+	{
+		if ( FusedMorphology.isSupported( target, strels ) )
+		{
+			FusedMorphology.open( source, target, strels, minVal, maxVal, null, service );
+			return;
+		}
+
 		// Create temp image
 		final ImgFactory< T > factory = Util.getSuitableImgFactory( target, maxVal );
 		final Img< T > img = factory.create( target );
@@ -317,10 +571,10 @@ public class Opening
 		target.min( min );
 
 		final IntervalView< T > translated = Views.translate( img, min );
-		Erosion.erode( source, translated, strels, maxVal, numThreads );
+		Erosion.erode( source, translated, strels, maxVal, service );
 
 		final ExtendedRandomAccessibleInterval< T, IntervalView< T >> extended = Views.extendValue( translated, minVal );
-		Dilation.dilate( extended, target, strels, minVal, numThreads );
+		Dilation.dilate( extended, target, strels, minVal, service );
 	}
 
 	/**
@@ -358,12 +612,51 @@ public class Opening
 	 *            {@link RealType}.
 	 */
 	public static < T extends RealType< T > > void open( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> open( source, target, strel, service ) );
+	}
+
+	/**
+	 * Performs the morphological opening operation on a {@link RealType} source
+	 * {@link RandomAccessible}, using a {@link Shape} as a structuring element,
+	 * and writes the result on a specified target which must be an
+	 * {@link IterableInterval}. See <a
+	 * href="http://en.wikipedia.org/wiki/Opening_(morphology)"
+	 * >Opening_(morphology)</a>.
+	 * <p>
+	 * The opening operation is simply an erosion followed by a dilation.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * 
+	 * @param source
+	 *            the {@link RandomAccessible} to operate on.
+	 * @param target
+	 *            the {@link IterableInterval} to write the results on.
+	 * @param strel
+	 *            the {@link Shape} that serves as a structuring element.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source and the result. Must extends
+	 *            {@link RealType}.
+	 */
+	public static < T extends RealType< T > > void open( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final ExecutorService service )
 	{
 		final T maxVal = MorphologyUtils.createVariable( source, target );
 		maxVal.setReal( maxVal.getMaxValue() );
 		final T minVal = MorphologyUtils.createVariable( source, target );
 		minVal.setReal( minVal.getMinValue() );
-		open( source, target, strel, minVal, maxVal, numThreads );
+		open( source, target, strel, minVal, maxVal, service );
 	}
 
 	/**
@@ -416,6 +709,66 @@ public class Opening
 	 */
 	public static < T extends Type< T > & Comparable< T > > void open( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final T minVal, final T maxVal, final int numThreads )
 	{
+		MorphologyUtils.run( numThreads, service -> open( source, target, strel, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the morphological opening operation on a source
+	 * {@link RandomAccessible}, using a {@link Shape} as a structuring element,
+	 * and writes the result on a specified target which must be an
+	 * {@link IterableInterval}. See <a
+	 * href="http://en.wikipedia.org/wiki/Opening_(morphology)"
+	 * >Opening_(morphology)</a>.
+	 * <p>
+	 * The opening operation is simply an erosion followed by a dilation.
+	 * <p>
+	 * <b>Careful: Target must point to a different structure than source.</b>
+	 * In place operation will not work but will not generate an error.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * It is limited to flat structuring elements, only having
+	 * {@code on/off} pixels, contrary to grayscale structuring elements.
+	 * This allows to simply use a {@link Shape} as a type for these structuring
+	 * elements.
+	 * <p>
+	 * This method relies on specified minimal and maximal values to start
+	 * comparing to other pixels in the neighborhood. For this code to properly
+	 * perform opening, it is sufficient that the specified max value is larger
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image, and conversely for the min value. These normally unseen parameters
+	 * are required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * 
+	 * @param source
+	 *            the {@link RandomAccessible} to operate on.
+	 * @param target
+	 *            the {@link IterableInterval} to write the results on.
+	 * @param strel
+	 *            the {@link Shape} that serves as a structuring element.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source and the result. Must extends
+	 *            {@code Comparable}.
+	 */
+	public static < T extends Type< T > & Comparable< T > > void open( final RandomAccessible< T > source, final IterableInterval< T > target, final Shape strel, final T minVal, final T maxVal, final ExecutorService service )
+	{
+		final List< Shape > strels = Collections.singletonList( strel );
+		if ( FusedMorphology.isSupported( target, strels ) )
+		{
+			FusedMorphology.open( source, target, strels, minVal, maxVal, null, service );
+			return;
+		}
+
 		// Create temp image
 		final ImgFactory< T > factory = Util.getSuitableImgFactory( target, maxVal );
 		final Img< T > img = factory.create( target );
@@ -423,10 +776,10 @@ public class Opening
 		target.min( min );
 
 		final IntervalView< T > translated = Views.translate( img, min );
-		Erosion.erode( source, translated, strel, maxVal, numThreads );
+		Erosion.erode( source, translated, strel, maxVal, service );
 
 		final ExtendedRandomAccessibleInterval< T, IntervalView< T >> extended = Views.extendValue( translated, minVal );
-		Dilation.dilate( extended, target, strel, minVal, numThreads );
+		Dilation.dilate( extended, target, strel, minVal, service );
 	}
 
 	/**
@@ -464,13 +817,52 @@ public class Opening
 	 *            {@code T extends RealType}.
 	 */
 	public static < T extends RealType< T > > void openInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> openInPlace( source, interval, strels, service ) );
+	}
+
+	/**
+	 * Performs the opening morphological operation, on a source
+	 * {@link RandomAccessibleInterval} using a list of {@link Shape}s as a flat
+	 * structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Opening_(morphology)">
+	 * Opening_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)} *
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is left untouched.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T > > void openInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final ExecutorService service )
 	{
 		final T maxVal = MorphologyUtils.createVariable( source, interval );
 		maxVal.setReal( maxVal.getMaxValue() );
 		final T minVal = MorphologyUtils.createVariable( source, interval );
 		minVal.setReal( minVal.getMinValue() );
 
-		openInPlace( source, interval, strels, minVal, maxVal, numThreads );
+		openInPlace( source, interval, strels, minVal, maxVal, service );
 	}
 
 	/**
@@ -522,10 +914,63 @@ public class Opening
 	 *            {@code T extends Comparable}.
 	 */
 	public static < T extends Type< T > & Comparable< T >> void openInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final T minVal, final T maxVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> openInPlace( source, interval, strels, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the opening morphological operation, on a
+	 * {@link RandomAccessibleInterval} using a list of {@link Shape}s as a flat
+	 * structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Opening_(morphology)">
+	 * Opening_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * The structuring element is specified through a list of {@link Shape}s, to
+	 * allow for performance optimization through structuring element
+	 * decomposition. Each shape is processed in order as given in the list. If
+	 * the list is empty, the source image is left untouched.
+	 * <p>
+	 * This method relies on specified minimal and maximal values to start
+	 * comparing to other pixels in the neighborhood. For this code to properly
+	 * perform opening, it is sufficient that the specified max value is larger
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image, and conversely for the min value. These normally unseen parameters
+	 * are required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strels
+	 *            the structuring element as a list of {@link Shape}s.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends Comparable}.
+	 */
+	public static < T extends Type< T > & Comparable< T >> void openInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final List< Shape > strels, final T minVal, final T maxVal, final ExecutorService service )
 	{
 		for ( final Shape strel : strels )
 		{
-			openInPlace( source, interval, strel, minVal, maxVal, numThreads );
+			openInPlace( source, interval, strel, minVal, maxVal, service );
 		}
 	}
 
@@ -559,13 +1004,47 @@ public class Opening
 	 *            {@code T extends RealType}.
 	 */
 	public static < T extends RealType< T > > void openInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> openInPlace( source, interval, strel, service ) );
+	}
+
+	/**
+	 * Performs the opening morphological operation, on a {@link RealType}
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Opening_(morphology)">
+	 * Opening_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T > > void openInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final ExecutorService service )
 	{
 		final T maxVal = MorphologyUtils.createVariable( source, interval );
 		maxVal.setReal( maxVal.getMaxValue() );
 		final T minVal = MorphologyUtils.createVariable( source, interval );
 		minVal.setReal( minVal.getMinValue() );
 
-		openInPlace( source, interval, strel, minVal, maxVal, numThreads );
+		openInPlace( source, interval, strel, minVal, maxVal, service );
 	}
 
 	/**
@@ -612,6 +1091,54 @@ public class Opening
 	 *            {@code T extends Comparable}.
 	 */
 	public static < T extends Type< T > & Comparable< T >> void openInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final T minVal, final T maxVal, final int numThreads )
+	{
+		MorphologyUtils.run( numThreads, service -> openInPlace( source, interval, strel, minVal, maxVal, service ) );
+	}
+
+	/**
+	 * Performs the opening morphological operation, on a
+	 * {@link RandomAccessibleInterval} using a {@link Shape} as a flat
+	 * structuring element.
+	 * 
+	 * See <a href="http://en.wikipedia.org/wiki/Opening_(morphology)">
+	 * Opening_(morphology)</a>.
+	 * <p>
+	 * The result is written in the source image. This method is limited to flat
+	 * structuring elements, only having {@code on/off} pixels, contrary to
+	 * grayscale structuring elements. This allows to simply use a {@link Shape}
+	 * as a type for these structuring elements.
+	 * <p>
+	 * It is the caller responsibility to ensure that the source is sufficiently
+	 * padded to properly cover the target range plus the shape size. See
+	 * <i>e.g.</i> {@link Views#extendValue(RandomAccessibleInterval, Type)}
+	 * <p>
+	 * This method relies on specified minimal and maximal values to start
+	 * comparing to other pixels in the neighborhood. For this code to properly
+	 * perform opening, it is sufficient that the specified max value is larger
+	 * (against {@link Comparable}) than any of the value found in the source
+	 * image, and conversely for the min value. These normally unseen parameters
+	 * are required to operate on
+	 * {@code T extends Comparable & Type}.
+	 * 
+	 * @param source
+	 *            the source image.
+	 * @param interval
+	 *            an interval in the source image to process.
+	 * @param strel
+	 *            the structuring element as a {@link Shape}.
+	 * @param minVal
+	 *            a T containing set to a value smaller than any of the values
+	 *            in the source (against {@link Comparable}).
+	 * @param maxVal
+	 *            a T containing set to a value larger than any of the values in
+	 *            the source (against {@link Comparable}).
+	 * @param service
+	 *            the {@link ExecutorService} to use for the calculation.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends Comparable}.
+	 */
+	public static < T extends Type< T > & Comparable< T >> void openInPlace( final RandomAccessibleInterval< T > source, final Interval interval, final Shape strel, final T minVal, final T maxVal, final ExecutorService service )
 	{
 		final ExtendedRandomAccessibleInterval< T, RandomAccessibleInterval< T >> extended = Views.extendValue( source, maxVal );
 
@@ -621,8 +1148,8 @@ public class Opening
 		interval.min( min );
 		final IntervalView< T > translated = Views.translate( img, min );
 
-		open( extended, translated, strel, minVal, maxVal, numThreads );
-		MorphologyUtils.copy( translated, extended, numThreads );
+		open( extended, translated, strel, minVal, maxVal, service );
+		MorphologyUtils.copy( translated, extended, service );
 	}
 
 	/**
@@ -0,0 +1,831 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.morphology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.imglib2.Cursor;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+/**
+ * Morphological reconstruction by dilation and by erosion, and the operators
+ * built on it: regional maxima and minima, h-maxima and h-minima, hole
+ * filling, area opening and area closing.
+ * <p>
+ * The reconstruction by dilation of a marker image under a mask image is the
+ * geodesic dilation of the marker, limited by the mask, iterated until
+ * stability. It is computed with the hybrid algorithm of L. Vincent,
+ * "Morphological grayscale reconstruction in image analysis: applications and
+ * efficient algorithms", IEEE Transactions on Image Processing 2 (1993): a
+ * raster scan and an anti-raster scan propagate the marker in two passes,
+ * then the pixels that can still propagate are processed with a FIFO queue
+ * until it is empty. Each pixel is visited a few times, instead of once per
+ * geodesic dilation.
+ * <p>
+ * The neighbors of a pixel are given by a {@link Shape}, as for
+ * {@link Dilation}: a pixel receives the maximum (minimum) over the
+ * neighborhood of the shape centered on it. The neighborhood is usually
+ * symmetric, such as a {@code RectangleShape( 1, true )} for the 8- (26-)
+ * connectivity or a {@code DiamondShape( 1 )} for the 4- (6-) connectivity.
+ * Pixels outside the interval are not part of the images.
+ * <p>
+ * The images are copied into {@code double[]} arrays padded by the extent of
+ * the shape, so that the pixels are addressed by a flat {@code int} index and
+ * the queue holds primitive indices. The interval, padding included, must
+ * hold less than {@link Integer#MAX_VALUE} pixels and the values must be
+ * represented exactly by a {@code double}. Results that are out of the range
+ * of the type are clamped.
+ */
+public class Reconstruction
+{
+	/**
+	 * Performs the morphological reconstruction by dilation of a marker image
+	 * under a mask image.
+	 *
+	 * @param marker
+	 *            the marker image.
+	 * @param mask
+	 *            the mask image, of same dimensions than the marker.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the images. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the marker.
+	 */
+	public static < T extends RealType< T > > Img< T > reconstructByDilation( final RandomAccessibleInterval< T > marker, final RandomAccessibleInterval< T > mask, final Shape shape )
+	{
+		final Img< T > target = create( marker );
+		reconstruct( marker, mask, target, shape, 1 );
+		return target;
+	}
+
+	/**
+	 * Performs the morphological reconstruction by dilation of a marker image
+	 * under a mask image, and writes the result in the marker image.
+	 *
+	 * @param marker
+	 *            the marker image, overwritten by the result.
+	 * @param mask
+	 *            the mask image, of same dimensions than the marker.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the images. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T > > void reconstructByDilationInPlace( final RandomAccessibleInterval< T > marker, final RandomAccessibleInterval< T > mask, final Shape shape )
+	{
+		reconstruct( marker, mask, marker, shape, 1 );
+	}
+
+	/**
+	 * Performs the morphological reconstruction by erosion of a marker image
+	 * over a mask image.
+	 *
+	 * @param marker
+	 *            the marker image.
+	 * @param mask
+	 *            the mask image, of same dimensions than the marker.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the images. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the marker.
+	 */
+	public static < T extends RealType< T > > Img< T > reconstructByErosion( final RandomAccessibleInterval< T > marker, final RandomAccessibleInterval< T > mask, final Shape shape )
+	{
+		final Img< T > target = create( marker );
+		reconstruct( marker, mask, target, shape, -1 );
+		return target;
+	}
+
+	/**
+	 * Performs the morphological reconstruction by erosion of a marker image
+	 * over a mask image, and writes the result in the marker image.
+	 *
+	 * @param marker
+	 *            the marker image, overwritten by the result.
+	 * @param mask
+	 *            the mask image, of same dimensions than the marker.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the images. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 */
+	public static < T extends RealType< T > > void reconstructByErosionInPlace( final RandomAccessibleInterval< T > marker, final RandomAccessibleInterval< T > mask, final Shape shape )
+	{
+		reconstruct( marker, mask, marker, shape, -1 );
+	}
+
+	/**
+	 * Returns the regional maxima of an image: the connected plateaus of
+	 * pixels whose neighbors outside the plateau are all strictly lower.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 * @return a new {@link BitType} image, of same dimensions than the source,
+	 *         that is {@code true} on the regional maxima.
+	 */
+	public static < T extends RealType< T > > Img< BitType > regionalMaxima( final RandomAccessibleInterval< T > source, final Shape shape )
+	{
+		return regionalExtrema( source, shape, 1 );
+	}
+
+	/**
+	 * Returns the regional minima of an image: the connected plateaus of
+	 * pixels whose neighbors outside the plateau are all strictly higher.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 * @return a new {@link BitType} image, of same dimensions than the source,
+	 *         that is {@code true} on the regional minima.
+	 */
+	public static < T extends RealType< T > > Img< BitType > regionalMinima( final RandomAccessibleInterval< T > source, final Shape shape )
+	{
+		return regionalExtrema( source, shape, -1 );
+	}
+
+	/**
+	 * Performs the h-maxima transform: the reconstruction by dilation of the
+	 * source minus {@code h} under the source. It suppresses the maxima whose
+	 * height is not larger than {@code h}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param h
+	 *            the height, must be positive or zero.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > hMaxima( final RandomAccessibleInterval< T > source, final double h, final Shape shape )
+	{
+		return hExtrema( source, h, shape, 1 );
+	}
+
+	/**
+	 * Performs the h-minima transform: the reconstruction by erosion of the
+	 * source plus {@code h} over the source. It suppresses the minima whose
+	 * depth is not larger than {@code h}.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param h
+	 *            the depth, must be positive or zero.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > hMinima( final RandomAccessibleInterval< T > source, final double h, final Shape shape )
+	{
+		return hExtrema( source, h, shape, -1 );
+	}
+
+	/**
+	 * Fills the holes of an image: the regional minima that are not connected
+	 * to the border of the image are raised to the level of their surrounding.
+	 * This is the reconstruction by erosion, over the source, of a marker that
+	 * equals the source on the border of the image and the maximum of the
+	 * source elsewhere.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > fillHoles( final RandomAccessibleInterval< T > source, final Shape shape )
+	{
+		final PaddedGrid grid = new PaddedGrid( source, shape );
+		final double[] mask = grid.read( source, -1 );
+		final double[] marker = new double[ mask.length ];
+		Arrays.fill( marker, Double.NEGATIVE_INFINITY );
+
+		double fill = Double.POSITIVE_INFINITY;
+		final long[] position = new long[ grid.n ];
+		int index = grid.first;
+		for ( long i = 0; i < grid.numPixels; i++ )
+		{
+			fill = Math.min( fill, mask[ index ] );
+			index = grid.next( index, position );
+		}
+		index = grid.first;
+		for ( long i = 0; i < grid.numPixels; i++ )
+		{
+			marker[ index ] = grid.isBorder( position ) ? mask[ index ] : fill;
+			index = grid.next( index, position );
+		}
+
+		grid.reconstruct( marker, mask );
+		final Img< T > target = create( source );
+		grid.write( marker, target, -1 );
+		return target;
+	}
+
+	/**
+	 * Performs the area opening: the maxima are lowered until the connected
+	 * component of the upper level set they belong to holds at least
+	 * {@code minArea} pixels. For a binary image, the connected components of
+	 * the foreground smaller than {@code minArea} are removed.
+	 * <p>
+	 * The neighbors given by the shape are made symmetric, and the transform
+	 * is computed with the union-find algorithm of A. Meijster and M. H. F.
+	 * Wilkinson, "A comparison of algorithms for connected set openings and
+	 * closings", IEEE PAMI 24 (2002).
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param minArea
+	 *            the minimal area, in pixels, of the components to keep.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 */
+	public static < T extends RealType< T > > Img< T > areaOpening( final RandomAccessibleInterval< T > source, final long minArea, final Shape shape )
+	{
+		return area( source, minArea, shape, 1 );
+	}
+
+	/**
+	 * Performs the area closing: the minima are raised until the connected
+	 * component of the lower level set they belong to holds at least
+	 * {@code minArea} pixels. For a binary image, the holes of the foreground
+	 * smaller than {@code minArea} are filled.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param minArea
+	 *            the minimal area, in pixels, of the components to keep.
+	 * @param shape
+	 *            the neighborhood of a pixel.
+	 * @param <T>
+	 *            the type of the source image. Must be a sub-type of
+	 *            {@code T extends RealType}.
+	 * @return a new {@link Img}, of same dimensions than the source.
+	 * @see #areaOpening(RandomAccessibleInterval, long, Shape)
+	 */
+	public static < T extends RealType< T > > Img< T > areaClosing( final RandomAccessibleInterval< T > source, final long minArea, final Shape shape )
+	{
+		return area( source, minArea, shape, -1 );
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	private static < T extends RealType< T > > Img< T > create( final RandomAccessibleInterval< T > source )
+	{
+		final T type = MorphologyUtils.createVariable( source, source );
+		return Util.getSuitableImgFactory( source, type ).create( source );
+	}
+
+	/**
+	 * Reconstruction by dilation if {@code sign} is 1, by erosion if it is -1,
+	 * as a reconstruction by dilation of the negated images.
+	 */
+	private static < T extends RealType< T > > void reconstruct( final RandomAccessibleInterval< T > marker, final RandomAccessibleInterval< T > mask, final RandomAccessibleInterval< T > target, final Shape shape, final double sign )
+	{
+		if ( !Intervals.equalDimensions( marker, mask ) ) { throw new IllegalArgumentException( "The marker and the mask must have the same dimensions." ); }
+		final PaddedGrid grid = new PaddedGrid( marker, shape );
+		final double[] markerValues = grid.read( marker, sign );
+		final double[] maskValues = grid.read( mask, sign );
+		grid.reconstruct( markerValues, maskValues );
+		grid.write( markerValues, target, sign );
+	}
+
+	/**
+	 * The pixels that have a strictly higher neighbor seed a reconstruction
+	 * under the source. It reaches the whole source, except the regional
+	 * maxima.
+	 */
+	private static < T extends RealType< T > > Img< BitType > regionalExtrema( final RandomAccessibleInterval< T > source, final Shape shape, final double sign )
+	{
+		final PaddedGrid grid = new PaddedGrid( source, shape );
+		final double[] mask = grid.read( source, sign );
+		final double[] marker = new double[ mask.length ];
+		Arrays.fill( marker, Double.NEGATIVE_INFINITY );
+
+		final long[] position = new long[ grid.n ];
+		int index = grid.first;
+		for ( long i = 0; i < grid.numPixels; i++ )
+		{
+			final double value = mask[ index ];
+			for ( final int offset : grid.offsets )
+			{
+				if ( mask[ index + offset ] > value )
+				{
+					marker[ index ] = value;
+					break;
+				}
+			}
+			index = grid.next( index, position );
+		}
+
+		grid.reconstruct( marker, mask );
+
+		final Img< BitType > target = ArrayImgs.bits( Intervals.dimensionsAsLongArray( source ) );
+		final Cursor< BitType > cursor = target.cursor();
+		index = grid.first;
+		while ( cursor.hasNext() )
+		{
+			cursor.next().set( marker[ index ] < mask[ index ] );
+			index = grid.next( index, position );
+		}
+		return target;
+	}
+
+	private static < T extends RealType< T > > Img< T > hExtrema( final RandomAccessibleInterval< T > source, final double h, final Shape shape, final double sign )
+	{
+		if ( !( h >= 0 ) ) { throw new IllegalArgumentException( "The height must be positive or zero, but was " + h + "." ); }
+		final PaddedGrid grid = new PaddedGrid( source, shape );
+		final double[] mask = grid.read( source, sign );
+		final double[] marker = new double[ mask.length ];
+		for ( int i = 0; i < mask.length; i++ )
+		{
+			marker[ i ] = mask[ i ] - h;
+		}
+		grid.reconstruct( marker, mask );
+		final Img< T > target = create( source );
+		grid.write( marker, target, sign );
+		return target;
+	}
+
+	private static < T extends RealType< T > > Img< T > area( final RandomAccessibleInterval< T > source, final long minArea, final Shape shape, final double sign )
+	{
+		final PaddedGrid grid = new PaddedGrid( source, shape );
+		final double[] values = grid.read( source, sign );
+		grid.areaOpening( values, ( int ) Math.min( Math.max( minArea, 1 ), Integer.MAX_VALUE ) );
+		final Img< T > target = create( source );
+		grid.write( values, target, sign );
+		return target;
+	}
+
+	/**
+	 * An interval stored in a flat {@code double[]} array, padded by the
+	 * extent of a shape on every side. The neighbors of the pixel at index
+	 * {@code i} are at the indices {@code i + offsets[ k ]}; those of a pixel
+	 * in the interval are always in the array. The padding holds
+	 * {@link Double#NEGATIVE_INFINITY}, so that it never propagates.
+	 */
+	private static final class PaddedGrid
+	{
+		private final int n;
+
+		private final long[] dimensions;
+
+		private final int[] strides;
+
+		private final int size;
+
+		private final long numPixels;
+
+		/** Index of the first pixel of the interval. */
+		private final int first;
+
+		/** Index of the last pixel of the interval. */
+		private final int last;
+
+		/** Offsets of the neighbors, the center excluded. */
+		private final int[] offsets;
+
+		/** Offsets of the neighbors before the center in raster order. */
+		private final int[] before;
+
+		/** Offsets of the neighbors after the center in raster order. */
+		private final int[] after;
+
+		private PaddedGrid( final Interval interval, final Shape shape )
+		{
+			n = interval.numDimensions();
+			dimensions = Intervals.dimensionsAsLongArray( interval );
+			numPixels = Intervals.numElements( interval );
+
+			final Neighborhood< BitType > neighborhood = MorphologyUtils.getNeighborhood( shape, interval );
+			final List< long[] > positions = new ArrayList<>();
+			final long[] radius = new long[ n ];
+			final Cursor< BitType > cursor = neighborhood.localizingCursor();
+			while ( cursor.hasNext() )
+			{
+				cursor.fwd();
+				final long[] position = new long[ n ];
+				cursor.localize( position );
+				positions.add( position );
+				for ( int d = 0; d < n; d++ )
+				{
+					radius[ d ] = Math.max( radius[ d ], Math.abs( position[ d ] ) );
+				}
+			}
+
+			strides = new int[ n ];
+			long stride = 1;
+			long start = 0;
+			long end = 0;
+			for ( int d = 0; d < n; d++ )
+			{
+				strides[ d ] = ( int ) stride;
+				start += radius[ d ] * stride;
+				end += ( radius[ d ] + dimensions[ d ] - 1 ) * stride;
+				stride *= dimensions[ d ] + 2 * radius[ d ];
+				if ( stride >= Integer.MAX_VALUE ) { throw new IllegalArgumentException( "The image is too large for the reconstruction." ); }
+			}
+			size = ( int ) stride;
+			first = ( int ) start;
+			last = ( int ) end;
+
+			final int[] all = new int[ positions.size() ];
+			int numOffsets = 0;
+			for ( final long[] position : positions )
+			{
+				final int offset = flatOffset( position );
+				if ( offset != 0 )
+				{
+					all[ numOffsets++ ] = offset;
+				}
+			}
+			offsets = Arrays.copyOf( all, numOffsets );
+			before = Arrays.stream( offsets ).filter( o -> o < 0 ).toArray();
+			after = Arrays.stream( offsets ).filter( o -> o > 0 ).toArray();
+		}
+
+		private int flatOffset( final long[] position )
+		{
+			long offset = 0;
+			for ( int d = 0; d < n; d++ )
+			{
+				offset += position[ d ] * strides[ d ];
+			}
+			return ( int ) offset;
+		}
+
+		/**
+		 * Returns the index of the next pixel of the interval in raster order,
+		 * and updates its position.
+		 */
+		private int next( int index, final long[] position )
+		{
+			for ( int d = 0; d < n; d++ )
+			{
+				index += strides[ d ];
+				if ( ++position[ d ] < dimensions[ d ] ) { return index; }
+				position[ d ] = 0;
+				index -= ( int ) dimensions[ d ] * strides[ d ];
+			}
+			return index;
+		}
+
+		/**
+		 * Returns the index of the previous pixel of the interval in raster
+		 * order, and updates its position.
+		 */
+		private int previous( int index, final long[] position )
+		{
+			for ( int d = 0; d < n; d++ )
+			{
+				index -= strides[ d ];
+				if ( --position[ d ] >= 0 ) { return index; }
+				position[ d ] = dimensions[ d ] - 1;
+				index += ( int ) dimensions[ d ] * strides[ d ];
+			}
+			return index;
+		}
+
+		private boolean isBorder( final long[] position )
+		{
+			for ( int d = 0; d < n; d++ )
+			{
+				if ( position[ d ] == 0 || position[ d ] == dimensions[ d ] - 1 ) { return true; }
+			}
+			return false;
+		}
+
+		private double[] read( final RandomAccessibleInterval< ? extends RealType< ? > > source, final double sign )
+		{
+			final double[] values = new double[ size ];
+			Arrays.fill( values, Double.NEGATIVE_INFINITY );
+			final Cursor< ? extends RealType< ? > > cursor = Views.flatIterable( source ).cursor();
+			final long[] position = new long[ n ];
+			int index = first;
+			while ( cursor.hasNext() )
+			{
+				values[ index ] = sign * cursor.next().getRealDouble();
+				index = next( index, position );
+			}
+			return values;
+		}
+
+		private < T extends RealType< T > > void write( final double[] values, final RandomAccessibleInterval< T > target, final double sign )
+		{
+			final Cursor< T > cursor = Views.flatIterable( target ).cursor();
+			final long[] position = new long[ n ];
+			int index = first;
+			while ( cursor.hasNext() )
+			{
+				final T t = cursor.next();
+				t.setReal( Math.max( t.getMinValue(), Math.min( t.getMaxValue(), sign * values[ index ] ) ) );
+				index = next( index, position );
+			}
+		}
+
+		/**
+		 * Reconstruction by dilation of the marker under the mask, written in
+		 * the marker.
+		 */
+		private void reconstruct( final double[] marker, final double[] mask )
+		{
+			// Raster scan: propagate from the neighbors already visited.
+			final long[] position = new long[ n ];
+			int p = first;
+			for ( long i = 0; i < numPixels; i++ )
+			{
+				double value = marker[ p ];
+				for ( final int offset : before )
+				{
+					value = Math.max( value, marker[ p + offset ] );
+				}
+				marker[ p ] = Math.min( value, mask[ p ] );
+				p = next( p, position );
+			}
+
+			/*
+			 * Anti-raster scan. A pixel is queued if it can still propagate to
+			 * a pixel that reads it and that was visited before it in this
+			 * scan. The pixels that read p are the p - offset.
+			 */
+			final IntFifo fifo = new IntFifo();
+			for ( int d = 0; d < n; d++ )
+			{
+				position[ d ] = dimensions[ d ] - 1;
+			}
+			p = last;
+			for ( long i = 0; i < numPixels; i++ )
+			{
+				double value = marker[ p ];
+				for ( final int offset : after )
+				{
+					value = Math.max( value, marker[ p + offset ] );
+				}
+				value = Math.min( value, mask[ p ] );
+				marker[ p ] = value;
+				for ( final int offset : before )
+				{
+					final int q = p - offset;
+					if ( marker[ q ] < value && marker[ q ] < mask[ q ] )
+					{
+						fifo.add( p );
+						break;
+					}
+				}
+				p = previous( p, position );
+			}
+
+			// Propagation.
+			while ( !fifo.isEmpty() )
+			{
+				p = fifo.poll();
+				final double value = marker[ p ];
+				for ( final int offset : offsets )
+				{
+					final int q = p - offset;
+					if ( marker[ q ] < value && marker[ q ] < mask[ q ] )
+					{
+						marker[ q ] = Math.min( value, mask[ q ] );
+						fifo.add( q );
+					}
+				}
+			}
+		}
+
+		/**
+		 * Area opening of the values, written in place. The pixels are
+		 * processed in decreasing order and merged in a union-find forest,
+		 * whose roots hold the area of their component. A component stops
+		 * growing when it reaches the minimal area.
+		 */
+		private void areaOpening( final double[] values, final int minArea )
+		{
+			final int[] neighbors = symmetricOffsets();
+			final int[] order = sortDecreasing( values );
+
+			final int[] parent = new int[ size ];
+			Arrays.fill( parent, -1 );
+			final int[] area = new int[ size ];
+			for ( final int p : order )
+			{
+				parent[ p ] = p;
+				area[ p ] = 1;
+				for ( final int offset : neighbors )
+				{
+					final int q = p + offset;
+					if ( parent[ q ] < 0 )
+					{
+						continue;
+					}
+					final int r = find( parent, q );
+					if ( r == p )
+					{
+						continue;
+					}
+					if ( values[ r ] == values[ p ] || area[ r ] < minArea )
+					{
+						parent[ r ] = p;
+						area[ p ] = ( int ) Math.min( ( long ) area[ p ] + area[ r ], minArea );
+					}
+					else
+					{
+						area[ p ] = minArea;
+					}
+				}
+			}
+
+			// The parents come later in the order, resolve them first.
+			for ( int i = order.length - 1; i >= 0; i-- )
+			{
+				final int p = order[ i ];
+				if ( parent[ p ] != p )
+				{
+					values[ p ] = values[ parent[ p ] ];
+				}
+			}
+		}
+
+		private int[] symmetricOffsets()
+		{
+			return Arrays.stream( offsets ).flatMap( o -> Arrays.stream( new int[] { o, -o } ) ).distinct().toArray();
+		}
+
+		/**
+		 * Returns the indices of the pixels of the interval sorted by
+		 * decreasing value, and by index for equal values.
+		 */
+		private int[] sortDecreasing( final double[] values )
+		{
+			final int count = ( int ) numPixels;
+			final double[] levels = new double[ count ];
+			final int[] indices = new int[ count ];
+			final long[] position = new long[ n ];
+			int index = first;
+			for ( int i = 0; i < count; i++ )
+			{
+				indices[ i ] = index;
+				levels[ i ] = values[ index ];
+				index = next( index, position );
+			}
+
+			// Counting sort on the rank of the values.
+			Arrays.sort( levels );
+			int numLevels = 0;
+			for ( int i = 0; i < count; i++ )
+			{
+				if ( numLevels == 0 || Double.compare( levels[ i ], levels[ numLevels - 1 ] ) != 0 )
+				{
+					levels[ numLevels++ ] = levels[ i ];
+				}
+			}
+			final double[] distinct = Arrays.copyOf( levels, numLevels );
+			final int[] starts = new int[ numLevels + 1 ];
+			final int[] ranks = new int[ count ];
+			for ( int i = 0; i < count; i++ )
+			{
+				// Rank 0 for the highest value.
+				ranks[ i ] = numLevels - 1 - Arrays.binarySearch( distinct, values[ indices[ i ] ] );
+				starts[ ranks[ i ] + 1 ]++;
+			}
+			for ( int r = 0; r < numLevels; r++ )
+			{
+				starts[ r + 1 ] += starts[ r ];
+			}
+			final int[] order = new int[ count ];
+			for ( int i = 0; i < count; i++ )
+			{
+				order[ starts[ ranks[ i ] ]++ ] = indices[ i ];
+			}
+			return order;
+		}
+
+		private static int find( final int[] parent, final int p )
+		{
+			int root = p;
+			while ( parent[ root ] != root )
+			{
+				root = parent[ root ];
+			}
+			int q = p;
+			while ( parent[ q ] != root )
+			{
+				final int next = parent[ q ];
+				parent[ q ] = root;
+				q = next;
+			}
+			return root;
+		}
+	}
+
+	/**
+	 * A first-in first-out queue of {@code int}s, backed by a growing ring
+	 * buffer.
+	 */
+	private static final class IntFifo
+	{
+		private int[] elements = new int[ 1024 ];
+
+		private int head = 0;
+
+		private int size = 0;
+
+		private void add( final int value )
+		{
+			if ( size == elements.length )
+			{
+				final int[] grown = new int[ 2 * elements.length ];
+				final int tail = elements.length - head;
+				System.arraycopy( elements, head, grown, 0, tail );
+				System.arraycopy( elements, 0, grown, tail, head );
+				elements = grown;
+				head = 0;
+			}
+			elements[ ( head + size ) & ( elements.length - 1 ) ] = value;
+			size++;
+		}
+
+		private int poll()
+		{
+			final int value = elements[ head ];
+			head = ( head + 1 ) & ( elements.length - 1 );
+			size--;
+			return value;
+		}
+
+		private boolean isEmpty()
+		{
+			return size == 0;
+		}
+	}
+}
@@ -35,12 +35,14 @@
 package net.imglib2.algorithm.morphology.distance;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.function.LongFunction;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 
@@ -49,6 +51,7 @@ import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.util.Grids;
 import net.imglib2.converter.Converter;
 import net.imglib2.converter.Converters;
 import net.imglib2.img.Img;
@@ -56,11 +59,15 @@ import net.imglib2.img.array.ArrayImg;
 import net.imglib2.img.array.ArrayImgFactory;
 import net.imglib2.img.cell.CellImg;
 import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.img.planar.PlanarImg;
 import net.imglib2.type.BooleanType;
 import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.IntegerType;
 import net.imglib2.type.numeric.RealType;
 import net.imglib2.type.numeric.integer.LongType;
 import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.IntervalIndexer;
 import net.imglib2.util.Intervals;
 import net.imglib2.util.Util;
 import net.imglib2.util.ValuePair;
@@ -970,6 +977,682 @@ public class DistanceTransform
 		transform( converted, tmp, target, d, es, nTasks );
 	}
 
+	/**
+	 * Create
+	 * <a href="http://www.theoryofcomputing.org/articles/v008a019/">distance
+	 * transforms of sampled functions</a> on {@code source} using squared
+	 * Euclidian (L2) or L1 distance, processing {@code target} block by block.
+	 * Intermediate and final results will be stored in {@code target}
+	 * ({@link DoubleType} recommended), no additional full-size storage is
+	 * required.
+	 * <p>
+	 * For each dimension {@code dim}, {@code target} is split into blocks of
+	 * size {@code blockSize} that span the full extent of {@code target} along
+	 * {@code dim}. Each block is copied into a block-sized buffer, transformed
+	 * along {@code dim} and written back. At most {@code nTasks} buffers are
+	 * resident at any time, which makes this suitable for {@code target}s that
+	 * do not fit into memory, e.g. cached {@link CellImg}s. For best
+	 * performance, {@code blockSize} should be a multiple of the cell size of
+	 * {@code target}. The result is identical to
+	 * {@link #transform(RandomAccessible, RandomAccessibleInterval, DISTANCE_TYPE, ExecutorService, int, double...)}.
+	 * </p>
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param target
+	 *            Intermediate and final results of distance transform.
+	 * @param distanceType
+	 *            Defines distance to be used: squared Euclidian or L1
+	 * @param blockSize
+	 *            Size of blocks in all dimensions. The block size along the
+	 *            dimension that is currently transformed is ignored.
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param nTasks
+	 *            Number of tasks/parallelism
+	 * @param weights
+	 *            Individual weights for each dimension, balancing image values
+	 *            and distance (when using squared Euclidian distance, weights
+	 *            should be squared, too).
+	 * @param <T>
+	 *            {@link RealType} input
+	 * @param <U>
+	 *            {@link RealType} intermediate and final results
+	 * @throws InterruptedException
+	 *             if interrupted while waiting, in which case unfinished tasks
+	 *             are cancelled (distance transform may be computed only
+	 *             partially)
+	 * @throws ExecutionException
+	 *             if the computation threw an exception (distance transform may
+	 *             be computed only partially)
+	 */
+	public static < T extends RealType< T >, U extends RealType< U > > void transformBlockwise(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final DISTANCE_TYPE distanceType,
+			final int[] blockSize,
+			final ExecutorService es,
+			final int nTasks,
+			final double... weights ) throws InterruptedException, ExecutionException
+	{
+		final boolean isIsotropic = weights.length <= 1;
+		final double[] w = weights.length == source.numDimensions() ? weights : DoubleStream.generate( () -> weights.length == 0 ? 1.0 : weights[ 0 ] ).limit( source.numDimensions() ).toArray();
+
+		switch ( distanceType )
+		{
+		case EUCLIDIAN:
+			transformBlockwise( source, target, isIsotropic ? new EuclidianDistanceIsotropic( w[ 0 ] ) : new EuclidianDistanceAnisotropic( w ), blockSize, es, nTasks );
+			break;
+		case L1:
+			if ( source.numDimensions() == 1 )
+				transformL1( source, target, target, es, nTasks, w );
+			else
+				transformColumnBlocks( source, target, ( block, dim ) -> transformL1AlongDimension( block, block, dim, w[ dim ] ), blockSize, es, nTasks );
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Create
+	 * <a href="http://www.theoryofcomputing.org/articles/v008a019/">distance
+	 * transforms of sampled functions</a> on {@code source} using arbitrary
+	 * {@link Distance} d, processing {@code target} block by block.
+	 * Intermediate and final results will be stored in {@code target}
+	 * ({@link DoubleType} recommended), no additional full-size storage is
+	 * required.
+	 * <p>
+	 * For each dimension {@code dim}, {@code target} is split into blocks of
+	 * size {@code blockSize} that span the full extent of {@code target} along
+	 * {@code dim}. Each block is copied into a block-sized buffer, transformed
+	 * along {@code dim} and written back. At most {@code nTasks} buffers are
+	 * resident at any time, which makes this suitable for {@code target}s that
+	 * do not fit into memory, e.g. cached {@link CellImg}s. For best
+	 * performance, {@code blockSize} should be a multiple of the cell size of
+	 * {@code target}. The result is identical to
+	 * {@link #transform(RandomAccessible, RandomAccessibleInterval, Distance, ExecutorService, int)}.
+	 * </p>
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param target
+	 *            Intermediate and final results of distance transform.
+	 * @param d
+	 *            {@link Distance} between two points.
+	 * @param blockSize
+	 *            Size of blocks in all dimensions. The block size along the
+	 *            dimension that is currently transformed is ignored.
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param nTasks
+	 *            Number of tasks/parallelism
+	 * @param <T>
+	 *            {@link RealType} input
+	 * @param <U>
+	 *            {@link RealType} intermediate and final results
+	 * @throws InterruptedException
+	 *             if interrupted while waiting, in which case unfinished tasks
+	 *             are cancelled (distance transform may be computed only
+	 *             partially)
+	 * @throws ExecutionException
+	 *             if the computation threw an exception (distance transform may
+	 *             be computed only partially)
+	 */
+	public static < T extends RealType< T >, U extends RealType< U > > void transformBlockwise(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final Distance d,
+			final int[] blockSize,
+			final ExecutorService es,
+			final int nTasks ) throws InterruptedException, ExecutionException
+	{
+		if ( source.numDimensions() == 1 )
+			transform( source, target, target, d, es, nTasks );
+		else
+			transformColumnBlocks( source, target, ( block, dim ) -> transformAlongDimension( block, block, d, dim ), blockSize, es, nTasks );
+	}
+
+	/**
+	 * Create binary distance transform on {@code source} using squared
+	 * Euclidian (L2) or L1 distance, processing {@code target} block by block.
+	 * Intermediate and final results will be stored in {@code target}
+	 * ({@link DoubleType} recommended). See
+	 * {@link #transformBlockwise(RandomAccessible, RandomAccessibleInterval, DISTANCE_TYPE, int[], ExecutorService, int, double...)}
+	 * for details.
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param target
+	 *            Intermediate and final results of distance transform.
+	 * @param distanceType
+	 *            Defines distance to be used: squared Euclidian or L1
+	 * @param blockSize
+	 *            Size of blocks in all dimensions. The block size along the
+	 *            dimension that is currently transformed is ignored.
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param nTasks
+	 *            Number of tasks/parallelism
+	 * @param weights
+	 *            Individual weights for each dimension, balancing image values
+	 *            and distance (when using squared Euclidian distance, weights
+	 *            should be squared, too).
+	 * @param <B>
+	 *            {@link BooleanType} binary mask input
+	 * @param <U>
+	 *            {@link RealType} intermediate and final results
+	 * @throws InterruptedException
+	 *             if interrupted while waiting, in which case unfinished tasks
+	 *             are cancelled (distance transform may be computed only
+	 *             partially)
+	 * @throws ExecutionException
+	 *             if the computation threw an exception (distance transform may
+	 *             be computed only partially)
+	 */
+	public static < B extends BooleanType< B >, U extends RealType< U > > void binaryTransformBlockwise(
+			final RandomAccessible< B > source,
+			final RandomAccessibleInterval< U > target,
+			final DISTANCE_TYPE distanceType,
+			final int[] blockSize,
+			final ExecutorService es,
+			final int nTasks,
+			final double... weights ) throws InterruptedException, ExecutionException
+	{
+		final U maxVal = Util.getTypeFromInterval( target ).createVariable();
+		maxVal.setReal( maxVal.getMaxValue() );
+		final Converter< B, U > converter = new BinaryMaskToCost<>( maxVal );
+		final RandomAccessible< U > converted = Converters.convert( source, converter, maxVal.createVariable() );
+		transformBlockwise( converted, target, distanceType, blockSize, es, nTasks, weights );
+	}
+
+	/**
+	 * Create signed binary distance transform on {@code source} using squared
+	 * Euclidian (L2) or L1 distance: samples that are {@code false} in
+	 * {@code source} hold the (positive) distance to the closest {@code true}
+	 * sample, samples that are {@code true} hold the negative distance to the
+	 * closest {@code false} sample. Distances to both sets are computed
+	 * simultaneously in a single pass per dimension. Intermediate results will
+	 * be stored in {@code tmp} and {@code target} ({@link DoubleType}
+	 * recommended). The output will be written into {@code target}. The
+	 * distance can be weighted (individually for each dimension, if desired)
+	 * against the image values via the weights parameter.
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param tmp
+	 *            Storage for intermediate results.
+	 * @param target
+	 *            Final result of distance transform.
+	 * @param distanceType
+	 *            Defines distance to be used: squared Euclidian or L1
+	 * @param weights
+	 *            Individual weights for each dimension, balancing image values
+	 *            and distance (when using squared Euclidian distance, weights
+	 *            should be squared, too).
+	 * @param <B>
+	 *            {@link BooleanType} binary mask input
+	 * @param <U>
+	 *            {@link RealType} intermediate results
+	 * @param <V>
+	 *            {@link RealType} output
+	 */
+	public static < B extends BooleanType< B >, U extends RealType< U >, V extends RealType< V > > void signedBinaryTransform(
+			final RandomAccessible< B > source,
+			final RandomAccessibleInterval< U > tmp,
+			final RandomAccessibleInterval< V > target,
+			final DISTANCE_TYPE distanceType,
+			final double... weights )
+	{
+		signedBinaryTransform( source, tmp, target, lineTransformFactory( distanceType, source.numDimensions(), weights ) );
+	}
+
+	/**
+	 * Create signed binary distance transform on {@code source} using squared
+	 * Euclidian (L2) or L1 distance: samples that are {@code false} in
+	 * {@code source} hold the (positive) distance to the closest {@code true}
+	 * sample, samples that are {@code true} hold the negative distance to the
+	 * closest {@code false} sample. Distances to both sets are computed
+	 * simultaneously in a single pass per dimension. Intermediate results will
+	 * be stored in {@code tmp} and {@code target} ({@link DoubleType}
+	 * recommended). The output will be written into {@code target}. The
+	 * distance can be weighted (individually for each dimension, if desired)
+	 * against the image values via the weights parameter.
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param tmp
+	 *            Storage for intermediate results.
+	 * @param target
+	 *            Final result of distance transform.
+	 * @param distanceType
+	 *            Defines distance to be used: squared Euclidian or L1
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param nTasks
+	 *            Number of tasks/parallelism
+	 * @param weights
+	 *            Individual weights for each dimension, balancing image values
+	 *            and distance (when using squared Euclidian distance, weights
+	 *            should be squared, too).
+	 * @param <B>
+	 *            {@link BooleanType} binary mask input
+	 * @param <U>
+	 *            {@link RealType} intermediate results
+	 * @param <V>
+	 *            {@link RealType} output
+	 * @throws InterruptedException
+	 *             if interrupted while waiting, in which case unfinished tasks
+	 *             are cancelled (distance transform may be computed only
+	 *             partially)
+	 * @throws ExecutionException
+	 *             if the computation threw an exception (distance transform may
+	 *             be computed only partially)
+	 */
+	public static < B extends BooleanType< B >, U extends RealType< U >, V extends RealType< V > > void signedBinaryTransform(
+			final RandomAccessible< B > source,
+			final RandomAccessibleInterval< U > tmp,
+			final RandomAccessibleInterval< V > target,
+			final DISTANCE_TYPE distanceType,
+			final ExecutorService es,
+			final int nTasks,
+			final double... weights ) throws InterruptedException, ExecutionException
+	{
+		signedBinaryTransform( source, tmp, target, lineTransformFactory( distanceType, source.numDimensions(), weights ), es, nTasks );
+	}
+
+	/**
+	 * Create signed binary distance transform on {@code source} using
+	 * arbitrary {@link Distance} d: samples that are {@code false} in
+	 * {@code source} hold the (positive) distance to the closest {@code true}
+	 * sample, samples that are {@code true} hold the negative distance to the
+	 * closest {@code false} sample. Distances to both sets are computed
+	 * simultaneously in a single pass per dimension. Intermediate results will
+	 * be stored in {@code tmp} and {@code target} ({@link DoubleType}
+	 * recommended). The output will be written into {@code target}.
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param tmp
+	 *            Storage for intermediate results.
+	 * @param target
+	 *            Final result of distance transform.
+	 * @param d
+	 *            {@link Distance} between two points.
+	 * @param <B>
+	 *            {@link BooleanType} binary mask input
+	 * @param <U>
+	 *            {@link RealType} intermediate results
+	 * @param <V>
+	 *            {@link RealType} output
+	 */
+	public static < B extends BooleanType< B >, U extends RealType< U >, V extends RealType< V > > void signedBinaryTransform(
+			final RandomAccessible< B > source,
+			final RandomAccessibleInterval< U > tmp,
+			final RandomAccessibleInterval< V > target,
+			final Distance d )
+	{
+		signedBinaryTransform( source, tmp, target, lineTransformFactory( d ) );
+	}
+
+	/**
+	 * Create signed binary distance transform on {@code source} using
+	 * arbitrary {@link Distance} d: samples that are {@code false} in
+	 * {@code source} hold the (positive) distance to the closest {@code true}
+	 * sample, samples that are {@code true} hold the negative distance to the
+	 * closest {@code false} sample. Distances to both sets are computed
+	 * simultaneously in a single pass per dimension. Intermediate results will
+	 * be stored in {@code tmp} and {@code target} ({@link DoubleType}
+	 * recommended). The output will be written into {@code target}.
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param tmp
+	 *            Storage for intermediate results.
+	 * @param target
+	 *            Final result of distance transform.
+	 * @param d
+	 *            {@link Distance} between two points.
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param nTasks
+	 *            Number of tasks/parallelism
+	 * @param <B>
+	 *            {@link BooleanType} binary mask input
+	 * @param <U>
+	 *            {@link RealType} intermediate results
+	 * @param <V>
+	 *            {@link RealType} output
+	 * @throws InterruptedException
+	 *             if interrupted while waiting, in which case unfinished tasks
+	 *             are cancelled (distance transform may be computed only
+	 *             partially)
+	 * @throws ExecutionException
+	 *             if the computation threw an exception (distance transform may
+	 *             be computed only partially)
+	 */
+	public static < B extends BooleanType< B >, U extends RealType< U >, V extends RealType< V > > void signedBinaryTransform(
+			final RandomAccessible< B > source,
+			final RandomAccessibleInterval< U > tmp,
+			final RandomAccessibleInterval< V > target,
+			final Distance d,
+			final ExecutorService es,
+			final int nTasks ) throws InterruptedException, ExecutionException
+	{
+		signedBinaryTransform( source, tmp, target, lineTransformFactory( d ), es, nTasks );
+	}
+
+	/**
+	 * Create
+	 * <a href="http://www.theoryofcomputing.org/articles/v008a019/">distance
+	 * transforms of sampled functions</a> on {@code source} using squared
+	 * Euclidian (L2) or L1 distance and keep track of the minimizing sample
+	 * for each sample (feature transform). Intermediate and final results will
+	 * be stored in {@code target} ({@link DoubleType} recommended) and
+	 * {@code features}. The distance can be weighted (individually for each
+	 * dimension, if desired) against the image values via the weights
+	 * parameter.
+	 * <p>
+	 * On input, {@code features} holds a label for each sample of
+	 * {@code source}, e.g. a segment id or a flat index. On output,
+	 * {@code features} holds the label of the sample {@code q} that minimizes
+	 * {@code f(q) + d(p,q)} for each sample {@code p}.
+	 * </p>
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param target
+	 *            Intermediate and final results of distance transform.
+	 * @param features
+	 *            Labels of the samples of {@code source} on input, labels of
+	 *            the minimizing samples on output. Must have the same interval
+	 *            as {@code target}.
+	 * @param distanceType
+	 *            Defines distance to be used: squared Euclidian or L1
+	 * @param weights
+	 *            Individual weights for each dimension, balancing image values
+	 *            and distance (when using squared Euclidian distance, weights
+	 *            should be squared, too).
+	 * @param <T>
+	 *            {@link RealType} input
+	 * @param <U>
+	 *            {@link RealType} intermediate and final results
+	 * @param <L>
+	 *            {@link IntegerType} labels
+	 */
+	public static < T extends RealType< T >, U extends RealType< U >, L extends IntegerType< L > > void featureTransform(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final RandomAccessibleInterval< L > features,
+			final DISTANCE_TYPE distanceType,
+			final double... weights )
+	{
+		featureTransform( source, target, features, featureLineTransformFactory( distanceType, source.numDimensions(), weights ) );
+	}
+
+	/**
+	 * Create
+	 * <a href="http://www.theoryofcomputing.org/articles/v008a019/">distance
+	 * transforms of sampled functions</a> on {@code source} using squared
+	 * Euclidian (L2) or L1 distance and keep track of the minimizing sample
+	 * for each sample (feature transform). Intermediate and final results will
+	 * be stored in {@code target} ({@link DoubleType} recommended) and
+	 * {@code features}. The distance can be weighted (individually for each
+	 * dimension, if desired) against the image values via the weights
+	 * parameter.
+	 * <p>
+	 * On input, {@code features} holds a label for each sample of
+	 * {@code source}, e.g. a segment id or a flat index. On output,
+	 * {@code features} holds the label of the sample {@code q} that minimizes
+	 * {@code f(q) + d(p,q)} for each sample {@code p}.
+	 * </p>
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param target
+	 *            Intermediate and final results of distance transform.
+	 * @param features
+	 *            Labels of the samples of {@code source} on input, labels of
+	 *            the minimizing samples on output. Must have the same interval
+	 *            as {@code target}.
+	 * @param distanceType
+	 *            Defines distance to be used: squared Euclidian or L1
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param nTasks
+	 *            Number of tasks/parallelism
+	 * @param weights
+	 *            Individual weights for each dimension, balancing image values
+	 *            and distance (when using squared Euclidian distance, weights
+	 *            should be squared, too).
+	 * @param <T>
+	 *            {@link RealType} input
+	 * @param <U>
+	 *            {@link RealType} intermediate and final results
+	 * @param <L>
+	 *            {@link IntegerType} labels
+	 * @throws InterruptedException
+	 *             if interrupted while waiting, in which case unfinished tasks
+	 *             are cancelled (distance transform may be computed only
+	 *             partially)
+	 * @throws ExecutionException
+	 *             if the computation threw an exception (distance transform may
+	 *             be computed only partially)
+	 */
+	public static < T extends RealType< T >, U extends RealType< U >, L extends IntegerType< L > > void featureTransform(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final RandomAccessibleInterval< L > features,
+			final DISTANCE_TYPE distanceType,
+			final ExecutorService es,
+			final int nTasks,
+			final double... weights ) throws InterruptedException, ExecutionException
+	{
+		featureTransform( source, target, features, featureLineTransformFactory( distanceType, source.numDimensions(), weights ), es, nTasks );
+	}
+
+	/**
+	 * Create
+	 * <a href="http://www.theoryofcomputing.org/articles/v008a019/">distance
+	 * transforms of sampled functions</a> on {@code source} using arbitrary
+	 * {@link Distance} d and keep track of the minimizing sample for each
+	 * sample (feature transform). Intermediate and final results will be
+	 * stored in {@code target} ({@link DoubleType} recommended) and
+	 * {@code features}.
+	 * <p>
+	 * On input, {@code features} holds a label for each sample of
+	 * {@code source}, e.g. a segment id or a flat index. On output,
+	 * {@code features} holds the label of the sample {@code q} that minimizes
+	 * {@code f(q) + d(p,q)} for each sample {@code p}.
+	 * </p>
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param target
+	 *            Intermediate and final results of distance transform.
+	 * @param features
+	 *            Labels of the samples of {@code source} on input, labels of
+	 *            the minimizing samples on output. Must have the same interval
+	 *            as {@code target}.
+	 * @param d
+	 *            {@link Distance} between two points.
+	 * @param <T>
+	 *            {@link RealType} input
+	 * @param <U>
+	 *            {@link RealType} intermediate and final results
+	 * @param <L>
+	 *            {@link IntegerType} labels
+	 */
+	public static < T extends RealType< T >, U extends RealType< U >, L extends IntegerType< L > > void featureTransform(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final RandomAccessibleInterval< L > features,
+			final Distance d )
+	{
+		featureTransform( source, target, features, featureLineTransformFactory( d ) );
+	}
+
+	/**
+	 * Create
+	 * <a href="http://www.theoryofcomputing.org/articles/v008a019/">distance
+	 * transforms of sampled functions</a> on {@code source} using arbitrary
+	 * {@link Distance} d and keep track of the minimizing sample for each
+	 * sample (feature transform). Intermediate and final results will be
+	 * stored in {@code target} ({@link DoubleType} recommended) and
+	 * {@code features}.
+	 * <p>
+	 * On input, {@code features} holds a label for each sample of
+	 * {@code source}, e.g. a segment id or a flat index. On output,
+	 * {@code features} holds the label of the sample {@code q} that minimizes
+	 * {@code f(q) + d(p,q)} for each sample {@code p}.
+	 * </p>
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param target
+	 *            Intermediate and final results of distance transform.
+	 * @param features
+	 *            Labels of the samples of {@code source} on input, labels of
+	 *            the minimizing samples on output. Must have the same interval
+	 *            as {@code target}.
+	 * @param d
+	 *            {@link Distance} between two points.
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param nTasks
+	 *            Number of tasks/parallelism
+	 * @param <T>
+	 *            {@link RealType} input
+	 * @param <U>
+	 *            {@link RealType} intermediate and final results
+	 * @param <L>
+	 *            {@link IntegerType} labels
+	 * @throws InterruptedException
+	 *             if interrupted while waiting, in which case unfinished tasks
+	 *             are cancelled (distance transform may be computed only
+	 *             partially)
+	 * @throws ExecutionException
+	 *             if the computation threw an exception (distance transform may
+	 *             be computed only partially)
+	 */
+	public static < T extends RealType< T >, U extends RealType< U >, L extends IntegerType< L > > void featureTransform(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final RandomAccessibleInterval< L > features,
+			final Distance d,
+			final ExecutorService es,
+			final int nTasks ) throws InterruptedException, ExecutionException
+	{
+		featureTransform( source, target, features, featureLineTransformFactory( d ), es, nTasks );
+	}
+
+	/**
+	 * Create binary distance transform on {@code source} using squared
+	 * Euclidian (L2) or L1 distance and store the flat index of the closest
+	 * {@code true} sample for each sample in {@code features} (feature
+	 * transform). Flat indices are relative to the min of {@code target} and
+	 * can be converted into positions with
+	 * {@link IntervalIndexer#indexToPositionWithOffset(long, long[], long[], long[])}.
+	 * Intermediate and final results will be stored in {@code target}
+	 * ({@link DoubleType} recommended). The distance can be weighted
+	 * (individually for each dimension, if desired) against the image values
+	 * via the weights parameter.
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param target
+	 *            Intermediate and final results of distance transform.
+	 * @param features
+	 *            Flat index of closest {@code true} sample. Must have the same
+	 *            interval as {@code target}.
+	 * @param distanceType
+	 *            Defines distance to be used: squared Euclidian or L1
+	 * @param weights
+	 *            Individual weights for each dimension, balancing image values
+	 *            and distance (when using squared Euclidian distance, weights
+	 *            should be squared, too).
+	 * @param <B>
+	 *            {@link BooleanType} binary mask input
+	 * @param <U>
+	 *            {@link RealType} intermediate and final results
+	 * @param <L>
+	 *            {@link IntegerType} flat indices
+	 */
+	public static < B extends BooleanType< B >, U extends RealType< U >, L extends IntegerType< L > > void binaryFeatureTransform(
+			final RandomAccessible< B > source,
+			final RandomAccessibleInterval< U > target,
+			final RandomAccessibleInterval< L > features,
+			final DISTANCE_TYPE distanceType,
+			final double... weights )
+	{
+		final U maxVal = Util.getTypeFromInterval( target ).createVariable();
+		maxVal.setReal( maxVal.getMaxValue() );
+		final Converter< B, U > converter = new BinaryMaskToCost<>( maxVal );
+		final RandomAccessible< U > converted = Converters.convert( source, converter, maxVal.createVariable() );
+		setFlatIndices( features );
+		featureTransform( converted, target, features, distanceType, weights );
+	}
+
+	/**
+	 * Create binary distance transform on {@code source} using squared
+	 * Euclidian (L2) or L1 distance and store the flat index of the closest
+	 * {@code true} sample for each sample in {@code features} (feature
+	 * transform). Flat indices are relative to the min of {@code target} and
+	 * can be converted into positions with
+	 * {@link IntervalIndexer#indexToPositionWithOffset(long, long[], long[], long[])}.
+	 * Intermediate and final results will be stored in {@code target}
+	 * ({@link DoubleType} recommended). The distance can be weighted
+	 * (individually for each dimension, if desired) against the image values
+	 * via the weights parameter.
+	 *
+	 * @param source
+	 *            Input function on which distance transform should be computed.
+	 * @param target
+	 *            Intermediate and final results of distance transform.
+	 * @param features
+	 *            Flat index of closest {@code true} sample. Must have the same
+	 *            interval as {@code target}.
+	 * @param distanceType
+	 *            Defines distance to be used: squared Euclidian or L1
+	 * @param es
+	 *            {@link ExecutorService} for parallel execution.
+	 * @param nTasks
+	 *            Number of tasks/parallelism
+	 * @param weights
+	 *            Individual weights for each dimension, balancing image values
+	 *            and distance (when using squared Euclidian distance, weights
+	 *            should be squared, too).
+	 * @param <B>
+	 *            {@link BooleanType} binary mask input
+	 * @param <U>
+	 *            {@link RealType} intermediate and final results
+	 * @param <L>
+	 *            {@link IntegerType} flat indices
+	 * @throws InterruptedException
+	 *             if interrupted while waiting, in which case unfinished tasks
+	 *             are cancelled (distance transform may be computed only
+	 *             partially)
+	 * @throws ExecutionException
+	 *             if the computation threw an exception (distance transform may
+	 *             be computed only partially)
+	 */
+	public static < B extends BooleanType< B >, U extends RealType< U >, L extends IntegerType< L > > void binaryFeatureTransform(
+			final RandomAccessible< B > source,
+			final RandomAccessibleInterval< U > target,
+			final RandomAccessibleInterval< L > features,
+			final DISTANCE_TYPE distanceType,
+			final ExecutorService es,
+			final int nTasks,
+			final double... weights ) throws InterruptedException, ExecutionException
+	{
+		final U maxVal = Util.getTypeFromInterval( target ).createVariable();
+		maxVal.setReal( maxVal.getMaxValue() );
+		final Converter< B, U > converter = new BinaryMaskToCost<>( maxVal );
+		final RandomAccessible< U > converted = Converters.convert( source, converter, maxVal.createVariable() );
+		setFlatIndices( features );
+		featureTransform( converted, target, features, distanceType, es, nTasks, weights );
+	}
+
 	/**
 	 * Create binary distance transform on {@code source} using L1 distance.
 	 * Intermediate results will be stored in {@code tmp} ({@link DoubleType}
@@ -1084,15 +1767,277 @@ public class DistanceTransform
 			transformL1AlongDimensionParallel( source, tmp, 0, weights[ 0 ], es, nTasks );
 		}
 
-		for ( int dim = 1; dim < nDim; ++dim )
+		for ( int dim = 1; dim < nDim; ++dim )
+		{
+			if ( dim == lastDim )
+			{
+				transformL1AlongDimensionParallel( tmp, target, dim, weights[ dim ], es, nTasks );
+			}
+			else
+			{
+				transformL1AlongDimensionParallel( tmp, tmp, dim, weights[ dim ], es, nTasks );
+			}
+		}
+	}
+
+	private static < B extends BooleanType< B >, U extends RealType< U >, V extends RealType< V > > void signedBinaryTransform(
+			final RandomAccessible< B > source,
+			final RandomAccessibleInterval< U > tmp,
+			final RandomAccessibleInterval< V > target,
+			final LongFunction< LineTransform > lineTransformFactory )
+	{
+		assert source.numDimensions() == target.numDimensions(): "Dimension mismatch";
+		final V maxVal = Util.getTypeFromInterval( target ).createVariable();
+		maxVal.setReal( maxVal.getMaxValue() );
+		final RandomAccessible< V > outside = Converters.convert( source, new BinaryMaskToCost< B, V >( maxVal ), maxVal.createVariable() );
+		final RandomAccessible< V > inside = Converters.convert( source, new BinaryMaskToCost< B, V >( maxVal, true ), maxVal.createVariable() );
+		final int nDim = source.numDimensions();
+		final int lastDim = nDim - 1;
+
+		if ( nDim == 1 )
+		{
+			transformAlongDimensionSigned(
+					Views.addDimension( outside ),
+					Views.addDimension( inside ),
+					Views.interval( Views.addDimension( target ), new FinalInterval( target.dimension( 0 ), 1 ) ),
+					Views.interval( Views.addDimension( tmp ), new FinalInterval( tmp.dimension( 0 ), 1 ) ),
+					lineTransformFactory,
+					0,
+					true );
+			return;
+		}
+
+		transformAlongDimensionSigned( outside, inside, target, tmp, lineTransformFactory, 0, false );
+		for ( int dim = 1; dim < nDim; ++dim )
+		{
+			transformAlongDimensionSigned( target, tmp, target, tmp, lineTransformFactory, dim, dim == lastDim );
+		}
+	}
+
+	private static < B extends BooleanType< B >, U extends RealType< U >, V extends RealType< V > > void signedBinaryTransform(
+			final RandomAccessible< B > source,
+			final RandomAccessibleInterval< U > tmp,
+			final RandomAccessibleInterval< V > target,
+			final LongFunction< LineTransform > lineTransformFactory,
+			final ExecutorService es,
+			final int nTasks ) throws InterruptedException, ExecutionException
+	{
+		assert source.numDimensions() == target.numDimensions(): "Dimension mismatch";
+		final V maxVal = Util.getTypeFromInterval( target ).createVariable();
+		maxVal.setReal( maxVal.getMaxValue() );
+		final RandomAccessible< V > outside = Converters.convert( source, new BinaryMaskToCost< B, V >( maxVal ), maxVal.createVariable() );
+		final RandomAccessible< V > inside = Converters.convert( source, new BinaryMaskToCost< B, V >( maxVal, true ), maxVal.createVariable() );
+		final int nDim = source.numDimensions();
+		final int lastDim = nDim - 1;
+
+		if ( nDim == 1 )
+		{
+			final RandomAccessibleInterval< V > target2D = Views.interval( Views.addDimension( target ), new FinalInterval( target.dimension( 0 ), 1 ) );
+			final RandomAccessibleInterval< U > tmp2D = Views.interval( Views.addDimension( tmp ), new FinalInterval( tmp.dimension( 0 ), 1 ) );
+			final ArrayList< Callable< Void > > tasks = new ArrayList<>();
+			for ( final Interval chunk : createChunks( target2D, 0, nTasks ) )
+			{
+				tasks.add( () -> {
+					transformAlongDimensionSigned( Views.addDimension( outside ), Views.addDimension( inside ), Views.interval( target2D, chunk ), Views.interval( tmp2D, chunk ), lineTransformFactory, 0, true );
+					return null;
+				} );
+			}
+			invokeAllAndWait( es, tasks );
+			return;
+		}
+
+		for ( int dim = 0; dim < nDim; ++dim )
+		{
+			final int finalDim = dim;
+			final boolean combine = dim == lastDim;
+			final ArrayList< Callable< Void > > tasks = new ArrayList<>();
+			for ( final Interval chunk : createChunks( target, dim, nTasks ) )
+			{
+				tasks.add( () -> {
+					if ( finalDim == 0 )
+						transformAlongDimensionSigned( outside, inside, Views.interval( target, chunk ), Views.interval( tmp, chunk ), lineTransformFactory, finalDim, combine );
+					else
+						transformAlongDimensionSigned( target, tmp, Views.interval( target, chunk ), Views.interval( tmp, chunk ), lineTransformFactory, finalDim, combine );
+					return null;
+				} );
+			}
+			invokeAllAndWait( es, tasks );
+		}
+	}
+
+	/**
+	 * Transform {@code outside} and {@code inside} along {@code dim} in a
+	 * single sweep over the lines of {@code targetOutside} and
+	 * {@code targetInside}. If {@code combine} is {@code true},
+	 * {@code targetOutside} receives the signed distance
+	 * {@code outside - inside} and {@code targetInside} is not modified.
+	 */
+	private static < S extends RealType< S >, T extends RealType< T >, U extends RealType< U >, V extends RealType< V > > void transformAlongDimensionSigned(
+			final RandomAccessible< S > outside,
+			final RandomAccessible< T > inside,
+			final RandomAccessibleInterval< U > targetOutside,
+			final RandomAccessibleInterval< V > targetInside,
+			final LongFunction< LineTransform > lineTransformFactory,
+			final int dim,
+			final boolean combine )
+	{
+		final int lastDim = targetOutside.numDimensions() - 1;
+		final long size = targetOutside.dimension( dim );
+		final LineTransform lineTransform = lineTransformFactory.apply( size );
+		final RealComposite< DoubleType > outsideLine = Views.collapseReal( createAppropriateOneDimensionalImage( size, new DoubleType() ) ).randomAccess().get();
+		final RealComposite< DoubleType > insideLine = Views.collapseReal( createAppropriateOneDimensionalImage( size, new DoubleType() ) ).randomAccess().get();
+		final RealComposite< DoubleType > outsideResult = Views.collapseReal( createAppropriateOneDimensionalImage( size, new DoubleType() ) ).randomAccess().get();
+		final RealComposite< DoubleType > insideResult = Views.collapseReal( createAppropriateOneDimensionalImage( size, new DoubleType() ) ).randomAccess().get();
+		// do not permute if we already work on last dimension
+		final Cursor< RealComposite< S > > o = Views.flatIterable( Views.collapseReal( dim == lastDim ? Views.interval( outside, targetOutside ) : Views.permute( Views.interval( outside, targetOutside ), dim, lastDim ) ) ).cursor();
+		final Cursor< RealComposite< T > > i = Views.flatIterable( Views.collapseReal( dim == lastDim ? Views.interval( inside, targetOutside ) : Views.permute( Views.interval( inside, targetOutside ), dim, lastDim ) ) ).cursor();
+		final Cursor< RealComposite< U > > to = Views.flatIterable( Views.collapseReal( dim == lastDim ? targetOutside : Views.permute( targetOutside, dim, lastDim ) ) ).cursor();
+		final Cursor< RealComposite< V > > ti = Views.flatIterable( Views.collapseReal( dim == lastDim ? targetInside : Views.permute( targetInside, dim, lastDim ) ) ).cursor();
+
+		while ( o.hasNext() )
+		{
+			final RealComposite< S > outsideComp = o.next();
+			final RealComposite< T > insideComp = i.next();
+			final RealComposite< U > targetOutsideComp = to.next();
+			final RealComposite< V > targetInsideComp = ti.next();
+			for ( long k = 0; k < size; ++k )
+			{
+				outsideLine.get( k ).set( outsideComp.get( k ).getRealDouble() );
+				insideLine.get( k ).set( insideComp.get( k ).getRealDouble() );
+			}
+			lineTransform.transform( outsideLine, outsideResult, dim, size );
+			lineTransform.transform( insideLine, insideResult, dim, size );
+			if ( combine )
+			{
+				for ( long k = 0; k < size; ++k )
+				{
+					targetOutsideComp.get( k ).setReal( outsideResult.get( k ).get() - insideResult.get( k ).get() );
+				}
+			}
+			else
+			{
+				for ( long k = 0; k < size; ++k )
+				{
+					targetOutsideComp.get( k ).setReal( outsideResult.get( k ).get() );
+					targetInsideComp.get( k ).setReal( insideResult.get( k ).get() );
+				}
+			}
+		}
+	}
+
+	private static < T extends RealType< T >, U extends RealType< U >, L extends IntegerType< L > > void featureTransform(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final RandomAccessibleInterval< L > features,
+			final LongFunction< FeatureLineTransform > lineTransformFactory )
+	{
+		assert source.numDimensions() == target.numDimensions(): "Dimension mismatch";
+		assert Arrays.equals( Intervals.minAsLongArray( target ), Intervals.minAsLongArray( features ) ) && Arrays.equals( Intervals.maxAsLongArray( target ), Intervals.maxAsLongArray( features ) ): "Interval mismatch";
+		final int nDim = source.numDimensions();
+
+		if ( nDim == 1 )
+		{
+			transformAlongDimensionWithFeatures(
+					Views.addDimension( source ),
+					Views.interval( Views.addDimension( target ), new FinalInterval( target.dimension( 0 ), 1 ) ),
+					Views.interval( Views.addDimension( features ), new FinalInterval( features.dimension( 0 ), 1 ) ),
+					lineTransformFactory,
+					0 );
+			return;
+		}
+
+		transformAlongDimensionWithFeatures( source, target, features, lineTransformFactory, 0 );
+		for ( int dim = 1; dim < nDim; ++dim )
+		{
+			transformAlongDimensionWithFeatures( target, target, features, lineTransformFactory, dim );
+		}
+	}
+
+	private static < T extends RealType< T >, U extends RealType< U >, L extends IntegerType< L > > void featureTransform(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final RandomAccessibleInterval< L > features,
+			final LongFunction< FeatureLineTransform > lineTransformFactory,
+			final ExecutorService es,
+			final int nTasks ) throws InterruptedException, ExecutionException
+	{
+		assert source.numDimensions() == target.numDimensions(): "Dimension mismatch";
+		assert Arrays.equals( Intervals.minAsLongArray( target ), Intervals.minAsLongArray( features ) ) && Arrays.equals( Intervals.maxAsLongArray( target ), Intervals.maxAsLongArray( features ) ): "Interval mismatch";
+		final int nDim = source.numDimensions();
+
+		if ( nDim == 1 )
+		{
+			final RandomAccessibleInterval< U > target2D = Views.interval( Views.addDimension( target ), new FinalInterval( target.dimension( 0 ), 1 ) );
+			final RandomAccessibleInterval< L > features2D = Views.interval( Views.addDimension( features ), new FinalInterval( features.dimension( 0 ), 1 ) );
+			final ArrayList< Callable< Void > > tasks = new ArrayList<>();
+			for ( final Interval chunk : createChunks( target2D, 0, nTasks ) )
+			{
+				tasks.add( () -> {
+					transformAlongDimensionWithFeatures( Views.addDimension( source ), Views.interval( target2D, chunk ), Views.interval( features2D, chunk ), lineTransformFactory, 0 );
+					return null;
+				} );
+			}
+			invokeAllAndWait( es, tasks );
+			return;
+		}
+
+		for ( int dim = 0; dim < nDim; ++dim )
+		{
+			final int finalDim = dim;
+			final ArrayList< Callable< Void > > tasks = new ArrayList<>();
+			for ( final Interval chunk : createChunks( target, dim, nTasks ) )
+			{
+				tasks.add( () -> {
+					if ( finalDim == 0 )
+						transformAlongDimensionWithFeatures( source, Views.interval( target, chunk ), Views.interval( features, chunk ), lineTransformFactory, finalDim );
+					else
+						transformAlongDimensionWithFeatures( target, Views.interval( target, chunk ), Views.interval( features, chunk ), lineTransformFactory, finalDim );
+					return null;
+				} );
+			}
+			invokeAllAndWait( es, tasks );
+		}
+	}
+
+	/**
+	 * Transform {@code source} along {@code dim} and update {@code features}
+	 * with the labels of the minimizing samples. {@code features} is read and
+	 * written in place and must have the same interval as {@code target}.
+	 */
+	private static < T extends RealType< T >, U extends RealType< U >, L extends IntegerType< L > > void transformAlongDimensionWithFeatures(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final RandomAccessibleInterval< L > features,
+			final LongFunction< FeatureLineTransform > lineTransformFactory,
+			final int dim )
+	{
+		final int lastDim = target.numDimensions() - 1;
+		final long size = target.dimension( dim );
+		final FeatureLineTransform lineTransform = lineTransformFactory.apply( size );
+		final RealComposite< DoubleType > sourceLine = Views.collapseReal( createAppropriateOneDimensionalImage( size, new DoubleType() ) ).randomAccess().get();
+		final RealComposite< DoubleType > targetLine = Views.collapseReal( createAppropriateOneDimensionalImage( size, new DoubleType() ) ).randomAccess().get();
+		final RealComposite< LongType > sourceFeaturesLine = Views.collapseReal( createAppropriateOneDimensionalImage( size, new LongType() ) ).randomAccess().get();
+		final RealComposite< LongType > targetFeaturesLine = Views.collapseReal( createAppropriateOneDimensionalImage( size, new LongType() ) ).randomAccess().get();
+		// do not permute if we already work on last dimension
+		final Cursor< RealComposite< T > > s = Views.flatIterable( Views.collapseReal( dim == lastDim ? Views.interval( source, target ) : Views.permute( Views.interval( source, target ), dim, lastDim ) ) ).cursor();
+		final Cursor< RealComposite< U > > t = Views.flatIterable( Views.collapseReal( dim == lastDim ? target : Views.permute( target, dim, lastDim ) ) ).cursor();
+		final Cursor< RealComposite< L > > f = Views.flatIterable( Views.collapseReal( dim == lastDim ? features : Views.permute( features, dim, lastDim ) ) ).cursor();
+
+		while ( s.hasNext() )
 		{
-			if ( dim == lastDim )
+			final RealComposite< T > sourceComp = s.next();
+			final RealComposite< U > targetComp = t.next();
+			final RealComposite< L > featuresComp = f.next();
+			for ( long i = 0; i < size; ++i )
 			{
-				transformL1AlongDimensionParallel( tmp, target, dim, weights[ dim ], es, nTasks );
+				sourceLine.get( i ).set( sourceComp.get( i ).getRealDouble() );
+				sourceFeaturesLine.get( i ).set( featuresComp.get( i ).getIntegerLong() );
 			}
-			else
+			lineTransform.transform( sourceLine, sourceFeaturesLine, targetLine, targetFeaturesLine, dim, size );
+			for ( long i = 0; i < size; ++i )
 			{
-				transformL1AlongDimensionParallel( tmp, tmp, dim, weights[ dim ], es, nTasks );
+				targetComp.get( i ).setReal( targetLine.get( i ).get() );
+				featuresComp.get( i ).setInteger( targetFeaturesLine.get( i ).get() );
 			}
 		}
 	}
@@ -1102,6 +2047,63 @@ public class DistanceTransform
 			final RandomAccessibleInterval< U > target,
 			final Distance d,
 			final int dim )
+	{
+		transformAlongDimension( source, target, target, d, dim );
+	}
+
+	/**
+	 * Transform {@code interval} of {@code target} along {@code dim}. If both
+	 * {@code source} and {@code target} are {@link ArrayImg}s or
+	 * {@link PlanarImg}s of {@link DoubleType} or {@link FloatType}, lines are
+	 * copied into primitive arrays in bulk, otherwise
+	 * {@link RealComposite}s are used for accessing lines.
+	 */
+	private static < T extends RealType< T >, U extends RealType< U > > void transformAlongDimension(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final Interval interval,
+			final Distance d,
+			final int dim )
+	{
+		final PrimitiveLines sourceLines = PrimitiveLines.of( source );
+		final PrimitiveLines targetLines = PrimitiveLines.of( target );
+		if ( sourceLines != null && targetLines != null && sourceLines.contains( interval ) && targetLines.contains( interval ) )
+			transformAlongDimensionPrimitive( sourceLines, targetLines, interval, d, dim );
+		else
+			transformAlongDimensionComposite( source, Views.interval( target, interval ), d, dim );
+	}
+
+	private static void transformAlongDimensionPrimitive(
+			final PrimitiveLines source,
+			final PrimitiveLines target,
+			final Interval interval,
+			final Distance d,
+			final int dim )
+	{
+		final int size = ( int ) interval.dimension( dim );
+		final double[] sourceLine = new double[ size ];
+		final double[] targetLine = new double[ size ];
+		final int[] lowerBoundDistanceIndex = new int[ size ];
+		final double[] envelopeIntersectLocation = new double[ size + 1 ];
+
+		final long[] min = Intervals.minAsLongArray( interval );
+		final long[] max = Intervals.maxAsLongArray( interval );
+		max[ dim ] = min[ dim ];
+		final int[] lineStep = new int[ min.length ];
+		Arrays.fill( lineStep, 1 );
+
+		Grids.forEachOffset( min, max, lineStep, lineStart -> {
+			source.read( lineStart, dim, sourceLine, size );
+			transformSingleColumn( sourceLine, targetLine, lowerBoundDistanceIndex, envelopeIntersectLocation, d, dim, size );
+			target.write( lineStart, dim, targetLine, size );
+		} );
+	}
+
+	private static < T extends RealType< T >, U extends RealType< U > > void transformAlongDimensionComposite(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final Distance d,
+			final int dim )
 	{
 		final int lastDim = target.numDimensions() - 1;
 		final long size = target.dimension( dim );
@@ -1132,34 +2134,95 @@ public class DistanceTransform
 			final ExecutorService es,
 			final int nTasks ) throws InterruptedException, ExecutionException
 	{
-		int largestDim = getLargestDimension( Views.hyperSlice( target, dim, target.min( dim ) ) );
-		// ignore dimension along which we calculate transform
-		if ( largestDim >= dim )
+		final ArrayList< Callable< Void > > tasks = new ArrayList<>();
+		for ( final Interval fi : createChunks( target, dim, nTasks ) )
 		{
-			largestDim += 1;
+			tasks.add( () -> {
+				transformAlongDimension( source, target, fi, d, dim );
+				return null;
+			} );
 		}
-		final long size = target.dimension( dim );
-		final long stepPerChunk = Math.max( size / nTasks, 1 );
 
+		invokeAllAndWait( es, tasks );
+	}
+
+	/**
+	 * Transform {@code target} along all dimensions, one block at a time. For
+	 * each dimension {@code dim}, the blocks span the full extent of
+	 * {@code target} along {@code dim}. Blocks are distributed over
+	 * {@code nTasks} tasks that process their blocks sequentially, i.e. at
+	 * most {@code nTasks} block buffers are resident at any time.
+	 */
+	private static < T extends RealType< T >, U extends RealType< U > > void transformColumnBlocks(
+			final RandomAccessible< T > source,
+			final RandomAccessibleInterval< U > target,
+			final ColumnBlockTransform transform,
+			final int[] blockSize,
+			final ExecutorService es,
+			final int nTasks ) throws InterruptedException, ExecutionException
+	{
+		assert source.numDimensions() == target.numDimensions(): "Dimension mismatch";
+		assert blockSize.length == target.numDimensions(): "Dimension mismatch";
+		final int nDim = target.numDimensions();
 		final long[] min = Intervals.minAsLongArray( target );
 		final long[] max = Intervals.maxAsLongArray( target );
 
-		final long largestDimMin = target.min( largestDim );
-		final long largestDimMax = target.max( largestDim );
-
-		final ArrayList< Callable< Void > > tasks = new ArrayList<>();
-		for ( long m = largestDimMin, M = largestDimMin + stepPerChunk - 1; m <= largestDimMax; m += stepPerChunk, M += stepPerChunk )
+		for ( int dim = 0; dim < nDim; ++dim )
 		{
-			min[ largestDim ] = m;
-			max[ largestDim ] = Math.min( M, largestDimMax );
-			final Interval fi = new FinalInterval( min, max );
-			tasks.add( () -> {
-				transformAlongDimension( source, Views.interval( target, fi ), d, dim );
-				return null;
-			} );
+			if ( target.dimension( dim ) > Integer.MAX_VALUE )
+				throw new IllegalArgumentException( "Dimension " + dim + " of target is too large for block-wise processing: " + target.dimension( dim ) );
+
+			final int[] columnBlockSize = blockSize.clone();
+			columnBlockSize[ dim ] = ( int ) target.dimension( dim );
+			final List< Interval > blocks = Grids.collectAllContainedIntervals( min, max, columnBlockSize );
+
+			final int finalDim = dim;
+			// first pass reads from source, all other passes in place
+			final RandomAccessible< ? extends RealType< ? > > input;
+			if ( dim == 0 )
+				input = source;
+			else
+				input = target;
+			final int numBlockTasks = Math.max( Math.min( nTasks, blocks.size() ), 1 );
+			final ArrayList< Callable< Void > > tasks = new ArrayList<>();
+			for ( int taskIndex = 0; taskIndex < numBlockTasks; ++taskIndex )
+			{
+				final int firstBlock = taskIndex;
+				tasks.add( () -> {
+					for ( int blockIndex = firstBlock; blockIndex < blocks.size(); blockIndex += numBlockTasks )
+						transformColumnBlock( input, target, blocks.get( blockIndex ), transform, finalDim );
+					return null;
+				} );
+			}
+
+			invokeAllAndWait( es, tasks );
 		}
+	}
 
-		invokeAllAndWait( es, tasks );
+	private static < U extends RealType< U > > void transformColumnBlock(
+			final RandomAccessible< ? extends RealType< ? > > source,
+			final RandomAccessibleInterval< U > target,
+			final Interval block,
+			final ColumnBlockTransform transform,
+			final int dim )
+	{
+		final ArrayImg< DoubleType, ? > buffer = new ArrayImgFactory<>( new DoubleType() ).create( block );
+		final RandomAccessibleInterval< DoubleType > translatedBuffer = Views.translate( buffer, Intervals.minAsLongArray( block ) );
+		copyReal( Views.interval( source, block ), translatedBuffer );
+		// distances only depend on positions relative to the line start, so
+		// the untranslated buffer can be transformed directly
+		transform.transform( buffer, dim );
+		copyReal( translatedBuffer, Views.interval( target, block ) );
+	}
+
+	private static void copyReal(
+			final RandomAccessibleInterval< ? extends RealType< ? > > source,
+			final RandomAccessibleInterval< ? extends RealType< ? > > target )
+	{
+		final Cursor< ? extends RealType< ? > > s = Views.flatIterable( source ).cursor();
+		final Cursor< ? extends RealType< ? > > t = Views.flatIterable( target ).cursor();
+		while ( t.hasNext() )
+			t.next().setReal( s.next().getRealDouble() );
 	}
 
 	private static < T extends RealType< T >, U extends RealType< U > > void transformSingleColumn(
@@ -1170,6 +2233,69 @@ public class DistanceTransform
 			final Distance d,
 			final int dim,
 			final long size )
+	{
+		computeLowerEnvelope( source, lowerBoundDistanceIndex, envelopeIntersectLocation, d, dim, size );
+
+		long k = 0;
+
+		for ( long position = 0; position < size; ++position )
+		{
+			while ( envelopeIntersectLocation.get( k + 1 ).get() < position )
+			{
+				++k;
+			}
+			final long envelopeIndexAtK = lowerBoundDistanceIndex.get( k ).get();
+			// copy necessary because of the following line, access to source
+			// after write to source -> source and target cannot be the same
+			target.get( position ).setReal( d.evaluate( position, envelopeIndexAtK, source.get( envelopeIndexAtK ).getRealDouble(), dim ) );
+		}
+
+	}
+
+	/**
+	 * Same as
+	 * {@link #transformSingleColumn(RealComposite, RealComposite, RealComposite, RealComposite, Distance, int, long)}
+	 * but additionally store the features of the minimizing samples in
+	 * {@code targetFeatures}.
+	 */
+	private static void transformSingleColumnWithFeatures(
+			final RealComposite< DoubleType > source,
+			final RealComposite< LongType > sourceFeatures,
+			final RealComposite< DoubleType > target,
+			final RealComposite< LongType > targetFeatures,
+			final RealComposite< LongType > lowerBoundDistanceIndex,
+			final RealComposite< DoubleType > envelopeIntersectLocation,
+			final Distance d,
+			final int dim,
+			final long size )
+	{
+		computeLowerEnvelope( source, lowerBoundDistanceIndex, envelopeIntersectLocation, d, dim, size );
+
+		long k = 0;
+
+		for ( long position = 0; position < size; ++position )
+		{
+			while ( envelopeIntersectLocation.get( k + 1 ).get() < position )
+			{
+				++k;
+			}
+			final long envelopeIndexAtK = lowerBoundDistanceIndex.get( k ).get();
+			target.get( position ).set( d.evaluate( position, envelopeIndexAtK, source.get( envelopeIndexAtK ).get(), dim ) );
+			targetFeatures.get( position ).set( sourceFeatures.get( envelopeIndexAtK ).get() );
+		}
+	}
+
+	/**
+	 * Compute the lower envelope of the family of functions defined by
+	 * {@code d} and parameterized by {@code source}.
+	 */
+	private static < T extends RealType< T > > void computeLowerEnvelope(
+			final RealComposite< T > source,
+			final RealComposite< LongType > lowerBoundDistanceIndex,
+			final RealComposite< DoubleType > envelopeIntersectLocation,
+			final Distance d,
+			final int dim,
+			final long size )
 	{
 		long k = 0;
 
@@ -1193,19 +2319,55 @@ public class DistanceTransform
 			envelopeIntersectLocation.get( k ).set( s );
 			envelopeIntersectLocation.get( k + 1 ).set( Double.POSITIVE_INFINITY );
 		}
+	}
+
+	/**
+	 * Same as
+	 * {@link #transformSingleColumn(RealComposite, RealComposite, RealComposite, RealComposite, Distance, int, long)}
+	 * but on primitive arrays.
+	 */
+	private static void transformSingleColumn(
+			final double[] source,
+			final double[] target,
+			final int[] lowerBoundDistanceIndex,
+			final double[] envelopeIntersectLocation,
+			final Distance d,
+			final int dim,
+			final int size )
+	{
+		int k = 0;
+
+		lowerBoundDistanceIndex[ 0 ] = 0;
+		envelopeIntersectLocation[ 0 ] = Double.NEGATIVE_INFINITY;
+		envelopeIntersectLocation[ 1 ] = Double.POSITIVE_INFINITY;
+		for ( int position = 1; position < size; ++position )
+		{
+			int envelopeIndexAtK = lowerBoundDistanceIndex[ k ];
+			final double sourceAtPosition = source[ position ];
+			double s = d.intersect( envelopeIndexAtK, source[ envelopeIndexAtK ], position, sourceAtPosition, dim );
+
+			for ( double envelopeValueAtK = envelopeIntersectLocation[ k ]; s <= envelopeValueAtK; envelopeValueAtK = envelopeIntersectLocation[ k ] )
+			{
+				--k;
+				envelopeIndexAtK = lowerBoundDistanceIndex[ k ];
+				s = d.intersect( envelopeIndexAtK, source[ envelopeIndexAtK ], position, sourceAtPosition, dim );
+			}
+			++k;
+			lowerBoundDistanceIndex[ k ] = position;
+			envelopeIntersectLocation[ k ] = s;
+			envelopeIntersectLocation[ k + 1 ] = Double.POSITIVE_INFINITY;
+		}
 
 		k = 0;
 
-		for ( long position = 0; position < size; ++position )
+		for ( int position = 0; position < size; ++position )
 		{
-			while ( envelopeIntersectLocation.get( k + 1 ).get() < position )
+			while ( envelopeIntersectLocation[ k + 1 ] < position )
 			{
 				++k;
 			}
-			final long envelopeIndexAtK = lowerBoundDistanceIndex.get( k ).get();
-			// copy necessary because of the following line, access to source
-			// after write to source -> source and target cannot be the same
-			target.get( position ).setReal( d.evaluate( position, envelopeIndexAtK, source.get( envelopeIndexAtK ).getRealDouble(), dim ) );
+			final int envelopeIndexAtK = lowerBoundDistanceIndex[ k ];
+			target[ position ] = d.evaluate( position, envelopeIndexAtK, source[ envelopeIndexAtK ], dim );
 		}
 
 	}
@@ -1243,27 +2405,9 @@ public class DistanceTransform
 			final ExecutorService es,
 			final int nTasks ) throws InterruptedException, ExecutionException
 	{
-		int largestDim = getLargestDimension( Views.hyperSlice( target, dim, target.min( dim ) ) );
-		// ignore dimension along which we calculate transform
-		if ( largestDim >= dim )
-		{
-			largestDim += 1;
-		}
-		final long size = target.dimension( dim );
-		final long stepPerChunk = Math.max( size / nTasks, 1 );
-
-		final long[] min = Intervals.minAsLongArray( target );
-		final long[] max = Intervals.maxAsLongArray( target );
-
-		final long largestDimMin = target.min( largestDim );
-		final long largestDimMax = target.max( largestDim );
-
 		final ArrayList< Callable< Void > > tasks = new ArrayList<>();
-		for ( long m = largestDimMin, M = largestDimMin + stepPerChunk - 1; m <= largestDimMax; m += stepPerChunk, M += stepPerChunk )
+		for ( final Interval fi : createChunks( target, dim, nTasks ) )
 		{
-			min[ largestDim ] = m;
-			max[ largestDim ] = Math.min( M, largestDimMax );
-			final Interval fi = new FinalInterval( min, max );
 			tasks.add( () -> {
 				transformL1AlongDimension( source, Views.interval( target, fi ), dim, weight );
 				return null;
@@ -1298,6 +2442,131 @@ public class DistanceTransform
 
 	}
 
+	/**
+	 * Same as
+	 * {@link #transformL1SingleColumn(RealComposite, RealComposite, double, long)}
+	 * but additionally store the features of the minimizing samples in
+	 * {@code targetFeatures}.
+	 */
+	private static void transformL1SingleColumnWithFeatures(
+			final RealComposite< DoubleType > source,
+			final RealComposite< LongType > sourceFeatures,
+			final RealComposite< DoubleType > target,
+			final RealComposite< LongType > targetFeatures,
+			final double weight,
+			final long size )
+	{
+
+		target.get( 0 ).set( source.get( 0 ).get() );
+		targetFeatures.get( 0 ).set( sourceFeatures.get( 0 ).get() );
+
+		for ( long i = 1; i < size; ++i )
+		{
+			final double other = target.get( i - 1 ).get() + weight;
+			final double s = source.get( i ).get();
+			if ( s <= other )
+			{
+				target.get( i ).set( s );
+				targetFeatures.get( i ).set( sourceFeatures.get( i ).get() );
+			}
+			else
+			{
+				target.get( i ).set( other );
+				targetFeatures.get( i ).set( targetFeatures.get( i - 1 ).get() );
+			}
+		}
+
+		for ( long i = size - 2; i > -1; --i )
+		{
+			final double other = target.get( i + 1 ).get() + weight;
+			final DoubleType t = target.get( i );
+			if ( other < t.get() )
+			{
+				t.set( other );
+				targetFeatures.get( i ).set( targetFeatures.get( i + 1 ).get() );
+			}
+		}
+
+	}
+
+	private static LongFunction< LineTransform > lineTransformFactory( final DISTANCE_TYPE distanceType, final int nDim, final double... weights )
+	{
+		final double[] w = weights.length == nDim ? weights : DoubleStream.generate( () -> weights.length == 0 ? 1.0 : weights[ 0 ] ).limit( nDim ).toArray();
+		if ( distanceType == DISTANCE_TYPE.L1 )
+			return size -> ( source, target, dim, lineSize ) -> transformL1SingleColumn( source, target, w[ dim ], lineSize );
+		return lineTransformFactory( weights.length <= 1 ? new EuclidianDistanceIsotropic( w[ 0 ] ) : new EuclidianDistanceAnisotropic( w ) );
+	}
+
+	private static LongFunction< LineTransform > lineTransformFactory( final Distance d )
+	{
+		return size -> {
+			final RealComposite< LongType > lowerBoundDistanceIndex = Views.collapseReal( createAppropriateOneDimensionalImage( size, new LongType() ) ).randomAccess().get();
+			final RealComposite< DoubleType > envelopeIntersectLocation = Views.collapseReal( createAppropriateOneDimensionalImage( size + 1, new DoubleType() ) ).randomAccess().get();
+			return ( source, target, dim, lineSize ) -> transformSingleColumn( source, target, lowerBoundDistanceIndex, envelopeIntersectLocation, d, dim, lineSize );
+		};
+	}
+
+	private static LongFunction< FeatureLineTransform > featureLineTransformFactory( final DISTANCE_TYPE distanceType, final int nDim, final double... weights )
+	{
+		final double[] w = weights.length == nDim ? weights : DoubleStream.generate( () -> weights.length == 0 ? 1.0 : weights[ 0 ] ).limit( nDim ).toArray();
+		if ( distanceType == DISTANCE_TYPE.L1 )
+			return size -> ( source, sourceFeatures, target, targetFeatures, dim, lineSize ) -> transformL1SingleColumnWithFeatures( source, sourceFeatures, target, targetFeatures, w[ dim ], lineSize );
+		return featureLineTransformFactory( weights.length <= 1 ? new EuclidianDistanceIsotropic( w[ 0 ] ) : new EuclidianDistanceAnisotropic( w ) );
+	}
+
+	private static LongFunction< FeatureLineTransform > featureLineTransformFactory( final Distance d )
+	{
+		return size -> {
+			final RealComposite< LongType > lowerBoundDistanceIndex = Views.collapseReal( createAppropriateOneDimensionalImage( size, new LongType() ) ).randomAccess().get();
+			final RealComposite< DoubleType > envelopeIntersectLocation = Views.collapseReal( createAppropriateOneDimensionalImage( size + 1, new DoubleType() ) ).randomAccess().get();
+			return ( source, sourceFeatures, target, targetFeatures, dim, lineSize ) -> transformSingleColumnWithFeatures( source, sourceFeatures, target, targetFeatures, lowerBoundDistanceIndex, envelopeIntersectLocation, d, dim, lineSize );
+		};
+	}
+
+	/**
+	 * Set each sample of {@code features} to its flat index within
+	 * {@code features}.
+	 */
+	private static < L extends IntegerType< L > > void setFlatIndices( final RandomAccessibleInterval< L > features )
+	{
+		final Cursor< L > cursor = Views.flatIterable( features ).cursor();
+		for ( long index = 0; cursor.hasNext(); ++index )
+		{
+			cursor.next().setInteger( index );
+		}
+	}
+
+	/**
+	 * Split {@code target} into at most (approximately) {@code nTasks} chunks
+	 * along its largest dimension, ignoring {@code dim}.
+	 */
+	private static List< Interval > createChunks( final RandomAccessibleInterval< ? > target, final int dim, final int nTasks )
+	{
+		int largestDim = getLargestDimension( Views.hyperSlice( target, dim, target.min( dim ) ) );
+		// ignore dimension along which we calculate transform
+		if ( largestDim >= dim )
+		{
+			largestDim += 1;
+		}
+		final long size = target.dimension( dim );
+		final long stepPerChunk = Math.max( size / nTasks, 1 );
+
+		final long[] min = Intervals.minAsLongArray( target );
+		final long[] max = Intervals.maxAsLongArray( target );
+
+		final long largestDimMin = target.min( largestDim );
+		final long largestDimMax = target.max( largestDim );
+
+		final ArrayList< Interval > chunks = new ArrayList<>();
+		for ( long m = largestDimMin, M = largestDimMin + stepPerChunk - 1; m <= largestDimMax; m += stepPerChunk, M += stepPerChunk )
+		{
+			min[ largestDim ] = m;
+			max[ largestDim ] = Math.min( M, largestDimMax );
+			chunks.add( new FinalInterval( min, max ) );
+		}
+		return chunks;
+	}
+
 	/**
 	 * Convenience method to invoke all tasks with a given
 	 * {@link ExecutorService}.
@@ -1336,6 +2605,33 @@ public class DistanceTransform
 		return IntStream.range( 0, interval.numDimensions() ).mapToObj( i -> new ValuePair<>( i, interval.dimension( i ) ) ).max( ( p1, p2 ) -> Long.compare( p1.getB(), p2.getB() ) ).get().getA();
 	}
 
+	/**
+	 * Transform a single block of a block-wise distance transform along
+	 * dimension {@code dim} in place.
+	 */
+	private static interface ColumnBlockTransform
+	{
+		void transform( RandomAccessibleInterval< DoubleType > block, int dim );
+	}
+
+	/**
+	 * Transform a single line of length {@code size} along dimension
+	 * {@code dim}.
+	 */
+	private static interface LineTransform
+	{
+		void transform( RealComposite< DoubleType > source, RealComposite< DoubleType > target, int dim, long size );
+	}
+
+	/**
+	 * Transform a single line of length {@code size} along dimension
+	 * {@code dim} and store the features of the minimizing samples.
+	 */
+	private static interface FeatureLineTransform
+	{
+		void transform( RealComposite< DoubleType > source, RealComposite< LongType > sourceFeatures, RealComposite< DoubleType > target, RealComposite< LongType > targetFeatures, int dim, long size );
+	}
+
 	private static class BinaryMaskToCost< B extends BooleanType< B >, R extends RealType< R > > implements Converter< B, R >
 	{
 
@@ -1343,17 +2639,30 @@ public class DistanceTransform
 
 		private final R zero;
 
+		private final boolean invert;
+
 		public BinaryMaskToCost( final R maxValForR )
+		{
+			this( maxValForR, false );
+		}
+
+		/**
+		 * @param invert
+		 *            if {@code true}, map {@code false} to zero cost instead of
+		 *            {@code true}
+		 */
+		public BinaryMaskToCost( final R maxValForR, final boolean invert )
 		{
 			this.maxValForR = maxValForR;
 			this.zero = maxValForR.createVariable();
+			this.invert = invert;
 			zero.setZero();
 		}
 
 		@Override
 		public void convert( final B input, final R output )
 		{
-			output.set( input.get() ? zero : maxValForR );
+			output.set( input.get() != invert ? zero : maxValForR );
 		}
 
 	}
@@ -0,0 +1,281 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.morphology.distance;
+
+import net.imglib2.Interval;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.basictypeaccess.array.DoubleArray;
+import net.imglib2.img.basictypeaccess.array.FloatArray;
+import net.imglib2.img.planar.PlanarImg;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Intervals;
+
+/**
+ * Bulk read and write access to lines of {@link ArrayImg}s and
+ * {@link PlanarImg}s of {@link DoubleType} or {@link FloatType} through their
+ * underlying primitive arrays. {@link DistanceTransform} uses this to copy
+ * complete lines into {@code double[]} scratch buffers without going through
+ * a {@link net.imglib2.RandomAccess} for every sample.
+ */
+abstract class PrimitiveLines
+{
+
+	private final long[] dimensions;
+
+	/**
+	 * Step within a plane (array) when moving by one along a dimension.
+	 */
+	private final int[] steps;
+
+	/**
+	 * Step in plane index when moving by one along a dimension.
+	 */
+	private final int[] planeSteps;
+
+	private PrimitiveLines( final long[] dimensions, final int[] steps, final int[] planeSteps )
+	{
+		this.dimensions = dimensions;
+		this.steps = steps;
+		this.planeSteps = planeSteps;
+	}
+
+	/**
+	 * @return {@link PrimitiveLines} for {@code img} if {@code img} is an
+	 *         {@link ArrayImg} or a {@link PlanarImg} of {@link DoubleType} or
+	 *         {@link FloatType}, {@code null} otherwise.
+	 */
+	static PrimitiveLines of( final Object img )
+	{
+		if ( img instanceof ArrayImg )
+			return of( ( ArrayImg< ?, ? > ) img );
+		if ( img instanceof PlanarImg )
+			return of( ( PlanarImg< ?, ? > ) img );
+		return null;
+	}
+
+	private static PrimitiveLines of( final ArrayImg< ?, ? > img )
+	{
+		final int n = img.numDimensions();
+		final long[] dimensions = Intervals.dimensionsAsLongArray( img );
+		final int[] steps = new int[ n ];
+		final int[] planeSteps = new int[ n ];
+		steps[ 0 ] = 1;
+		for ( int d = 1; d < n; ++d )
+			steps[ d ] = steps[ d - 1 ] * ( int ) dimensions[ d - 1 ];
+
+		final Class< ? > type = img.firstElement().getClass();
+		final Object access = img.update( null );
+		if ( type == DoubleType.class && access instanceof DoubleArray )
+			return new DoubleLines( dimensions, steps, planeSteps, new double[][] { ( ( DoubleArray ) access ).getCurrentStorageArray() } );
+		if ( type == FloatType.class && access instanceof FloatArray )
+			return new FloatLines( dimensions, steps, planeSteps, new float[][] { ( ( FloatArray ) access ).getCurrentStorageArray() } );
+		return null;
+	}
+
+	private static PrimitiveLines of( final PlanarImg< ?, ? > img )
+	{
+		final int n = img.numDimensions();
+		final long[] dimensions = Intervals.dimensionsAsLongArray( img );
+		final int[] steps = new int[ n ];
+		final int[] planeSteps = new int[ n ];
+		steps[ 0 ] = 1;
+		if ( n > 1 )
+			steps[ 1 ] = ( int ) dimensions[ 0 ];
+		if ( n > 2 )
+			planeSteps[ 2 ] = 1;
+		for ( int d = 3; d < n; ++d )
+			planeSteps[ d ] = planeSteps[ d - 1 ] * ( int ) dimensions[ d - 1 ];
+
+		final Class< ? > type = img.firstElement().getClass();
+		final int numPlanes = img.numSlices();
+		if ( type == DoubleType.class && img.getPlane( 0 ) instanceof DoubleArray )
+		{
+			final double[][] planes = new double[ numPlanes ][];
+			for ( int p = 0; p < numPlanes; ++p )
+				planes[ p ] = ( ( DoubleArray ) img.getPlane( p ) ).getCurrentStorageArray();
+			return new DoubleLines( dimensions, steps, planeSteps, planes );
+		}
+		if ( type == FloatType.class && img.getPlane( 0 ) instanceof FloatArray )
+		{
+			final float[][] planes = new float[ numPlanes ][];
+			for ( int p = 0; p < numPlanes; ++p )
+				planes[ p ] = ( ( FloatArray ) img.getPlane( p ) ).getCurrentStorageArray();
+			return new FloatLines( dimensions, steps, planeSteps, planes );
+		}
+		return null;
+	}
+
+	/**
+	 * @return {@code true} if {@code interval} is contained in the image
+	 *         (which has min zero in all dimensions).
+	 */
+	boolean contains( final Interval interval )
+	{
+		if ( interval.numDimensions() != dimensions.length )
+			return false;
+		for ( int d = 0; d < dimensions.length; ++d )
+			if ( interval.min( d ) < 0 || interval.max( d ) >= dimensions[ d ] )
+				return false;
+		return true;
+	}
+
+	/**
+	 * Copy {@code size} samples along {@code dim}, starting at
+	 * {@code lineStart}, into {@code line}.
+	 */
+	void read( final long[] lineStart, final int dim, final double[] line, final int size )
+	{
+		read( planeIndex( lineStart ), planeSteps[ dim ], offset( lineStart ), steps[ dim ], line, size );
+	}
+
+	/**
+	 * Copy {@code size} samples from {@code line} along {@code dim}, starting
+	 * at {@code lineStart}.
+	 */
+	void write( final long[] lineStart, final int dim, final double[] line, final int size )
+	{
+		write( planeIndex( lineStart ), planeSteps[ dim ], offset( lineStart ), steps[ dim ], line, size );
+	}
+
+	protected abstract void read( int plane, int planeStep, int offset, int step, double[] line, int size );
+
+	protected abstract void write( int plane, int planeStep, int offset, int step, double[] line, int size );
+
+	private int planeIndex( final long[] position )
+	{
+		int index = 0;
+		for ( int d = 0; d < position.length; ++d )
+			index += planeSteps[ d ] * ( int ) position[ d ];
+		return index;
+	}
+
+	private int offset( final long[] position )
+	{
+		int offset = 0;
+		for ( int d = 0; d < position.length; ++d )
+			offset += steps[ d ] * ( int ) position[ d ];
+		return offset;
+	}
+
+	private static class DoubleLines extends PrimitiveLines
+	{
+
+		private final double[][] planes;
+
+		private DoubleLines( final long[] dimensions, final int[] steps, final int[] planeSteps, final double[][] planes )
+		{
+			super( dimensions, steps, planeSteps );
+			this.planes = planes;
+		}
+
+		@Override
+		protected void read( final int plane, final int planeStep, final int offset, final int step, final double[] line, final int size )
+		{
+			if ( planeStep == 0 )
+			{
+				final double[] data = planes[ plane ];
+				for ( int i = 0, o = offset; i < size; ++i, o += step )
+					line[ i ] = data[ o ];
+			}
+			else
+			{
+				for ( int i = 0, p = plane; i < size; ++i, p += planeStep )
+					line[ i ] = planes[ p ][ offset ];
+			}
+		}
+
+		@Override
+		protected void write( final int plane, final int planeStep, final int offset, final int step, final double[] line, final int size )
+		{
+			if ( planeStep == 0 )
+			{
+				final double[] data = planes[ plane ];
+				for ( int i = 0, o = offset; i < size; ++i, o += step )
+					data[ o ] = line[ i ];
+			}
+			else
+			{
+				for ( int i = 0, p = plane; i < size; ++i, p += planeStep )
+					planes[ p ][ offset ] = line[ i ];
+			}
+		}
+	}
+
+	private static class FloatLines extends PrimitiveLines
+	{
+
+		private final float[][] planes;
+
+		private FloatLines( final long[] dimensions, final int[] steps, final int[] planeSteps, final float[][] planes )
+		{
+			super( dimensions, steps, planeSteps );
+			this.planes = planes;
+		}
+
+		@Override
+		protected void read( final int plane, final int planeStep, final int offset, final int step, final double[] line, final int size )
+		{
+			if ( planeStep == 0 )
+			{
+				final float[] data = planes[ plane ];
+				for ( int i = 0, o = offset; i < size; ++i, o += step )
+					line[ i ] = data[ o ];
+			}
+			else
+			{
+				for ( int i = 0, p = plane; i < size; ++i, p += planeStep )
+					line[ i ] = planes[ p ][ offset ];
+			}
+		}
+
+		@Override
+		protected void write( final int plane, final int planeStep, final int offset, final int step, final double[] line, final int size )
+		{
+			if ( planeStep == 0 )
+			{
+				final float[] data = planes[ plane ];
+				for ( int i = 0, o = offset; i < size; ++i, o += step )
+					data[ o ] = ( float ) line[ i ];
+			}
+			else
+			{
+				for ( int i = 0, p = plane; i < size; ++i, p += planeStep )
+					planes[ p ][ offset ] = ( float ) line[ i ];
+			}
+		}
+	}
+
+}
@@ -40,7 +40,10 @@ import net.imglib2.RandomAccessible;
 import net.imglib2.algorithm.neighborhood.Neighborhood;
 import net.imglib2.algorithm.neighborhood.RectangleShape;
 import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.basictypeaccess.array.LongArray;
 import net.imglib2.type.BooleanType;
+import net.imglib2.type.logic.BitType;
 import net.imglib2.view.ExtendedRandomAccessibleInterval;
 import net.imglib2.view.Views;
 
@@ -80,8 +83,22 @@ public abstract class Abstract3x3TableOperation
 	 */
 	protected abstract boolean getExtendedValue();
 
+	/**
+	 * Applies the operation to the source image. 2-D {@link BitType}
+	 * {@link ArrayImg}s are processed 64 pixels at a time by
+	 * {@link PackedTableOperations}.
+	 */
 	protected < T extends BooleanType< T > > Img< T > calculate( final Img< T > source )
 	{
+		if ( PackedTableOperations.isSupported( source ) )
+		{
+			@SuppressWarnings( "unchecked" )
+			final ArrayImg< BitType, LongArray > bits = ( ArrayImg< BitType, LongArray > ) ( Object ) source;
+			@SuppressWarnings( "unchecked" )
+			final Img< T > target = ( Img< T > ) ( Object ) PackedTableOperations.calculate( bits, this );
+			return target;
+		}
+
 		final Img< T > target = source.factory().create( source );
 		final T extendedVal = source.firstElement().createVariable();
 		extendedVal.set( getExtendedValue() );
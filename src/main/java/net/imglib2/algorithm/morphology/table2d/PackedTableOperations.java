@@ -0,0 +1,396 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.morphology.table2d;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.imglib2.algorithm.util.SequentialExecutorService;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.LongArray;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.util.Intervals;
+
+/**
+ * Applies {@link Abstract3x3TableOperation}s to 2-D {@link BitType}
+ * {@link ArrayImg}s, 64 pixels at a time.
+ * <p>
+ * The image is copied in a buffer where each row starts on a new
+ * {@code long}, with one pixel of padding on each side and one row of padding
+ * above and below, set to the extended value of the operation. For each word
+ * of a row, the words of the left, center and right neighbors in the rows
+ * above, at and below are obtained by shifts. The table index of a pixel is
+ * built from the one of its left neighbor by shifting in the next column, and
+ * words whose 3x3 neighborhoods are all background or all foreground are
+ * looked up once.
+ * <p>
+ * The rows are processed in parallel stripes. Operations can be iterated
+ * until the image does not change, using two buffers that are swapped after
+ * each operation.
+ */
+public final class PackedTableOperations
+{
+	/** Number of pixels processed by one task. */
+	private static final int STRIPE_SIZE = 1 << 16;
+
+	/** Bits of the table index that come from the left and center columns. */
+	private static final int SHIFT_MASK = 0b110110110;
+
+	private PackedTableOperations()
+	{}
+
+	/**
+	 * Returns {@code true} if the image is a 2-D {@link BitType}
+	 * {@link ArrayImg} backed by a {@link LongArray}, that can be processed by
+	 * this class.
+	 */
+	public static boolean isSupported( final Img< ? > img )
+	{
+		return img instanceof ArrayImg
+				&& img.numDimensions() == 2
+				&& img.size() > 0
+				&& img.firstElement() instanceof BitType
+				&& ( ( ArrayImg< ?, ? > ) img ).update( null ) instanceof LongArray;
+	}
+
+	/**
+	 * Applies the operations in sequence to the source image.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param operations
+	 *            the operations, applied in order.
+	 * @return a new image, of same dimensions than the source.
+	 */
+	public static ArrayImg< BitType, LongArray > calculate( final ArrayImg< BitType, LongArray > source, final Abstract3x3TableOperation... operations )
+	{
+		return calculate( source, new SequentialExecutorService(), operations );
+	}
+
+	/**
+	 * Applies the operations in sequence to the source image.
+	 *
+	 * @param source
+	 *            the source image.
+	 * @param service
+	 *            the {@link ExecutorService} that processes the stripes of
+	 *            rows.
+	 * @param operations
+	 *            the operations, applied in order.
+	 * @return a new image, of same dimensions than the source.
+	 */
+	public static ArrayImg< BitType, LongArray > calculate( final ArrayImg< BitType, LongArray > source, final ExecutorService service, final Abstract3x3TableOperation... operations )
+	{
+		final ArrayImg< BitType, LongArray > target = ArrayImgs.bits( Intervals.dimensionsAsLongArray( source ) );
+		final PackedImage image = new PackedImage( source );
+		image.read( source );
+		for ( final Abstract3x3TableOperation operation : operations )
+		{
+			image.apply( operation, service );
+		}
+		image.write( target );
+		return target;
+	}
+
+	/**
+	 * Applies the sequence of operations repeatedly to the image, in place,
+	 * until it does not change anymore or the maximal number of iterations is
+	 * reached. For example, {@code iterate( img, -1, service, new Thin1(), new
+	 * Thin2() )} skeletonizes the image.
+	 *
+	 * @param image
+	 *            the image, overwritten by the result.
+	 * @param maxIterations
+	 *            the maximal number of times the sequence is applied, or a
+	 *            negative value to iterate until the image is stable.
+	 * @param service
+	 *            the {@link ExecutorService} that processes the stripes of
+	 *            rows.
+	 * @param operations
+	 *            the operations, applied in order at each iteration.
+	 * @return the number of times the sequence was applied, including the
+	 *         last one that did not change the image.
+	 */
+	public static long iterate( final ArrayImg< BitType, LongArray > image, final long maxIterations, final ExecutorService service, final Abstract3x3TableOperation... operations )
+	{
+		final PackedImage packed = new PackedImage( image );
+		packed.read( image );
+		long iterations = 0;
+		boolean changed = true;
+		while ( changed && iterations != maxIterations )
+		{
+			changed = false;
+			for ( final Abstract3x3TableOperation operation : operations )
+			{
+				changed |= packed.apply( operation, service );
+			}
+			iterations++;
+		}
+		packed.write( image );
+		return iterations;
+	}
+
+	/**
+	 * The image in row-aligned buffers. {@link #apply} reads the current
+	 * buffer and writes the other one, then swaps them.
+	 */
+	private static final class PackedImage
+	{
+		private final int width;
+
+		private final int height;
+
+		private final int wordsPerRow;
+
+		/** The pixels of a row, bits 1 to {@code width} of the row words. */
+		private final long[] rowMask;
+
+		private long[] current;
+
+		private long[] next;
+
+		private PackedImage( final ArrayImg< BitType, LongArray > img )
+		{
+			width = ( int ) img.dimension( 0 );
+			height = ( int ) img.dimension( 1 );
+			wordsPerRow = ( width + 2 + 63 ) / 64;
+			rowMask = new long[ wordsPerRow ];
+			for ( int x = 1; x <= width; x++ )
+			{
+				rowMask[ x >>> 6 ] |= 1L << ( x & 63 );
+			}
+			final long size = ( long ) ( height + 2 ) * wordsPerRow;
+			if ( size > Integer.MAX_VALUE ) { throw new IllegalArgumentException( "The image is too large." ); }
+			current = new long[ ( int ) size ];
+			next = new long[ ( int ) size ];
+		}
+
+		private void read( final ArrayImg< BitType, LongArray > img )
+		{
+			final long[] data = img.update( null ).getCurrentStorageArray();
+			for ( int y = 0; y < height; y++ )
+			{
+				final long start = ( long ) y * width;
+				final int row = ( y + 1 ) * wordsPerRow;
+				current[ row ] = ( getBits( data, start ) << 1 ) & rowMask[ 0 ];
+				for ( int j = 1; j < wordsPerRow; j++ )
+				{
+					current[ row + j ] = getBits( data, start + 64 * j - 1 ) & rowMask[ j ];
+				}
+			}
+		}
+
+		private void write( final ArrayImg< BitType, LongArray > img )
+		{
+			final long[] data = img.update( null ).getCurrentStorageArray();
+			for ( int y = 0; y < height; y++ )
+			{
+				final long start = ( long ) y * width;
+				final long row = ( long ) ( y + 1 ) * wordsPerRow * 64 + 1;
+				for ( int x = 0; x < width; x += 64 )
+				{
+					setBits( data, start + x, getBits( current, row + x ), Math.min( 64, width - x ) );
+				}
+			}
+		}
+
+		/**
+		 * Applies the operation to the current buffer, and returns {@code true}
+		 * if a pixel changed.
+		 */
+		private boolean apply( final Abstract3x3TableOperation operation, final ExecutorService service )
+		{
+			final boolean[] table = operation.getTable();
+			pad( operation.getExtendedValue() );
+
+			final int rowsPerStripe = Math.max( 1, STRIPE_SIZE / ( 64 * wordsPerRow ) );
+			final List< Callable< Boolean > > tasks = new ArrayList<>();
+			for ( int y = 0; y < height; y += rowsPerStripe )
+			{
+				final int min = y + 1;
+				final int max = Math.min( y + rowsPerStripe, height );
+				tasks.add( () -> processRows( table, min, max ) );
+			}
+
+			boolean changed = false;
+			try
+			{
+				for ( final Future< Boolean > future : service.invokeAll( tasks ) )
+				{
+					changed |= future.get();
+				}
+			}
+			catch ( final InterruptedException | ExecutionException e )
+			{
+				final Throwable cause = e.getCause();
+				if ( cause instanceof RuntimeException )
+					throw ( RuntimeException ) cause;
+				throw new RuntimeException( e );
+			}
+
+			final long[] tmp = current;
+			current = next;
+			next = tmp;
+			return changed;
+		}
+
+		/**
+		 * Sets the padding of the current buffer to the extended value.
+		 */
+		private void pad( final boolean extendedValue )
+		{
+			final long fill = extendedValue ? -1L : 0L;
+			final int last = ( height + 1 ) * wordsPerRow;
+			for ( int j = 0; j < wordsPerRow; j++ )
+			{
+				current[ j ] = fill;
+				current[ last + j ] = fill;
+				for ( int row = wordsPerRow; row < last; row += wordsPerRow )
+				{
+					current[ row + j ] = ( current[ row + j ] & rowMask[ j ] ) | ( fill & ~rowMask[ j ] );
+				}
+			}
+		}
+
+		/**
+		 * Processes the rows {@code min} to {@code max} of the buffer, both
+		 * included, the first row of the image being 1.
+		 */
+		private boolean processRows( final boolean[] table, final int min, final int max )
+		{
+			final long allBackground = table[ 0 ] ? -1L : 0L;
+			final long allForeground = table[ 511 ] ? -1L : 0L;
+			boolean changed = false;
+			for ( int y = min; y <= max; y++ )
+			{
+				final int row = y * wordsPerRow;
+				for ( int j = 0; j < wordsPerRow; j++ )
+				{
+					final long mask = rowMask[ j ];
+					final int i = row + j;
+					final long top = current[ i - wordsPerRow ];
+					final long center = current[ i ];
+					final long bottom = current[ i + wordsPerRow ];
+
+					// The neighbors on the left and on the right, at the same bit.
+					final boolean first = j == 0;
+					final boolean last = j == wordsPerRow - 1;
+					final long topLeft = ( top << 1 ) | ( first ? 0 : current[ i - wordsPerRow - 1 ] >>> 63 );
+					final long centerLeft = ( center << 1 ) | ( first ? 0 : current[ i - 1 ] >>> 63 );
+					final long bottomLeft = ( bottom << 1 ) | ( first ? 0 : current[ i + wordsPerRow - 1 ] >>> 63 );
+					final long topRight = ( top >>> 1 ) | ( last ? 0 : current[ i - wordsPerRow + 1 ] << 63 );
+					final long centerRight = ( center >>> 1 ) | ( last ? 0 : current[ i + 1 ] << 63 );
+					final long bottomRight = ( bottom >>> 1 ) | ( last ? 0 : current[ i + wordsPerRow + 1 ] << 63 );
+
+					final long any = topLeft | top | topRight | centerLeft | center | centerRight | bottomLeft | bottom | bottomRight;
+					final long all = topLeft & top & topRight & centerLeft & center & centerRight & bottomLeft & bottom & bottomRight;
+					final long result;
+					if ( ( any & mask ) == 0 )
+					{
+						result = allBackground & mask;
+					}
+					else if ( ( all & mask ) == mask )
+					{
+						result = allForeground & mask;
+					}
+					else
+					{
+						long bits = 0;
+						int b = Long.numberOfTrailingZeros( mask );
+						final int end = 64 - Long.numberOfLeadingZeros( mask );
+						int index = ( column( topLeft, centerLeft, bottomLeft, b ) << 1 ) | column( top, center, bottom, b );
+						for ( ; b < end; b++ )
+						{
+							index = ( ( index << 1 ) & SHIFT_MASK ) | column( topRight, centerRight, bottomRight, b );
+							if ( table[ index ] )
+							{
+								bits |= 1L << b;
+							}
+						}
+						result = bits;
+					}
+					next[ i ] = result;
+					changed |= ( ( result ^ center ) & mask ) != 0;
+				}
+			}
+			return changed;
+		}
+
+		/**
+		 * The bits of a column of the 3x3 neighborhood, at their place in the
+		 * table index of the right column.
+		 */
+		private static int column( final long top, final long center, final long bottom, final int bit )
+		{
+			return ( int ) ( ( ( top >>> bit ) & 1 ) << 6 | ( ( center >>> bit ) & 1 ) << 3 | ( ( bottom >>> bit ) & 1 ) );
+		}
+	}
+
+	/**
+	 * Returns the 64 bits starting at the specified bit, the bits after the
+	 * end of the array being 0.
+	 */
+	private static long getBits( final long[] data, final long bit )
+	{
+		final int word = ( int ) ( bit >>> 6 );
+		final int shift = ( int ) ( bit & 63 );
+		final long low = word < data.length ? data[ word ] >>> shift : 0;
+		if ( shift == 0 )
+			return low;
+		final long high = word + 1 < data.length ? data[ word + 1 ] << ( 64 - shift ) : 0;
+		return low | high;
+	}
+
+	/**
+	 * Sets the {@code count} bits starting at the specified bit to the lowest
+	 * bits of the value.
+	 */
+	private static void setBits( final long[] data, final long bit, final long value, final int count )
+	{
+		final long mask = count == 64 ? -1L : ( 1L << count ) - 1;
+		final int word = ( int ) ( bit >>> 6 );
+		final int shift = ( int ) ( bit & 63 );
+		data[ word ] = ( data[ word ] & ~( mask << shift ) ) | ( ( value & mask ) << shift );
+		if ( shift != 0 && shift + count > 64 )
+		{
+			data[ word + 1 ] = ( data[ word + 1 ] & ~( mask >>> ( 64 - shift ) ) ) | ( ( value & mask ) >>> ( 64 - shift ) );
+		}
+	}
+}
@@ -222,11 +222,11 @@ public class ParallelizeOverBlocks
 			final int numTasks )
 	{
 		final ArrayList< Future< List< T > > > futures = new ArrayList<>();
-		final int taskSize = Math.max( blocks.size() / numTasks, 1 );
-		for ( int i = 0; i < blocks.size(); ++i )
+		final int taskSize = Math.max( ( blocks.size() + numTasks - 1 ) / numTasks, 1 );
+		for ( int i = 0; i < blocks.size(); i += taskSize )
 		{
-			final int finalI = i;
-			futures.add( es.submit( () -> blocks.subList( finalI, finalI + taskSize ).stream().map( func ).collect( Collectors.toList() ) ) );
+			final List< Interval > taskBlocks = blocks.subList( i, Math.min( i + taskSize, blocks.size() ) );
+			futures.add( es.submit( () -> taskBlocks.stream().map( func ).collect( Collectors.toList() ) ) );
 		}
 
 		return futures;
@@ -0,0 +1,211 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.util.unionfind;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Thread-safe, lock-free implementation of the Union Find algorithm backed by
+ * an {@link AtomicIntegerArray}. {@link #findRoot(int)} compresses paths by
+ * path halving with compare-and-set and never blocks, {@link #join(int, int)}
+ * links roots with compare-and-set and retries if one of the roots was linked
+ * concurrently. Use {@link ConcurrentLongArrayUnionFind} for more than
+ * {@link Integer#MAX_VALUE} elements.
+ */
+public class ConcurrentIntArrayUnionFind implements UnionFind
+{
+	private final AtomicIntegerArray parents;
+
+	private final AtomicInteger nSets;
+
+	private final IntBinaryOperator comparator;
+
+	public ConcurrentIntArrayUnionFind( final int size )
+	{
+		this( size, Integer::compare );
+	}
+
+	/**
+	 *
+	 * @param size
+	 *            Number of elements. (Initially, each element forms a single
+	 *            element subset)
+	 * @param comparator
+	 *            When joining to sets, the new representative id will be
+	 *            determined by comparator:
+	 *            {@code id = comparator.comparator(id1, id2) < 0 ? id1 : id2}.
+	 *            {@code comparator} must define a total order to guarantee
+	 *            that concurrent joins do not introduce cycles.
+	 */
+	public ConcurrentIntArrayUnionFind( final int size, final IntBinaryOperator comparator )
+	{
+		this( intRange( new AtomicIntegerArray( size ) ), size, comparator );
+	}
+
+	private ConcurrentIntArrayUnionFind( final AtomicIntegerArray parents, final int nSets, final IntBinaryOperator comparator )
+	{
+		this.parents = parents;
+		this.nSets = new AtomicInteger( nSets );
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Find the root node (set identifier) for a specified id. If other threads
+	 * join sets concurrently, the returned root may not be the root anymore
+	 * when this method returns.
+	 *
+	 * @param id
+	 * @return Root node (set identifier)
+	 */
+	public int findRoot( final int id )
+	{
+		int current = id;
+		while ( true )
+		{
+			final int parent = parents.get( current );
+			if ( parent == current )
+				return current;
+			final int grandParent = parents.get( parent );
+			if ( parent != grandParent )
+				parents.compareAndSet( current, parent, grandParent );
+			current = grandParent;
+		}
+	}
+
+	/**
+	 * Join two sets. Other than for {@link IntArrayUnionFind}, {@code id1}
+	 * and {@code id2} do not need to be root nodes.
+	 *
+	 * @param id1
+	 *            Node in the first set.
+	 * @param id2
+	 *            Node in the second set.
+	 * @return Root node of the union of the two sets at the time of joining.
+	 */
+	public int join( final int id1, final int id2 )
+	{
+		int root1 = id1;
+		int root2 = id2;
+		while ( true )
+		{
+			root1 = findRoot( root1 );
+			root2 = findRoot( root2 );
+
+			if ( root1 == root2 ) { return root1; }
+
+			final int root, child;
+			if ( comparator.applyAsInt( root1, root2 ) < 0 )
+			{
+				root = root1;
+				child = root2;
+			}
+			else
+			{
+				root = root2;
+				child = root1;
+			}
+
+			if ( parents.compareAndSet( child, child, root ) )
+			{
+				nSets.decrementAndGet();
+				return root;
+			}
+		}
+	}
+
+	@Override
+	public long findRoot( final long id )
+	{
+		return findRoot( ( int ) id );
+	}
+
+	@Override
+	public long join( final long id1, final long id2 )
+	{
+		return join( ( int ) id1, ( int ) id2 );
+	}
+
+	@Override
+	public long size()
+	{
+		return intSize();
+	}
+
+	@Override
+	public long setCount()
+	{
+		return intSetCount();
+	}
+
+	/**
+	 *
+	 * @return Number of elements.
+	 */
+	public int intSize()
+	{
+		return parents.length();
+	}
+
+	/**
+	 *
+	 * @return Number of sets.
+	 */
+	public int intSetCount()
+	{
+		return nSets.get();
+	}
+
+	/**
+	 * Not thread-safe with concurrent joins.
+	 */
+	@Override
+	public ConcurrentIntArrayUnionFind clone()
+	{
+		final AtomicIntegerArray parents = new AtomicIntegerArray( this.parents.length() );
+		for ( int i = 0; i < parents.length(); ++i )
+			parents.set( i, this.parents.get( i ) );
+		return new ConcurrentIntArrayUnionFind( parents, nSets.get(), comparator );
+	}
+
+	private static AtomicIntegerArray intRange( final AtomicIntegerArray data )
+	{
+		for ( int i = 0; i < data.length(); ++i )
+			data.set( i, i );
+		return data;
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.util.unionfind;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Thread-safe, lock-free implementation of the Union Find algorithm for up to
+ * {@link Long#MAX_VALUE} elements, backed by pages of {@link AtomicLongArray}.
+ * See {@link ConcurrentIntArrayUnionFind}.
+ */
+public class ConcurrentLongArrayUnionFind implements UnionFind
+{
+
+	private static final int PAGE_BITS = 24;
+
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+	private static final long PAGE_MASK = PAGE_SIZE - 1;
+
+	private final AtomicLongArray[] parents;
+
+	private final long size;
+
+	private final AtomicLong nSets;
+
+	private final LongBinaryOperator comparator;
+
+	public ConcurrentLongArrayUnionFind( final long size )
+	{
+		this( size, Long::compare );
+	}
+
+	/**
+	 *
+	 * @param size
+	 *            Number of elements. (Initially, each element forms a single
+	 *            element subset)
+	 * @param comparator
+	 *            When joining to sets, the new representative id will be
+	 *            determined by comparator:
+	 *            {@code id = comparator.comparator(id1, id2) < 0 ? id1 : id2}.
+	 *            {@code comparator} must define a total order to guarantee
+	 *            that concurrent joins do not introduce cycles.
+	 */
+	public ConcurrentLongArrayUnionFind( final long size, final LongBinaryOperator comparator )
+	{
+		this( range( size ), size, size, comparator );
+	}
+
+	private ConcurrentLongArrayUnionFind( final AtomicLongArray[] parents, final long size, final long nSets, final LongBinaryOperator comparator )
+	{
+		this.parents = parents;
+		this.size = size;
+		this.nSets = new AtomicLong( nSets );
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Find the root node (set identifier) for a specified id. If other threads
+	 * join sets concurrently, the returned root may not be the root anymore
+	 * when this method returns.
+	 */
+	@Override
+	public long findRoot( final long id )
+	{
+		long current = id;
+		while ( true )
+		{
+			final long parent = get( current );
+			if ( parent == current )
+				return current;
+			final long grandParent = get( parent );
+			if ( parent != grandParent )
+				compareAndSet( current, parent, grandParent );
+			current = grandParent;
+		}
+	}
+
+	/**
+	 * Join two sets. Other than for {@link LongHashMapUnionFind}, {@code id1}
+	 * and {@code id2} do not need to be root nodes.
+	 *
+	 * @return Root node of the union of the two sets at the time of joining.
+	 */
+	@Override
+	public long join( final long id1, final long id2 )
+	{
+		long root1 = id1;
+		long root2 = id2;
+		while ( true )
+		{
+			root1 = findRoot( root1 );
+			root2 = findRoot( root2 );
+
+			if ( root1 == root2 ) { return root1; }
+
+			final long root, child;
+			if ( comparator.applyAsLong( root1, root2 ) < 0 )
+			{
+				root = root1;
+				child = root2;
+			}
+			else
+			{
+				root = root2;
+				child = root1;
+			}
+
+			if ( compareAndSet( child, child, root ) )
+			{
+				nSets.decrementAndGet();
+				return root;
+			}
+		}
+	}
+
+	@Override
+	public long size()
+	{
+		return size;
+	}
+
+	@Override
+	public long setCount()
+	{
+		return nSets.get();
+	}
+
+	/**
+	 * Not thread-safe with concurrent joins.
+	 */
+	@Override
+	public ConcurrentLongArrayUnionFind clone()
+	{
+		final AtomicLongArray[] parents = new AtomicLongArray[ this.parents.length ];
+		for ( int p = 0; p < parents.length; ++p )
+		{
+			parents[ p ] = new AtomicLongArray( this.parents[ p ].length() );
+			for ( int i = 0; i < parents[ p ].length(); ++i )
+				parents[ p ].set( i, this.parents[ p ].get( i ) );
+		}
+		return new ConcurrentLongArrayUnionFind( parents, size, nSets.get(), comparator );
+	}
+
+	private long get( final long id )
+	{
+		return parents[ ( int ) ( id >>> PAGE_BITS ) ].get( ( int ) ( id & PAGE_MASK ) );
+	}
+
+	private boolean compareAndSet( final long id, final long expect, final long update )
+	{
+		return parents[ ( int ) ( id >>> PAGE_BITS ) ].compareAndSet( ( int ) ( id & PAGE_MASK ), expect, update );
+	}
+
+	private static AtomicLongArray[] range( final long size )
+	{
+		final int numPages = ( int ) ( ( size + PAGE_SIZE - 1 ) >>> PAGE_BITS );
+		final AtomicLongArray[] pages = new AtomicLongArray[ numPages ];
+		for ( int p = 0; p < numPages; ++p )
+		{
+			final long offset = ( long ) p << PAGE_BITS;
+			pages[ p ] = new AtomicLongArray( ( int ) Math.min( PAGE_SIZE, size - offset ) );
+			for ( int i = 0; i < pages[ p ].length(); ++i )
+				pages[ p ].set( i, offset + i );
+		}
+		return pages;
+	}
+
+}
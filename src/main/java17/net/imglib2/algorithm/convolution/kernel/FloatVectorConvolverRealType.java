@@ -0,0 +1,99 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.kernel;
+
+import net.imglib2.RandomAccess;
+import net.imglib2.type.numeric.RealType;
+
+/**
+ * Same as {@link FloatLineBufferConvolverRealType}, but the buffered line is
+ * convolved with explicit {@link jdk.incubator.vector.FloatVector}
+ * instructions, see {@link VectorLineKernels}. Requires the
+ * {@code jdk.incubator.vector} module at runtime.
+ *
+ * @see VectorConvolverFactory
+ */
+public final class FloatVectorConvolverRealType implements Runnable
+{
+
+	private final float[] kernel;
+
+	private final boolean isSymmetric;
+
+	private final RandomAccess< ? extends RealType< ? > > in;
+
+	private final RandomAccess< ? extends RealType< ? > > out;
+
+	private final int d;
+
+	private final int linelen;
+
+	private final float[] line;
+
+	private final float[] result;
+
+	public FloatVectorConvolverRealType( final Kernel1D kernel, final RandomAccess< ? extends RealType< ? > > in, final RandomAccess< ? extends RealType< ? > > out, final int d, final long lineLength )
+	{
+		// NB: This constructor is used by VectorConvolverFactory. It needs to be public and have this exact signature.
+		this.in = in;
+		this.out = out;
+		this.d = d;
+		this.kernel = FloatLineBufferConvolverRealType.reversed( kernel.fullKernel() );
+		this.isSymmetric = FloatLineBufferConvolverRealType.isSymmetric( kernel.fullKernel() );
+		this.linelen = ( int ) lineLength;
+		this.line = new float[ linelen + this.kernel.length - 1 ];
+		this.result = new float[ linelen ];
+	}
+
+	@Override
+	public void run()
+	{
+		for ( int i = 0; i < line.length; ++i )
+		{
+			line[ i ] = in.get().getRealFloat();
+			in.fwd( d );
+		}
+
+		if ( isSymmetric )
+			VectorLineKernels.convolveSymmetric( kernel, line, result, linelen );
+		else
+			VectorLineKernels.convolve( kernel, line, result, linelen );
+
+		for ( int i = 0; i < linelen; ++i )
+		{
+			out.get().setReal( result[ i ] );
+			out.fwd( d );
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Line convolution kernels with explicit {@link FloatVector} and
+ * {@link DoubleVector} instructions of the preferred vector size of the
+ * platform, e.g. 16 floats for AVX-512. Each vector of results is
+ * accumulated in a register over all kernel elements with fused
+ * multiply-add. The remaining elements of a line that do not fill a vector
+ * are computed in scalar code.
+ * <p>
+ * Same contract as
+ * {@link FloatLineBufferConvolverRealType#convolve(float[], float[], float[], int)}:
+ * {@code result[x] = sum_j kernel[j] * line[x + j]}, where {@code kernel} is
+ * reversed and {@code line} holds {@code length + kernel.length - 1}
+ * elements.
+ */
+final class VectorLineKernels
+{
+
+	private static final VectorSpecies< Float > FLOAT = FloatVector.SPECIES_PREFERRED;
+
+	private static final VectorSpecies< Double > DOUBLE = DoubleVector.SPECIES_PREFERRED;
+
+	private VectorLineKernels()
+	{}
+
+	static void convolve( final float[] kernel, final float[] line, final float[] result, final int length )
+	{
+		final int upperBound = FLOAT.loopBound( length );
+		int x = 0;
+		for ( ; x < upperBound; x += FLOAT.length() )
+		{
+			FloatVector sum = FloatVector.fromArray( FLOAT, line, x ).mul( kernel[ 0 ] );
+			for ( int j = 1; j < kernel.length; ++j )
+				sum = FloatVector.fromArray( FLOAT, line, x + j ).fma( FloatVector.broadcast( FLOAT, kernel[ j ] ), sum );
+			sum.intoArray( result, x );
+		}
+		for ( ; x < length; ++x )
+		{
+			float sum = kernel[ 0 ] * line[ x ];
+			for ( int j = 1; j < kernel.length; ++j )
+				sum += kernel[ j ] * line[ x + j ];
+			result[ x ] = sum;
+		}
+	}
+
+	/**
+	 * Same as {@link #convolve(float[], float[], float[], int)} for
+	 * symmetric {@code kernel} of odd length.
+	 */
+	static void convolveSymmetric( final float[] kernel, final float[] line, final float[] result, final int length )
+	{
+		final int h = kernel.length / 2;
+		final int upperBound = FLOAT.loopBound( length );
+		int x = 0;
+		for ( ; x < upperBound; x += FLOAT.length() )
+		{
+			FloatVector sum = FloatVector.fromArray( FLOAT, line, x + h ).mul( kernel[ h ] );
+			for ( int j = 1; j <= h; ++j )
+			{
+				final FloatVector pair = FloatVector.fromArray( FLOAT, line, x + h - j ).add( FloatVector.fromArray( FLOAT, line, x + h + j ) );
+				sum = pair.fma( FloatVector.broadcast( FLOAT, kernel[ h + j ] ), sum );
+			}
+			sum.intoArray( result, x );
+		}
+		for ( ; x < length; ++x )
+		{
+			float sum = kernel[ h ] * line[ x + h ];
+			for ( int j = 1; j <= h; ++j )
+				sum += kernel[ h + j ] * ( line[ x + h - j ] + line[ x + h + j ] );
+			result[ x ] = sum;
+		}
+	}
+
+	static void convolve( final double[] kernel, final double[] line, final double[] result, final int length )
+	{
+		final int upperBound = DOUBLE.loopBound( length );
+		int x = 0;
+		for ( ; x < upperBound; x += DOUBLE.length() )
+		{
+			DoubleVector sum = DoubleVector.fromArray( DOUBLE, line, x ).mul( kernel[ 0 ] );
+			for ( int j = 1; j < kernel.length; ++j )
+				sum = DoubleVector.fromArray( DOUBLE, line, x + j ).fma( DoubleVector.broadcast( DOUBLE, kernel[ j ] ), sum );
+			sum.intoArray( result, x );
+		}
+		for ( ; x < length; ++x )
+		{
+			double sum = kernel[ 0 ] * line[ x ];
+			for ( int j = 1; j < kernel.length; ++j )
+				sum += kernel[ j ] * line[ x + j ];
+			result[ x ] = sum;
+		}
+	}
+
+	/**
+	 * Same as {@link #convolve(double[], double[], double[], int)} for
+	 * symmetric {@code kernel} of odd length.
+	 */
+	static void convolveSymmetric( final double[] kernel, final double[] line, final double[] result, final int length )
+	{
+		final int h = kernel.length / 2;
+		final int upperBound = DOUBLE.loopBound( length );
+		int x = 0;
+		for ( ; x < upperBound; x += DOUBLE.length() )
+		{
+			DoubleVector sum = DoubleVector.fromArray( DOUBLE, line, x + h ).mul( kernel[ h ] );
+			for ( int j = 1; j <= h; ++j )
+			{
+				final DoubleVector pair = DoubleVector.fromArray( DOUBLE, line, x + h - j ).add( DoubleVector.fromArray( DOUBLE, line, x + h + j ) );
+				sum = pair.fma( DoubleVector.broadcast( DOUBLE, kernel[ h + j ] ), sum );
+			}
+			sum.intoArray( result, x );
+		}
+		for ( ; x < length; ++x )
+		{
+			double sum = kernel[ h ] * line[ x + h ];
+			for ( int j = 1; j <= h; ++j )
+				sum += kernel[ h + j ] * ( line[ x + h - j ] + line[ x + h + j ] );
+			result[ x ] = sum;
+		}
+	}
+}
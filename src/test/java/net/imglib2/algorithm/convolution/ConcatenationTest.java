@@ -4,6 +4,7 @@ import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.convolution.kernel.Kernel1D;
 import net.imglib2.algorithm.convolution.kernel.SeparableKernelConvolution;
 import net.imglib2.img.Img;
 import net.imglib2.img.ImgFactory;
@@ -20,7 +21,10 @@ import net.imglib2.view.IntervalView;
 import net.imglib2.view.Views;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class ConcatenationTest
@@ -76,6 +80,42 @@ public class ConcatenationTest
 		}
 	}
 
+	@Test
+	public void testTiled()
+	{
+		final long[] dims = { 37, 29, 11 };
+		final Img< DoubleType > source = ArrayImgs.doubles( dims );
+		final Random random = new Random( 42 );
+		source.forEach( pixel -> pixel.setReal( random.nextDouble() ) );
+		final Kernel1D[] kernels = {
+				Kernel1D.symmetric( new double[] { 0.5, 0.2, 0.05 } ),
+				Kernel1D.asymmetric( new double[] { 1, 2, 3, 4 }, 1 ),
+				Kernel1D.symmetric( new double[] { 0.6, 0.2 } ) };
+
+		final Img< DoubleType > expected = ArrayImgs.doubles( dims );
+		SeparableKernelConvolution.convolution( kernels ).process( Views.extendBorder( source ), expected );
+
+		for ( final int[] blockSize : new int[][] { { 8, 5, 3 }, { 1, 29, 11 }, { 64, 64, 64 } } )
+		{
+			final Img< DoubleType > actual = ArrayImgs.doubles( dims );
+			Convolution.tiled( SeparableKernelConvolution.convolution( kernels ), blockSize ).process( Views.extendBorder( source ), actual );
+			LoopBuilder.setImages( expected, actual ).forEachPixel( ( e, a ) -> assertEquals( e.getRealDouble(), a.getRealDouble(), 1e-12 ) );
+		}
+	}
+
+	@Test
+	public void testTiledDifferences()
+	{
+		Img< IntType > source = ArrayImgs.ints( new int[] { 0, 0, 1, 0, 0, 0, 0 }, 7 );
+		ForwardDifference step = new ForwardDifference( 0 );
+		Convolution< RealType< ? > > convolution = Convolution.tiled( Convolution.concat( step, step, step ), 1 );
+		int[] targetPixels = new int[ 4 ];
+		Img< IntType > target = ArrayImgs.ints( targetPixels, 4 );
+		assertTrue( Intervals.equals( source, convolution.requiredSourceInterval( target ) ) );
+		convolution.process( source, target );
+		assertArrayEquals( new int[] { -3, 3, -1, 0 }, targetPixels );
+	}
+
 	private static class ForwardDifference implements Convolution< RealType< ? > >
 	{
 
@@ -9,12 +9,16 @@ import net.imglib2.algorithm.convolution.kernel.FloatConvolverRealType;
 import net.imglib2.algorithm.convolution.kernel.Kernel1D;
 import net.imglib2.algorithm.convolution.kernel.KernelConvolverFactory;
 import net.imglib2.algorithm.convolution.kernel.DoubleConvolverRealType;
+import net.imglib2.algorithm.convolution.kernel.DoubleLineBufferConvolverRealType;
+import net.imglib2.algorithm.convolution.kernel.FloatLineBufferConvolverRealType;
+import net.imglib2.algorithm.convolution.kernel.LineBufferConvolverFactory;
 import net.imglib2.algorithm.gauss3.ConvolverFactory;
 import net.imglib2.algorithm.gauss3.Gauss3;
 import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.type.numeric.NumericType;
 import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
 import net.imglib2.view.Views;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Scope;
@@ -41,6 +45,10 @@ public class ConvolverBenchmark
 
 	private final Img< DoubleType > outImage = ArrayImgs.doubles( dims );
 
+	private final RandomAccessible< FloatType > inImageFloat = Views.extendBorder( ArrayImgs.floats( dims ) );
+
+	private final Img< FloatType > outImageFloat = ArrayImgs.floats( dims );
+
 	private final double[] halfKernel = Gauss3.halfkernels( new double[] { sigma } )[ 0 ];
 
 	private final Kernel1D kernel = Kernel1D.symmetric( halfKernel );
@@ -75,6 +83,42 @@ public class ConvolverBenchmark
 		runnable.run();
 	}
 
+	@Benchmark
+	public void lineBufferDoubleConvolver()
+	{
+		final Runnable runnable = new DoubleLineBufferConvolverRealType( kernel, in(), out(), d, lineLength );
+		runnable.run();
+	}
+
+	@Benchmark
+	public void lineBufferFloatConvolver()
+	{
+		final Runnable runnable = new FloatLineBufferConvolverRealType( kernel, in(), out(), d, lineLength );
+		runnable.run();
+	}
+
+	@Benchmark
+	public void lineBufferFloatConvolverFloatType()
+	{
+		final Runnable runnable = new FloatLineBufferConvolverRealType( kernel, inFloat(), outFloat(), d, lineLength );
+		runnable.run();
+	}
+
+	@Benchmark
+	public void asymmetricFloatConvolverFloatType()
+	{
+		final Runnable runnable = new FloatConvolverRealType( kernel, inFloat(), outFloat(), d, lineLength );
+		runnable.run();
+	}
+
+	@Benchmark
+	public void lineBufferKernelConvolver()
+	{
+		LineConvolverFactory< NumericType< ? > > convolver = new LineBufferConvolverFactory( kernel );
+		final Runnable runnable = convolver.getConvolver( in(), out(), d, lineLength );
+		runnable.run();
+	}
+
 	@Benchmark
 	public void asymmetricNativeConvolver()
 	{
@@ -107,6 +151,16 @@ public class ConvolverBenchmark
 		return outImage.randomAccess();
 	}
 
+	private RandomAccess< FloatType > inFloat()
+	{
+		return inImageFloat.randomAccess();
+	}
+
+	private RandomAccess< FloatType > outFloat()
+	{
+		return outImageFloat.randomAccess();
+	}
+
 	public static void main( String[] args ) throws RunnerException
 	{
 		Options opt = new OptionsBuilder()
@@ -3,7 +3,9 @@ package net.imglib2.algorithm.convolution;
 import net.imglib2.RandomAccessible;
 import net.imglib2.algorithm.convolution.fast_gauss.FastGauss;
 import net.imglib2.algorithm.convolution.kernel.Kernel1D;
+import net.imglib2.algorithm.convolution.kernel.LineBufferConvolverFactory;
 import net.imglib2.algorithm.convolution.kernel.SeparableKernelConvolution;
+import net.imglib2.algorithm.convolution.kernel.VectorConvolverFactory;
 import net.imglib2.algorithm.gauss3.Gauss3;
 import net.imglib2.algorithm.gauss3.SeparableSymmetricConvolution;
 import net.imglib2.img.Img;
@@ -48,6 +50,30 @@ public class GaussBenchmark
 		service.shutdown();
 	}
 
+	@Benchmark
+	public void benchmarkSeparableKernelConvolutionLineBuffer()
+	{
+		double[][] halfKernels = Gauss3.halfkernels( new double[] { sigma, sigma, sigma } );
+		final int numthreads = Runtime.getRuntime().availableProcessors();
+		final ExecutorService service = Executors.newFixedThreadPool( numthreads );
+		final Convolution< NumericType< ? > > convolution = SeparableKernelConvolution.convolution( LineBufferConvolverFactory::new, Kernel1D.symmetric( halfKernels ) );
+		convolution.setExecutor( service );
+		convolution.process( inImage, outImage );
+		service.shutdown();
+	}
+
+	@Benchmark
+	public void benchmarkSeparableKernelConvolutionVector()
+	{
+		double[][] halfKernels = Gauss3.halfkernels( new double[] { sigma, sigma, sigma } );
+		final int numthreads = Runtime.getRuntime().availableProcessors();
+		final ExecutorService service = Executors.newFixedThreadPool( numthreads );
+		final Convolution< NumericType< ? > > convolution = SeparableKernelConvolution.convolution( VectorConvolverFactory::new, Kernel1D.symmetric( halfKernels ) );
+		convolution.setExecutor( service );
+		convolution.process( inImage, outImage );
+		service.shutdown();
+	}
+
 	@Benchmark
 	public void benchmarkSeparableSymmetricConvolution()
 	{
@@ -66,8 +92,11 @@ public class GaussBenchmark
 
 	public static void main( String[] args ) throws RunnerException
 	{
+		// NB: run with --add-modules jdk.incubator.vector on Java 17+ to
+		// benchmark the Vector API, the forked JVM inherits the module
 		Options opt = new OptionsBuilder()
 				.include( GaussBenchmark.class.getSimpleName() )
+				.jvmArgsAppend( VectorConvolverFactory.isAvailable() ? new String[] { "--add-modules", "jdk.incubator.vector" } : new String[ 0 ] )
 				.forks( 1 )
 				.warmupIterations( 8 )
 				.measurementIterations( 8 )
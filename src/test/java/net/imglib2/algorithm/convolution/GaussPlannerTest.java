@@ -0,0 +1,140 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.RandomAccessible;
+import net.imglib2.algorithm.convolution.GaussPlanner.Engine;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.loops.LoopBuilder;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.view.Views;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link GaussPlanner}.
+ */
+public class GaussPlannerTest
+{
+
+	@Test
+	public void testChoose()
+	{
+		final long[] dims = { 512, 512, 512 };
+		assertEquals( Engine.LINE_BUFFER, GaussPlanner.choose( new double[] { 1, 1, 1 }, dims ) );
+		assertEquals( Engine.FAST_GAUSS, GaussPlanner.choose( new double[] { 30, 30, 30 }, dims ) );
+	}
+
+	@Test
+	public void testTolerance()
+	{
+		final long[] dims = { 512, 512, 512 };
+		final double[] sigma = { 30, 30, 30 };
+		final GaussPlanner exact = new GaussPlanner( 1e-8, false );
+		final Engine engine = exact.choose( sigma, new FloatType(), dims );
+		assertNotEquals( Engine.FAST_GAUSS, engine );
+		assertEquals( engine, exact.choose( new double[] { 31, 31, 31 }, new FloatType(), new long[] { 600, 600, 600 } ) );
+
+		final GaussPlanner approximate = new GaussPlanner( 1, false );
+		assertEquals( Engine.FAST_GAUSS, approximate.choose( sigma, new FloatType(), dims ) );
+	}
+
+	@Test
+	public void testKernelLargerThanFFTBudget()
+	{
+		// The 3d kernel has about 301^3 elements, more than FFTConvolution accepts.
+		final long[] dims = { 2048, 2048, 2048 };
+		final double[] sigma = { 50, 50, 50 };
+		assertEquals( Double.POSITIVE_INFINITY, GaussPlanner.estimateCost( Engine.FFT, sigma, dims ), 0 );
+		assertNotEquals( Engine.FFT, GaussPlanner.choose( sigma, dims ) );
+
+		final GaussPlanner exact = new GaussPlanner( 1e-8, false );
+		assertEquals( Engine.LINE_BUFFER, exact.choose( sigma, new FloatType(), dims ) );
+		assertNotNull( exact.plan( sigma, new FloatType(), new FinalInterval( dims ) ) );
+	}
+
+	@Test
+	public void testFFTBudgetWithinCachedSigmaStep()
+	{
+		// sigma 167 and 175 share a quarter octave, but only the kernel of
+		// sigma 167 (1003^2 elements) fits into the FFTConvolution budget
+		final long[] dims = { 4096, 4096 };
+		final double[] fits = { 167, 167 };
+		final double[] exceeds = { 175, 175 };
+		assertTrue( GaussPlanner.estimateCost( Engine.FFT, fits, dims ) < Double.POSITIVE_INFINITY );
+		assertEquals( Double.POSITIVE_INFINITY, GaussPlanner.estimateCost( Engine.FFT, exceeds, dims ), 0 );
+
+		final GaussPlanner exact = new GaussPlanner( 1e-8, false );
+		assertEquals( Engine.FFT, exact.choose( fits, new DoubleType(), dims ) );
+		assertNotEquals( Engine.FFT, exact.choose( exceeds, new DoubleType(), dims ) );
+		assertNotNull( exact.plan( exceeds, new DoubleType(), new FinalInterval( dims ) ) );
+	}
+
+	@Test
+	public void testEstimateError()
+	{
+		for ( final Engine engine : new Engine[] { Engine.DIRECT, Engine.LINE_BUFFER, Engine.FFT } )
+			assertEquals( 0, GaussPlanner.estimateError( engine, 4.0 ), 1e-10 );
+		assertTrue( GaussPlanner.estimateError( Engine.FAST_GAUSS, 4.0 ) > 0 );
+	}
+
+	@Test
+	public void testExactEngines()
+	{
+		final double[] sigma = { 2.5, 1.5 };
+		final Img< DoubleType > image = ArrayImgs.doubles( 50, 40 );
+		final Random random = new Random( 42 );
+		image.forEach( pixel -> pixel.set( random.nextDouble() ) );
+		final RandomAccessible< DoubleType > source = Views.extendBorder( image );
+
+		final Img< DoubleType > direct = ArrayImgs.doubles( 50, 40 );
+		GaussPlanner.convolution( Engine.DIRECT, sigma ).process( source, direct );
+		for ( final Engine engine : new Engine[] { Engine.LINE_BUFFER, Engine.FFT } )
+		{
+			final Img< DoubleType > actual = ArrayImgs.doubles( 50, 40 );
+			GaussPlanner.convolution( engine, sigma ).process( source, actual );
+			LoopBuilder.setImages( direct, actual ).forEachPixel( ( d, a ) -> assertEquals( d.get(), a.get(), 1e-10 ) );
+		}
+	}
+}
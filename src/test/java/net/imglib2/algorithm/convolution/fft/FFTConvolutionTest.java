@@ -0,0 +1,187 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.fft;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.algorithm.convolution.kernel.Kernel1D;
+import net.imglib2.algorithm.convolution.kernel.SeparableKernelConvolution;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.loops.LoopBuilder;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.view.Views;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link FFT} and {@link FFTConvolution}.
+ */
+public class FFTConvolutionTest
+{
+
+	@Test
+	public void testFFT()
+	{
+		final int n = 16;
+		final Random random = new Random( 42 );
+		final double[] re = random.doubles( n ).toArray();
+		final double[] im = random.doubles( n ).toArray();
+		final double[] expectedRe = new double[ n ];
+		final double[] expectedIm = new double[ n ];
+		for ( int k = 0; k < n; k++ )
+			for ( int j = 0; j < n; j++ )
+			{
+				final double angle = -2 * Math.PI * j * k / n;
+				expectedRe[ k ] += re[ j ] * Math.cos( angle ) - im[ j ] * Math.sin( angle );
+				expectedIm[ k ] += re[ j ] * Math.sin( angle ) + im[ j ] * Math.cos( angle );
+			}
+
+		final double[] actualRe = re.clone();
+		final double[] actualIm = im.clone();
+		final FFT fft = new FFT( n );
+		fft.transform( actualRe, actualIm, false );
+		assertArrayEquals( expectedRe, actualRe, 1e-10 );
+		assertArrayEquals( expectedIm, actualIm, 1e-10 );
+
+		fft.transform( actualRe, actualIm, true );
+		assertArrayEquals( re, actualRe, 1e-10 );
+		assertArrayEquals( im, actualIm, 1e-10 );
+	}
+
+	@Test
+	public void testFFTSize()
+	{
+		assertArrayEquals( new int[] { 128, 32 }, FFTConvolution.fftSize( new long[] { 5, 3 }, new long[] { 100, 20 }, 1 << 20 ) );
+		final int[] size = FFTConvolution.fftSize( new long[] { 5, 3 }, new long[] { 1000, 1000 }, 1 << 10 );
+		assertTrue( size[ 0 ] * size[ 1 ] <= 1 << 10 );
+		assertTrue( size[ 0 ] >= 9 && size[ 1 ] >= 5 );
+	}
+
+	@Test
+	public void testSeparable()
+	{
+		final Kernel1D[] kernels = {
+				Kernel1D.asymmetric( new double[] { 1, 2, 3, 4, 5 }, 1 ),
+				Kernel1D.symmetric( new double[] { 0.5, 0.2, 0.1 } ),
+				Kernel1D.asymmetric( new double[] { -1, 1 }, 0 ) };
+		final RandomAccessible< DoubleType > source = randomImage( 42, 40, 30, 20 );
+		final Img< DoubleType > expected = ArrayImgs.doubles( 37, 23, 11 );
+		SeparableKernelConvolution.convolution( kernels ).process( source, expected );
+
+		for ( final long maxNumElements : new long[] { FFTConvolution.DEFAULT_MAX_NUM_ELEMENTS, 1 << 10 } )
+		{
+			final Img< DoubleType > actual = ArrayImgs.doubles( 37, 23, 11 );
+			final FFTConvolution convolution = new FFTConvolution( separableKernel( kernels ), maxNumElements );
+			convolution.process( source, actual );
+			// NB: second call reuses the cached kernel spectrum
+			convolution.process( source, actual );
+			assertImagesEqual( expected, actual, 1e-10 );
+		}
+	}
+
+	@Test
+	public void testNonSeparable()
+	{
+		final Img< DoubleType > kernel = ArrayImgs.doubles( new double[] {
+				0, 1, 0,
+				2, -4, 1,
+				0, 3, 0,
+				1, 0, 0 }, 3, 4 );
+		final long[] kernelMin = { -1, -2 };
+		final RandomAccessible< DoubleType > source = randomImage( 7, 30, 30 );
+		final Img< DoubleType > actual = ArrayImgs.doubles( 19, 17 );
+		new FFTConvolution( Views.translate( kernel, kernelMin ), 1 << 8 ).process( source, actual );
+
+		final RandomAccess< DoubleType > in = source.randomAccess();
+		final Cursor< DoubleType > out = actual.localizingCursor();
+		final Cursor< DoubleType > k = kernel.localizingCursor();
+		while ( out.hasNext() )
+		{
+			out.fwd();
+			double expected = 0;
+			k.reset();
+			while ( k.hasNext() )
+			{
+				final double value = k.next().get();
+				in.setPosition( out.getLongPosition( 0 ) - k.getLongPosition( 0 ) - kernelMin[ 0 ], 0 );
+				in.setPosition( out.getLongPosition( 1 ) - k.getLongPosition( 1 ) - kernelMin[ 1 ], 1 );
+				expected += value * in.get().get();
+			}
+			assertEquals( expected, out.get().get(), 1e-10 );
+		}
+	}
+
+	private static RandomAccessible< DoubleType > randomImage( final long seed, final long... dims )
+	{
+		final Img< DoubleType > image = ArrayImgs.doubles( dims );
+		final Random random = new Random( seed );
+		image.forEach( pixel -> pixel.set( random.nextDouble() ) );
+		return Views.extendMirrorSingle( image );
+	}
+
+	private static net.imglib2.RandomAccessibleInterval< DoubleType > separableKernel( final Kernel1D[] kernels )
+	{
+		final long[] dims = new long[ kernels.length ];
+		final long[] min = new long[ kernels.length ];
+		for ( int d = 0; d < kernels.length; d++ )
+		{
+			dims[ d ] = kernels[ d ].size();
+			min[ d ] = kernels[ d ].min();
+		}
+		final Img< DoubleType > kernel = ArrayImgs.doubles( dims );
+		final Cursor< DoubleType > cursor = kernel.localizingCursor();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			double value = 1;
+			for ( int d = 0; d < kernels.length; d++ )
+				value *= kernels[ d ].fullKernel()[ cursor.getIntPosition( d ) ];
+			cursor.get().set( value );
+		}
+		return Views.translate( kernel, min );
+	}
+
+	private static void assertImagesEqual( final Img< DoubleType > expected, final Img< DoubleType > actual, final double delta )
+	{
+		LoopBuilder.setImages( expected, actual ).forEachPixel( ( e, a ) -> assertEquals( e.get(), a.get(), delta ) );
+	}
+}
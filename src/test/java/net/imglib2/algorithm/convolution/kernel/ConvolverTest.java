@@ -2,6 +2,8 @@ package net.imglib2.algorithm.convolution.kernel;
 
 import static org.junit.Assert.assertArrayEquals;
 
+import java.util.Random;
+
 import net.imglib2.RandomAccess;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.type.numeric.real.DoubleType;
@@ -10,7 +12,9 @@ import org.junit.Test;
 
 /**
  * Tests {@link ConvolverNativeType}, {@link ConvolverNumericType},
- * {@link DoubleConvolverRealType} and {@link FloatConvolverRealType}.
+ * {@link DoubleConvolverRealType}, {@link FloatConvolverRealType},
+ * {@link DoubleLineBufferConvolverRealType} and
+ * {@link FloatLineBufferConvolverRealType}.
  *
  * @author Tobias Pietzsch
  */
@@ -40,6 +44,53 @@ public class ConvolverTest
 		testConvolver( FloatConvolverRealType::new );
 	}
 
+	@Test
+	public void testDoubleLineBufferConvolverRealType()
+	{
+		testConvolver( DoubleLineBufferConvolverRealType::new );
+		testSymmetricConvolver( DoubleLineBufferConvolverRealType::new );
+	}
+
+	@Test
+	public void testFloatLineBufferConvolverRealType()
+	{
+		testConvolver( FloatLineBufferConvolverRealType::new );
+		testSymmetricConvolver( FloatLineBufferConvolverRealType::new );
+	}
+
+	@Test
+	public void testVectorConvolverFactory()
+	{
+		final ConvolverConstructor< DoubleType > constructor = ( kernel, in, out, d, lineLength ) -> new VectorConvolverFactory( kernel ).getConvolver( in, out, d, lineLength );
+		testConvolver( constructor );
+		testSymmetricConvolver( constructor );
+		// lines that are longer than a vector and have a remainder
+		final Random random = new Random( 42 );
+		final double[] in = new double[ 1003 + 6 ];
+		for ( int i = 0; i < in.length; i++ )
+			in[ i ] = random.nextDouble();
+		for ( final Kernel1D kernel : new Kernel1D[] { Kernel1D.symmetric( 3.0, 2.0, 1.0, 0.5 ), Kernel1D.asymmetric( new double[] { 1.0, -2.0, 3.0, 0.5, 4.0 }, 1 ) } )
+		{
+			final int lineLength = in.length - kernel.size() + 1;
+			final double[] expected = new double[ lineLength ];
+			final double[] out = new double[ lineLength ];
+			new DoubleConvolverRealType( kernel, ArrayImgs.doubles( in, in.length ).randomAccess(), ArrayImgs.doubles( expected, lineLength ).randomAccess(), 0, lineLength ).run();
+			constructor.create( kernel, ArrayImgs.doubles( in, in.length ).randomAccess(), ArrayImgs.doubles( out, lineLength ).randomAccess(), 0, lineLength ).run();
+			assertArrayEquals( expected, out, 1e-10 );
+		}
+	}
+
+	private void testSymmetricConvolver( ConvolverConstructor< DoubleType > constructor )
+	{
+		final Kernel1D kernel = Kernel1D.symmetric( 3.0, 2.0, 1.0 );
+		final double[] in = { 1.0, 0.0, 2.0, 0.0, 1.0, 0.0, 0.0, 5.0, 0.0, 1.0 };
+		final double[] expected = new double[ in.length - kernel.size() + 1 ];
+		final double[] out = new double[ expected.length ];
+		new DoubleConvolverRealType( kernel, ArrayImgs.doubles( in, in.length ).randomAccess(), ArrayImgs.doubles( expected, expected.length ).randomAccess(), 0, expected.length ).run();
+		constructor.create( kernel, ArrayImgs.doubles( in, in.length ).randomAccess(), ArrayImgs.doubles( out, out.length ).randomAccess(), 0, out.length ).run();
+		assertArrayEquals( expected, out, 1e-6 );
+	}
+
 	private void testConvolver( ConvolverConstructor< DoubleType > constructor )
 	{
 		final double[] kernel = { 1.0, 2.0, 3.0, 4.0 };
@@ -0,0 +1,105 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.kernel;
+
+import net.imglib2.algorithm.gauss3.Gauss3;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class KernelCacheTest
+{
+
+	@Test
+	public void testHalfkernel()
+	{
+		KernelCache cache = new KernelCache( 10 );
+		double[] expected = Gauss3.halfkernel( 2.0, 7, true );
+		double[] first = cache.halfkernel( 2.0, 7, true );
+		double[] second = cache.halfkernel( 2.0, 7, true );
+		assertArrayEquals( expected, first, 0.0 );
+		assertSame( first, second );
+		assertEquals( 1, cache.hits() );
+		assertEquals( 1, cache.misses() );
+	}
+
+	@Test
+	public void testGauss()
+	{
+		KernelCache cache = new KernelCache( 10 );
+		Kernel1D kernel = cache.gauss( 2.0 );
+		double[] expected = Kernel1D.symmetric( Gauss3.halfkernels( new double[] { 2.0 } )[ 0 ] ).fullKernel();
+		assertArrayEquals( expected, kernel.fullKernel(), 0.0 );
+		assertSame( kernel, cache.gauss( 2.0 ) );
+		assertNotSame( kernel, cache.gauss( 3.0 ) );
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction()
+	{
+		KernelCache cache = new KernelCache( 2 );
+		double[] a = cache.halfkernel( 1.0, 4, true );
+		cache.halfkernel( 2.0, 7, true );
+		cache.halfkernel( 1.0, 4, true ); // sigma 2.0 is now least recently used
+		cache.halfkernel( 3.0, 10, true );
+		assertEquals( 1, cache.evictions() );
+		assertSame( a, cache.halfkernel( 1.0, 4, true ) );
+		long misses = cache.misses();
+		cache.halfkernel( 2.0, 7, true );
+		assertEquals( misses + 1, cache.misses() );
+	}
+
+	@Test
+	public void testClear()
+	{
+		KernelCache cache = new KernelCache( 2 );
+		cache.gauss( 1.0 );
+		cache.clear();
+		assertEquals( 0, cache.size() );
+		assertEquals( 0, cache.hits() );
+		assertEquals( 0, cache.misses() );
+	}
+
+	@Test
+	public void testHalfkernelsReturnsCopies()
+	{
+		double[] first = Gauss3.halfkernels( new double[] { 1.5 } )[ 0 ];
+		first[ 0 ] = 42;
+		double[] second = Gauss3.halfkernels( new double[] { 1.5 } )[ 0 ];
+		assertArrayEquals( Gauss3.halfkernel( 1.5, second.length, true ), second, 0.0 );
+	}
+}
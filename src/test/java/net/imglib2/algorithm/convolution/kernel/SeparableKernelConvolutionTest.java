@@ -76,6 +76,12 @@ public class SeparableKernelConvolutionTest
 		RandomAccessibleInterval< DoubleType > result = createImg( expected );
 		SeparableKernelConvolution.convolve( kernels1d, dirac, result );
 		ImgLib2Assert.assertImageEquals( expected, result );
+		RandomAccessibleInterval< DoubleType > lineBufferResult = createImg( expected );
+		SeparableKernelConvolution.convolution( LineBufferConvolverFactory::new, kernels1d ).process( dirac, lineBufferResult );
+		ImgLib2Assert.assertImageEquals( expected, lineBufferResult );
+		RandomAccessibleInterval< DoubleType > vectorResult = createImg( expected );
+		SeparableKernelConvolution.convolution( VectorConvolverFactory::new, kernels1d ).process( dirac, vectorResult );
+		ImgLib2Assert.assertImageEquals( expected, vectorResult );
 	}
 
 	private RandomAccessible< DoubleType > getDirac( int n )
@@ -0,0 +1,145 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.kernel;
+
+import net.imglib2.Cursor;
+import net.imglib2.FinalDimensions;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.gauss3.Gauss3;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamingKernelConvolutionTest
+{
+
+	@Test
+	public void testAsymmetricKernels()
+	{
+		double[][] kernels = { { 1, 6, 8, 6 }, { 2, 7, -5 }, { 1, 2, -3, 4, 0.5 } };
+		int[] centers = { 0, 1, 1 };
+		testStreaming( Kernel1D.asymmetric( kernels, centers ), 9, 7, 12 );
+	}
+
+	@Test
+	public void testFewerPlanesThanKernel()
+	{
+		double[][] halfKernels = { { 4, 2, 1 }, { 3, 1 }, { 5, 3, 2, 1 } };
+		testStreaming( Kernel1D.symmetric( halfKernels ), 5, 4, 2 );
+	}
+
+	@Test
+	public void testGauss()
+	{
+		Img< DoubleType > input = randomImage( 11, 10, 15 );
+		Img< DoubleType > expected = ArrayImgs.doubles( 11, 10, 15 );
+		Gauss3.gauss( new double[] { 1.5, 2, 2.5 }, Views.extendBorder( input ), expected );
+		List< RandomAccessibleInterval< FloatType > > planes = new ArrayList<>();
+		StreamingKernelConvolution< FloatType > streaming = StreamingKernelConvolution.gauss(
+				new double[] { 1.5, 2, 2.5 }, new FinalDimensions( 11, 10 ), new FloatType(), planes::add );
+		push( streaming, input );
+		assertEquals( 15, planes.size() );
+		assertEqualsStack( expected, planes, 1e-5 );
+	}
+
+	@Test
+	public void testLatency()
+	{
+		Img< DoubleType > input = randomImage( 3, 3, 10 );
+		List< RandomAccessibleInterval< DoubleType > > planes = new ArrayList<>();
+		StreamingKernelConvolution< DoubleType > streaming = new StreamingKernelConvolution<>(
+				Kernel1D.symmetric( new double[][] { { 1 }, { 1 }, { 1, 1, 1 } } ), new FinalDimensions( 3, 3 ), new DoubleType(), planes::add );
+		for ( int z = 0; z < 10; z++ )
+		{
+			streaming.push( Views.hyperSlice( input, 2, z ) );
+			assertEquals( z, planes.size() );
+		}
+		streaming.finish();
+		assertEquals( 10, planes.size() );
+	}
+
+	private void testStreaming( Kernel1D[] kernels, long... dimensions )
+	{
+		Img< DoubleType > input = randomImage( dimensions );
+		Img< DoubleType > expected = ArrayImgs.doubles( dimensions );
+		SeparableKernelConvolution.convolve( kernels, Views.extendBorder( input ), expected );
+		List< RandomAccessibleInterval< DoubleType > > planes = new ArrayList<>();
+		StreamingKernelConvolution< DoubleType > streaming = new StreamingKernelConvolution<>(
+				kernels, new FinalDimensions( dimensions[ 0 ], dimensions[ 1 ] ), new DoubleType(), planes::add );
+		push( streaming, input );
+		assertEqualsStack( expected, planes, 1e-10 );
+	}
+
+	private static void push( StreamingKernelConvolution< ? > streaming, Img< DoubleType > input )
+	{
+		int last = input.numDimensions() - 1;
+		for ( long z = 0; z < input.dimension( last ); z++ )
+			streaming.push( Views.hyperSlice( input, last, z ) );
+		streaming.finish();
+	}
+
+	private static void assertEqualsStack( Img< DoubleType > expected, List< ? extends RandomAccessibleInterval< ? extends RealType< ? > > > planes, double delta )
+	{
+		int last = expected.numDimensions() - 1;
+		assertEquals( expected.dimension( last ), planes.size() );
+		for ( int z = 0; z < planes.size(); z++ )
+		{
+			RandomAccessibleInterval< ? extends RealType< ? > > actual = planes.get( z );
+			Cursor< DoubleType > e = Views.flatIterable( Views.hyperSlice( expected, last, z ) ).cursor();
+			Cursor< ? extends RealType< ? > > a = Views.flatIterable( actual ).cursor();
+			assertEquals( Intervals.numElements( actual ), Intervals.numElements( Views.hyperSlice( expected, last, z ) ) );
+			while ( e.hasNext() )
+				assertEquals( e.next().getRealDouble(), a.next().getRealDouble(), delta );
+		}
+	}
+
+	private static Img< DoubleType > randomImage( long... dimensions )
+	{
+		Random random = new Random( 42 );
+		Img< DoubleType > image = ArrayImgs.doubles( dimensions );
+		image.forEach( pixel -> pixel.setReal( random.nextDouble() ) );
+		return image;
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.convolution.recursive_gauss;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.convolution.fast_gauss.FastGaussTest;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.position.FunctionRandomAccessible;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.view.Views;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RecursiveGaussTest
+{
+
+	@Test
+	public void testImpulseResponse()
+	{
+		long[] dimensions = { 100, 100 };
+		long[] peak = { 50, 50 };
+		double sigma = 5.0;
+		Img< DoubleType > img = ArrayImgs.doubles( dimensions );
+		RandomAccess< DoubleType > ra = img.randomAccess();
+		ra.setPosition( peak );
+		ra.get().set( 1 );
+		Img< DoubleType > result = ArrayImgs.doubles( dimensions );
+		RecursiveGauss.convolve( sigma, Views.extendBorder( img ), result );
+		FunctionRandomAccessible< DoubleType > gauss = new FunctionRandomAccessible< DoubleType >( 2, ( position, out ) -> {
+			long x = position.getLongPosition( 0 ) - peak[ 0 ];
+			long y = position.getLongPosition( 1 ) - peak[ 1 ];
+			out.setReal( Math.exp( -0.5 / sigma / sigma * ( x * x + y * y ) ) / ( 2 * Math.PI * sigma * sigma ) );
+		}, DoubleType::new );
+		RandomAccessibleInterval< DoubleType > expected = Views.interval( gauss, new FinalInterval( dimensions ) );
+		assertTrue( FastGaussTest.psnr( expected, result ) > 40 );
+	}
+
+	@Test
+	public void testPreservesConstant()
+	{
+		Img< DoubleType > result = ArrayImgs.doubles( 10, 10 );
+		RecursiveGauss.convolve( new double[] { 1.0, 7.0 }, Views.extendValue( ArrayImgs.doubles( 1, 1 ), new DoubleType( 3.0 ) ), result );
+		for ( DoubleType value : result )
+			assertEquals( 3.0, value.get(), 1e-10 );
+	}
+
+	@Test
+	public void testSecondDerivativeOfParabola()
+	{
+		FunctionRandomAccessible< DoubleType > parabola = new FunctionRandomAccessible< DoubleType >( 1, ( position, out ) -> {
+			double x = position.getDoublePosition( 0 );
+			out.setReal( 1.5 * x * x - 4 * x + 2 );
+		}, DoubleType::new );
+		Img< DoubleType > result = ArrayImgs.doubles( 20 );
+		RecursiveGauss.derivative( new double[] { 3.0 }, new int[] { 2 } ).process( parabola, result );
+		for ( DoubleType value : result )
+			assertEquals( 3.0, value.get(), 1e-8 );
+	}
+
+	@Test
+	public void testFirstDerivativeOfWave()
+	{
+		double sigma = 2.0;
+		FunctionRandomAccessible< DoubleType > wave = new FunctionRandomAccessible< DoubleType >( 1, ( position, out ) -> {
+			out.setReal( Math.sin( position.getDoublePosition( 0 ) / 4 ) );
+		}, DoubleType::new );
+		Img< DoubleType > result = ArrayImgs.doubles( 50 );
+		RecursiveGauss.derivative( new double[] { sigma }, new int[] { 1 } ).process( wave, result );
+		double attenuation = Math.exp( -sigma * sigma / 32 );
+		RandomAccess< DoubleType > ra = result.randomAccess();
+		for ( int x = 0; x < 50; x++ )
+		{
+			ra.setPosition( x, 0 );
+			assertEquals( attenuation * Math.cos( x / 4.0 ) / 4, ra.get().get(), 0.02 );
+		}
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testSigmaTooSmall()
+	{
+		new RecursiveGaussConvolverRealType( 0.3, 0 );
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testUnsupportedOrder()
+	{
+		new RecursiveGaussConvolverRealType( 1.0, 3 );
+	}
+}
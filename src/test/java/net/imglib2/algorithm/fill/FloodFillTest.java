@@ -34,14 +34,26 @@
 
 package net.imglib2.algorithm.fill;
 
+import java.util.Random;
+
 import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
 import net.imglib2.Point;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.neighborhood.DiamondShape;
+import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
 import net.imglib2.img.Img;
 import net.imglib2.img.ImgFactory;
+import net.imglib2.img.array.ArrayImg;
 import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.LongArray;
 import net.imglib2.type.numeric.IntegerType;
 import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.util.Intervals;
 import net.imglib2.view.ExtendedRandomAccessibleInterval;
 import net.imglib2.view.Views;
 
@@ -129,4 +141,71 @@ public class FloodFillTest
 		}
 	}
 
+	@Test
+	public void testScanlineEqualsNeighborhoods()
+	{
+		final Random rng = new Random( 100 );
+		final LongType fillLabel = new LongType( FILL_LABEL );
+		for ( final int nDim : N_DIMS )
+		{
+			final long[] dims = new long[ nDim ];
+			for ( int d = 0; d < nDim; ++d )
+				dims[ d ] = 13 - 2 * d;
+			final long[] data = new long[ ( int ) Intervals.numElements( dims ) ];
+			for ( int i = 0; i < data.length; ++i )
+				data[ i ] = rng.nextDouble() < 0.6 ? START_LABEL : 0;
+			final long[] seed = new long[ nDim ];
+			for ( int d = 0; d < nDim; ++d )
+				seed[ d ] = dims[ d ] / 2;
+
+			for ( final Shape shape : new Shape[] { new DiamondShape( 1 ), new RectangleShape( 1, false ), new RectangleShape( 1, true ) } )
+			{
+				final ArrayImg< LongType, LongArray > scanline = ArrayImgs.longs( data.clone(), dims );
+				final ArrayImg< LongType, LongArray > neighborhoods = ArrayImgs.longs( data.clone(), dims );
+				FloodFill.fill( Views.extendValue( scanline, fillLabel ), Views.extendValue( scanline, fillLabel ), new Point( seed ), fillLabel, shape );
+				FloodFill.fill( Views.extendValue( neighborhoods, fillLabel ), Views.extendValue( neighborhoods, fillLabel ), new Point( seed ), fillLabel, new DelegatingShape( shape ) );
+				Assert.assertArrayEquals( neighborhoods.update( null ).getCurrentStorageArray(), scanline.update( null ).getCurrentStorageArray() );
+			}
+		}
+	}
+
+	/**
+	 * Hides the type of a {@link Shape} to enforce flood fill over
+	 * {@link Neighborhood}s.
+	 */
+	private static class DelegatingShape implements Shape
+	{
+
+		private final Shape shape;
+
+		public DelegatingShape( final Shape shape )
+		{
+			this.shape = shape;
+		}
+
+		@Override
+		public < T > IterableInterval< Neighborhood< T > > neighborhoods( final RandomAccessibleInterval< T > source )
+		{
+			return shape.neighborhoods( source );
+		}
+
+		@Override
+		public < T > RandomAccessible< Neighborhood< T > > neighborhoodsRandomAccessible( final RandomAccessible< T > source )
+		{
+			return shape.neighborhoodsRandomAccessible( source );
+		}
+
+		@Override
+		public < T > IterableInterval< Neighborhood< T > > neighborhoodsSafe( final RandomAccessibleInterval< T > source )
+		{
+			return shape.neighborhoodsSafe( source );
+		}
+
+		@Override
+		public < T > RandomAccessible< Neighborhood< T > > neighborhoodsRandomAccessibleSafe( final RandomAccessible< T > source )
+		{
+			return shape.neighborhoodsRandomAccessibleSafe( source );
+		}
+	}
+
 }
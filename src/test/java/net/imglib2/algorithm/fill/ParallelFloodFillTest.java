@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.fill;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.imglib2.Point;
+import net.imglib2.RandomAccess;
+import net.imglib2.algorithm.neighborhood.DiamondShape;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.ByteArray;
+import net.imglib2.img.basictypeaccess.array.LongArray;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+public class ParallelFloodFillTest
+{
+
+	private final long[] dims = { 67, 61, 17 };
+
+	private final int numSeeds = 300;
+
+	@Test
+	public void testAgainstSequentialFill()
+	{
+		final Random rng = new Random( 100 );
+		final ArrayImg< ByteType, ByteArray > source = ArrayImgs.bytes( dims );
+		source.forEach( p -> p.set( ( byte ) ( rng.nextDouble() < 0.7 ? 1 : rng.nextInt( 3 ) + 2 ) ) );
+
+		final List< Point > seeds = new ArrayList<>();
+		final long[] fillLabels = new long[ numSeeds ];
+		for ( int seed = 0; seed < numSeeds; ++seed )
+		{
+			final long[] position = new long[ dims.length ];
+			for ( int d = 0; d < dims.length; ++d )
+				position[ d ] = rng.nextInt( ( int ) dims[ d ] );
+			seeds.add( new Point( position ) );
+			fillLabels[ seed ] = 1000 + seed;
+		}
+		// two seeds at the same location
+		seeds.set( numSeeds - 1, seeds.get( 3 ) );
+
+		final ForkJoinPool pool = new ForkJoinPool( 4 );
+		try
+		{
+			for ( final Shape shape : new Shape[] { new DiamondShape( 1 ), new RectangleShape( 1, true ) } )
+			{
+				final ArrayImg< LongType, LongArray > expected = ArrayImgs.longs( dims );
+				final int[] expectedSeeds = fillSequentially( source, expected, seeds, fillLabels, shape );
+
+				final ArrayImg< LongType, LongArray > target = ArrayImgs.longs( dims );
+				final int[] filledSeeds = ParallelFloodFill.fill( source, target, seeds, fillLabels, shape, pool );
+
+				Assert.assertArrayEquals( expectedSeeds, filledSeeds );
+				Assert.assertArrayEquals( expected.update( null ).getCurrentStorageArray(), target.update( null ).getCurrentStorageArray() );
+				Assert.assertEquals( 3, filledSeeds[ numSeeds - 1 ] );
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	private static int[] fillSequentially(
+			final ArrayImg< ByteType, ByteArray > source,
+			final ArrayImg< LongType, LongArray > target,
+			final List< Point > seeds,
+			final long[] fillLabels,
+			final Shape shape )
+	{
+		final ArrayImg< LongType, LongArray > owners = ArrayImgs.longs( Intervals.dimensionsAsLongArray( source ) );
+		final RandomAccess< LongType > ownerAccess = owners.randomAccess();
+		final RandomAccess< ByteType > sourceAccess = source.randomAccess();
+		final int[] filledSeeds = new int[ seeds.size() ];
+		for ( int seed = 0; seed < seeds.size(); ++seed )
+		{
+			ownerAccess.setPosition( seeds.get( seed ) );
+			final long owner = ownerAccess.get().get();
+			if ( owner != 0 )
+			{
+				filledSeeds[ seed ] = filledSeeds[ ( int ) owner - 1 ];
+				continue;
+			}
+			filledSeeds[ seed ] = seed;
+			sourceAccess.setPosition( seeds.get( seed ) );
+			final byte seedValue = sourceAccess.get().get();
+			final long id = seed + 1;
+			FloodFill.fill(
+					Views.extendValue( source, new ByteType( ( byte ) -1 ) ),
+					Views.extendValue( owners, new LongType( -1 ) ),
+					seeds.get( seed ),
+					shape,
+					( s, o ) -> s.get() == seedValue && o.get() == 0,
+					o -> o.set( id ) );
+		}
+
+		final long[] ownerData = owners.update( null ).getCurrentStorageArray();
+		final long[] targetData = target.update( null ).getCurrentStorageArray();
+		for ( int i = 0; i < ownerData.length; ++i )
+			if ( ownerData[ i ] != 0 )
+				targetData[ i ] = fillLabels[ filledSeeds[ ( int ) ownerData[ i ] - 1 ] ];
+		return filledSeeds;
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.hessian;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.gradient.HessianEigenValues;
+import net.imglib2.algorithm.gradient.HessianMatrix;
+import net.imglib2.algorithm.linalg.eigen.TensorEigenValues;
+import net.imglib2.algorithm.util.SequentialExecutorService;
+import net.imglib2.exception.IncompatibleTypeException;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.DoubleArray;
+import net.imglib2.outofbounds.OutOfBoundsBorderFactory;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.view.Views;
+
+public class HessianEigenValuesTest
+{
+
+	@Test
+	public void test2D() throws IncompatibleTypeException, InterruptedException, ExecutionException
+	{
+		test( new long[] { 23, 17 }, new int[] { 7, 5 }, 1.5 );
+	}
+
+	@Test
+	public void test3D() throws IncompatibleTypeException, InterruptedException, ExecutionException
+	{
+		test( new long[] { 13, 11, 9 }, new int[] { 4, 5, 3 }, 1.0, 1.5, 0.8 );
+	}
+
+	public void test( final long[] dimensions, final int[] blockSize, final double... sigma ) throws IncompatibleTypeException, InterruptedException, ExecutionException
+	{
+		final int nDim = dimensions.length;
+		final ArrayImg< DoubleType, DoubleArray > img = randomImage( dimensions );
+
+		final long[] gradientDimensions = withChannels( dimensions, nDim );
+		final RandomAccessibleInterval< DoubleType > hessian = HessianMatrix.calculateMatrix(
+				Views.extendBorder( img ),
+				ArrayImgs.doubles( dimensions ),
+				ArrayImgs.doubles( gradientDimensions ),
+				ArrayImgs.doubles( withChannels( dimensions, nDim * ( nDim + 1 ) / 2 ) ),
+				new OutOfBoundsBorderFactory<>(),
+				sigma );
+		final RandomAccessibleInterval< DoubleType > expected = TensorEigenValues.calculateEigenValuesSymmetric( hessian, ArrayImgs.doubles( gradientDimensions ) );
+
+		final ExecutorService es = Executors.newFixedThreadPool( 3 );
+		final RandomAccessibleInterval< DoubleType > eigenvalues = HessianEigenValues.calculateEigenValues(
+				Views.extendBorder( img ),
+				ArrayImgs.doubles( gradientDimensions ),
+				new OutOfBoundsBorderFactory<>(),
+				blockSize,
+				5,
+				es,
+				sigma );
+
+		final RandomAccessibleInterval< DoubleType > smallest = HessianEigenValues.calculate(
+				Views.extendBorder( img ),
+				ArrayImgs.doubles( dimensions ),
+				( ev, target ) -> target.set( ev[ nDim - 1 ] ),
+				new OutOfBoundsBorderFactory<>(),
+				blockSize,
+				5,
+				es,
+				sigma );
+		es.shutdown();
+
+		for ( Cursor< DoubleType > e = Views.flatIterable( expected ).cursor(), a = Views.flatIterable( eigenvalues ).cursor(); e.hasNext(); )
+			Assert.assertEquals( e.next().get(), a.next().get(), 1e-10 );
+
+		for ( Cursor< DoubleType > e = Views.flatIterable( Views.hyperSlice( expected, nDim, nDim - 1 ) ).cursor(), a = Views.flatIterable( smallest ).cursor(); e.hasNext(); )
+			Assert.assertEquals( e.next().get(), a.next().get(), 1e-10 );
+	}
+
+	@Test
+	public void testFrangiVesselness()
+	{
+		final HessianEigenValues.Reduction< ? super DoubleType > vesselness = HessianEigenValues.frangiVesselness( 0.5, 0.5, 10 );
+		final DoubleType result = new DoubleType();
+
+		// ideal tube: one eigenvalue close to zero, two large negative
+		vesselness.reduce( new double[] { -0.1, -20, -20 }, result );
+		final double ra = 1.0, rbSq = 0.01 / 400, sSq = 0.01 + 800;
+		final double expected = ( 1 - Math.exp( -ra * ra / 0.5 ) ) * Math.exp( -rbSq / 0.5 ) * ( 1 - Math.exp( -sSq / 200 ) );
+		Assert.assertEquals( expected, result.get(), 1e-12 );
+
+		// dark structure on bright background
+		vesselness.reduce( new double[] { 20, 20, 0.1 }, result );
+		Assert.assertEquals( 0, result.get(), 0 );
+
+		// blob: all eigenvalues equal, less vessel-like than the tube
+		vesselness.reduce( new double[] { -20, -20, -20 }, result );
+		Assert.assertTrue( result.get() < expected );
+
+		// 2D line
+		vesselness.reduce( new double[] { -0.1, -20 }, result );
+		Assert.assertEquals( Math.exp( -0.01 / 400 / 0.5 ) * ( 1 - Math.exp( -( 400 + 0.01 ) / 200 ) ), result.get(), 1e-12 );
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testReductionRejects4D() throws InterruptedException, ExecutionException
+	{
+		final long[] dimensions = { 5, 4, 3, 2 };
+		HessianEigenValues.calculate(
+				Views.extendBorder( randomImage( dimensions ) ),
+				ArrayImgs.doubles( dimensions ),
+				HessianEigenValues.frangiVesselness( 0.5, 0.5, 10 ),
+				new OutOfBoundsBorderFactory<>(),
+				1,
+				new SequentialExecutorService(),
+				1.0 );
+	}
+
+	@Test
+	public void testDefaultBlockSizeGrowsWithSigma()
+	{
+		// small sigma: cache sized blocks
+		Assert.assertArrayEquals( HessianEigenValues.defaultBlockSize( 3 ), HessianEigenValues.defaultBlockSize( new double[] { 1.0, 1.0, 1.0 } ) );
+		// half kernel size 31 for sigma 10, plus 2 for the gradients
+		Assert.assertArrayEquals( new int[] { 128, 128, HessianEigenValues.defaultBlockSize( 3 )[ 2 ] }, HessianEigenValues.defaultBlockSize( new double[] { 10, 10, 0.5 } ) );
+	}
+
+	private static long[] withChannels( final long[] dimensions, final long numChannels )
+	{
+		final long[] result = new long[ dimensions.length + 1 ];
+		System.arraycopy( dimensions, 0, result, 0, dimensions.length );
+		result[ dimensions.length ] = numChannels;
+		return result;
+	}
+
+	private static ArrayImg< DoubleType, DoubleArray > randomImage( final long... dimensions )
+	{
+		final Random random = new Random( 42 );
+		final ArrayImg< DoubleType, DoubleArray > img = ArrayImgs.doubles( dimensions );
+		img.forEach( pixel -> pixel.set( random.nextDouble() ) );
+		return img;
+	}
+
+}
@@ -35,6 +35,8 @@
 package net.imglib2.algorithm.hessian;
 
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.IntStream;
 
 import org.junit.Assert;
@@ -49,6 +51,7 @@ import net.imglib2.img.array.ArrayImg;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.img.basictypeaccess.array.DoubleArray;
 import net.imglib2.outofbounds.OutOfBoundsBorderFactory;
+import net.imglib2.position.FunctionRandomAccessible;
 import net.imglib2.type.numeric.real.DoubleType;
 import net.imglib2.util.Pair;
 import net.imglib2.view.IntervalView;
@@ -256,6 +259,55 @@ public class HessianMatrixTest
 		test( img, hessian, refs, size );
 	}
 
+	@Test
+	public void testRecursive()
+	{
+		final int size = 10;
+		final FunctionRandomAccessible< DoubleType > quadratic = new FunctionRandomAccessible<>( 2, ( position, value ) -> {
+			final double x = position.getDoublePosition( 0 );
+			final double y = position.getDoublePosition( 1 );
+			value.set( x * x + 3 * x * y + 2 * y * y );
+		}, DoubleType::new );
+
+		final ExecutorService es = Executors.newFixedThreadPool( 2 );
+		final RandomAccessibleInterval< DoubleType > hessian =
+				HessianMatrix.calculateMatrix( quadratic, null, ArrayImgs.doubles( size, size, 3 ), es, 2.0 );
+		es.shutdown();
+
+		final double[] expected = { 2.0, 3.0, 4.0 };
+		for ( int i = 0; i < expected.length; ++i )
+			for ( final DoubleType h : Views.hyperSlice( hessian, 2, i ) )
+				Assert.assertEquals( expected[ i ], h.get(), 1e-6 );
+	}
+
+	@Test
+	public void testRecursiveGradient()
+	{
+		final int size = 20;
+		final double sigma = 2.0;
+		final FunctionRandomAccessible< DoubleType > wave = new FunctionRandomAccessible<>( 2, ( position, value ) -> {
+			final double x = position.getDoublePosition( 0 );
+			final double y = position.getDoublePosition( 1 );
+			value.set( Math.sin( x / 5 ) * Math.cos( y / 7 ) );
+		}, DoubleType::new );
+
+		final ExecutorService es = Executors.newFixedThreadPool( 2 );
+		final ArrayImg< DoubleType, DoubleArray > gradient = ArrayImgs.doubles( size, size, 2 );
+		HessianMatrix.calculateMatrix( wave, gradient, ArrayImgs.doubles( size, size, 3 ), es, sigma );
+		es.shutdown();
+
+		// gaussian smoothing attenuates a wave with frequency w by exp( -sigma^2 w^2 / 2 )
+		final double attenuation = Math.exp( -sigma * sigma / 50 ) * Math.exp( -sigma * sigma / 98 );
+		final Cursor< DoubleType > c = Views.hyperSlice( gradient, 2, 0 ).localizingCursor();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			final double x = c.getDoublePosition( 0 );
+			final double y = c.getDoublePosition( 1 );
+			Assert.assertEquals( attenuation * Math.cos( x / 5 ) * Math.cos( y / 7 ) / 5, c.get().get(), 0.02 );
+		}
+	}
+
 	@Test
 	public void testScaling()
 	{
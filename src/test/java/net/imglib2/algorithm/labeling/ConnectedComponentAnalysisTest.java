@@ -34,18 +34,30 @@
 
 package net.imglib2.algorithm.labeling;
 
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import gnu.trove.map.hash.TLongLongHashMap;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.neighborhood.DiamondShape;
 import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
 import net.imglib2.converter.Converters;
 import net.imglib2.img.array.ArrayImg;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.img.basictypeaccess.array.LongArray;
+import net.imglib2.img.cell.CellImg;
+import net.imglib2.img.cell.CellImgFactory;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.integer.UnsignedLongType;
+import net.imglib2.util.IntervalIndexer;
 import net.imglib2.view.Views;
 
 /**
@@ -265,4 +277,97 @@ public class ConnectedComponentAnalysisTest
 		Assert.assertArrayEquals( labelingStore1, labelingStore2 );
 	}
 
+
+	@Test
+	public void testBlockwise() throws InterruptedException, ExecutionException
+	{
+		final long[] dims = { 23, 19, 7 };
+		final Random rng = new Random( 100 );
+		final ArrayImg< BitType, LongArray > mask = ArrayImgs.bits( dims );
+		for ( final BitType m : mask )
+			m.set( rng.nextDouble() < 0.45 );
+
+		final ExecutorService es = Executors.newFixedThreadPool( 3 );
+		final int[][] blockSizes = { { 23, 19, 7 }, { 5, 4, 3 }, { 1, 19, 2 }, { 64, 1, 1 } };
+		for ( final Shape shape : new Shape[] { new DiamondShape( 1 ), new RectangleShape( 1, true ), new DiamondShape( 2 ) } )
+		{
+			final ArrayImg< UnsignedLongType, LongArray > expected = ArrayImgs.unsignedLongs( dims );
+			ConnectedComponentAnalysis.connectedComponents( mask, expected, shape );
+			for ( final int[] blockSize : blockSizes )
+			{
+				final ArrayImg< UnsignedLongType, LongArray > labeling = ArrayImgs.unsignedLongs( dims );
+				final TLongLongHashMap mapping = ConnectedComponentAnalysis.connectedComponents( mask, labeling, shape, blockSize, es, 5 );
+				assertSamePartition( expected, ConnectedComponentAnalysis.relabel( labeling, mapping ) );
+			}
+		}
+
+		final CellImg< UnsignedLongType, ? > cellLabeling = new CellImgFactory<>( new UnsignedLongType(), 6, 5, 4 ).create( dims );
+		final TLongLongHashMap mapping = ConnectedComponentAnalysis.connectedComponents( mask, cellLabeling, es, 4 );
+		final ArrayImg< UnsignedLongType, LongArray > expected = ArrayImgs.unsignedLongs( dims );
+		ConnectedComponentAnalysis.connectedComponents( mask, expected );
+		assertSamePartition( expected, ConnectedComponentAnalysis.relabel( cellLabeling, mapping ) );
+
+		es.shutdown();
+	}
+
+	@Test
+	public void testBlockwiseLabelValues() throws InterruptedException, ExecutionException
+	{
+		final long[] dims = { 23, 19, 7 };
+		final long[] min = { 3, -4, 5 };
+		final int[] blockSize = { 5, 4, 3 };
+		final Random rng = new Random( 100 );
+		final ArrayImg< BitType, LongArray > mask = ArrayImgs.bits( dims );
+		for ( final BitType m : mask )
+			m.set( rng.nextDouble() < 0.45 );
+		final RandomAccessibleInterval< UnsignedLongType > labeling = Views.translate( ArrayImgs.unsignedLongs( dims ), min );
+
+		final ExecutorService es = Executors.newFixedThreadPool( 3 );
+		ConnectedComponentAnalysis.connectedComponents( Views.translate( mask, min ), labeling, new DiamondShape( 1 ), blockSize, es, 5 );
+		es.shutdown();
+
+		// block-wise label is one plus the index of a pixel within the same
+		// block that carries the same label
+		final long numElements = dims[ 0 ] * dims[ 1 ] * dims[ 2 ];
+		final long[] rootPosition = new long[ dims.length ];
+		final RandomAccess< UnsignedLongType > access = labeling.randomAccess();
+		final Cursor< UnsignedLongType > cursor = Views.flatIterable( labeling ).localizingCursor();
+		while ( cursor.hasNext() )
+		{
+			final long label = cursor.next().get();
+			if ( label == 0 )
+				continue;
+			Assert.assertTrue( label >= 1 && label <= numElements );
+			IntervalIndexer.indexToPositionWithOffset( label - 1, dims, min, rootPosition );
+			for ( int d = 0; d < dims.length; ++d )
+				Assert.assertEquals( ( cursor.getLongPosition( d ) - min[ d ] ) / blockSize[ d ], ( rootPosition[ d ] - min[ d ] ) / blockSize[ d ] );
+			access.setPosition( rootPosition );
+			Assert.assertEquals( label, access.get().get() );
+		}
+	}
+
+	private static void assertSamePartition(
+			final RandomAccessibleInterval< UnsignedLongType > expected,
+			final RandomAccessibleInterval< UnsignedLongType > actual )
+	{
+		final TLongLongHashMap forward = new TLongLongHashMap();
+		final TLongLongHashMap backward = new TLongLongHashMap();
+		final Cursor< UnsignedLongType > e = Views.flatIterable( expected ).cursor();
+		final Cursor< UnsignedLongType > a = Views.flatIterable( actual ).cursor();
+		while ( e.hasNext() )
+		{
+			final long el = e.next().get();
+			final long al = a.next().get();
+			Assert.assertEquals( el == 0, al == 0 );
+			if ( el == 0 )
+				continue;
+			if ( !forward.containsKey( el ) )
+			{
+				Assert.assertFalse( backward.containsKey( al ) );
+				forward.put( el, al );
+				backward.put( al, el );
+			}
+			Assert.assertEquals( forward.get( el ), al );
+		}
+	}
 }
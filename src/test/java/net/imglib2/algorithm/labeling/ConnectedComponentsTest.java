@@ -0,0 +1,145 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.labeling;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import gnu.trove.map.hash.TIntIntHashMap;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.labeling.ConnectedComponents.StructuringElement;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.IntArray;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.loops.LoopBuilder;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.ShortType;
+import net.imglib2.type.numeric.integer.UnsignedLongType;
+import net.imglib2.view.Views;
+
+public class ConnectedComponentsTest
+{
+
+	private final long[][] dimensions = {
+			{ 97 },
+			{ 31, 27 },
+			{ 13, 11, 9 },
+			{ 7, 5, 6, 4 }
+	};
+
+	@Test
+	public void testPrimitiveEqualsGeneric()
+	{
+		final Random rng = new Random( 100 );
+		for ( final long[] dims : dimensions )
+		{
+			final Img< ShortType > img = new CellImgFactory<>( new ShortType(), 4 ).create( dims );
+			for ( final ShortType s : img )
+				s.set( ( short ) ( rng.nextInt( 5 ) - 2 ) );
+			final Img< ShortType > arrayImg = ArrayImgs.shorts( dims );
+			LoopBuilder.setImages( img, arrayImg ).forEachPixel( ( s, t ) -> t.set( s ) );
+
+			for ( final StructuringElement se : StructuringElement.values() )
+			{
+				Assert.assertTrue( PrimitiveConnectedComponents.isSupported( img, img ) );
+				Assert.assertTrue( PrimitiveConnectedComponents.isSupported( arrayImg, arrayImg ) );
+
+				final RandomAccessibleInterval< IntType > expected = label( Views.extendZero( img ), dims, se );
+				assertConsistentLabels( expected, label( img, dims, se ) );
+				assertConsistentLabels( expected, label( arrayImg, dims, se ) );
+			}
+		}
+	}
+
+	@Test
+	public void testLongInput()
+	{
+		// only the lower 32 bits count, consistent with IntegerType.getInteger()
+		final long[] data = { 0, 1, 1L << 32, 1, 0, -1, ( 1L << 32 ) + 2, 3 };
+		final Img< UnsignedLongType > img = ArrayImgs.unsignedLongs( data, data.length );
+		final RandomAccessibleInterval< IntType > expected = label( Views.extendZero( img ), new long[] { data.length }, StructuringElement.FOUR_CONNECTED );
+		final RandomAccessibleInterval< IntType > actual = label( img, new long[] { data.length }, StructuringElement.FOUR_CONNECTED );
+		assertConsistentLabels( expected, actual );
+		Assert.assertArrayEquals(
+				new int[] { 0, 1, 0, 2, 0, 0, 3, 3 },
+				( ( ArrayImg< IntType, IntArray > ) actual ).update( null ).getCurrentStorageArray() );
+	}
+
+	private static < T extends IntegerType< T > > RandomAccessibleInterval< IntType > label(
+			final RandomAccessible< T > input,
+			final long[] dims,
+			final StructuringElement se )
+	{
+		final ArrayImg< IntType, IntArray > output = ArrayImgs.ints( dims );
+		ConnectedComponents.labelAllConnectedComponents( input, output, se );
+		return output;
+	}
+
+	/**
+	 * Labels must partition the image identically and the primitive path must
+	 * number components consecutively in order of their first pixel.
+	 */
+	private static void assertConsistentLabels( final RandomAccessibleInterval< IntType > expected, final RandomAccessibleInterval< IntType > actual )
+	{
+		final TIntIntHashMap forward = new TIntIntHashMap();
+		final TIntIntHashMap backward = new TIntIntHashMap();
+		int next = 1;
+		final Cursor< IntType > e = Views.flatIterable( expected ).cursor();
+		final Cursor< IntType > a = Views.flatIterable( actual ).cursor();
+		while ( e.hasNext() )
+		{
+			final int el = e.next().get();
+			final int al = a.next().get();
+			Assert.assertEquals( el == 0, al == 0 );
+			if ( el == 0 )
+				continue;
+			if ( !forward.containsKey( el ) )
+			{
+				Assert.assertFalse( backward.containsKey( al ) );
+				Assert.assertEquals( next++, al );
+				forward.put( el, al );
+				backward.put( al, el );
+			}
+			Assert.assertEquals( forward.get( el ), al );
+		}
+	}
+}
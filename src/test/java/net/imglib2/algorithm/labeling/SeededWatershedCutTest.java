@@ -0,0 +1,147 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.labeling;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import gnu.trove.set.hash.TLongHashSet;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.ByteArray;
+import net.imglib2.img.basictypeaccess.array.DoubleArray;
+import net.imglib2.img.basictypeaccess.array.LongArray;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedLongType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.view.Views;
+
+public class SeededWatershedCutTest
+{
+
+	private final long[] dims = { 29, 23, 6 };
+
+	private final int numSeeds = 10;
+
+	private final int[][] blockSizes = {
+			{ 29, 23, 6 },
+			{ 64, 64, 64 },
+			{ 7, 6, 2 },
+			{ 1, 23, 6 },
+			{ 5, 5, 5 },
+			{ 3, 2, 1 }
+	};
+
+	@Test
+	public void testRidge()
+	{
+		final ArrayImg< UnsignedByteType, ByteArray > intensity = ArrayImgs.unsignedBytes( new byte[] { 0, 1, 2, 5, 2, 1, 0 }, 7 );
+		final ArrayImg< UnsignedLongType, LongArray > labels = ArrayImgs.unsignedLongs( new long[] { 1, 0, 0, 0, 0, 0, 2 }, 7 );
+		SeededWatershedCut.flood( intensity, labels );
+		Assert.assertArrayEquals( new long[] { 1, 1, 1, 1, 2, 2, 2 }, labels.update( null ).getCurrentStorageArray() );
+
+		final ArrayImg< UnsignedLongType, LongArray > noSeeds = ArrayImgs.unsignedLongs( 7 );
+		SeededWatershedCut.flood( intensity, noSeeds );
+		Assert.assertArrayEquals( new long[ 7 ], noSeeds.update( null ).getCurrentStorageArray() );
+	}
+
+	@Test
+	public void testIndependentOfBlockSize() throws InterruptedException, ExecutionException
+	{
+		testIndependentOfBlockSize( numSeeds );
+	}
+
+	@Test
+	public void testIndependentOfBlockSizeDenseSeeds() throws InterruptedException, ExecutionException
+	{
+		// most trees contain a seed and end within a single block
+		testIndependentOfBlockSize( ( int ) ( dims[ 0 ] * dims[ 1 ] * dims[ 2 ] / 4 ) );
+	}
+
+	private void testIndependentOfBlockSize( final int numSeeds ) throws InterruptedException, ExecutionException
+	{
+		final Random rng = new Random( 300 );
+		final ArrayImg< DoubleType, DoubleArray > intensity = ArrayImgs.doubles( dims );
+		// few distinct values to test tie breaking
+		intensity.forEach( p -> p.set( rng.nextInt( 8 ) ) );
+		final ArrayImg< UnsignedLongType, LongArray > seeds = ArrayImgs.unsignedLongs( dims );
+		final long[] seedData = seeds.update( null ).getCurrentStorageArray();
+		for ( int seed = 1; seed <= numSeeds; ++seed )
+			seedData[ rng.nextInt( seedData.length ) ] = seed;
+		// same label for disconnected seeds
+		seedData[ seedData.length - 1 ] = 1;
+		final TLongHashSet seedLabels = new TLongHashSet( seedData );
+		seedLabels.remove( 0 );
+
+		final ArrayImg< UnsignedLongType, LongArray > reference = ArrayImgs.unsignedLongs( seedData.clone(), dims );
+		SeededWatershedCut.flood( intensity, reference );
+		final long[] referenceData = reference.update( null ).getCurrentStorageArray();
+		for ( int i = 0; i < referenceData.length; ++i )
+		{
+			Assert.assertTrue( seedLabels.contains( referenceData[ i ] ) );
+			if ( seedData[ i ] != 0 )
+				Assert.assertEquals( seedData[ i ], referenceData[ i ] );
+		}
+
+		final ExecutorService es = Executors.newFixedThreadPool( 3 );
+		try
+		{
+			for ( final int[] blockSize : blockSizes )
+			{
+				for ( final int numTasks : new int[] { 1, 3, 7 } )
+				{
+					final ArrayImg< UnsignedLongType, LongArray > labels = ArrayImgs.unsignedLongs( seedData.clone(), dims );
+					SeededWatershedCut.flood(
+							Views.translate( intensity, 2, 5, -1 ),
+							Views.translate( labels, 2, 5, -1 ),
+							blockSize,
+							es,
+							numTasks );
+					Assert.assertArrayEquals( referenceData, labels.update( null ).getCurrentStorageArray() );
+				}
+			}
+		}
+		finally
+		{
+			es.shutdown();
+		}
+	}
+
+}
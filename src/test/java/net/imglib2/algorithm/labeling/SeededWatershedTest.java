@@ -0,0 +1,201 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.labeling;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.DiamondShape;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.converter.Converters;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.ByteArray;
+import net.imglib2.img.basictypeaccess.array.DoubleArray;
+import net.imglib2.img.basictypeaccess.array.LongArray;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedLongType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+public class SeededWatershedTest
+{
+
+	private final long[] dims = { 31, 27, 5 };
+
+	private final int numSeeds = 12;
+
+	@Test
+	public void testRidge()
+	{
+		final ArrayImg< UnsignedByteType, ByteArray > intensity = ArrayImgs.unsignedBytes( new byte[] { 0, 1, 2, 5, 2, 1, 0 }, 7 );
+		final ArrayImg< UnsignedLongType, LongArray > labels = ArrayImgs.unsignedLongs( new long[] { 1, 0, 0, 0, 0, 0, 2 }, 7 );
+		SeededWatershed.flood( intensity, labels );
+		Assert.assertArrayEquals( new long[] { 1, 1, 1, 1, 2, 2, 2 }, labels.update( null ).getCurrentStorageArray() );
+
+		final ArrayImg< UnsignedLongType, LongArray > noSeeds = ArrayImgs.unsignedLongs( 7 );
+		SeededWatershed.flood( intensity, noSeeds );
+		Assert.assertArrayEquals( new long[ 7 ], noSeeds.update( null ).getCurrentStorageArray() );
+	}
+
+	@Test
+	public void testQueuesAreConsistent()
+	{
+		final Random rng = new Random( 100 );
+		final ArrayImg< UnsignedByteType, ByteArray > intensity = ArrayImgs.unsignedBytes( dims );
+		intensity.forEach( p -> p.set( rng.nextInt( 256 ) ) );
+		final RandomAccessibleInterval< DoubleType > realIntensity = Converters.convert( ( RandomAccessibleInterval< UnsignedByteType > ) intensity, ( s, t ) -> t.set( s.getRealDouble() ), new DoubleType() );
+
+		for ( final Shape shape : new Shape[] { new DiamondShape( 1 ), new RectangleShape( 1, true ), new RectangleShape( 2, false ) } )
+		{
+			final ArrayImg< UnsignedLongType, LongArray > hierarchical = createSeeds( rng );
+			final ArrayImg< UnsignedLongType, LongArray > heap = ArrayImgs.unsignedLongs( hierarchical.update( null ).getCurrentStorageArray().clone(), dims );
+			SeededWatershed.flood( intensity, hierarchical, shape );
+			SeededWatershed.flood( realIntensity, heap, shape );
+			Assert.assertArrayEquals( hierarchical.update( null ).getCurrentStorageArray(), heap.update( null ).getCurrentStorageArray() );
+			for ( final UnsignedLongType l : hierarchical )
+				Assert.assertTrue( l.get() > 0 );
+		}
+	}
+
+	@Test
+	public void testBlocksAcrossFaces() throws InterruptedException, ExecutionException
+	{
+		// ridge between x = 9 and x = 10, seeds lie in blocks left and right
+		// of the blocks that contain the ridge
+		final long[] ridgeDims = { 16, 10 };
+		final ArrayImg< DoubleType, DoubleArray > intensity = ArrayImgs.doubles( ridgeDims );
+		final Cursor< DoubleType > cursor = intensity.localizingCursor();
+		while ( cursor.hasNext() )
+		{
+			final DoubleType value = cursor.next();
+			final int x = cursor.getIntPosition( 0 );
+			final int y = cursor.getIntPosition( 1 );
+			value.set( x <= 9 ? x + 0.01 * Math.abs( y - 2 ) : 9 - 0.75 * ( x - 9 ) + 0.01 * Math.abs( y - 7 ) );
+		}
+		final long[] seedData = new long[ 16 * 10 ];
+		seedData[ 2 * 16 ] = 1;
+		seedData[ 7 * 16 + 15 ] = 2;
+
+		final ArrayImg< UnsignedLongType, LongArray > reference = ArrayImgs.unsignedLongs( seedData.clone(), ridgeDims );
+		SeededWatershed.flood( intensity, reference );
+		final Cursor< UnsignedLongType > referenceCursor = reference.localizingCursor();
+		while ( referenceCursor.hasNext() )
+			Assert.assertEquals( referenceCursor.getIntPosition( 0 ) <= 9 ? 1 : 2, referenceCursor.next().get() );
+
+		final ExecutorService es = Executors.newFixedThreadPool( 3 );
+		try
+		{
+			final int[][] blockSizes = { { 4, 10 }, { 4, 3 }, { 3, 3 }, { 5, 4 }, { 1, 1 } };
+			for ( final Shape shape : new Shape[] { new DiamondShape( 1 ), new RectangleShape( 1, true ) } )
+				assertBlocksEqualSerial( intensity, seedData, shape, blockSizes, es );
+		}
+		finally
+		{
+			es.shutdown();
+		}
+	}
+
+	@Test
+	public void testBlocks() throws InterruptedException, ExecutionException
+	{
+		final Random rng = new Random( 200 );
+		final ExecutorService es = Executors.newFixedThreadPool( 3 );
+		try
+		{
+			// single block is identical with serial flooding
+			final ArrayImg< UnsignedByteType, ByteArray > intensity = ArrayImgs.unsignedBytes( dims );
+			intensity.forEach( p -> p.set( rng.nextInt( 256 ) ) );
+			final long[] seedData = createSeeds( rng ).update( null ).getCurrentStorageArray();
+			assertBlocksEqualSerial( intensity, seedData, new DiamondShape( 1 ), new int[][] { { 32, 32, 8 } }, es );
+
+			// without ties, fronts that pass across block faces are
+			// identical with serial flooding
+			final ArrayImg< DoubleType, DoubleArray > realIntensity = ArrayImgs.doubles( dims );
+			realIntensity.forEach( p -> p.set( rng.nextDouble() ) );
+			final int[][] blockSizes = { { 7, 6, 2 }, { 3, 4, 5 }, { 1, 1, 1 } };
+			for ( final Shape shape : new Shape[] { new DiamondShape( 1 ), new RectangleShape( 1, true ) } )
+				assertBlocksEqualSerial( realIntensity, seedData, shape, blockSizes, es );
+		}
+		finally
+		{
+			es.shutdown();
+		}
+	}
+
+	private static < T extends RealType< T > > void assertBlocksEqualSerial(
+			final RandomAccessibleInterval< T > intensity,
+			final long[] seedData,
+			final Shape shape,
+			final int[][] blockSizes,
+			final ExecutorService es ) throws InterruptedException, ExecutionException
+	{
+		final long[] dims = Intervals.dimensionsAsLongArray( intensity );
+		final long[] translation = new long[ dims.length ];
+		Arrays.setAll( translation, d -> d % 2 == 0 ? 3 : -4 );
+		final ArrayImg< UnsignedLongType, LongArray > reference = ArrayImgs.unsignedLongs( seedData.clone(), dims );
+		SeededWatershed.flood( intensity, reference, shape );
+		for ( final int[] blockSize : blockSizes )
+		{
+			for ( final int numTasks : new int[] { 1, 4 } )
+			{
+				final ArrayImg< UnsignedLongType, LongArray > blocks = ArrayImgs.unsignedLongs( seedData.clone(), dims );
+				SeededWatershed.flood( Views.translate( intensity, translation ), Views.translate( blocks, translation ), shape, blockSize, es, numTasks );
+				Assert.assertArrayEquals( reference.update( null ).getCurrentStorageArray(), blocks.update( null ).getCurrentStorageArray() );
+			}
+		}
+	}
+
+	private ArrayImg< UnsignedLongType, LongArray > createSeeds( final Random rng )
+	{
+		final ArrayImg< UnsignedLongType, LongArray > seeds = ArrayImgs.unsignedLongs( dims );
+		final long[] data = seeds.update( null ).getCurrentStorageArray();
+		for ( int seed = 1; seed <= numSeeds; ++seed )
+			data[ rng.nextInt( data.length ) ] = seed;
+		return seeds;
+	}
+
+}
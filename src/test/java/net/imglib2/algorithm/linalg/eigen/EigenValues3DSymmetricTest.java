@@ -0,0 +1,164 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.linalg.eigen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.DoubleArray;
+import net.imglib2.type.numeric.real.DoubleType;
+
+public class EigenValues3DSymmetricTest
+{
+
+	private static final int N = 1000;
+
+	@Test
+	public void testAgainstGeneralSolver()
+	{
+		final Random random = new Random( 100 );
+		final double[] data = new double[ 6 * N ];
+		for ( int i = 0; i < data.length; ++i )
+			data[ i ] = random.nextGaussian();
+
+		// channels are the last dimension
+		final ArrayImg< DoubleType, DoubleArray > tensor = ArrayImgs.doubles( N, 6 );
+		final double[] tensorData = tensor.update( null ).getCurrentStorageArray();
+		for ( int i = 0; i < N; ++i )
+			for ( int c = 0; c < 6; ++c )
+				tensorData[ c * N + i ] = data[ 6 * i + c ];
+
+		final ArrayImg< DoubleType, DoubleArray > expected = ArrayImgs.doubles( N, 3 );
+		final ArrayImg< DoubleType, DoubleArray > actual = ArrayImgs.doubles( N, 3 );
+		TensorEigenValues.calculateEigenValues( tensor, expected, EigenValues.symmetric( 3 ) );
+		TensorEigenValues.calculateEigenValues( tensor, actual, EigenValues.symmetric3D() );
+		final double[] expectedData = expected.update( null ).getCurrentStorageArray();
+		final double[] actualData = actual.update( null ).getCurrentStorageArray();
+
+		for ( int i = 0; i < N; ++i )
+		{
+			final double[] e = new double[ 3 ];
+			final double[] a = new double[ 3 ];
+			for ( int c = 0; c < 3; ++c )
+			{
+				e[ c ] = expectedData[ c * N + i ];
+				a[ c ] = actualData[ c * N + i ];
+			}
+			Arrays.sort( e );
+			Assert.assertArrayEquals( new double[] { e[ 2 ], e[ 1 ], e[ 0 ] }, a, 1e-10 );
+		}
+	}
+
+	@Test
+	public void testEigenVectors()
+	{
+		final Random random = new Random( 101 );
+		final double[] values = new double[ 3 ];
+		final double[] vectors = new double[ 9 ];
+		for ( int k = 0; k < N; ++k )
+		{
+			final double[] m = new double[ 6 ];
+			for ( int i = 0; i < 6; ++i )
+				m[ i ] = random.nextGaussian();
+			EigenValues3DSymmetric.computeEigenVectors( m[ 0 ], m[ 1 ], m[ 2 ], m[ 3 ], m[ 4 ], m[ 5 ], values, vectors );
+			assertEigenSystem( m, values, vectors );
+		}
+	}
+
+	@Test
+	public void testDegenerate()
+	{
+		final double[] values = new double[ 3 ];
+		final double[] vectors = new double[ 9 ];
+
+		// diagonal
+		final double[] diagonal = { 1, 0, 0, 3, 0, 2 };
+		EigenValues3DSymmetric.computeEigenVectors( 1, 0, 0, 3, 0, 2, values, vectors );
+		Assert.assertArrayEquals( new double[] { 3, 2, 1 }, values, 1e-12 );
+		assertEigenSystem( diagonal, values, vectors );
+
+		// multiple of identity
+		final double[] identity = { 2, 0, 0, 2, 0, 2 };
+		EigenValues3DSymmetric.computeEigenVectors( 2, 0, 0, 2, 0, 2, values, vectors );
+		Assert.assertArrayEquals( new double[] { 2, 2, 2 }, values, 0 );
+		assertEigenSystem( identity, values, vectors );
+
+		// two equal eigenvalues: 1 * I + 3 * w w^T with w = ( 1, 2, 2 ) / 3
+		final double[] w = { 1.0 / 3, 2.0 / 3, 2.0 / 3 };
+		final double[] twoEqual = {
+				1 + 3 * w[ 0 ] * w[ 0 ], 3 * w[ 0 ] * w[ 1 ], 3 * w[ 0 ] * w[ 2 ],
+				1 + 3 * w[ 1 ] * w[ 1 ], 3 * w[ 1 ] * w[ 2 ],
+				1 + 3 * w[ 2 ] * w[ 2 ] };
+		EigenValues3DSymmetric.computeEigenVectors( twoEqual[ 0 ], twoEqual[ 1 ], twoEqual[ 2 ], twoEqual[ 3 ], twoEqual[ 4 ], twoEqual[ 5 ], values, vectors );
+		Assert.assertArrayEquals( new double[] { 4, 1, 1 }, values, 1e-12 );
+		assertEigenSystem( twoEqual, values, vectors );
+
+		// zero matrix
+		EigenValues3DSymmetric.computeEigenValues( 0, 0, 0, 0, 0, 0, values );
+		Assert.assertArrayEquals( new double[] { 0, 0, 0 }, values, 0 );
+	}
+
+	private static void assertEigenSystem( final double[] m, final double[] values, final double[] vectors )
+	{
+		final double[][] a = {
+				{ m[ 0 ], m[ 1 ], m[ 2 ] },
+				{ m[ 1 ], m[ 3 ], m[ 4 ] },
+				{ m[ 2 ], m[ 4 ], m[ 5 ] } };
+		Assert.assertTrue( values[ 0 ] >= values[ 1 ] && values[ 1 ] >= values[ 2 ] );
+		for ( int i = 0; i < 3; ++i )
+		{
+			for ( int r = 0; r < 3; ++r )
+			{
+				double av = 0;
+				for ( int c = 0; c < 3; ++c )
+					av += a[ r ][ c ] * vectors[ 3 * i + c ];
+				Assert.assertEquals( values[ i ] * vectors[ 3 * i + r ], av, 1e-10 );
+			}
+			for ( int j = 0; j <= i; ++j )
+			{
+				double dot = 0;
+				for ( int c = 0; c < 3; ++c )
+					dot += vectors[ 3 * i + c ] * vectors[ 3 * j + c ];
+				Assert.assertEquals( i == j ? 1 : 0, dot, 1e-10 );
+			}
+		}
+	}
+
+}
@@ -37,18 +37,26 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import net.imglib2.Cursor;
 import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
 import net.imglib2.RandomAccess;
+import net.imglib2.algorithm.neighborhood.CenteredRectangleShape;
 import net.imglib2.algorithm.neighborhood.DiamondShape;
+import net.imglib2.algorithm.neighborhood.HorizontalLineShape;
 import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.PeriodicLineShape;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
 import net.imglib2.algorithm.neighborhood.Shape;
 import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.RealType;
 import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.real.FloatType;
 import net.imglib2.util.Util;
 import net.imglib2.view.IntervalView;
 import net.imglib2.view.Views;
@@ -234,4 +242,126 @@ public class DilationTest
 					randomAccess3.get().get(), cursor1.get().get() );
 		}
 	}
+
+	@Test
+	public void testLineShapes()
+	{
+		final Shape[] lines = new Shape[] {
+				new HorizontalLineShape( 4, 0, false ),
+				new HorizontalLineShape( 7, 1, false ),
+				new PeriodicLineShape( 3, new int[] { 2, -1 } ),
+				new PeriodicLineShape( 2, new int[] { 0, 3 } ) };
+		for ( final Shape line : lines )
+		{
+			final Img< UnsignedByteType > result = Dilation.dilate( ranImg, line, 2 );
+			final Img< UnsignedByteType > expected = bruteForce( ranImg, line );
+			final Cursor< UnsignedByteType > cursor = result.cursor();
+			final RandomAccess< UnsignedByteType > ra = expected.randomAccess();
+			while ( cursor.hasNext() )
+			{
+				cursor.fwd();
+				ra.setPosition( cursor );
+				assertEquals( "Mismatch for " + line + " at " + Util.printCoordinates( cursor ) + ".", ra.get().get(), cursor.get().get() );
+			}
+		}
+	}
+
+	@Test
+	public void testDecomposedRectangle()
+	{
+		final Img< UnsignedByteType > result1 = Dilation.dilate( ranImg, StructuringElements.rectangle( new int[] { 5, 3 }, true ), 2 );
+		final Img< UnsignedByteType > result2 = Dilation.dilate( ranImg, new CenteredRectangleShape( new int[] { 5, 3 }, false ), 1 );
+		final Cursor< UnsignedByteType > cursor1 = result1.cursor();
+		final RandomAccess< UnsignedByteType > randomAccess2 = result2.randomAccess();
+		while ( cursor1.hasNext() )
+		{
+			cursor1.fwd();
+			randomAccess2.setPosition( cursor1 );
+			assertEquals( "Mismatch between decomposed and straight rectangle dilation at " + Util.printCoordinates( cursor1 ) + ".",
+					randomAccess2.get().get(), cursor1.get().get() );
+		}
+	}
+
+	@Test
+	public void testOneDimensionalRectangle()
+	{
+		final Img< FloatType > source = ArrayImgs.floats( 100 );
+		final Random ran = new Random( 2l );
+		for ( final FloatType pixel : source )
+		{
+			pixel.set( ran.nextFloat() );
+		}
+		final Img< FloatType > result = Dilation.dilate( source, new RectangleShape( 6, false ), 1 );
+		final Img< FloatType > expected = bruteForce( source, new RectangleShape( 6, false ) );
+		final Cursor< FloatType > cursor = result.cursor();
+		final RandomAccess< FloatType > ra = expected.randomAccess();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			ra.setPosition( cursor );
+			assertEquals( ra.get().get(), cursor.get().get(), 0 );
+		}
+	}
+
+	/**
+	 * Flat dilation by iterating the neighborhoods, as reference.
+	 */
+	private static < T extends RealType< T > > Img< T > bruteForce( final Img< T > source, final Shape strel )
+	{
+		final T bound = source.firstElement().createVariable();
+		bound.setReal( bound.getMinValue() );
+		final Img< T > target = source.factory().create( source );
+		final Cursor< Neighborhood< T > > neighborhoods = strel.neighborhoods( Views.interval( Views.extendValue( source, bound ), source ) ).cursor();
+		final Cursor< T > cursor = target.cursor();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			final T value = cursor.get();
+			value.set( bound );
+			for ( final T neighbor : neighborhoods.next() )
+			{
+				if ( neighbor.compareTo( value ) > 0 )
+				{
+					value.set( neighbor );
+				}
+			}
+		}
+		return target;
+	}
+
+	@Test
+	public void testExecutorService()
+	{
+		final Img< UnsignedByteType > large = ArrayImgs.unsignedBytes( 300l, 250l );
+		final Random ran = new Random( 3l );
+		for ( final UnsignedByteType pixel : large )
+		{
+			pixel.set( ran.nextInt( 256 ) );
+		}
+		final ExecutorService service = Executors.newFixedThreadPool( 3 );
+		try
+		{
+			final Img< UnsignedByteType > result1 = Dilation.dilate( large, diamondShape, service );
+			final Img< UnsignedByteType > result2 = Dilation.dilate( large, diamondStrelDecomp, service );
+			final Img< UnsignedByteType > expected = Dilation.dilate( large, diamondShape, 1 );
+
+			final Cursor< UnsignedByteType > cursor = expected.cursor();
+			final RandomAccess< UnsignedByteType > randomAccess1 = result1.randomAccess();
+			final RandomAccess< UnsignedByteType > randomAccess2 = result2.randomAccess();
+			while ( cursor.hasNext() )
+			{
+				cursor.fwd();
+				randomAccess1.setPosition( cursor );
+				randomAccess2.setPosition( cursor );
+				assertEquals( "Mismatch with single shape and executor service at " + Util.printCoordinates( cursor ) + ".",
+						cursor.get().get(), randomAccess1.get().get() );
+				assertEquals( "Mismatch with optimized strel and executor service at " + Util.printCoordinates( cursor ) + ".",
+						cursor.get().get(), randomAccess2.get().get() );
+			}
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
 }
@@ -0,0 +1,156 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.morphology;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.algorithm.util.SequentialExecutorService;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.util.Util;
+import net.imglib2.view.IntervalView;
+import net.imglib2.view.Views;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class OpeningTest
+{
+
+	private Img< UnsignedByteType > ranImg;
+
+	private List< Shape > diamondStrelDecomp;
+
+	private Shape squareShape;
+
+	private final UnsignedByteType minVal = new UnsignedByteType( 0 );
+
+	private final UnsignedByteType maxVal = new UnsignedByteType( 255 );
+
+	@Before
+	public void setUp() throws Exception
+	{
+		// Larger than one tile, so that the tiles and their halo are tested.
+		ranImg = ArrayImgs.unsignedBytes( 600l, 350l );
+		final Random ran = new Random( 1l );
+		for ( final UnsignedByteType pixel : ranImg )
+		{
+			pixel.set( ran.nextInt( 256 ) );
+		}
+		diamondStrelDecomp = StructuringElements.diamond( 6, 2, true );
+		squareShape = new RectangleShape( 4, false );
+	}
+
+	@Test
+	public void testOpenToNew()
+	{
+		final Img< UnsignedByteType > expected = Dilation.dilate( Erosion.erode( ranImg, diamondStrelDecomp, 1 ), diamondStrelDecomp, 1 );
+		assertImageEquals( "Opening", expected, Opening.open( ranImg, diamondStrelDecomp, 1 ) );
+		assertImageEquals( "Opening with one shape", Dilation.dilate( Erosion.erode( ranImg, squareShape, 1 ), squareShape, 1 ), Opening.open( ranImg, squareShape, 1 ) );
+
+		final Img< UnsignedByteType > topHat = TopHat.topHat( ranImg, diamondStrelDecomp, 1 );
+		MorphologyUtils.subABA( expected, ranImg, new SequentialExecutorService() );
+		assertImageEquals( "Top-hat", expected, topHat );
+	}
+
+	@Test
+	public void testCloseToNew()
+	{
+		final Img< UnsignedByteType > expected = Erosion.erode( Dilation.dilate( ranImg, diamondStrelDecomp, 1 ), diamondStrelDecomp, 1 );
+		assertImageEquals( "Closing", expected, Closing.close( ranImg, diamondStrelDecomp, 1 ) );
+
+		final Img< UnsignedByteType > blackTopHat = BlackTopHat.blackTopHat( ranImg, diamondStrelDecomp, 1 );
+		MorphologyUtils.subAAB( expected, ranImg, new SequentialExecutorService() );
+		assertImageEquals( "Black top-hat", expected, blackTopHat );
+	}
+
+	@Test
+	public void testOpenToTarget()
+	{
+		final FinalInterval interval = FinalInterval.createMinSize( 20, 30, 400, 300 );
+
+		final Img< UnsignedByteType > eroded = ArrayImgs.unsignedBytes( 400l, 300l );
+		final IntervalView< UnsignedByteType > erodedView = Views.translate( eroded, 20, 30 );
+		Erosion.erode( Views.extendValue( ranImg, maxVal ), erodedView, squareShape, maxVal, 1 );
+		final Img< UnsignedByteType > expected = ArrayImgs.unsignedBytes( 400l, 300l );
+		Dilation.dilate( Views.extendValue( erodedView, minVal ), Views.translate( expected, 20, 30 ), squareShape, minVal, 1 );
+
+		final Img< UnsignedByteType > actual = ArrayImgs.unsignedBytes( 400l, 300l );
+		final ExecutorService service = Executors.newFixedThreadPool( 3 );
+		try
+		{
+			Opening.open( Views.extendValue( ranImg, maxVal ), Views.translate( actual, 20, 30 ), squareShape, minVal, maxVal, service );
+		}
+		finally
+		{
+			service.shutdown();
+		}
+		assertImageEquals( "Opening to target", expected, actual );
+
+		final Img< UnsignedByteType > topHat = ArrayImgs.unsignedBytes( 400l, 300l );
+		TopHat.topHat( Views.extendValue( ranImg, maxVal ), Views.translate( topHat, 20, 30 ), squareShape, 1 );
+		final Cursor< UnsignedByteType > cursor = Views.flatIterable( Views.interval( ranImg, interval ) ).cursor();
+		final Cursor< UnsignedByteType > opened = expected.cursor();
+		final Cursor< UnsignedByteType > result = topHat.cursor();
+		while ( cursor.hasNext() )
+		{
+			final int value = cursor.next().get() - opened.next().get();
+			assertEquals( "Top-hat to target", value, result.next().get() );
+		}
+	}
+
+	private static void assertImageEquals( final String message, final RandomAccessibleInterval< UnsignedByteType > expected, final RandomAccessibleInterval< UnsignedByteType > actual )
+	{
+		final Cursor< UnsignedByteType > cursor = Views.iterable( expected ).localizingCursor();
+		final RandomAccess< UnsignedByteType > randomAccess = actual.randomAccess();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			randomAccess.setPosition( cursor );
+			assertEquals( message + " mismatch at " + Util.printCoordinates( cursor ) + ".", cursor.get().get(), randomAccess.get().get() );
+		}
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.morphology;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.algorithm.neighborhood.DiamondShape;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReconstructionTest
+{
+
+	private Img< UnsignedByteType > mask;
+
+	private final Shape[] shapes = new Shape[] { new RectangleShape( 1, true ), new DiamondShape( 1 ), new RectangleShape( 2, false ) };
+
+	@Before
+	public void setUp() throws Exception
+	{
+		mask = ArrayImgs.unsignedBytes( 40l, 30l );
+		final Random ran = new Random( 1l );
+		for ( final UnsignedByteType pixel : mask )
+		{
+			pixel.set( ran.nextInt( 256 ) );
+		}
+	}
+
+	@Test
+	public void testReconstructByDilation()
+	{
+		for ( final Shape shape : shapes )
+		{
+			final Img< UnsignedByteType > marker = mask.factory().create( mask );
+			final RandomAccess< UnsignedByteType > ra = marker.randomAccess();
+			ra.setPosition( new int[] { 5, 7 } );
+			ra.get().set( 255 );
+			ra.setPosition( new int[] { 31, 22 } );
+			ra.get().set( 200 );
+
+			// Iterated geodesic dilation.
+			Img< UnsignedByteType > expected = marker.copy();
+			boolean changed = true;
+			while ( changed )
+			{
+				final Img< UnsignedByteType > dilated = Dilation.dilate( expected, shape, 1 );
+				changed = false;
+				final Cursor< UnsignedByteType > cursor = dilated.cursor();
+				final Cursor< UnsignedByteType > maskCursor = mask.cursor();
+				final Cursor< UnsignedByteType > previous = expected.cursor();
+				while ( cursor.hasNext() )
+				{
+					final UnsignedByteType value = cursor.next();
+					value.set( Math.min( value.get(), maskCursor.next().get() ) );
+					changed |= value.get() != previous.next().get();
+				}
+				expected = dilated;
+			}
+
+			assertImageEquals( expected, Reconstruction.reconstructByDilation( marker, mask, shape ) );
+			Reconstruction.reconstructByDilationInPlace( marker, mask, shape );
+			assertImageEquals( expected, marker );
+		}
+	}
+
+	@Test
+	public void testReconstructByErosion()
+	{
+		for ( final Shape shape : shapes )
+		{
+			final Img< UnsignedByteType > marker = mask.factory().create( mask );
+			for ( final UnsignedByteType pixel : marker )
+			{
+				pixel.set( 255 );
+			}
+			final RandomAccess< UnsignedByteType > ra = marker.randomAccess();
+			ra.setPosition( new int[] { 12, 3 } );
+			ra.get().set( 0 );
+
+			// Iterated geodesic erosion.
+			Img< UnsignedByteType > expected = marker.copy();
+			boolean changed = true;
+			while ( changed )
+			{
+				final Img< UnsignedByteType > eroded = Erosion.erode( expected, shape, 1 );
+				changed = false;
+				final Cursor< UnsignedByteType > cursor = eroded.cursor();
+				final Cursor< UnsignedByteType > maskCursor = mask.cursor();
+				final Cursor< UnsignedByteType > previous = expected.cursor();
+				while ( cursor.hasNext() )
+				{
+					final UnsignedByteType value = cursor.next();
+					value.set( Math.max( value.get(), maskCursor.next().get() ) );
+					changed |= value.get() != previous.next().get();
+				}
+				expected = eroded;
+			}
+
+			assertImageEquals( expected, Reconstruction.reconstructByErosion( marker, mask, shape ) );
+		}
+	}
+
+	@Test
+	public void testRegionalExtrema()
+	{
+		final Img< FloatType > source = ArrayImgs.floats( new float[] { 1, 3, 3, 2, 5, 2, 2, 4, 1 }, 9, 1 );
+		final Shape shape = new RectangleShape( 1, true );
+		assertArrayEquals( new boolean[] { false, true, true, false, true, false, false, true, false }, toArray( Reconstruction.regionalMaxima( source, shape ) ) );
+		assertArrayEquals( new boolean[] { true, false, false, true, false, true, true, false, true }, toArray( Reconstruction.regionalMinima( source, shape ) ) );
+	}
+
+	@Test
+	public void testHMaxima()
+	{
+		final Img< FloatType > source = ArrayImgs.floats( new float[] { 1, 3, 3, 2, 5, 2, 2, 4, 1 }, 9, 1 );
+		final Img< FloatType > result = Reconstruction.hMaxima( source, 1.5, new RectangleShape( 1, true ) );
+		final float[] expected = new float[] { 1, 2, 2, 2, 3.5f, 2, 2, 2.5f, 1 };
+		final Cursor< FloatType > cursor = result.cursor();
+		for ( final float value : expected )
+		{
+			assertEquals( value, cursor.next().get(), 0 );
+		}
+
+		final Img< FloatType > minima = Reconstruction.hMinima( source, 0, new RectangleShape( 1, true ) );
+		assertImageEquals( source, minima );
+	}
+
+	@Test
+	public void testFillHoles()
+	{
+		final Img< UnsignedByteType > source = ArrayImgs.unsignedBytes( 7l, 7l );
+		final Img< UnsignedByteType > expected = ArrayImgs.unsignedBytes( 7l, 7l );
+		final Cursor< UnsignedByteType > cursor = source.localizingCursor();
+		final RandomAccess< UnsignedByteType > ra = expected.randomAccess();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			final int x = cursor.getIntPosition( 0 );
+			final int y = cursor.getIntPosition( 1 );
+			final boolean inSquare = x >= 1 && x <= 5 && y >= 1 && y <= 5;
+			final boolean onRing = inSquare && ( x == 1 || x == 5 || y == 1 || y == 5 );
+			cursor.get().set( onRing ? 5 : ( x == 3 && y == 3 ) ? 2 : 0 );
+			ra.setPosition( cursor );
+			ra.get().set( inSquare ? 5 : 0 );
+		}
+		assertImageEquals( expected, Reconstruction.fillHoles( source, new DiamondShape( 1 ) ) );
+	}
+
+	@Test
+	public void testAreaOpening()
+	{
+		final Img< UnsignedByteType > source = ArrayImgs.unsignedBytes( new byte[] {
+				1, 1, 0, 0, 0, 0,
+				1, 0, 0, 0, 1, 0,
+				0, 0, 0, 1, 1, 1,
+				0, 0, 0, 0, 1, 1 }, 6, 4 );
+		final Img< UnsignedByteType > expected = ArrayImgs.unsignedBytes( new byte[] {
+				0, 0, 0, 0, 0, 0,
+				0, 0, 0, 0, 1, 0,
+				0, 0, 0, 1, 1, 1,
+				0, 0, 0, 0, 1, 1 }, 6, 4 );
+		final Shape shape = new RectangleShape( 1, true );
+		assertImageEquals( expected, Reconstruction.areaOpening( source, 4, shape ) );
+		assertImageEquals( source, Reconstruction.areaOpening( source, 3, shape ) );
+
+		// The area closing of the inverted image fills the small holes.
+		for ( final UnsignedByteType pixel : source )
+		{
+			pixel.set( 1 - pixel.get() );
+		}
+		for ( final UnsignedByteType pixel : expected )
+		{
+			pixel.set( 1 - pixel.get() );
+		}
+		assertImageEquals( expected, Reconstruction.areaClosing( source, 4, shape ) );
+	}
+
+	private static boolean[] toArray( final Img< BitType > img )
+	{
+		final boolean[] array = new boolean[ ( int ) img.size() ];
+		final Cursor< BitType > cursor = img.cursor();
+		for ( int i = 0; i < array.length; i++ )
+		{
+			array[ i ] = cursor.next().get();
+		}
+		return array;
+	}
+
+	private static < T extends RealType< T > > void assertImageEquals( final Img< T > expected, final Img< T > actual )
+	{
+		final Cursor< T > cursor = expected.localizingCursor();
+		final RandomAccess< T > ra = actual.randomAccess();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			ra.setPosition( cursor );
+			assertEquals( "Mismatch at " + Util.printCoordinates( cursor ) + ".", cursor.get().getRealDouble(), ra.get().getRealDouble(), 0 );
+		}
+	}
+}
@@ -35,6 +35,12 @@ package net.imglib2.algorithm.morphology;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
 import net.imglib2.algorithm.morphology.table2d.Branchpoints;
 import net.imglib2.algorithm.morphology.table2d.Bridge;
 import net.imglib2.algorithm.morphology.table2d.Clean;
@@ -43,13 +49,19 @@ import net.imglib2.algorithm.morphology.table2d.Fill;
 import net.imglib2.algorithm.morphology.table2d.Hbreak;
 import net.imglib2.algorithm.morphology.table2d.Life;
 import net.imglib2.algorithm.morphology.table2d.Majority;
+import net.imglib2.algorithm.morphology.table2d.PackedTableOperations;
 import net.imglib2.algorithm.morphology.table2d.Remove;
 import net.imglib2.algorithm.morphology.table2d.Spur;
 import net.imglib2.algorithm.morphology.table2d.Thicken;
 import net.imglib2.algorithm.morphology.table2d.Thin;
+import net.imglib2.algorithm.morphology.table2d.Thin1;
+import net.imglib2.algorithm.morphology.table2d.Thin2;
 import net.imglib2.algorithm.morphology.table2d.Vbreak;
 import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImg;
 import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.LongArray;
+import net.imglib2.img.cell.CellImgFactory;
 import net.imglib2.type.logic.BitType;
 
 import org.junit.Test;
@@ -502,6 +514,57 @@ public class Table2dTest
 		assertImgEquals( expected, out );
 	}
 
+	@Test
+	public void testPackedMatchesNeighborhood()
+	{
+		// Rows longer than a word, and not aligned on words.
+		final Img< BitType > packed = randomImg( 150, 40 );
+		final Img< BitType > cells = copyToCells( packed );
+
+		assertImgEquals( Life.life( cells ), Life.life( packed ) );
+		assertImgEquals( Thin.thin( cells ), Thin.thin( packed ) );
+		assertImgEquals( Spur.spur( cells ), Spur.spur( packed ) );
+		assertImgEquals( Majority.majority( cells ), Majority.majority( packed ) );
+		assertImgEquals( Fill.fill( cells ), Fill.fill( packed ) );
+		assertImgEquals( Bridge.bridge( cells ), Bridge.bridge( packed ) );
+		assertImgEquals( Branchpoints.branchpoints( cells ), Branchpoints.branchpoints( packed ) );
+	}
+
+	@Test
+	public void testIterateUntilStable()
+	{
+		final ArrayImg< BitType, LongArray > packed = randomImg( 130, 70 );
+		Img< BitType > expected = copyToCells( packed );
+		long iterations = 0;
+		boolean changed = true;
+		while ( changed )
+		{
+			final Img< BitType > thinned = Thin.thin( expected );
+			changed = false;
+			final Cursor< BitType > cursor = thinned.cursor();
+			final RandomAccess< BitType > ra = expected.randomAccess();
+			while ( cursor.hasNext() )
+			{
+				cursor.fwd();
+				ra.setPosition( cursor );
+				changed |= cursor.get().get() != ra.get().get();
+			}
+			expected = thinned;
+			iterations++;
+		}
+
+		final ExecutorService service = Executors.newFixedThreadPool( 3 );
+		try
+		{
+			assertEquals( iterations, PackedTableOperations.iterate( packed, -1, service, new Thin1(), new Thin2() ) );
+		}
+		finally
+		{
+			service.shutdown();
+		}
+		assertImgEquals( expected, packed );
+	}
+
 	private Img< BitType > initImg( final boolean[] data, final long... dim )
 	{
 		final Img< BitType > img = ArrayImgs.bits( dim );
@@ -517,4 +580,39 @@ public class Table2dTest
 		for ( final BitType px : img )
 			assertEquals( px.get(), expected[ i++ ] );
 	}
+
+	private ArrayImg< BitType, LongArray > randomImg( final long... dim )
+	{
+		final ArrayImg< BitType, LongArray > img = ArrayImgs.bits( dim );
+		final Random random = new Random( 5l );
+		for ( final BitType px : img )
+			px.set( random.nextInt( 3 ) > 0 );
+		return img;
+	}
+
+	private Img< BitType > copyToCells( final Img< BitType > img )
+	{
+		final Img< BitType > cells = new CellImgFactory<>( new BitType(), 16 ).create( img );
+		final Cursor< BitType > cursor = cells.localizingCursor();
+		final RandomAccess< BitType > ra = img.randomAccess();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			ra.setPosition( cursor );
+			cursor.get().set( ra.get() );
+		}
+		return cells;
+	}
+
+	private void assertImgEquals( final Img< BitType > expected, final Img< BitType > img )
+	{
+		final Cursor< BitType > cursor = expected.localizingCursor();
+		final RandomAccess< BitType > ra = img.randomAccess();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			ra.setPosition( cursor );
+			assertEquals( cursor.get().get(), ra.get().get() );
+		}
+	}
 }
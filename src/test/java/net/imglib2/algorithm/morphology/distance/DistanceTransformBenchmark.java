@@ -0,0 +1,109 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.morphology.distance;
+
+import java.util.Random;
+
+import net.imglib2.algorithm.morphology.distance.DistanceTransform.DISTANCE_TYPE;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.planar.PlanarImgs;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.view.Views;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Compares the primitive array path of {@link DistanceTransform} (used for
+ * {@link net.imglib2.img.array.ArrayImg} and
+ * {@link net.imglib2.img.planar.PlanarImg}) against the generic
+ * {@link net.imglib2.view.composite.RealComposite} path (used for views).
+ */
+@State( Scope.Benchmark )
+public class DistanceTransformBenchmark
+{
+
+	private final long[] dims = { 100, 100, 100 };
+
+	private final double[] weights = { 1.0, 1.0, 1.0 };
+
+	private final Img< DoubleType > source = ArrayImgs.doubles( dims );
+
+	private final Img< DoubleType > targetArray = ArrayImgs.doubles( dims );
+
+	private final Img< FloatType > targetPlanar = PlanarImgs.floats( dims );
+
+	{
+		final Random rng = new Random( 100 );
+		source.forEach( s -> s.set( rng.nextDouble() < 0.01 ? 0.0 : 1e20 ) );
+	}
+
+	@Benchmark
+	public void primitiveArrayImg()
+	{
+		DistanceTransform.transform( source, targetArray, DISTANCE_TYPE.EUCLIDIAN, weights );
+	}
+
+	@Benchmark
+	public void primitivePlanarImg()
+	{
+		DistanceTransform.transform( source, targetPlanar, DISTANCE_TYPE.EUCLIDIAN, weights );
+	}
+
+	@Benchmark
+	public void composite()
+	{
+		DistanceTransform.transform( Views.interval( source, source ), Views.interval( targetArray, targetArray ), DISTANCE_TYPE.EUCLIDIAN, weights );
+	}
+
+	public static void main( String[] args ) throws RunnerException
+	{
+		Options opt = new OptionsBuilder()
+				.include( DistanceTransformBenchmark.class.getSimpleName() )
+				.forks( 1 )
+				.warmupIterations( 8 )
+				.measurementIterations( 8 )
+				.warmupTime( TimeValue.milliseconds( 100 ) )
+				.measurementTime( TimeValue.milliseconds( 100 ) )
+				.build();
+		new Runner( opt ).run();
+	}
+}
@@ -56,10 +56,16 @@ import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImg;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.img.basictypeaccess.array.DoubleArray;
+import net.imglib2.img.basictypeaccess.array.FloatArray;
 import net.imglib2.img.basictypeaccess.array.LongArray;
+import net.imglib2.img.planar.PlanarImg;
+import net.imglib2.img.planar.PlanarImgs;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.LongType;
 import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.IntervalIndexer;
 import net.imglib2.util.Intervals;
 import net.imglib2.util.Pair;
 import net.imglib2.view.Views;
@@ -123,6 +129,178 @@ public class DistanceTransformTest
 		testBinary( DISTANCE_TYPE.L1, DistanceTransformTest::calcL1Dist );
 	}
 
+	@Test
+	public void testBlockwise() throws InterruptedException, ExecutionException
+	{
+		for ( int numDimensions = minNumDimensions; numDimensions <= maxNumDimensions; ++numDimensions )
+		{
+			final long[] dim = LongStream.generate( () -> dimensionSize ).limit( numDimensions ).toArray();
+			final int[] blockSize = IntStream.range( 0, numDimensions ).map( d -> 2 + d % 3 ).toArray();
+			final double[] weights = IntStream.range( 1, numDimensions + 1 ).asDoubleStream().map( w -> w * 1e-2 ).toArray();
+
+			final ArrayImg< DoubleType, DoubleArray > source = ArrayImgs.doubles( dim );
+			for ( final DoubleType s : source )
+			{
+				s.set( rng.nextDouble() );
+			}
+
+			for ( final DISTANCE_TYPE dt : DISTANCE_TYPE.values() )
+			{
+				final ArrayImg< DoubleType, DoubleArray > ref = ArrayImgs.doubles( dim );
+				final ArrayImg< DoubleType, DoubleArray > blockwise = ArrayImgs.doubles( dim );
+				DistanceTransform.transform( source, ref, dt, es, 3 * nThreads, weights );
+				DistanceTransform.transformBlockwise( source, blockwise, dt, blockSize, es, 3 * nThreads, weights );
+				compareRAIofRealType( ref, blockwise, 0.0 );
+			}
+
+			final ArrayImg< BitType, LongArray > mask = ArrayImgs.bits( dim );
+			for ( final BitType m : mask )
+			{
+				m.set( rng.nextDouble() < 0.1 );
+			}
+			final ArrayImg< DoubleType, DoubleArray > ref = ArrayImgs.doubles( dim );
+			final ArrayImg< DoubleType, DoubleArray > blockwise = ArrayImgs.doubles( dim );
+			DistanceTransform.binaryTransform( mask, ref, DISTANCE_TYPE.EUCLIDIAN, es, nThreads, weights );
+			DistanceTransform.binaryTransformBlockwise( mask, blockwise, DISTANCE_TYPE.EUCLIDIAN, blockSize, es, nThreads, weights );
+			compareRAIofRealType( ref, blockwise, 0.0 );
+		}
+	}
+
+	@Test
+	public void testPrimitiveLines() throws InterruptedException, ExecutionException
+	{
+		for ( int numDimensions = minNumDimensions; numDimensions <= maxNumDimensions; ++numDimensions )
+		{
+			final long[] dim = LongStream.range( 0, numDimensions ).map( d -> dimensionSize - d ).toArray();
+			final double[] weights = IntStream.range( 1, numDimensions + 1 ).asDoubleStream().map( w -> w * 1e-2 ).toArray();
+
+			final ArrayImg< DoubleType, DoubleArray > source = ArrayImgs.doubles( dim );
+			for ( final DoubleType s : source )
+			{
+				s.set( rng.nextDouble() );
+			}
+
+			// views are not recognized as primitive arrays
+			final ArrayImg< DoubleType, DoubleArray > ref = ArrayImgs.doubles( dim );
+			DistanceTransform.transform( Views.interval( source, source ), Views.interval( ref, ref ), DISTANCE_TYPE.EUCLIDIAN, weights );
+
+			final ArrayImg< DoubleType, DoubleArray > array = ArrayImgs.doubles( dim );
+			final PlanarImg< FloatType, FloatArray > planar = PlanarImgs.floats( dim );
+			final PlanarImg< FloatType, FloatArray > planarTmp = PlanarImgs.floats( dim );
+			final ArrayImg< FloatType, FloatArray > planarRef = ArrayImgs.floats( dim );
+			DistanceTransform.transform( source, array, DISTANCE_TYPE.EUCLIDIAN, weights );
+			DistanceTransform.transform( source, planar, DISTANCE_TYPE.EUCLIDIAN, es, 3 * nThreads, weights );
+			DistanceTransform.transform( source, planarTmp, planarTmp, DISTANCE_TYPE.EUCLIDIAN, weights );
+			DistanceTransform.transform( Views.interval( source, source ), Views.interval( planarRef, planarRef ), DISTANCE_TYPE.EUCLIDIAN, weights );
+
+			compareRAIofRealType( ref, array, 0.0 );
+			compareRAIofRealType( planarRef, planar, 0.0 );
+			compareRAIofRealType( planarRef, planarTmp, 0.0 );
+		}
+	}
+
+	@Test
+	public void testSignedBinaryEuclidian() throws InterruptedException, ExecutionException
+	{
+		testSignedBinary( DISTANCE_TYPE.EUCLIDIAN, DistanceTransformTest::calcSquaredEuclidianDist );
+	}
+
+	@Test
+	public void testSignedBinaryL1() throws InterruptedException, ExecutionException
+	{
+		testSignedBinary( DISTANCE_TYPE.L1, DistanceTransformTest::calcL1Dist );
+	}
+
+	@Test
+	public void testBinaryFeatureEuclidian() throws InterruptedException, ExecutionException
+	{
+		testBinaryFeature( DISTANCE_TYPE.EUCLIDIAN, DistanceTransformTest::calcSquaredEuclidianDist );
+	}
+
+	@Test
+	public void testBinaryFeatureL1() throws InterruptedException, ExecutionException
+	{
+		testBinaryFeature( DISTANCE_TYPE.L1, DistanceTransformTest::calcL1Dist );
+	}
+
+	private void testSignedBinary( final DISTANCE_TYPE dt, final DistanceCalculator distanceCalculator ) throws InterruptedException, ExecutionException
+	{
+		for ( int numDimensions = minNumDimensions; numDimensions <= maxNumDimensions; ++numDimensions )
+		{
+			final long[] dim = LongStream.generate( () -> dimensionSize ).limit( numDimensions ).toArray();
+			final double[] weights = IntStream.range( 1, numDimensions + 1 ).asDoubleStream().toArray();
+			final ArrayImg< BitType, LongArray > mask = createRandomMask( dim );
+
+			final ArrayImg< DoubleType, DoubleArray > tmp = ArrayImgs.doubles( dim );
+			final ArrayImg< DoubleType, DoubleArray > signed = ArrayImgs.doubles( dim );
+			final ArrayImg< DoubleType, DoubleArray > signedParallel = ArrayImgs.doubles( dim );
+			DistanceTransform.signedBinaryTransform( mask, tmp, signed, dt, weights );
+			DistanceTransform.signedBinaryTransform( mask, tmp, signedParallel, dt, es, 3 * nThreads, weights );
+
+			for ( final Cursor< DoubleType > c = signed.localizingCursor(); c.hasNext(); )
+			{
+				final double actual = c.next().getRealDouble();
+				final boolean isForeground = getAt( mask, c ).get();
+				double expected = Double.POSITIVE_INFINITY;
+				for ( final Cursor< BitType > m = mask.localizingCursor(); m.hasNext(); )
+				{
+					if ( m.next().get() != isForeground )
+						expected = Math.min( expected, distanceCalculator.dist( c, m, weights ) );
+				}
+				Assert.assertEquals( isForeground ? -expected : expected, actual, 1e-10 );
+			}
+			compareRAIofRealType( signed, signedParallel, 0.0 );
+		}
+	}
+
+	private void testBinaryFeature( final DISTANCE_TYPE dt, final DistanceCalculator distanceCalculator ) throws InterruptedException, ExecutionException
+	{
+		for ( int numDimensions = minNumDimensions; numDimensions <= maxNumDimensions; ++numDimensions )
+		{
+			final long[] dim = LongStream.generate( () -> dimensionSize ).limit( numDimensions ).toArray();
+			final double[] weights = IntStream.range( 1, numDimensions + 1 ).asDoubleStream().toArray();
+			final ArrayImg< BitType, LongArray > mask = createRandomMask( dim );
+
+			final ArrayImg< DoubleType, DoubleArray > dist = ArrayImgs.doubles( dim );
+			final ArrayImg< DoubleType, DoubleArray > distReference = ArrayImgs.doubles( dim );
+			final ArrayImg< LongType, LongArray > features = ArrayImgs.longs( dim );
+			final ArrayImg< DoubleType, DoubleArray > distParallel = ArrayImgs.doubles( dim );
+			final ArrayImg< LongType, LongArray > featuresParallel = ArrayImgs.longs( dim );
+			DistanceTransform.binaryTransform( mask, distReference, dt, weights );
+			DistanceTransform.binaryFeatureTransform( mask, dist, features, dt, weights );
+			DistanceTransform.binaryFeatureTransform( mask, distParallel, featuresParallel, dt, es, 3 * nThreads, weights );
+
+			compareRAIofRealType( distReference, dist, 0.0 );
+			compareRAIofRealType( distReference, distParallel, 0.0 );
+			compareRAIofRealType( features, featuresParallel, 0.0 );
+
+			final Point feature = new Point( numDimensions );
+			final long[] featurePosition = new long[ numDimensions ];
+			final Cursor< DoubleType > d = dist.localizingCursor();
+			for ( final LongType f : features )
+			{
+				final double distance = d.next().getRealDouble();
+				IntervalIndexer.indexToPosition( f.get(), dim, featurePosition );
+				feature.setPosition( featurePosition );
+				Assert.assertTrue( getAt( mask, feature ).get() );
+				Assert.assertEquals( distanceCalculator.dist( d, feature, weights ), distance, 0.0 );
+			}
+		}
+	}
+
+	private ArrayImg< BitType, LongArray > createRandomMask( final long[] dim )
+	{
+		final ArrayImg< BitType, LongArray > mask = ArrayImgs.bits( dim );
+		for ( final BitType m : mask )
+		{
+			m.set( rng.nextDouble() < 0.2 );
+		}
+		// make sure that there is at least one sample of each kind
+		getAt( mask, new Point( new long[ dim.length ] ) ).set( true );
+		getAt( mask, new Point( Arrays.stream( dim ).map( d -> d - 1 ).toArray() ) ).set( false );
+		return mask;
+	}
+
 	private void testBinary( final DISTANCE_TYPE dt, final DistanceCalculator distanceCalculator )
 	{
 		for ( int numDimensions = minNumDimensions; numDimensions <= maxNumDimensions; ++numDimensions )
@@ -34,11 +34,13 @@
 
 package net.imglib2.algorithm.util;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
@@ -48,6 +50,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import gnu.trove.set.hash.TDoubleHashSet;
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.gauss3.Gauss3;
@@ -124,6 +128,33 @@ public class ParallelizeOverBlocksTest
 		}
 	}
 
+	@Test
+	public void testBlockListSplit() throws InterruptedException, ExecutionException
+	{
+		for ( final int numBlocks : new int[] { 1, 2, 5, 7, 12, 13 } )
+		{
+			final List< Interval > blocks = new ArrayList<>();
+			for ( int i = 0; i < numBlocks; ++i )
+				blocks.add( new FinalInterval( new long[] { i }, new long[] { i } ) );
+			for ( final int numTasks : new int[] { 1, 2, 3, 5, 12, 20 } )
+			{
+				final List< Future< List< Interval > > > futures = ParallelizeOverBlocks.parallelize( block -> block, blocks, es, numTasks );
+				Assert.assertTrue( futures.size() <= numTasks );
+				final List< Interval > results = new ArrayList<>();
+				for ( final Future< List< Interval > > future : futures )
+				{
+					final List< Interval > taskResults = future.get();
+					Assert.assertFalse( taskResults.isEmpty() );
+					results.addAll( taskResults );
+				}
+				// every block exactly once and in order
+				Assert.assertEquals( blocks.size(), results.size() );
+				for ( int i = 0; i < blocks.size(); ++i )
+					Assert.assertSame( blocks.get( i ), results.get( i ) );
+			}
+		}
+	}
+
 	private < T > List< T > test(
 			final BiFunction< RandomAccessible< DoubleType >, RandomAccessibleInterval< DoubleType >, T > func )
 			throws InterruptedException, ExecutionException
@@ -0,0 +1,125 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.algorithm.util.unionfind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentUnionFindTest
+{
+
+	private final int size = 10000;
+
+	private final int numPairs = 7000;
+
+	private final int numThreads = 8;
+
+	@Test
+	public void testConsistentWithSerial() throws InterruptedException, ExecutionException
+	{
+		final Random rng = new Random( 100 );
+		final int[] pairs = new int[ 2 * numPairs ];
+		for ( int i = 0; i < pairs.length; ++i )
+			pairs[ i ] = rng.nextInt( size );
+
+		final IntArrayUnionFind expected = new IntArrayUnionFind( size );
+		for ( int i = 0; i < pairs.length; i += 2 )
+			expected.join( expected.findRoot( pairs[ i ] ), expected.findRoot( pairs[ i + 1 ] ) );
+
+		final ExecutorService es = Executors.newFixedThreadPool( numThreads );
+		for ( final UnionFind uf : new UnionFind[] { new ConcurrentIntArrayUnionFind( size ), new ConcurrentLongArrayUnionFind( size ) } )
+		{
+			final List< Future< ? > > futures = new ArrayList<>();
+			for ( int t = 0; t < numThreads; ++t )
+			{
+				final int offset = t;
+				futures.add( es.submit( () -> {
+					for ( int i = 2 * offset; i < pairs.length; i += 2 * numThreads )
+						uf.join( pairs[ i ], pairs[ i + 1 ] );
+				} ) );
+			}
+			for ( final Future< ? > future : futures )
+				future.get();
+
+			Assert.assertEquals( expected.setCount(), uf.setCount() );
+			Assert.assertEquals( expected.size(), uf.size() );
+			// smallest id is root for default comparator
+			for ( int i = 0; i < size; ++i )
+				Assert.assertEquals( expected.findRoot( i ), uf.findRoot( i ) );
+		}
+		es.shutdown();
+	}
+
+	@Test
+	public void testLongAcrossPageBoundary() throws InterruptedException, ExecutionException
+	{
+		// pages of ConcurrentLongArrayUnionFind hold 2^24 entries
+		final long boundary = 1L << 24;
+		final int radius = 64;
+		final long size = boundary + radius;
+		final ConcurrentLongArrayUnionFind uf = new ConcurrentLongArrayUnionFind( size );
+
+		// chain boundary - radius ... size - 1 across both pages concurrently
+		final ExecutorService es = Executors.newFixedThreadPool( numThreads );
+		final List< Future< ? > > futures = new ArrayList<>();
+		for ( int t = 0; t < numThreads; ++t )
+		{
+			final int offset = t;
+			futures.add( es.submit( () -> {
+				for ( long id = boundary - radius + offset; id < size - 1; id += numThreads )
+					uf.join( id + 1, id );
+			} ) );
+		}
+		for ( final Future< ? > future : futures )
+			future.get();
+		es.shutdown();
+
+		Assert.assertEquals( size, uf.size() );
+		Assert.assertEquals( size - 2 * radius + 1, uf.setCount() );
+		for ( long id = boundary - radius; id < size; ++id )
+			Assert.assertEquals( boundary - radius, uf.findRoot( id ) );
+		Assert.assertEquals( boundary - radius - 1, uf.findRoot( boundary - radius - 1 ) );
+		Assert.assertEquals( 0, uf.findRoot( 0 ) );
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2016 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.algorithm.util.unionfind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Serial implementations only depend on the input and are benchmarked once.
+ * Concurrent implementations are benchmarked for each {@code numThreads}.
+ */
+@State( Scope.Benchmark )
+public class UnionFindBenchmark
+{
+
+	private final int size = 1 << 20;
+
+	private final int[] pairs = new int[ 2 * size ];
+
+	{
+		final Random rng = new Random( 100 );
+		for ( int i = 0; i < pairs.length; ++i )
+			pairs[ i ] = rng.nextInt( size );
+	}
+
+	@State( Scope.Benchmark )
+	public static class Threads
+	{
+
+		@Param( { "1", "2", "4", "8", "16", "32", "64" } )
+		private int numThreads;
+
+		private ExecutorService es;
+
+		@Setup
+		public void setup()
+		{
+			es = Executors.newFixedThreadPool( numThreads );
+		}
+
+		@TearDown
+		public void tearDown()
+		{
+			es.shutdown();
+		}
+	}
+
+	@Benchmark
+	public long intArrayUnionFind()
+	{
+		return joinAll( new IntArrayUnionFind( size ), 0, size );
+	}
+
+	@Benchmark
+	public long intArrayRankedUnionFind()
+	{
+		return joinAll( new IntArrayRankedUnionFind( size ), 0, size );
+	}
+
+	@Benchmark
+	public long longHashMapUnionFind()
+	{
+		return joinAll( new LongHashMapUnionFind(), 0, size );
+	}
+
+	@Benchmark
+	public long concurrentIntArrayUnionFind( final Threads threads ) throws InterruptedException, ExecutionException
+	{
+		return joinAllParallel( new ConcurrentIntArrayUnionFind( size ), threads );
+	}
+
+	@Benchmark
+	public long concurrentLongArrayUnionFind( final Threads threads ) throws InterruptedException, ExecutionException
+	{
+		return joinAllParallel( new ConcurrentLongArrayUnionFind( size ), threads );
+	}
+
+	private long joinAllParallel( final UnionFind uf, final Threads threads ) throws InterruptedException, ExecutionException
+	{
+		final int taskSize = ( size + threads.numThreads - 1 ) / threads.numThreads;
+		final List< Future< ? > > futures = new ArrayList<>();
+		for ( int start = 0; start < size; start += taskSize )
+		{
+			final int from = start;
+			final int to = Math.min( start + taskSize, size );
+			futures.add( threads.es.submit( () -> joinAll( uf, from, to ) ) );
+		}
+		for ( final Future< ? > future : futures )
+			future.get();
+		return uf.setCount();
+	}
+
+	private long joinAll( final UnionFind uf, final int from, final int to )
+	{
+		for ( int i = from; i < to; ++i )
+		{
+			final long r1 = uf.findRoot( pairs[ 2 * i ] );
+			final long r2 = uf.findRoot( pairs[ 2 * i + 1 ] );
+			if ( r1 != r2 )
+				uf.join( r1, r2 );
+		}
+		return uf.setCount();
+	}
+
+	public static void main( final String[] args ) throws RunnerException
+	{
+		final Options opt = new OptionsBuilder()
+				.include( UnionFindBenchmark.class.getSimpleName() )
+				.forks( 1 )
+				.warmupIterations( 4 )
+				.measurementIterations( 8 )
+				.warmupTime( TimeValue.milliseconds( 500 ) )
+				.measurementTime( TimeValue.milliseconds( 500 ) )
+				.build();
+		new Runner( opt ).run();
+	}
+}